@@ -0,0 +1,325 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Heap usage of the code running between watch creation and {@link #close()}. Peak heap is
+ * the maximum of heap used before garbage collections and of heap used sampled every few
+ * milliseconds, peak live heap is the maximum of heap used after garbage collections.
+ * Allocated bytes are counted as heap growth between garbage collections: it is exact for
+ * generational collectors (Serial, Parallel, G1), but not for concurrent ones (ZGC,
+ * Shenandoah). Baseline heap is heap used at creation, call {@link System#gc()} before
+ * creating the watch to make it equal to the live heap.
+ * @since 1.10
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class HeapWatch implements NotificationListener, AutoCloseable {
+
+    /**
+     * Heap sampling interval in milliseconds.
+     */
+    private static final long SAMPLING = 5;
+
+    /**
+     * Names of the heap memory pools.
+     */
+    private final Set<String> pools;
+
+    /**
+     * Garbage collectors.
+     */
+    private final List<GarbageCollectorMXBean> collectors;
+
+    /**
+     * Number of collections before the watch.
+     */
+    private final long collections;
+
+    /**
+     * Heap sampler.
+     */
+    private final Thread sampler;
+
+    /**
+     * Start time in nanoseconds.
+     */
+    private final long start;
+
+    /**
+     * Heap used at the watch start.
+     */
+    private final long baseline;
+
+    /**
+     * Heap used after the last collection.
+     */
+    private long last;
+
+    /**
+     * Allocated bytes.
+     */
+    private long allocated;
+
+    /**
+     * Peak heap used.
+     */
+    private long peak;
+
+    /**
+     * Peak heap used after collections.
+     */
+    private long live;
+
+    /**
+     * Number of handled collections.
+     */
+    private long handled;
+
+    /**
+     * Number of pauses.
+     */
+    private long pauses;
+
+    /**
+     * Total pauses time in milliseconds.
+     */
+    private long paused;
+
+    /**
+     * Longest pause in milliseconds.
+     */
+    private long longest;
+
+    /**
+     * Elapsed time in nanoseconds, set on close.
+     */
+    private long elapsed;
+
+    /**
+     * Ctor: starts watching.
+     */
+    public HeapWatch() {
+        this.pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .map(MemoryPoolMXBean::getName)
+            .collect(Collectors.toSet());
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        this.collections = HeapWatch.collections(this.collectors);
+        this.baseline = HeapWatch.used();
+        this.last = this.baseline;
+        this.peak = this.baseline;
+        this.live = this.baseline;
+        for (final GarbageCollectorMXBean bean : this.collectors) {
+            if (bean instanceof NotificationEmitter) {
+                ((NotificationEmitter) bean).addNotificationListener(this, null, null);
+            }
+        }
+        this.sampler = new Thread(this::sample, "heap-watch");
+        this.sampler.setDaemon(true);
+        this.sampler.start();
+        this.start = System.nanoTime();
+    }
+
+    @Override
+    public void handleNotification(final Notification notification, final Object handback) {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+            .equals(notification.getType())) {
+            final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                .from((CompositeData) notification.getUserData());
+            final long before = this.heap(info.getGcInfo().getMemoryUsageBeforeGc());
+            final long after = this.heap(info.getGcInfo().getMemoryUsageAfterGc());
+            final boolean pause = !info.getGcAction().toLowerCase(Locale.US).contains("concurrent")
+                && !info.getGcName().contains("Cycles");
+            synchronized (this) {
+                this.allocated = this.allocated + Math.max(0, before - this.last);
+                this.last = after;
+                this.peak = Math.max(this.peak, before);
+                this.live = Math.max(this.live, after);
+                this.handled = this.handled + 1;
+                if (pause) {
+                    this.pauses = this.pauses + 1;
+                    this.paused = this.paused + info.getGcInfo().getDuration();
+                    this.longest = Math.max(this.longest, info.getGcInfo().getDuration());
+                }
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Stops watching: waits up to a second for the notifications of the collections,
+     * which happened while the watch was running. If interrupted, stops waiting, keeps
+     * the usage collected so far and restores the interrupted status of the thread.
+     */
+    @Override
+    public void close() {
+        final long end = System.nanoTime();
+        this.sampler.interrupt();
+        try {
+            this.sampler.join();
+            this.await();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            final long used = HeapWatch.used();
+            this.allocated = this.allocated + Math.max(0, used - this.last);
+            this.peak = Math.max(this.peak, used);
+            this.elapsed = end - this.start;
+        }
+        for (final GarbageCollectorMXBean bean : this.collectors) {
+            if (bean instanceof NotificationEmitter) {
+                try {
+                    ((NotificationEmitter) bean).removeNotificationListener(this);
+                } catch (final ListenerNotFoundException ignored) {
+                    // listener was not added
+                }
+            }
+        }
+    }
+
+    /**
+     * Elapsed time.
+     * @return Duration
+     */
+    public synchronized Duration elapsed() {
+        return Duration.ofNanos(this.elapsed);
+    }
+
+    /**
+     * Heap used at the watch start.
+     * @return Bytes
+     */
+    public long baseline() {
+        return this.baseline;
+    }
+
+    /**
+     * Peak heap used.
+     * @return Bytes
+     */
+    public synchronized long peak() {
+        return this.peak;
+    }
+
+    /**
+     * Peak heap used after collections.
+     * @return Bytes
+     */
+    public synchronized long live() {
+        return this.live;
+    }
+
+    /**
+     * Allocated bytes.
+     * @return Bytes
+     */
+    public synchronized long allocated() {
+        return this.allocated;
+    }
+
+    /**
+     * Number of garbage collection pauses.
+     * @return Count
+     */
+    public synchronized long pauses() {
+        return this.pauses;
+    }
+
+    /**
+     * Total time of garbage collection pauses.
+     * @return Duration
+     */
+    public synchronized Duration paused() {
+        return Duration.ofMillis(this.paused);
+    }
+
+    /**
+     * Longest garbage collection pause.
+     * @return Duration
+     */
+    public synchronized Duration longest() {
+        return Duration.ofMillis(this.longest);
+    }
+
+    /**
+     * Waits up to a second for the notifications of the collections, which happened
+     * while the watch was running.
+     * @throws InterruptedException If interrupted
+     */
+    private synchronized void await() throws InterruptedException {
+        final long expected = HeapWatch.collections(this.collectors) - this.collections;
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (this.handled < expected && System.nanoTime() < deadline) {
+            this.wait(HeapWatch.SAMPLING);
+        }
+    }
+
+    /**
+     * Samples heap used until interrupted.
+     */
+    private void sample() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final long used = HeapWatch.used();
+                synchronized (this) {
+                    this.peak = Math.max(this.peak, used);
+                }
+                Thread.sleep(HeapWatch.SAMPLING);
+            }
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Heap used from memory pools usage.
+     * @param usage Usage by memory pool name
+     * @return Bytes
+     */
+    private long heap(final Map<String, MemoryUsage> usage) {
+        return usage.entrySet().stream()
+            .filter(entry -> this.pools.contains(entry.getKey()))
+            .mapToLong(entry -> entry.getValue().getUsed())
+            .sum();
+    }
+
+    /**
+     * Heap used now.
+     * @return Bytes
+     */
+    private static long used() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Total number of collections.
+     * @param beans Garbage collectors
+     * @return Count
+     */
+    private static long collections(final List<GarbageCollectorMXBean> beans) {
+        return beans.stream().mapToLong(bean -> Math.max(0, bean.getCollectionCount())).sum();
+    }
+}
@@ -11,17 +11,24 @@ import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.fs.FileStorage;
 import com.artipie.asto.memory.BenchmarkStorage;
 import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.asto.AstoMeteredStorage;
 import hu.akarnokd.rxjava2.interop.CompletableInterop;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -32,12 +39,16 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 /**
- * Benchmark for {@link RPM}.
+ * Benchmark for {@link RPM}. Storage operations are delayed by {@link #latency} milliseconds
+ * to see how the update time scales on the remote storages, number of the storage round
+ * trips and transferred bytes of the single update are reported as {@link StorageCalls}
+ * secondary results.
  * @since 1.4
  * @checkstyle MagicNumberCheck (500 lines)
  * @checkstyle DesignForExtensionCheck (500 lines)
  * @checkstyle JavadocMethodCheck (500 lines)
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
  */
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
@@ -51,29 +62,45 @@ public class RpmBench {
      */
     private static final String BENCH_DIR = System.getenv("BENCH_DIR");
 
+    /**
+     * Latency of each storage operation in milliseconds: 0 for the in-memory storage,
+     * 5 and 20 are close to the S3 latency within and across regions.
+     */
+    @Param({"0", "5", "20"})
+    public int latency;
+
     /**
      * Repository source storage.
      */
     private InMemoryStorage readonly;
 
     @Setup
-    public void setup() {
+    public void setup() throws IOException {
+        final Path dir;
         if (RpmBench.BENCH_DIR == null) {
-            throw new IllegalStateException("BENCH_DIR environment variable must be set");
+            dir = Files.createTempDirectory("rpm-bench");
+            new RpmCorpus().packages(dir);
+        } else {
+            dir = Paths.get(RpmBench.BENCH_DIR);
         }
         this.readonly = new InMemoryStorage();
-        final Storage src = new FileStorage(Paths.get(RpmBench.BENCH_DIR));
+        final Storage src = new FileStorage(dir);
         final BlockingStorage bsto = new BlockingStorage(src);
         bsto.list(new Key.From("repodata")).forEach(key -> bsto.delete(key));
         RpmBench.sync(src, this.readonly);
     }
 
     @Benchmark
-    public void run(final Blackhole bhl) {
-        new Rpm(new BenchmarkStorage(this.readonly))
-            .batchUpdate(Key.ROOT)
+    public void run(final Blackhole bhl, final StorageCalls calls) {
+        final AstoMeteredStorage.Stats stats = new AstoMeteredStorage.Stats();
+        new Rpm(
+            new AstoMeteredStorage(
+                new BenchmarkStorage(this.readonly), stats, Duration.ofMillis(this.latency)
+            )
+        ).batchUpdate(Key.ROOT)
             .to(CompletableInterop.await())
             .toCompletableFuture().join();
+        calls.update(stats);
     }
 
     /**
@@ -107,4 +134,90 @@ public class RpmBench {
             ).toList().map(ignore -> true).to(SingleInterop.get())
                 .toCompletableFuture().join();
     }
+
+    /**
+     * Storage operations of the last repository update.
+     * @since 1.10
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StorageCalls {
+
+        /**
+         * Statistics of the last update.
+         */
+        private AstoMeteredStorage.Stats stats = new AstoMeteredStorage.Stats();
+
+        /**
+         * Number of the storage round trips per update.
+         * @return Number of calls
+         */
+        public long roundTrips() {
+            return this.stats.total();
+        }
+
+        /**
+         * Number of the list calls per update.
+         * @return Number of calls
+         */
+        public long lists() {
+            return this.stats.calls(AstoMeteredStorage.Operation.LIST);
+        }
+
+        /**
+         * Number of the value calls per update.
+         * @return Number of calls
+         */
+        public long values() {
+            return this.stats.calls(AstoMeteredStorage.Operation.VALUE);
+        }
+
+        /**
+         * Number of the save calls per update.
+         * @return Number of calls
+         */
+        public long saves() {
+            return this.stats.calls(AstoMeteredStorage.Operation.SAVE);
+        }
+
+        /**
+         * Number of the move calls per update.
+         * @return Number of calls
+         */
+        public long moves() {
+            return this.stats.calls(AstoMeteredStorage.Operation.MOVE);
+        }
+
+        /**
+         * Number of the delete calls per update.
+         * @return Number of calls
+         */
+        public long deletes() {
+            return this.stats.calls(AstoMeteredStorage.Operation.DELETE);
+        }
+
+        /**
+         * Number of the bytes read per update.
+         * @return Bytes count
+         */
+        public long bytesRead() {
+            return this.stats.read();
+        }
+
+        /**
+         * Number of the bytes written per update.
+         * @return Bytes count
+         */
+        public long bytesWritten() {
+            return this.stats.written();
+        }
+
+        /**
+         * Replaces statistics with the last update ones.
+         * @param last Statistics of the last update
+         */
+        void update(final AstoMeteredStorage.Stats last) {
+            this.stats = last;
+        }
+    }
 }
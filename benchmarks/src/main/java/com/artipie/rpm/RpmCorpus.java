@@ -0,0 +1,602 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm;
+
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlRepomd;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.stream.XMLStreamException;
+import org.redline_rpm.Builder;
+import org.redline_rpm.changelog.ChangelogParseException;
+import org.redline_rpm.header.Architecture;
+import org.redline_rpm.header.Os;
+import org.redline_rpm.header.RpmType;
+
+/**
+ * Synthetic corpus of the valid RPM packages for the benchmarks. Packages are built with
+ * redline {@link Builder}, the number of the files, provides, requires and changelog entries
+ * of each package follow log-normal distributions with long tails, like in the real
+ * repositories: most of the packages are small, but some of them have thousands of files
+ * and hundreds of changelog entries. Package is generated from the corpus seed and its
+ * index only, so the same seed always gives the same packages (up to the build time) for
+ * any corpus size.
+ * <p>
+ * Corpus can be generated from the command line:
+ * {@code java -cp benchmarks.jar com.artipie.rpm.RpmCorpus <dir> <packages> [seed] [added]},
+ * see {@link #main(String...)}.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class RpmCorpus {
+
+    /**
+     * Environment variable with the number of the packages to generate.
+     */
+    public static final String PACKAGES = "BENCH_PACKAGES";
+
+    /**
+     * Environment variable with the corpus seed.
+     */
+    public static final String SEED = "BENCH_SEED";
+
+    /**
+     * Changelog date format.
+     */
+    private static final String DATE = "EEE MMM dd yyyy";
+
+    /**
+     * Maximum number of the files in the package.
+     */
+    private static final int MAX_FILES = 5000;
+
+    /**
+     * Maximum number of the provides and requires of the package.
+     */
+    private static final int MAX_DEPS = 300;
+
+    /**
+     * Maximum number of the changelog entries.
+     */
+    private static final int MAX_CHANGES = 500;
+
+    /**
+     * Number of the packages appended to metadata at once.
+     */
+    private static final int BATCH = 5000;
+
+    /**
+     * Corpus seed.
+     */
+    private final long seed;
+
+    /**
+     * Number of the packages.
+     */
+    private final int size;
+
+    /**
+     * Median number of the files in the package.
+     */
+    private final int files;
+
+    /**
+     * Ctor, which reads the number of the packages and the seed from the
+     * {@link #PACKAGES} and {@link #SEED} environment variables, 100 packages and
+     * seed 1 are used by default.
+     */
+    public RpmCorpus() {
+        this(
+            Long.parseLong(RpmCorpus.env(RpmCorpus.SEED, "1")),
+            Integer.parseInt(RpmCorpus.env(RpmCorpus.PACKAGES, "100"))
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param seed Corpus seed
+     * @param size Number of the packages
+     */
+    public RpmCorpus(final long seed, final int size) {
+        this(seed, size, 20);
+    }
+
+    /**
+     * Ctor.
+     * @param seed Corpus seed
+     * @param size Number of the packages
+     * @param files Median number of the files in the package
+     */
+    public RpmCorpus(final long seed, final int size, final int files) {
+        this.seed = seed;
+        this.size = size;
+        this.files = files;
+    }
+
+    /**
+     * Writes repository: all the packages and matching gzipped metadata with
+     * {@code repomd.xml} in {@code repodata} directory, metadata files are named by
+     * {@link StandardNamingPolicy#PLAIN} policy.
+     * @param dir Repository directory
+     * @throws IOException On error
+     */
+    public void repository(final Path dir) throws IOException {
+        this.packages(dir);
+        final Path repodata = Files.createDirectories(dir.resolve("repodata"));
+        final Path work = Files.createTempDirectory("rpm-corpus-xml");
+        try {
+            RpmCorpus.index(dir, work);
+            try (XmlRepomd repomd = new XmlRepomd(repodata.resolve("repomd.xml"))) {
+                repomd.begin(System.currentTimeMillis() / 1000);
+                for (final XmlPackage type : new XmlPackage.Stream(true).get()
+                    .collect(Collectors.toList())) {
+                    final Path xml = work.resolve(RpmCorpus.xml(type));
+                    final String name = StandardNamingPolicy.PLAIN.fullName(type, "");
+                    final Path gzip = dir.resolve(name);
+                    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+                        Files.copy(xml, out);
+                    }
+                    try (XmlRepomd.Data data = repomd.beginData(type.lowercase())) {
+                        data.gzipChecksum(new FileChecksum(gzip, Digest.SHA256));
+                        data.openChecksum(new FileChecksum(xml, Digest.SHA256));
+                        data.location(name);
+                        data.gzipSize(Files.size(gzip));
+                        data.openSize(Files.size(xml));
+                    }
+                }
+            }
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        } finally {
+            RpmCorpus.delete(work);
+        }
+    }
+
+    /**
+     * Writes unpacked metadata files {@code primary.xml}, {@code other.xml} and
+     * {@code filelists.xml} of the first packages and the last {@code added} packages,
+     * which are not in the metadata, to the directory.
+     * @param dir Directory
+     * @param added Number of the packages, which are not in the metadata
+     * @throws IOException On error
+     */
+    public void metadata(final Path dir, final int added) throws IOException {
+        final Path work = Files.createTempDirectory("rpm-corpus");
+        try {
+            this.packages(work, 0, this.size - added);
+            Files.createDirectories(dir);
+            RpmCorpus.index(work, dir);
+        } finally {
+            RpmCorpus.delete(work);
+        }
+        this.packages(dir, this.size - added, this.size);
+    }
+
+    /**
+     * Writes all the packages to the directory.
+     * @param dir Directory
+     * @throws IOException On error
+     */
+    public void packages(final Path dir) throws IOException {
+        this.packages(dir, 0, this.size);
+    }
+
+    /**
+     * Writes packages with indexes from the range to the directory.
+     * @param dir Directory
+     * @param from First package index, inclusive
+     * @param until Last package index, exclusive
+     * @throws IOException On error
+     */
+    public void packages(final Path dir, final int from, final int until) throws IOException {
+        Files.createDirectories(dir);
+        final Path tmp = Files.createTempDirectory("rpm-corpus-src");
+        try {
+            for (int idx = from; idx < until; idx = idx + 1) {
+                this.build(dir, tmp, idx);
+            }
+        } finally {
+            RpmCorpus.delete(tmp);
+        }
+    }
+
+    /**
+     * Generates packages in memory.
+     * @return Packages content
+     * @throws IOException On error
+     */
+    public List<byte[]> contents() throws IOException {
+        final Path dir = Files.createTempDirectory("rpm-corpus-pkg");
+        final List<byte[]> res = new ArrayList<>(this.size);
+        try {
+            this.packages(dir);
+            for (final Path rpm : RpmCorpus.rpms(dir)) {
+                res.add(Files.readAllBytes(rpm));
+            }
+        } finally {
+            RpmCorpus.delete(dir);
+        }
+        return res;
+    }
+
+    /**
+     * Generates packages with parsed headers, sizes and checksums in memory, so that
+     * metadata can be written without reading the files.
+     * @return Packages metadata
+     * @throws IOException On error
+     */
+    public List<Package.Meta> metas() throws IOException {
+        final Path dir = Files.createTempDirectory("rpm-corpus-meta");
+        final List<Package.Meta> res = new ArrayList<>(this.size);
+        try {
+            this.packages(dir);
+            for (final Path rpm : RpmCorpus.rpms(dir)) {
+                final byte[] bytes = Files.readAllBytes(rpm);
+                res.add(
+                    new RpmMetadata.RpmItem(
+                        new FilePackageHeader(new ByteArrayInputStream(bytes)).header(),
+                        bytes.length, Hashing.sha256().hashBytes(bytes).toString(),
+                        rpm.getFileName().toString()
+                    )
+                );
+            }
+        } finally {
+            RpmCorpus.delete(dir);
+        }
+        return res;
+    }
+
+    /**
+     * Generates unpacked metadata of the packages in memory.
+     * @return Metadata content by type
+     * @throws IOException On error
+     */
+    public Map<XmlPackage, byte[]> xmls() throws IOException {
+        final Path dir = Files.createTempDirectory("rpm-corpus-xml");
+        final Map<XmlPackage, byte[]> res = new EnumMap<>(XmlPackage.class);
+        try {
+            this.metadata(dir, 0);
+            for (final XmlPackage type : XmlPackage.values()) {
+                res.put(type, Files.readAllBytes(dir.resolve(RpmCorpus.xml(type))));
+            }
+        } finally {
+            RpmCorpus.delete(dir);
+        }
+        return res;
+    }
+
+    /**
+     * Lists packages in the directory.
+     * @param dir Directory
+     * @return Sorted packages paths
+     * @throws IOException On error
+     */
+    public static List<Path> rpms(final Path dir) throws IOException {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.filter(file -> file.toString().endsWith(".rpm")).sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Generates corpus from the command line.
+     * Arguments: directory, number of the packages, seed (1 by default) and number of
+     * the added packages (optional); if the number of the added packages is set, unpacked
+     * metadata and added packages are written, otherwise the repository is written.
+     * @param args Command line arguments
+     * @throws IOException On error
+     */
+    public static void main(final String... args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(
+                "Usage: RpmCorpus <dir> <packages> [seed] [added]"
+            );
+        }
+        final RpmCorpus corpus = new RpmCorpus(
+            Long.parseLong(RpmCorpus.arg(args, 2, "1")), Integer.parseInt(args[1])
+        );
+        final Path dir = Paths.get(args[0]);
+        if (args.length > 3) {
+            corpus.metadata(dir, Integer.parseInt(args[3]));
+        } else {
+            corpus.repository(dir);
+        }
+    }
+
+    /**
+     * Builds package.
+     * @param dir Directory to write package to
+     * @param tmp Directory for the temporary files
+     * @param idx Package index
+     * @throws IOException On error
+     */
+    private void build(final Path dir, final Path tmp, final int idx) throws IOException {
+        final Random rnd = new Random(this.seed * 31 + idx);
+        final String name = String.format("bench-%07d", idx);
+        final Builder builder = new Builder();
+        builder.setPackage(
+            name, String.format("%d.%d.%d", rnd.nextInt(5), rnd.nextInt(20), rnd.nextInt(100)),
+            String.valueOf(1 + rnd.nextInt(9))
+        );
+        builder.setType(RpmType.BINARY);
+        builder.setPlatform(Architecture.X86_64, Os.LINUX);
+        builder.setSummary(String.format("Synthetic benchmark package %s", name));
+        builder.setDescription(RpmCorpus.text(rnd, 40 + rnd.nextInt(800)));
+        builder.setLicense("MIT");
+        builder.setGroup("Development/Libraries");
+        builder.setBuildHost("bench.artipie.com");
+        builder.setVendor("Artipie");
+        builder.setPackager("Artipie <bench@artipie.com>");
+        builder.setUrl(String.format("https://artipie.com/%s", name));
+        builder.setSourceRpm(String.format("%s.src.rpm", name));
+        final int provides = RpmCorpus.lognormal(rnd, 1.0, 1.0, RpmCorpus.MAX_DEPS);
+        for (int num = 0; num < provides; num = num + 1) {
+            builder.addProvides(String.format("lib%s-%d.so", name, num), "");
+        }
+        final int requires = RpmCorpus.lognormal(rnd, 1.8, 0.8, RpmCorpus.MAX_DEPS);
+        for (int num = 0; num < requires && idx > 0; num = num + 1) {
+            builder.addDependencyMore(
+                String.format("bench-%07d", rnd.nextInt(idx)),
+                String.format("%d.0", rnd.nextInt(3))
+            );
+        }
+        final Path content = tmp.resolve("content");
+        Files.write(
+            content,
+            RpmCorpus.text(rnd, 16 + rnd.nextInt(256)).getBytes(StandardCharsets.UTF_8)
+        );
+        final int count = RpmCorpus.lognormal(rnd, Math.log(this.files), 1.2, RpmCorpus.MAX_FILES);
+        try {
+            for (int num = 0; num < count; num = num + 1) {
+                builder.addFile(RpmCorpus.file(rnd, name, num), content.toFile());
+            }
+            final Path changelog = tmp.resolve("changelog");
+            Files.write(
+                changelog,
+                RpmCorpus.changelog(
+                    rnd, RpmCorpus.lognormal(rnd, 2.0, 1.0, RpmCorpus.MAX_CHANGES)
+                ).getBytes(StandardCharsets.UTF_8)
+            );
+            builder.addChangelogFile(changelog.toFile());
+            builder.build(dir.toFile());
+        } catch (final NoSuchAlgorithmException | ChangelogParseException err) {
+            throw new IllegalStateException(err);
+        }
+    }
+
+    /**
+     * Writes unpacked metadata of the packages from the directory. Packages are appended
+     * by {@link RpmMetadata.Append} in batches, so that the headers of all the packages
+     * are not kept in memory at once.
+     * @param rpms Directory with the packages
+     * @param out Directory to write metadata to
+     * @throws IOException On error
+     */
+    private static void index(final Path rpms, final Path out) throws IOException {
+        final List<Path> files = RpmCorpus.rpms(rpms);
+        final List<XmlPackage> types = new XmlPackage.Stream(true).get()
+            .collect(Collectors.toList());
+        int from = 0;
+        do {
+            final int until = Math.min(files.size(), from + RpmCorpus.BATCH);
+            final List<Package.Meta> batch = new ArrayList<>(until - from);
+            for (final Path file : files.subList(from, until)) {
+                batch.add(
+                    new FilePackage.Headers(
+                        new FilePackageHeader(file).header(), file, Digest.SHA256,
+                        file.getFileName().toString()
+                    )
+                );
+            }
+            final List<Closeable> streams = new ArrayList<>(types.size() * 2);
+            try {
+                final List<RpmMetadata.MetadataItem> items = new ArrayList<>(types.size());
+                for (final XmlPackage type : types) {
+                    final OutputStream output = new BufferedOutputStream(
+                        Files.newOutputStream(out.resolve(RpmCorpus.tmp(type)))
+                    );
+                    streams.add(output);
+                    Optional<InputStream> input = Optional.empty();
+                    if (from > 0) {
+                        input = Optional.of(
+                            new BufferedInputStream(
+                                Files.newInputStream(out.resolve(RpmCorpus.xml(type)))
+                            )
+                        );
+                        streams.add(input.get());
+                    }
+                    items.add(new RpmMetadata.MetadataItem(type, input, output));
+                }
+                new RpmMetadata.Append(items.toArray(new RpmMetadata.MetadataItem[0]))
+                    .perform(batch);
+            } finally {
+                for (final Closeable stream : streams) {
+                    stream.close();
+                }
+            }
+            for (final XmlPackage type : types) {
+                Files.move(
+                    out.resolve(RpmCorpus.tmp(type)), out.resolve(RpmCorpus.xml(type)),
+                    StandardCopyOption.REPLACE_EXISTING
+                );
+            }
+            from = until;
+        } while (from < files.size());
+    }
+
+    /**
+     * Unpacked metadata file name.
+     * @param type Metadata type
+     * @return File name
+     */
+    private static String xml(final XmlPackage type) {
+        return String.format("%s.xml", type.lowercase());
+    }
+
+    /**
+     * Temporary metadata file name.
+     * @param type Metadata type
+     * @return File name
+     */
+    private static String tmp(final XmlPackage type) {
+        return String.format("%s.xml.part", type.lowercase());
+    }
+
+    /**
+     * Random number from the log-normal distribution.
+     * @param rnd Random
+     * @param mean Mean of the logarithm
+     * @param deviation Standard deviation of the logarithm
+     * @param max Maximum value
+     * @return Value from 1 to max
+     */
+    private static int lognormal(final Random rnd, final double mean, final double deviation,
+        final int max) {
+        return (int) Math.max(1, Math.min(max, Math.exp(mean + deviation * rnd.nextGaussian())));
+    }
+
+    /**
+     * Path of the package file.
+     * @param rnd Random
+     * @param name Package name
+     * @param num File number
+     * @return Absolute path
+     */
+    private static String file(final Random rnd, final String name, final int num) {
+        final String res;
+        final int kind = rnd.nextInt(100);
+        if (kind < 5) {
+            res = String.format("/usr/bin/%s-%d", name, num);
+        } else if (kind < 8) {
+            res = String.format("/etc/%s/%d.conf", name, num);
+        } else if (kind < 40) {
+            res = String.format("/usr/lib64/%s/lib%d.so", name, num);
+        } else {
+            res = String.format("/usr/share/%s/%d/%d.txt", name, num % 16, num);
+        }
+        return res;
+    }
+
+    /**
+     * Changelog in the rpm spec format.
+     * @param rnd Random
+     * @param entries Number of the entries
+     * @return Changelog text
+     */
+    private static String changelog(final Random rnd, final int entries) {
+        final SimpleDateFormat fmt = new SimpleDateFormat(RpmCorpus.DATE, Locale.US);
+        fmt.setTimeZone(TimeZone.getTimeZone("UTC"));
+        final StringBuilder res = new StringBuilder();
+        long time = 1_600_000_000_000L;
+        for (int num = 0; num < entries; num = num + 1) {
+            res.append("* ").append(fmt.format(new Date(time)))
+                .append(" Artipie <bench@artipie.com> - ").append(entries - num).append('\n')
+                .append("- ").append(RpmCorpus.text(rnd, 20 + rnd.nextInt(300))).append("\n\n");
+            time = time - TimeUnit.DAYS.toMillis(1 + rnd.nextInt(60));
+        }
+        return res.toString();
+    }
+
+    /**
+     * Random text of the words.
+     * @param rnd Random
+     * @param length Approximate text length
+     * @return Text
+     */
+    private static String text(final Random rnd, final int length) {
+        final StringBuilder res = new StringBuilder(length + 10);
+        while (res.length() < length) {
+            final int word = 2 + rnd.nextInt(8);
+            for (int chr = 0; chr < word; chr = chr + 1) {
+                res.append((char) ('a' + rnd.nextInt(26)));
+            }
+            res.append(' ');
+        }
+        return res.toString().trim();
+    }
+
+    /**
+     * Environment variable value.
+     * @param name Variable name
+     * @param def Default value
+     * @return Value
+     */
+    private static String env(final String name, final String def) {
+        String res = System.getenv(name);
+        if (res == null) {
+            res = def;
+        }
+        return res;
+    }
+
+    /**
+     * Command line argument.
+     * @param args Arguments
+     * @param idx Argument index
+     * @param def Default value
+     * @return Value
+     */
+    private static String arg(final String[] args, final int idx, final String def) {
+        final String res;
+        if (args.length > idx) {
+            res = args[idx];
+        } else {
+            res = def;
+        }
+        return res;
+    }
+
+    /**
+     * Deletes directory recursively.
+     * @param dir Directory
+     * @throws IOException On error
+     */
+    public static void delete(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(
+                file -> {
+                    try {
+                        Files.delete(file);
+                    } catch (final IOException err) {
+                        throw new UncheckedIOException(err);
+                    }
+                }
+            );
+        }
+    }
+}
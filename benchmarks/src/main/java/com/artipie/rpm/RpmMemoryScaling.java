@@ -0,0 +1,401 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlPrimaryChecksums;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * Memory scaling benchmark: runs {@link Rpm#batchUpdate(Key)}, {@link RpmMetadata.Append}
+ * and {@link RpmMetadata.Remove} over synthetic repositories of growing size (see
+ * {@link RpmCorpus}) and records peak heap, allocated bytes and garbage collection pauses
+ * of each run with {@link HeapWatch}. Inputs are kept in memory and are included into the
+ * baseline heap, outputs are discarded. Each operation is run once on the smallest
+ * repository before the measurements to warm up. The scaling table is printed and written
+ * to {@code memory-scaling-<label>.md} file in the results directory, so that the tables
+ * of different versions can be compared.
+ * @since 1.10
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.ExcessiveImports")
+public final class RpmMemoryScaling {
+
+    /**
+     * Command line options.
+     */
+    private static final Options OPTIONS = new Options()
+        .addOption(
+            RpmMemoryScaling.option("n", "sizes", "repository sizes, 100,1000,5000 by default")
+        )
+        .addOption(
+            RpmMemoryScaling.option(
+                "o", "operations", "batch-update, append and remove by default"
+            )
+        )
+        .addOption(RpmMemoryScaling.option("s", "seed", "packages generator seed, 1 by default"))
+        .addOption(RpmMemoryScaling.option("l", "label", "results label, current by default"))
+        .addOption(
+            RpmMemoryScaling.option("d", "dir", "results directory, benchmarks/results by default")
+        );
+
+    /**
+     * Number of the packages to append.
+     */
+    private static final int ADDED = 10;
+
+    /**
+     * Every n-th package is removed.
+     */
+    private static final int REMOVED = 10;
+
+    /**
+     * Megabyte.
+     */
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+
+    /**
+     * Packages generator seed.
+     */
+    private final long seed;
+
+    /**
+     * Ctor.
+     * @param seed Packages generator seed
+     */
+    public RpmMemoryScaling(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Runs operation over the repository of the given size and watches heap usage.
+     * @param operation Operation
+     * @param size Number of the packages
+     * @return Heap usage
+     * @throws Exception On error or if interrupted while watching, usage is incomplete then
+     */
+    public HeapWatch measure(final Operation operation, final int size) throws Exception {
+        final Callable<?> action = this.prepare(operation, size);
+        System.gc();
+        final HeapWatch res = new HeapWatch();
+        try {
+            action.call();
+        } finally {
+            res.close();
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Interrupted while watching heap usage");
+        }
+        return res;
+    }
+
+    /**
+     * Runs benchmark.
+     * @param args Command line arguments, see {@link #OPTIONS}
+     * @throws Exception On error
+     */
+    @SuppressWarnings("PMD.SystemPrintln")
+    public static void main(final String... args) throws Exception {
+        final CommandLine cli = RpmMemoryScaling.parsed(args);
+        final int[] sizes = Stream.of(cli.getOptionValue("n", "100,1000,5000").split(","))
+            .map(String::trim).mapToInt(Integer::parseInt).sorted().toArray();
+        final List<Operation> operations = Stream.of(
+            cli.getOptionValue("o", "batch-update,append,remove").split(",")
+        ).map(String::trim).map(Operation::byName).collect(Collectors.toList());
+        final RpmMemoryScaling bench = new RpmMemoryScaling(
+            Long.parseLong(cli.getOptionValue("s", "1"))
+        );
+        for (final Operation operation : operations) {
+            bench.measure(operation, sizes[0]);
+        }
+        final StringBuilder table = new StringBuilder(RpmMemoryScaling.header(cli))
+            .append(
+                String.join(
+                    "\n",
+                    "| Operation | Packages | Time, ms | Peak heap, MB | Peak over baseline, MB "
+                        + "| Peak live, MB | Allocated, MB | Allocation rate, MB/s "
+                        + "| GC pauses | GC pauses total, ms | GC pause max, ms |",
+                    "|---|---:|---:|---:|---:|---:|---:|---:|---:|---:|---:|",
+                    ""
+                )
+            );
+        System.out.print(table);
+        for (final Operation operation : operations) {
+            for (final int size : sizes) {
+                final String row = RpmMemoryScaling.row(
+                    operation, size, bench.measure(operation, size)
+                );
+                System.out.print(row);
+                table.append(row);
+            }
+        }
+        final Path dir = Files.createDirectories(
+            Paths.get(cli.getOptionValue("d", "benchmarks/results"))
+        );
+        final Path out = dir.resolve(
+            String.format("memory-scaling-%s.md", cli.getOptionValue("l", "current"))
+        );
+        Files.write(out, table.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.printf("Results are written to %s%n", out);
+        System.exit(0);
+    }
+
+    /**
+     * Prepares inputs of the operation.
+     * @param operation Operation
+     * @param size Number of the packages
+     * @return Operation over prepared inputs
+     * @throws IOException On error
+     */
+    private Callable<?> prepare(final Operation operation, final int size) throws IOException {
+        final Callable<?> res;
+        final Path dir = Files.createTempDirectory("rpm-memory");
+        try {
+            if (operation == Operation.BATCH_UPDATE) {
+                new RpmCorpus(this.seed, size).packages(dir);
+                final InMemoryStorage storage = new InMemoryStorage();
+                for (final Path rpm : RpmCorpus.rpms(dir)) {
+                    storage.save(
+                        new Key.From(rpm.getFileName().toString()),
+                        new Content.From(Files.readAllBytes(rpm))
+                    ).join();
+                }
+                res = () -> new Rpm(storage).batchUpdate(Key.ROOT)
+                    .to(CompletableInterop.await()).toCompletableFuture().join();
+            } else if (operation == Operation.APPEND) {
+                new RpmCorpus(this.seed, size + RpmMemoryScaling.ADDED)
+                    .metadata(dir, RpmMemoryScaling.ADDED);
+                final Map<XmlPackage, byte[]> xmls = RpmMemoryScaling.xmls(dir);
+                final List<Package.Meta> added = new ArrayList<>(RpmMemoryScaling.ADDED);
+                for (final Path rpm : RpmCorpus.rpms(dir)) {
+                    final byte[] bytes = Files.readAllBytes(rpm);
+                    added.add(
+                        new RpmMetadata.RpmItem(
+                            new FilePackageHeader(new ByteArrayInputStream(bytes)).header(),
+                            bytes.length, Hashing.sha256().hashBytes(bytes).toString(),
+                            rpm.getFileName().toString()
+                        )
+                    );
+                }
+                res = () -> {
+                    new RpmMetadata.Append(RpmMemoryScaling.items(xmls)).perform(added);
+                    return added;
+                };
+            } else {
+                new RpmCorpus(this.seed, size).metadata(dir, 0);
+                final Map<XmlPackage, byte[]> xmls = RpmMemoryScaling.xmls(dir);
+                final List<String> all = new ArrayList<>(
+                    new XmlPrimaryChecksums(dir.resolve("primary.xml")).read().values()
+                );
+                final Collection<String> removed = IntStream.range(0, all.size())
+                    .filter(idx -> idx % RpmMemoryScaling.REMOVED == 0)
+                    .mapToObj(all::get).collect(Collectors.toList());
+                res = () -> {
+                    new RpmMetadata.Remove(RpmMemoryScaling.items(xmls)).perform(removed);
+                    return removed;
+                };
+            }
+        } finally {
+            RpmCorpus.delete(dir);
+        }
+        return res;
+    }
+
+    /**
+     * Reads unpacked metadata files.
+     * @param dir Directory
+     * @return Metadata content by type
+     * @throws IOException On error
+     */
+    private static Map<XmlPackage, byte[]> xmls(final Path dir) throws IOException {
+        final Map<XmlPackage, byte[]> res = new EnumMap<>(XmlPackage.class);
+        for (final XmlPackage type : XmlPackage.values()) {
+            res.put(
+                type,
+                Files.readAllBytes(dir.resolve(String.format("%s.xml", type.lowercase())))
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Metadata items, which read metadata from memory and discard the output.
+     * @param xmls Metadata content by type
+     * @return Items
+     */
+    private static RpmMetadata.MetadataItem[] items(final Map<XmlPackage, byte[]> xmls) {
+        return xmls.entrySet().stream().map(
+            entry -> new RpmMetadata.MetadataItem(
+                entry.getKey(), new ByteArrayInputStream(entry.getValue()),
+                ByteStreams.nullOutputStream()
+            )
+        ).toArray(RpmMetadata.MetadataItem[]::new);
+    }
+
+    /**
+     * Table header: date, JVM, garbage collectors and parameters.
+     * @param cli Command line
+     * @return Header
+     */
+    private static String header(final CommandLine cli) {
+        return String.join(
+            "\n",
+            String.format("# Memory scaling: %s", cli.getOptionValue("l", "current")),
+            "",
+            String.format(
+                " - Date: %s",
+                LocalDateTime.now().withNano(0).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+            ),
+            String.format(
+                " - JVM: %s %s, max heap %.0f MB, arguments: %s",
+                System.getProperty("java.vm.name"), System.getProperty("java.version"),
+                Runtime.getRuntime().maxMemory() / RpmMemoryScaling.MEGABYTE,
+                ManagementFactory.getRuntimeMXBean().getInputArguments()
+            ),
+            String.format(
+                " - Garbage collectors: %s",
+                ManagementFactory.getGarbageCollectorMXBeans().stream()
+                    .map(GarbageCollectorMXBean::getName).collect(Collectors.joining(", "))
+            ),
+            String.format(
+                " - Seed: %s, appended packages: %d, removed: every %d-th package",
+                cli.getOptionValue("s", "1"), RpmMemoryScaling.ADDED, RpmMemoryScaling.REMOVED
+            ),
+            "",
+            ""
+        );
+    }
+
+    /**
+     * Table row.
+     * @param operation Operation
+     * @param size Number of the packages
+     * @param usage Heap usage
+     * @return Row
+     */
+    private static String row(final Operation operation, final int size, final HeapWatch usage) {
+        final double millis = usage.elapsed().toNanos() / 1_000_000.0;
+        return String.format(
+            Locale.US,
+            "| %s | %d | %.0f | %.1f | %.1f | %.1f | %.1f | %.1f | %d | %d | %d |%n",
+            operation.title, size, millis,
+            usage.peak() / RpmMemoryScaling.MEGABYTE,
+            (usage.peak() - usage.baseline()) / RpmMemoryScaling.MEGABYTE,
+            usage.live() / RpmMemoryScaling.MEGABYTE,
+            usage.allocated() / RpmMemoryScaling.MEGABYTE,
+            usage.allocated() / RpmMemoryScaling.MEGABYTE / Math.max(millis, 1) * 1000,
+            usage.pauses(), usage.paused().toMillis(), usage.longest().toMillis()
+        );
+    }
+
+    /**
+     * Command line option with argument.
+     * @param opt Short name
+     * @param name Long name
+     * @param desc Description
+     * @return Option
+     */
+    private static Option option(final String opt, final String name, final String desc) {
+        return Option.builder(opt).longOpt(name).desc(desc).hasArg().build();
+    }
+
+    /**
+     * Parses command line.
+     * @param args Command line arguments
+     * @return Parsed arguments
+     */
+    private static CommandLine parsed(final String... args) {
+        try {
+            return new DefaultParser().parse(RpmMemoryScaling.OPTIONS, args);
+        } catch (final ParseException ex) {
+            throw new IllegalArgumentException(
+                String.format("Can't parse arguments '%s'", Arrays.asList(args)), ex
+            );
+        }
+    }
+
+    /**
+     * Measured operations.
+     * @since 1.10
+     */
+    public enum Operation {
+
+        /**
+         * {@link Rpm#batchUpdate(Key)} of the repository without metadata in memory storage.
+         */
+        BATCH_UPDATE("batch-update"),
+
+        /**
+         * {@link RpmMetadata.Append} of several packages to the repository metadata.
+         */
+        APPEND("append"),
+
+        /**
+         * {@link RpmMetadata.Remove} of every n-th package from the repository metadata.
+         */
+        REMOVE("remove");
+
+        /**
+         * Operation title.
+         */
+        private final String title;
+
+        /**
+         * Ctor.
+         * @param title Operation title
+         */
+        Operation(final String title) {
+            this.title = title;
+        }
+
+        /**
+         * Operation by title.
+         * @param title Title
+         * @return Operation
+         */
+        static Operation byName(final String title) {
+            return Stream.of(Operation.values()).filter(op -> op.title.equals(title))
+                .findFirst().orElseThrow(
+                    () -> new IllegalArgumentException(
+                        String.format("Unknown operation '%s'", title)
+                    )
+                );
+        }
+    }
+}
@@ -58,6 +58,11 @@ public class RpmMetadataAppendBench {
      */
     private static final String BENCH_DIR = System.getenv("BENCH_DIR");
 
+    /**
+     * Number of the generated packages to append, used when {@link #BENCH_DIR} is not set.
+     */
+    private static final int ADDED = 10;
+
     /**
      * Benchmark metadata.
      */
@@ -70,10 +75,14 @@ public class RpmMetadataAppendBench {
 
     @Setup
     public void setup() throws IOException {
+        final Path dir;
         if (RpmMetadataAppendBench.BENCH_DIR == null) {
-            throw new IllegalStateException("BENCH_DIR environment variable must be set");
+            dir = Files.createTempDirectory("rpm-bench");
+            new RpmCorpus().metadata(dir, RpmMetadataAppendBench.ADDED);
+        } else {
+            dir = Paths.get(RpmMetadataAppendBench.BENCH_DIR);
         }
-        try (Stream<Path> files = Files.list(Paths.get(RpmMetadataAppendBench.BENCH_DIR))) {
+        try (Stream<Path> files = Files.list(dir)) {
             final List<Path> flist = files.collect(Collectors.toList());
             this.items = flist.stream().map(
                 file -> new XmlPackage.Stream(true).get()
@@ -86,7 +95,7 @@ public class RpmMetadataAppendBench {
                     )
             ).filter(Optional::isPresent).map(Optional::get)
                 .collect(Collectors.toMap(MapEntry::getKey, MapEntry::getValue));
-            this.rpms = flist.stream().filter(item -> item.endsWith(".rpm"))
+            this.rpms = flist.stream().filter(item -> item.toString().endsWith(".rpm"))
                 .map(
                     item -> new FilePackage.Headers(
                         new Unchecked<>(() -> new FilePackageHeader(item).header()).value(),
@@ -6,16 +6,21 @@
 package com.artipie.rpm;
 
 import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlPrimaryChecksums;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.cactoos.list.ListOf;
 import org.cactoos.map.MapEntry;
@@ -59,12 +64,39 @@ public class RpmMetadataRemoveBench {
      */
     private Map<XmlPackage, byte[]> items;
 
+    /**
+     * Checksums of the packages to remove.
+     */
+    private Collection<String> checksums;
+
     @Setup
     public void setup() throws IOException {
+        final Path dir;
         if (RpmMetadataRemoveBench.BENCH_DIR == null) {
-            throw new IllegalStateException("BENCH_DIR environment variable must be set");
+            dir = Files.createTempDirectory("rpm-bench");
+            new RpmCorpus().metadata(dir, 0);
+            final List<String> all = new ArrayList<>(
+                new XmlPrimaryChecksums(dir.resolve("primary.xml")).read().values()
+            );
+            this.checksums = IntStream.range(0, all.size()).filter(idx -> idx % 10 == 0)
+                .mapToObj(all::get).collect(Collectors.toList());
+        } else {
+            dir = Paths.get(RpmMetadataRemoveBench.BENCH_DIR);
+            this.checksums = new ListOf<String>(
+                "35f6b7ceecb3b66d41991358113ae019dbabbac21509afbe770c06d6999d75c7",
+                "8dad6a68a8868c7e4595634affbad8677e48e259dac9180dd73a41ae8414305a",
+                "0ab1a22f716b480392a3fe28e9fafebd61ff8afe3196aa35ccc937413e0a3c4a",
+                "8440d6772087e9b4f0c3db57eb328594d1c18cdacd52f3565cba87fb0ce0cc0d",
+                "3f7e099180803c182194a5277fe6d7e2561550ca51598d5bc3334c11361090af",
+                "2cbe8499cd1c48e0440bcf0a8e4a1e4a336142d521db91e35a546ec99f7c50ac",
+                "05c37cb7b04bfe885f139340fb58aa8e0051b62e4215feded619a8cc726609a3",
+                "3d81ad4030684e997772d2bdf1dd5d8253fb66df68e30a09507aafb49ae359f6",
+                "5eb3cc0a41ea8770c2c4491e7d574e263aa3ae3bb1006a4b9b883abbd58cbfd9",
+                "2b068b878a023ebd9bec65767dea211035dbb2d72470fba08b8ca36a130cc5ec",
+                "5104d2c1feecedc2f19778219530f2f7731b296c5957659aaddc5968a555a020"
+            );
         }
-        try (Stream<Path> files = Files.list(Paths.get(RpmMetadataRemoveBench.BENCH_DIR))) {
+        try (Stream<Path> files = Files.list(dir)) {
             this.items = files.map(
                 file -> new XmlPackage.Stream(true).get()
                     .filter(xml -> file.toString().contains(xml.lowercase()))
@@ -90,21 +122,7 @@ public class RpmMetadataRemoveBench {
                     new ByteArrayOutputStream()
                 )
             ).toArray(RpmMetadata.MetadataItem[]::new)
-        ).perform(
-            new ListOf<String>(
-                "35f6b7ceecb3b66d41991358113ae019dbabbac21509afbe770c06d6999d75c7",
-                "8dad6a68a8868c7e4595634affbad8677e48e259dac9180dd73a41ae8414305a",
-                "0ab1a22f716b480392a3fe28e9fafebd61ff8afe3196aa35ccc937413e0a3c4a",
-                "8440d6772087e9b4f0c3db57eb328594d1c18cdacd52f3565cba87fb0ce0cc0d",
-                "3f7e099180803c182194a5277fe6d7e2561550ca51598d5bc3334c11361090af",
-                "2cbe8499cd1c48e0440bcf0a8e4a1e4a336142d521db91e35a546ec99f7c50ac",
-                "05c37cb7b04bfe885f139340fb58aa8e0051b62e4215feded619a8cc726609a3",
-                "3d81ad4030684e997772d2bdf1dd5d8253fb66df68e30a09507aafb49ae359f6",
-                "5eb3cc0a41ea8770c2c4491e7d574e263aa3ae3bb1006a4b9b883abbd58cbfd9",
-                "2b068b878a023ebd9bec65767dea211035dbb2d72470fba08b8ca36a130cc5ec",
-                "5104d2c1feecedc2f19778219530f2f7731b296c5957659aaddc5968a555a020"
-            )
-        );
+        ).perform(this.checksums);
     }
 
     /**
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.RpmCorpus;
+import com.artipie.rpm.meta.XmlPackage;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link AstoArchive#gzip(Key)}: compresses metadata xml in memory storage.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AstoArchiveBench {
+
+    /**
+     * Metadata type.
+     */
+    @Param({"primary", "other", "filelists"})
+    public String type;
+
+    /**
+     * Number of the packages.
+     */
+    @Param({"100", "1000"})
+    public int packages;
+
+    /**
+     * Metadata key.
+     */
+    private final Key key = new Key.From("metadata.xml");
+
+    /**
+     * Metadata content.
+     */
+    private byte[] content;
+
+    /**
+     * Storage.
+     */
+    private Storage storage;
+
+    @Setup
+    public void setup() throws IOException {
+        this.content = new RpmCorpus(1, this.packages).xmls()
+            .get(XmlPackage.valueOf(this.type.toUpperCase(Locale.US)));
+    }
+
+    /**
+     * Saves uncompressed metadata before each invocation, as the archive replaces it
+     * with the compressed one.
+     */
+    @Setup(Level.Invocation)
+    public void save() {
+        this.storage = new InMemoryStorage();
+        this.storage.save(this.key, new Content.From(this.content)).join();
+    }
+
+    @Benchmark
+    public void run() {
+        new AstoArchive(this.storage).gzip(this.key).toCompletableFuture().join();
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(AstoArchiveBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Recorded latencies. All the values are kept, so percentiles are exact, this is fine
+ * for load tests with up to millions of requests.
+ * @since 1.10
+ */
+public final class Latencies {
+
+    /**
+     * Recorded values in nanoseconds.
+     */
+    private long[] values;
+
+    /**
+     * Number of recorded values.
+     */
+    private int size;
+
+    /**
+     * Ctor.
+     */
+    public Latencies() {
+        this.values = new long[1024];
+    }
+
+    /**
+     * Records latency.
+     * @param latency Latency
+     */
+    public synchronized void add(final Duration latency) {
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        this.values[this.size] = latency.toNanos();
+        this.size = this.size + 1;
+    }
+
+    /**
+     * Number of recorded latencies.
+     * @return Count
+     */
+    public synchronized int count() {
+        return this.size;
+    }
+
+    /**
+     * Sum of recorded latencies.
+     * @return Total duration
+     */
+    public synchronized Duration total() {
+        long res = 0;
+        for (int idx = 0; idx < this.size; idx = idx + 1) {
+            res = res + this.values[idx];
+        }
+        return Duration.ofNanos(res);
+    }
+
+    /**
+     * Latency percentile: the smallest recorded latency, which is not less than the given
+     * percent of recorded latencies.
+     * @param percent Percent from 0 to 100
+     * @return Latency, zero if nothing was recorded
+     */
+    public synchronized Duration percentile(final double percent) {
+        final Duration res;
+        if (this.size == 0) {
+            res = Duration.ZERO;
+        } else {
+            final long[] sorted = Arrays.copyOf(this.values, this.size);
+            Arrays.sort(sorted);
+            final int idx = (int) Math.ceil(percent / 100 * this.size) - 1;
+            res = Duration.ofNanos(sorted[Math.max(0, Math.min(idx, this.size - 1))]);
+        }
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            Locale.US,
+            "count=%d p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms total=%.2fms",
+            this.count(),
+            Latencies.millis(this.percentile(50)),
+            Latencies.millis(this.percentile(90)),
+            Latencies.millis(this.percentile(99)),
+            Latencies.millis(this.percentile(99.9)),
+            Latencies.millis(this.percentile(100)),
+            Latencies.millis(this.total())
+        );
+    }
+
+    /**
+     * Duration in fractional milliseconds.
+     * @param duration Duration
+     * @return Milliseconds
+     */
+    private static double millis(final Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
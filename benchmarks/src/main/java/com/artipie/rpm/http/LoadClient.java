@@ -0,0 +1,199 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.http.Slice;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.vertx.VertxSliceServer;
+import com.google.common.io.ByteStreams;
+import io.vertx.reactivex.core.Vertx;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Blocking HTTP client of the load test.
+ * @since 1.10
+ */
+public interface LoadClient extends Closeable {
+
+    /**
+     * Sends request and waits for the whole response.
+     * @param method Request method
+     * @param path Request path with query
+     * @param headers Request headers
+     * @param body Request body
+     * @return Response
+     * @throws IOException On error
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    Reply send(RqMethod method, String path, Iterable<Map.Entry<String, String>> headers,
+        byte[] body) throws IOException;
+
+    /**
+     * Response status and body.
+     * @since 1.10
+     */
+    final class Reply {
+
+        /**
+         * Status code.
+         */
+        private final int code;
+
+        /**
+         * Response body.
+         */
+        private final byte[] content;
+
+        /**
+         * Ctor.
+         * @param code Status code
+         * @param content Response body
+         */
+        public Reply(final int code, final byte[] content) {
+            this.code = code;
+            this.content = content;
+        }
+
+        /**
+         * Status code.
+         * @return Code
+         */
+        public int status() {
+            return this.code;
+        }
+
+        /**
+         * Response body.
+         * @return Body bytes
+         */
+        public byte[] body() {
+            return this.content;
+        }
+    }
+
+    /**
+     * Client, which calls the slice directly without the server and the network: measures
+     * the adapter itself.
+     * @since 1.10
+     */
+    final class InProcess implements LoadClient {
+
+        /**
+         * Slice.
+         */
+        private final Slice slice;
+
+        /**
+         * Ctor.
+         * @param slice Slice
+         */
+        public InProcess(final Slice slice) {
+            this.slice = slice;
+        }
+
+        @Override
+        public Reply send(final RqMethod method, final String path,
+            final Iterable<Map.Entry<String, String>> headers, final byte[] body) {
+            final CompletableFuture<Reply> res = new CompletableFuture<>();
+            this.slice.response(
+                new RequestLine(method, path).toString(), headers, new Content.From(body)
+            ).send(
+                (status, hdrs, rsbody) -> new PublisherAs(rsbody).bytes().thenAccept(
+                    bytes -> res.complete(new Reply(Integer.parseInt(status.code()), bytes))
+                )
+            ).whenComplete(
+                (nothing, err) -> Optional.ofNullable(err).ifPresent(res::completeExceptionally)
+            );
+            return res.join();
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+
+    /**
+     * Client, which serves the slice with local Vert.x server and sends requests over
+     * HTTP: measures the adapter along with the server and the network stack.
+     * @since 1.10
+     */
+    final class Http implements LoadClient {
+
+        /**
+         * Vert.x instance.
+         */
+        private final Vertx vertx;
+
+        /**
+         * Server.
+         */
+        private final VertxSliceServer server;
+
+        /**
+         * Server port.
+         */
+        private final int port;
+
+        /**
+         * Ctor.
+         * @param slice Slice to serve
+         */
+        public Http(final Slice slice) {
+            this.vertx = Vertx.vertx();
+            this.server = new VertxSliceServer(this.vertx, slice);
+            this.port = this.server.start();
+        }
+
+        @Override
+        public Reply send(final RqMethod method, final String path,
+            final Iterable<Map.Entry<String, String>> headers, final byte[] body)
+            throws IOException {
+            final HttpURLConnection conn = (HttpURLConnection) new URL(
+                String.format("http://localhost:%d%s", this.port, path)
+            ).openConnection();
+            conn.setRequestMethod(method.value());
+            headers.forEach(hdr -> conn.setRequestProperty(hdr.getKey(), hdr.getValue()));
+            if (body.length > 0) {
+                conn.setDoOutput(true);
+                conn.setFixedLengthStreamingMode(body.length);
+                try (OutputStream out = conn.getOutputStream()) {
+                    out.write(body);
+                }
+            }
+            final int code = conn.getResponseCode();
+            byte[] content = new byte[0];
+            final InputStream stream;
+            if (code < HttpURLConnection.HTTP_BAD_REQUEST) {
+                stream = conn.getInputStream();
+            } else {
+                stream = conn.getErrorStream();
+            }
+            if (stream != null) {
+                try (InputStream input = stream) {
+                    content = ByteStreams.toByteArray(input);
+                }
+            }
+            return new Reply(code, content);
+        }
+
+        @Override
+        public void close() {
+            this.server.stop();
+            this.vertx.close();
+        }
+    }
+}
@@ -0,0 +1,741 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.http;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.amihaiemil.eoyaml.YamlMapping;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.http.Headers;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permissions;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.RepoMetrics;
+import com.artipie.rpm.RpmCorpus;
+import com.artipie.rpm.asto.AstoMeteredStorage;
+import com.artipie.rpm.meta.XmlPrimaryChecksums;
+import com.google.common.io.BaseEncoding;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * Load test of {@link RpmSlice}: sends the mix of package uploads (PUT), removals (DELETE)
+ * and metadata downloads (GET of {@code repomd.xml} and primary metadata) from concurrent
+ * clients to the repository of the synthetic packages, see {@link RpmCorpus}. The slice is
+ * called in-process or over the local Vert.x server. Reports throughput, latency percentiles
+ * of each request type, durations of the repository update stages including lock wait
+ * (see {@link RepoMetrics.Stage#LOCK_WAIT}) and storage operations; when all the requests
+ * are completed, checks that metadata lists exactly the packages, which are in the repository.
+ * Exits with non-zero code if metadata is inconsistent.
+ * @since 1.10
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
+ */
+@SuppressWarnings("PMD.ExcessiveImports")
+public final class RpmSliceLoad {
+
+    /**
+     * Command line options.
+     */
+    private static final Options OPTIONS = new Options()
+        .addOption(RpmSliceLoad.option("m", "mode", "inline (default) or vertx"))
+        .addOption(RpmSliceLoad.option("c", "concurrency", "concurrent clients, 8 by default"))
+        .addOption(RpmSliceLoad.option("r", "requests", "number of requests, 1000 by default"))
+        .addOption(
+            RpmSliceLoad.option("x", "mix", "weights of PUT:DELETE:GET, 20:5:75 by default")
+        )
+        .addOption(
+            RpmSliceLoad.option("p", "packages", "initial repository size, 100 by default")
+        )
+        .addOption(RpmSliceLoad.option("s", "seed", "packages generator seed, 1 by default"))
+        .addOption(
+            RpmSliceLoad.option("l", "latency", "storage operation latency ms, 0 by default")
+        )
+        .addOption(RpmSliceLoad.option("y", "config", "repository settings yaml file"));
+
+    /**
+     * Data section of primary metadata in {@code repomd.xml}.
+     */
+    private static final Pattern PRIMARY = Pattern.compile(
+        "<data type=\"primary\">(.*?)</data>", Pattern.DOTALL
+    );
+
+    /**
+     * Checksum of the metadata file in {@code repomd.xml} data section.
+     */
+    private static final Pattern CHECKSUM = Pattern.compile("<checksum[^>]*>([^<]+)</checksum>");
+
+    /**
+     * Location of the metadata file in {@code repomd.xml} data section.
+     */
+    private static final Pattern LOCATION = Pattern.compile("<location href=\"([^\"]+)\"");
+
+    /**
+     * Repository metadata key.
+     */
+    private static final Key REPOMD = new Key.From("repodata", "repomd.xml");
+
+    /**
+     * Client.
+     */
+    private final LoadClient client;
+
+    /**
+     * Packages digest.
+     */
+    private final Digest digest;
+
+    /**
+     * Requests to send.
+     */
+    private final Queue<Operation> operations;
+
+    /**
+     * Packages to upload: names and contents.
+     */
+    private final Queue<Map.Entry<String, byte[]>> uploads;
+
+    /**
+     * Packages, which can be removed.
+     */
+    private final Queue<String> present;
+
+    /**
+     * Packages, which are expected in the repository: names and checksums.
+     */
+    private final Map<String, String> expected;
+
+    /**
+     * Packages, which requests failed, so their state is not known.
+     */
+    private final Set<String> uncertain;
+
+    /**
+     * Latencies by request type.
+     */
+    private final Map<Operation, Latencies> latencies;
+
+    /**
+     * Failed requests by type and status, status 0 stands for I/O errors.
+     */
+    private final Map<Operation, Map<Integer, AtomicLong>> errors;
+
+    /**
+     * Numbers of the failures by the place in code, where they are thrown.
+     */
+    private final Map<String, AtomicLong> failures;
+
+    /**
+     * Messages of the failures by the place in code, where they are thrown.
+     */
+    private final Map<String, String> messages;
+
+    /**
+     * Ctor.
+     * @param client Client
+     * @param digest Packages digest
+     * @param operations Requests to send
+     * @param uploads Packages to upload
+     * @param expected Packages in the repository: names and checksums
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public RpmSliceLoad(final LoadClient client, final Digest digest,
+        final Collection<Operation> operations, final Collection<Map.Entry<String, byte[]>> uploads,
+        final Map<String, String> expected) {
+        this.client = client;
+        this.digest = digest;
+        this.operations = new ConcurrentLinkedQueue<>(operations);
+        this.uploads = new ConcurrentLinkedQueue<>(uploads);
+        this.expected = new ConcurrentHashMap<>(expected);
+        final List<String> names = new ArrayList<>(expected.keySet());
+        Collections.sort(names);
+        Collections.shuffle(names, new Random(names.size()));
+        this.present = new ConcurrentLinkedQueue<>(names);
+        this.uncertain = ConcurrentHashMap.newKeySet();
+        this.latencies = new EnumMap<>(Operation.class);
+        this.errors = new EnumMap<>(Operation.class);
+        this.failures = new ConcurrentSkipListMap<>();
+        this.messages = new ConcurrentHashMap<>();
+        for (final Operation op : Operation.values()) {
+            this.latencies.put(op, new Latencies());
+            this.errors.put(op, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Sends all the requests from concurrent clients and waits for the responses.
+     * @param concurrency Number of concurrent clients
+     * @return Elapsed time
+     * @throws InterruptedException If interrupted
+     */
+    public Duration run(final int concurrency) throws InterruptedException {
+        final ExecutorService exec = Executors.newFixedThreadPool(concurrency);
+        final long start = System.nanoTime();
+        for (int idx = 0; idx < concurrency; idx = idx + 1) {
+            exec.execute(
+                () -> {
+                    Operation next = this.operations.poll();
+                    while (next != null) {
+                        this.perform(next);
+                        next = this.operations.poll();
+                    }
+                }
+            );
+        }
+        exec.shutdown();
+        exec.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Checks that metadata and repository contain the expected packages: primary metadata
+     * is listed in {@code repomd.xml} with valid checksum, it lists all the expected packages
+     * with valid checksums and nothing else, packages files are the same and no packages are
+     * left staged. Packages, which requests failed, are ignored.
+     * @param storage Repository storage
+     * @return Found problems, empty if metadata is consistent
+     * @throws IOException On error
+     */
+    public List<String> verify(final Storage storage) throws IOException {
+        final List<String> res = new ArrayList<>(0);
+        final Matcher data = RpmSliceLoad.PRIMARY.matcher(
+            new String(RpmSliceLoad.read(storage, RpmSliceLoad.REPOMD), StandardCharsets.UTF_8)
+        );
+        if (data.find()) {
+            final Matcher location = RpmSliceLoad.LOCATION.matcher(data.group(1));
+            final Matcher checksum = RpmSliceLoad.CHECKSUM.matcher(data.group(1));
+            if (!location.find() || !checksum.find()) {
+                res.add("primary location or checksum is not found in repomd.xml");
+            } else if (!storage.exists(new Key.From(location.group(1))).join()) {
+                res.add(String.format("%s listed in repomd.xml is not found", location.group(1)));
+            } else {
+                final byte[] gzip = RpmSliceLoad.read(storage, new Key.From(location.group(1)));
+                if (!this.hex(gzip).equals(checksum.group(1))) {
+                    res.add(String.format("checksum of %s differs", location.group(1)));
+                }
+                res.addAll(
+                    this.compare(
+                        "primary",
+                        new XmlPrimaryChecksums(
+                            new GZIPInputStream(new ByteArrayInputStream(gzip))
+                        ).read()
+                    )
+                );
+            }
+        } else {
+            res.add("primary is not listed in repomd.xml");
+        }
+        final Map<String, String> files = new ConcurrentSkipListMap<>();
+        for (final Key key : storage.list(Key.ROOT).join()) {
+            final String name = key.string();
+            if (name.startsWith(RpmUpload.TO_ADD.string())
+                || name.startsWith(RpmRemove.TO_RM.string())) {
+                res.add(String.format("%s is left staged", name));
+            } else if (name.endsWith(".rpm")) {
+                files.put(name, this.hex(RpmSliceLoad.read(storage, key)));
+            }
+        }
+        res.addAll(this.compare("repository", files));
+        return res;
+    }
+
+    /**
+     * Report of the requests.
+     * @param elapsed Elapsed time
+     * @return Report
+     */
+    public String report(final Duration elapsed) {
+        final StringBuilder res = new StringBuilder(0);
+        final int total = this.latencies.values().stream().mapToInt(Latencies::count).sum();
+        res.append(
+            String.format(
+                Locale.US, "Elapsed %.2f s, throughput %.1f req/s%n",
+                elapsed.toMillis() / 1000.0, total * 1000.0 / Math.max(1, elapsed.toMillis())
+            )
+        );
+        for (final Operation op : Operation.values()) {
+            res.append(
+                String.format(
+                    "%-6s %s errors=%s%n", op, this.latencies.get(op), this.errors.get(op)
+                )
+            );
+        }
+        this.failures.forEach(
+            (place, count) -> res.append(
+                String.format(
+                    "%d failed with %s: %s%n", count.get(), place, this.messages.get(place)
+                )
+            )
+        );
+        return res.toString();
+    }
+
+    /**
+     * Runs load test.
+     * @param args Command line arguments, see {@link #OPTIONS}
+     * @throws IOException On error
+     * @throws InterruptedException If interrupted
+     */
+    @SuppressWarnings("PMD.SystemPrintln")
+    public static void main(final String... args) throws IOException, InterruptedException {
+        final CommandLine cli = RpmSliceLoad.parsed(args);
+        final int packages = Integer.parseInt(cli.getOptionValue("p", "100"));
+        final long seed = Long.parseLong(cli.getOptionValue("s", "1"));
+        final List<Operation> operations = RpmSliceLoad.schedule(
+            new Random(seed), Integer.parseInt(cli.getOptionValue("r", "1000")),
+            cli.getOptionValue("x", "20:5:75")
+        );
+        final Map<String, Latencies> timers = new ConcurrentSkipListMap<>();
+        final Map<String, AtomicLong> counters = new ConcurrentSkipListMap<>();
+        final RepoConfig config = new RepoConfig.FromYaml(
+            RpmSliceLoad.settings(cli),
+            new RepoMetrics.Meters(
+                (name, tags) -> timers.computeIfAbsent(
+                    RpmSliceLoad.meter(name, tags), key -> new Latencies()
+                )::add,
+                (name, tags) -> counters.computeIfAbsent(
+                    RpmSliceLoad.meter(name, tags), key -> new AtomicLong()
+                )::addAndGet,
+                (name, tags) -> counters.computeIfAbsent(
+                    RpmSliceLoad.meter(name, tags), key -> new AtomicLong()
+                )
+            )
+        );
+        final AstoMeteredStorage.Stats stats = new AstoMeteredStorage.Stats();
+        final Storage storage = new AstoMeteredStorage(
+            new InMemoryStorage(), stats,
+            Duration.ofMillis(Long.parseLong(cli.getOptionValue("l", "0")))
+        );
+        final Map<String, String> expected = new ConcurrentSkipListMap<>();
+        final List<Map.Entry<String, byte[]>> uploads = new ArrayList<>(0);
+        final Path dir = Files.createTempDirectory("rpm-load");
+        try {
+            new RpmCorpus(seed, packages).repository(dir.resolve("repo"));
+            for (final Map.Entry<String, byte[]> file
+                : RpmSliceLoad.files(dir.resolve("repo")).entrySet()) {
+                storage.save(new Key.From(file.getKey()), new Content.From(file.getValue()))
+                    .join();
+                if (file.getKey().endsWith(".rpm")) {
+                    expected.put(file.getKey(), RpmSliceLoad.hex(config.digest(), file.getValue()));
+                }
+            }
+            final int puts = (int) operations.stream().filter(op -> op == Operation.PUT).count();
+            new RpmCorpus(seed, packages + puts)
+                .packages(dir.resolve("upload"), packages, packages + puts);
+            uploads.addAll(RpmSliceLoad.files(dir.resolve("upload")).entrySet());
+        } finally {
+            RpmCorpus.delete(dir);
+        }
+        final RpmSlice slice = new RpmSlice(
+            storage, Permissions.FREE, Authentication.ANONYMOUS, config
+        );
+        final String mode = cli.getOptionValue("m", "inline");
+        final LoadClient client;
+        if ("vertx".equals(mode)) {
+            client = new LoadClient.Http(slice);
+        } else {
+            client = new LoadClient.InProcess(slice);
+        }
+        final int concurrency = Integer.parseInt(cli.getOptionValue("c", "8"));
+        System.out.printf(
+            "RpmSlice load: mode=%s, concurrency=%d, packages=%d, requests=%d, mix=%s%n",
+            mode, concurrency, packages, operations.size(), cli.getOptionValue("x", "20:5:75")
+        );
+        final RpmSliceLoad load = new RpmSliceLoad(
+            client, config.digest(), operations, uploads, expected
+        );
+        final Duration elapsed;
+        try {
+            elapsed = load.run(concurrency);
+        } finally {
+            client.close();
+        }
+        System.out.print(load.report(elapsed));
+        timers.forEach((name, value) -> System.out.printf("%s %s%n", name, value));
+        counters.forEach((name, value) -> System.out.printf("%s %d%n", name, value.get()));
+        System.out.printf("storage %s%n", stats);
+        int code = 0;
+        if (config.mode() == RepoConfig.UpdateMode.UPLOAD) {
+            final List<String> problems = load.verify(storage);
+            if (problems.isEmpty()) {
+                System.out.printf("Metadata is consistent%n");
+            } else {
+                System.out.printf("Metadata is NOT consistent:%n");
+                problems.forEach(problem -> System.out.printf("  %s%n", problem));
+                code = 1;
+            }
+        } else {
+            System.out.printf("Metadata check is skipped: repository is updated by schedule%n");
+        }
+        System.exit(code);
+    }
+
+    /**
+     * Sends request and records its latency and status.
+     * @param operation Request type
+     */
+    private void perform(final Operation operation) {
+        Operation actual = operation;
+        String name = null;
+        if (operation == Operation.DELETE) {
+            name = this.present.poll();
+            if (name == null) {
+                actual = Operation.GET;
+            }
+        }
+        final long start = System.nanoTime();
+        int status;
+        try {
+            if (actual == Operation.PUT) {
+                final Map.Entry<String, byte[]> pkg = this.uploads.poll();
+                name = pkg.getKey();
+                status = this.upload(pkg);
+            } else if (actual == Operation.DELETE) {
+                status = this.remove(name);
+            } else {
+                status = this.download();
+            }
+        } catch (final IOException | CompletionException err) {
+            status = 0;
+            this.failed(err);
+        }
+        this.latencies.get(actual).add(Duration.ofNanos(System.nanoTime() - start));
+        if (status != actual.success) {
+            this.errors.get(actual).computeIfAbsent(status, key -> new AtomicLong())
+                .incrementAndGet();
+            if (actual != Operation.GET) {
+                this.uncertain.add(name);
+            }
+        }
+    }
+
+    /**
+     * Records failure: failures are grouped by the exception type and the first stack
+     * frame of the adapter code or, if there is no such frame, the first one.
+     * @param err Failure
+     */
+    private void failed(final Exception err) {
+        Throwable cause = err;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        final StackTraceElement[] trace = cause.getStackTrace();
+        final String frame = Stream.of(trace)
+            .filter(item -> item.getClassName().startsWith("com.artipie.rpm"))
+            .findFirst().map(StackTraceElement::toString)
+            .orElse(Stream.of(trace).findFirst().map(StackTraceElement::toString).orElse(""));
+        final String place = String.format("%s at %s", cause.getClass().getSimpleName(), frame);
+        this.failures.computeIfAbsent(place, key -> new AtomicLong()).incrementAndGet();
+        this.messages.putIfAbsent(place, String.valueOf(cause.getMessage()));
+    }
+
+    /**
+     * Uploads package.
+     * @param pkg Package name and content
+     * @return Response status
+     * @throws IOException On error
+     */
+    private int upload(final Map.Entry<String, byte[]> pkg) throws IOException {
+        final int res = this.client.send(
+            RqMethod.PUT, String.format("/%s", pkg.getKey()), Headers.EMPTY, pkg.getValue()
+        ).status();
+        if (res == Operation.PUT.success) {
+            this.expected.put(pkg.getKey(), this.hex(pkg.getValue()));
+            this.present.add(pkg.getKey());
+        }
+        return res;
+    }
+
+    /**
+     * Removes package.
+     * @param name Package name
+     * @return Response status
+     * @throws IOException On error
+     */
+    private int remove(final String name) throws IOException {
+        final int res = this.client.send(
+            RqMethod.DELETE, String.format("/%s", name),
+            new Headers.From(
+                String.format(
+                    "X-Checksum-%s",
+                    this.digest.messageDigest().getAlgorithm().toLowerCase(Locale.US)
+                ),
+                this.expected.get(name)
+            ),
+            new byte[0]
+        ).status();
+        if (res == Operation.DELETE.success) {
+            this.expected.remove(name);
+        } else {
+            this.present.add(name);
+        }
+        return res;
+    }
+
+    /**
+     * Downloads {@code repomd.xml} and primary metadata it refers to, as package managers do.
+     * @return Status of the failed response or 200
+     * @throws IOException On error
+     */
+    private int download() throws IOException {
+        final LoadClient.Reply repomd = this.client.send(
+            RqMethod.GET, String.format("/%s", RpmSliceLoad.REPOMD.string()), Headers.EMPTY,
+            new byte[0]
+        );
+        int res = repomd.status();
+        if (res == Operation.GET.success) {
+            final Matcher data = RpmSliceLoad.PRIMARY.matcher(
+                new String(repomd.body(), StandardCharsets.UTF_8)
+            );
+            if (data.find()) {
+                final Matcher location = RpmSliceLoad.LOCATION.matcher(data.group(1));
+                if (location.find()) {
+                    res = this.client.send(
+                        RqMethod.GET, String.format("/%s", location.group(1)), Headers.EMPTY,
+                        new byte[0]
+                    ).status();
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Compares packages with the expected ones.
+     * @param where Where packages are listed
+     * @param actual Packages names and checksums
+     * @return Found problems
+     */
+    private List<String> compare(final String where, final Map<String, String> actual) {
+        final List<String> res = new ArrayList<>(0);
+        this.expected.forEach(
+            (name, checksum) -> {
+                if (!actual.containsKey(name)) {
+                    res.add(String.format("%s is missing in %s", name, where));
+                } else if (!actual.get(name).equals(checksum)) {
+                    res.add(String.format("checksum of %s differs in %s", name, where));
+                }
+            }
+        );
+        actual.keySet().stream()
+            .filter(name -> !this.expected.containsKey(name) && !this.uncertain.contains(name))
+            .forEach(name -> res.add(String.format("%s is not expected in %s", name, where)));
+        return res;
+    }
+
+    /**
+     * Hex checksum with packages digest.
+     * @param bytes Content
+     * @return Checksum
+     */
+    private String hex(final byte[] bytes) {
+        return RpmSliceLoad.hex(this.digest, bytes);
+    }
+
+    /**
+     * Hex checksum.
+     * @param digest Digest
+     * @param bytes Content
+     * @return Checksum
+     */
+    private static String hex(final Digest digest, final byte[] bytes) {
+        return BaseEncoding.base16().lowerCase().encode(digest.messageDigest().digest(bytes));
+    }
+
+    /**
+     * Requests to send: random sequence with the given weights of the request types.
+     * @param rnd Random
+     * @param count Number of requests
+     * @param mix Weights of PUT, DELETE and GET separated by colon
+     * @return Requests
+     */
+    private static List<Operation> schedule(final Random rnd, final int count, final String mix) {
+        final int[] weights = Stream.of(mix.split(":")).mapToInt(Integer::parseInt).toArray();
+        if (weights.length != Operation.values().length) {
+            throw new IllegalArgumentException(
+                String.format("Expected weights of PUT:DELETE:GET but got '%s'", mix)
+            );
+        }
+        final int sum = Arrays.stream(weights).sum();
+        final List<Operation> res = new ArrayList<>(count);
+        for (int idx = 0; idx < count; idx = idx + 1) {
+            int pick = rnd.nextInt(sum);
+            int type = 0;
+            while (pick >= weights[type]) {
+                pick = pick - weights[type];
+                type = type + 1;
+            }
+            res.add(Operation.values()[type]);
+        }
+        return res;
+    }
+
+    /**
+     * Reads files of the directory.
+     * @param dir Directory
+     * @return Relative paths and contents
+     * @throws IOException On error
+     */
+    private static Map<String, byte[]> files(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).collect(
+                Collectors.toMap(
+                    file -> dir.relativize(file).toString().replace('\\', '/'),
+                    file -> {
+                        try {
+                            return Files.readAllBytes(file);
+                        } catch (final IOException err) {
+                            throw new UncheckedIOException(err);
+                        }
+                    },
+                    (first, second) -> first,
+                    ConcurrentSkipListMap::new
+                )
+            );
+        }
+    }
+
+    /**
+     * Reads storage item.
+     * @param storage Storage
+     * @param key Item key
+     * @return Content
+     */
+    private static byte[] read(final Storage storage, final Key key) {
+        return new PublisherAs(storage.value(key).join()).bytes().toCompletableFuture().join();
+    }
+
+    /**
+     * Repository settings from yaml file or default ones.
+     * @param cli Command line
+     * @return Settings
+     * @throws IOException On error
+     */
+    private static YamlMapping settings(final CommandLine cli) throws IOException {
+        final YamlMapping res;
+        if (cli.hasOption("y")) {
+            res = Yaml.createYamlInput(Paths.get(cli.getOptionValue("y")).toFile())
+                .readYamlMapping();
+        } else {
+            res = Yaml.createYamlMappingBuilder().build();
+        }
+        return res;
+    }
+
+    /**
+     * Meter name with tags.
+     * @param name Meter name
+     * @param tags Tags as key-value pairs
+     * @return Name
+     */
+    private static String meter(final String name, final String... tags) {
+        final List<String> pairs = new ArrayList<>(tags.length / 2);
+        for (int idx = 0; idx + 1 < tags.length; idx = idx + 2) {
+            pairs.add(String.format("%s=%s", tags[idx], tags[idx + 1]));
+        }
+        return String.format("%s{%s}", name, String.join(",", pairs));
+    }
+
+    /**
+     * Command line option with argument.
+     * @param opt Short name
+     * @param name Long name
+     * @param desc Description
+     * @return Option
+     */
+    private static Option option(final String opt, final String name, final String desc) {
+        return Option.builder(opt).longOpt(name).desc(desc).hasArg().build();
+    }
+
+    /**
+     * Parses command line.
+     * @param args Command line arguments
+     * @return Parsed arguments
+     */
+    private static CommandLine parsed(final String... args) {
+        try {
+            return new DefaultParser().parse(RpmSliceLoad.OPTIONS, args);
+        } catch (final ParseException ex) {
+            throw new IllegalArgumentException(
+                String.format("Can't parse arguments '%s'", Arrays.asList(args)), ex
+            );
+        }
+    }
+
+    /**
+     * Request types.
+     * @since 1.10
+     */
+    public enum Operation {
+
+        /**
+         * Package upload.
+         */
+        PUT(202),
+
+        /**
+         * Package removal.
+         */
+        DELETE(202),
+
+        /**
+         * Metadata download.
+         */
+        GET(200);
+
+        /**
+         * Status of the successful response.
+         */
+        private final int success;
+
+        /**
+         * Ctor.
+         * @param success Status of the successful response
+         */
+        Operation(final int success) {
+            this.success = success;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+/**
+ * RPM repository HTTP API load tests.
+ * @since 1.10
+ */
+package com.artipie.rpm.http;
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.meta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link ChangelogEntry}: parses author, date and content of the changelog
+ * entries.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ChangelogEntryBench {
+
+    /**
+     * Number of the changelog entries.
+     */
+    @Param({"10", "1000"})
+    public int entries;
+
+    /**
+     * Length of the entry content.
+     */
+    @Param({"50", "1000"})
+    public int length;
+
+    /**
+     * Changelog entries.
+     */
+    private List<String> changelog;
+
+    @Setup
+    public void setup() {
+        final String[] days = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+        final String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug"};
+        final Random rnd = new Random(1);
+        this.changelog = new ArrayList<>(this.entries);
+        for (int idx = 0; idx < this.entries; idx = idx + 1) {
+            final StringBuilder text = new StringBuilder(this.length);
+            while (text.length() < this.length) {
+                text.append((char) ('a' + rnd.nextInt(26)));
+                if (rnd.nextInt(8) == 0) {
+                    text.append(' ');
+                }
+            }
+            this.changelog.add(
+                String.format(
+                    "* %s %s %02d %d Packager %d <packager@example.com> - %d.%d-%d\n- %s",
+                    days[rnd.nextInt(days.length)], months[rnd.nextInt(months.length)],
+                    1 + rnd.nextInt(28), 2000 + rnd.nextInt(21), idx, rnd.nextInt(10),
+                    rnd.nextInt(10), 1 + rnd.nextInt(5), text
+                )
+            );
+        }
+    }
+
+    @Benchmark
+    public void run(final Blackhole bhl) {
+        for (final String item : this.changelog) {
+            final ChangelogEntry entry = new ChangelogEntry(item);
+            bhl.consume(entry.author());
+            bhl.consume(entry.date());
+            bhl.consume(entry.content());
+        }
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(ChangelogEntryBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.meta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link CrCompareDependency}: sorts dependencies names, which look like the
+ * real ones: shared libraries with and without symbol versions and plain packages names.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CrCompareDependencyBench {
+
+    /**
+     * Number of the dependencies.
+     */
+    @Param({"100", "10000"})
+    public int dependencies;
+
+    /**
+     * Dependencies names.
+     */
+    private List<String> names;
+
+    @Setup
+    public void setup() {
+        final Random rnd = new Random(1);
+        this.names = new ArrayList<>(this.dependencies);
+        for (int idx = 0; idx < this.dependencies; idx = idx + 1) {
+            final String name;
+            switch (rnd.nextInt(4)) {
+                case 0:
+                    name = String.format(
+                        "lib%d.so.%d()(64bit)", rnd.nextInt(1000), rnd.nextInt(10)
+                    );
+                    break;
+                case 1:
+                    name = String.format(
+                        "libc.so.6(GLIBC_2.%d)(64bit)", rnd.nextInt(35)
+                    );
+                    break;
+                case 2:
+                    name = String.format(
+                        "libstdc++.so.6(GLIBCXX_3.4.%d)(64bit)", rnd.nextInt(30)
+                    );
+                    break;
+                default:
+                    name = String.format("bench-%07d", rnd.nextInt(this.dependencies));
+                    break;
+            }
+            this.names.add(name);
+        }
+    }
+
+    @Benchmark
+    public void run(final Blackhole bhl) {
+        final List<String> copy = new ArrayList<>(this.names);
+        copy.sort(new CrCompareDependency());
+        bhl.consume(copy);
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(CrCompareDependencyBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.RpmCorpus;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link XmlAlter.Stream}: updates packages count of metadata xml in memory.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class XmlAlterBench {
+
+    /**
+     * Metadata type.
+     */
+    @Param({"primary", "other", "filelists"})
+    public String type;
+
+    /**
+     * Number of the packages.
+     */
+    @Param({"100", "1000"})
+    public int packages;
+
+    /**
+     * Metadata type.
+     */
+    private XmlPackage xml;
+
+    /**
+     * Metadata content.
+     */
+    private byte[] content;
+
+    @Setup
+    public void setup() throws IOException {
+        this.xml = XmlPackage.valueOf(this.type.toUpperCase(Locale.US));
+        this.content = new RpmCorpus(1, this.packages).xmls().get(this.xml);
+    }
+
+    @Benchmark
+    public void run() {
+        new XmlAlter.Stream(new ByteArrayInputStream(this.content), ByteStreams.nullOutputStream())
+            .pkgAttr(this.xml.tag(), String.valueOf(this.packages + 1));
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(XmlAlterBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.RpmCorpus;
+import com.artipie.rpm.pkg.Package;
+import com.fasterxml.aalto.stax.EventFactoryImpl;
+import com.fasterxml.aalto.stax.OutputFactoryImpl;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link XmlEventPrimary}, {@link XmlEvent.Other} and
+ * {@link XmlEvent.Filelists}: writes metadata records of the packages, which are parsed
+ * in advance, to the null output.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class XmlEventBench {
+
+    /**
+     * Xml output factory.
+     */
+    private static final OutputFactoryImpl OUTPUT = new OutputFactoryImpl();
+
+    /**
+     * Xml events factory.
+     */
+    private static final EventFactoryImpl EVENTS = new EventFactoryImpl();
+
+    /**
+     * Metadata type.
+     */
+    @Param({"primary", "other", "filelists"})
+    public String type;
+
+    /**
+     * Number of the packages.
+     */
+    @Param({"10", "100"})
+    public int packages;
+
+    /**
+     * Median number of the files in the package.
+     */
+    @Param({"5", "50", "500"})
+    public int files;
+
+    /**
+     * Packages metadata.
+     */
+    private List<Package.Meta> metas;
+
+    /**
+     * Xml event to benchmark.
+     */
+    private XmlEvent event;
+
+    @Setup
+    public void setup() throws IOException {
+        this.metas = new RpmCorpus(1, this.packages, this.files).metas();
+        if ("primary".equals(this.type)) {
+            this.event = new XmlEventPrimary();
+        } else if ("other".equals(this.type)) {
+            this.event = new XmlEvent.Other();
+        } else {
+            this.event = new XmlEvent.Filelists();
+        }
+    }
+
+    @Benchmark
+    public void run() throws IOException, XMLStreamException {
+        final XMLEventWriter writer = XmlEventBench.OUTPUT.createXMLEventWriter(
+            ByteStreams.nullOutputStream()
+        );
+        writer.add(XmlEventBench.EVENTS.createStartDocument());
+        writer.add(XmlEventBench.EVENTS.createStartElement("", "", "metadata"));
+        for (final Package.Meta meta : this.metas) {
+            this.event.add(writer, meta);
+        }
+        writer.add(XmlEventBench.EVENTS.createEndElement("", "", "metadata"));
+        writer.add(XmlEventBench.EVENTS.createEndDocument());
+        writer.close();
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(XmlEventBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
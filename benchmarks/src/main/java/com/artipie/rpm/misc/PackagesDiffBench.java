@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.misc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link PackagesDiff}: calculates the difference of the packages listed in
+ * metadata and the packages in the repository, 10% of which are changed, 5% are removed and
+ * 5% are added.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PackagesDiffBench {
+
+    /**
+     * Number of the packages.
+     */
+    @Param({"1000", "10000", "100000"})
+    public int packages;
+
+    /**
+     * Packages in metadata.
+     */
+    private Map<String, String> primary;
+
+    /**
+     * Packages in repository.
+     */
+    private Map<String, String> repo;
+
+    @Setup
+    public void setup() {
+        final Random rnd = new Random(1);
+        this.primary = new HashMap<>(this.packages);
+        this.repo = new HashMap<>(this.packages);
+        for (int idx = 0; idx < this.packages; idx = idx + 1) {
+            final String name = String.format("bench-%07d-1.0-1.x86_64.rpm", idx);
+            final String checksum = PackagesDiffBench.checksum(rnd);
+            final int kind = rnd.nextInt(20);
+            if (kind != 0) {
+                this.primary.put(name, checksum);
+            }
+            if (kind == 1 || kind == 2) {
+                this.repo.put(name, PackagesDiffBench.checksum(rnd));
+            } else if (kind != 3) {
+                this.repo.put(name, checksum);
+            }
+        }
+    }
+
+    @Benchmark
+    public void run(final Blackhole bhl) {
+        final PackagesDiff diff = new PackagesDiff(this.primary, this.repo);
+        bhl.consume(diff.toAdd());
+        bhl.consume(diff.toDelete());
+    }
+
+    /**
+     * Random sha256 checksum.
+     * @param rnd Random
+     * @return Checksum hex
+     */
+    private static String checksum(final Random rnd) {
+        final StringBuilder res = new StringBuilder(64);
+        for (int idx = 0; idx < 4; idx = idx + 1) {
+            res.append(String.format("%016x", rnd.nextLong()));
+        }
+        return res.toString();
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(PackagesDiffBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
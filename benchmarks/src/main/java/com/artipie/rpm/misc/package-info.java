@@ -0,0 +1,10 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+/**
+ * Miscellaneous RPM benchmarks.
+ * @since 1.10
+ */
+package com.artipie.rpm.misc;
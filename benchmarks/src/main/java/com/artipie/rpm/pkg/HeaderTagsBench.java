@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+
+package com.artipie.rpm.pkg;
+
+import com.artipie.rpm.RpmCorpus;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark for {@link HeaderTags}: decodes the tags of the parsed headers, which are
+ * written to metadata.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle VisibilityModifierCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HeaderTagsBench {
+
+    /**
+     * Number of the packages.
+     */
+    @Param({"10", "100"})
+    public int packages;
+
+    /**
+     * Median number of the files in the package.
+     */
+    @Param({"5", "50", "500"})
+    public int files;
+
+    /**
+     * Packages metadata.
+     */
+    private List<Package.Meta> metas;
+
+    @Setup
+    public void setup() throws IOException {
+        this.metas = new RpmCorpus(1, this.packages, this.files).metas();
+    }
+
+    @Benchmark
+    public void primary(final Blackhole bhl) {
+        for (final Package.Meta meta : this.metas) {
+            final HeaderTags tags = new HeaderTags(meta);
+            bhl.consume(tags.name());
+            bhl.consume(tags.arch());
+            bhl.consume(tags.epoch());
+            bhl.consume(tags.version());
+            bhl.consume(tags.release());
+            bhl.consume(tags.summary());
+            bhl.consume(tags.description());
+            bhl.consume(tags.providesNames());
+            bhl.consume(tags.providesVer());
+            bhl.consume(tags.providesFlags());
+            bhl.consume(tags.requires());
+            bhl.consume(tags.requiresVer());
+            bhl.consume(tags.requireFlags());
+        }
+    }
+
+    @Benchmark
+    public void files(final Blackhole bhl) {
+        for (final Package.Meta meta : this.metas) {
+            final HeaderTags tags = new HeaderTags(meta);
+            bhl.consume(tags.baseNames());
+            bhl.consume(tags.dirNames());
+            bhl.consume(tags.dirIndexes());
+        }
+    }
+
+    @Benchmark
+    public void changelog(final Blackhole bhl) {
+        for (final Package.Meta meta : this.metas) {
+            final HeaderTags tags = new HeaderTags(meta);
+            bhl.consume(tags.changelogTimes());
+            bhl.consume(tags.changelogNames());
+            bhl.consume(tags.changelogTexts());
+        }
+    }
+
+    /**
+     * Main.
+     * @param args CLI args
+     * @throws RunnerException On benchmark failure
+     */
+    public static void main(final String... args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder()
+                .include(HeaderTagsBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build()
+        ).run();
+    }
+}
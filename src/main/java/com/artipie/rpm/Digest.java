@@ -4,8 +4,11 @@
  */
 package com.artipie.rpm;
 
+import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Supported algorithms for hashing.
@@ -28,6 +31,18 @@ public enum Digest {
      */
     private final String type;
 
+    /**
+     * MessageDigest instance, which is cloned to avoid security providers lookup
+     * on each instantiation.
+     */
+    private final AtomicReference<MessageDigest> prototype;
+
+    /**
+     * Per-thread MessageDigest instance, see {@link #digest(Action)}. It's null while the
+     * instance is used by the thread.
+     */
+    private final ThreadLocal<MessageDigest> local;
+
     /**
      * Ctor.
      * @param alg Hashing algorithm
@@ -36,13 +51,72 @@ public enum Digest {
     Digest(final String alg, final String type) {
         this.hashalg = alg;
         this.type = type;
+        this.prototype = new AtomicReference<>();
+        this.local = new ThreadLocal<>();
     }
 
     /**
-     * Instantiate MessageDigest instance.
+     * Instantiate MessageDigest instance. Instance is cloned from the prototype if the
+     * algorithm implementation supports cloning. Use it for the digests updated
+     * asynchronously, possibly by several threads, use {@link #digest(Action)} for
+     * the digests calculated by the calling thread at once.
      * @return MessageDigest instance
      */
     public MessageDigest messageDigest() {
+        MessageDigest res;
+        try {
+            res = (MessageDigest) this.prototype.updateAndGet(
+                proto -> {
+                    final MessageDigest digest;
+                    if (proto == null) {
+                        digest = this.instance();
+                    } else {
+                        digest = proto;
+                    }
+                    return digest;
+                }
+            ).clone();
+        } catch (final CloneNotSupportedException ex) {
+            res = this.instance();
+        }
+        return res;
+    }
+
+    /**
+     * Calculates digest with the per-thread MessageDigest instance, which is reset after
+     * the action, so that no instance is allocated for the digest. Action should complete
+     * the digest on the calling thread and should not keep the instance. If the action
+     * calculates another digest of the same algorithm, nested digest uses a new instance.
+     * @param action Action, which calculates the digest
+     * @param <T> Result type
+     * @return Action result
+     * @throws IOException On action error
+     */
+    public <T> T digest(final Action<T> action) throws IOException {
+        final MessageDigest digest = Optional.ofNullable(this.local.get())
+            .orElseGet(this::messageDigest);
+        this.local.set(null);
+        try {
+            return action.digest(digest);
+        } finally {
+            digest.reset();
+            this.local.set(digest);
+        }
+    }
+
+    /**
+     * Returns short algorithm name for using in RPM metadata.
+     * @return Digest type
+     */
+    public String type() {
+        return this.type;
+    }
+
+    /**
+     * Instantiate MessageDigest instance by the algorithm name.
+     * @return MessageDigest instance
+     */
+    private MessageDigest instance() {
         try {
             return MessageDigest.getInstance(this.hashalg);
         } catch (final NoSuchAlgorithmException err) {
@@ -57,10 +131,19 @@ public enum Digest {
     }
 
     /**
-     * Returns short algorithm name for using in RPM metadata.
-     * @return Digest type
+     * Digest calculation with the given MessageDigest instance.
+     * @param <T> Result type
+     * @since 1.10
      */
-    public String type() {
-        return this.type;
+    @FunctionalInterface
+    public interface Action<T> {
+
+        /**
+         * Calculates digest.
+         * @param digest MessageDigest instance
+         * @return Result
+         * @throws IOException On error
+         */
+        T digest(MessageDigest digest) throws IOException;
     }
 }
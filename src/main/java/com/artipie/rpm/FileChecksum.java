@@ -11,7 +11,6 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.security.MessageDigest;
 import java.util.Locale;
 import javax.xml.bind.DatatypeConverter;
 
@@ -54,16 +53,19 @@ public final class FileChecksum implements Checksum {
 
     @Override
     public String hex() throws IOException {
-        final MessageDigest digest = this.dgst.messageDigest();
-        try (FileChannel chan = FileChannel.open(this.file, StandardOpenOption.READ)) {
-            final ByteBuffer buf = ByteBuffer.allocateDirect(FileChecksum.BUF_SIZE);
-            while (chan.read(buf) > 0) {
-                ((Buffer) buf).flip();
-                digest.update(buf);
-                buf.clear();
+        return this.dgst.digest(
+            digest -> {
+                try (FileChannel chan = FileChannel.open(this.file, StandardOpenOption.READ)) {
+                    final ByteBuffer buf = ByteBuffer.allocateDirect(FileChecksum.BUF_SIZE);
+                    while (chan.read(buf) > 0) {
+                        ((Buffer) buf).flip();
+                        digest.update(buf);
+                        buf.clear();
+                    }
+                }
+                return DatatypeConverter.printHexBinary(digest.digest())
+                    .toLowerCase(Locale.US);
             }
-        }
-        return DatatypeConverter.printHexBinary(digest.digest())
-            .toLowerCase(Locale.US);
+        );
     }
 }
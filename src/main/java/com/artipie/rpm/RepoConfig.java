@@ -9,6 +9,11 @@ import com.amihaiemil.eoyaml.Yaml;
 import com.amihaiemil.eoyaml.YamlMapping;
 import com.amihaiemil.eoyaml.YamlNode;
 import com.artipie.ArtipieException;
+import com.artipie.asto.Storage;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Locale;
 import java.util.Optional;
 
@@ -50,6 +55,202 @@ public interface RepoConfig {
      */
     Optional<String> cron();
 
+    /**
+     * Grace period to keep superseded metadata files in `repodata` after new `repomd.xml`
+     * is published: clients, which have already read previous `repomd.xml`, are still able
+     * to download metadata it references. Default is 5 minutes, zero removes superseded
+     * files right after the publish.
+     * @return Grace period
+     */
+    default Duration gracePeriod() {
+        return Duration.ofMinutes(5);
+    }
+
+    /**
+     * Metadata commit mode, default is {@link CommitMode#LOCK}.
+     * @return Instance of {@link CommitMode}
+     */
+    default CommitMode commit() {
+        return CommitMode.LOCK;
+    }
+
+    /**
+     * Max attempts to commit metadata in {@link CommitMode#OPTIMISTIC} mode, default is 5.
+     * @return Attempts number
+     */
+    default int commitAttempts() {
+        return 5;
+    }
+
+    /**
+     * Repository locks, default is {@link LockMode#STORAGE}.
+     * @return Instance of {@link LockMode}
+     */
+    default LockMode locks() {
+        return LockMode.STORAGE;
+    }
+
+    /**
+     * Time to wait for the {@link LockMode#MEMORY} lock if it is held by another update,
+     * default is zero: lock attempt fails immediately as storage lock attempt does.
+     * @return Lock timeout
+     */
+    default Duration lockTimeout() {
+        return Duration.ZERO;
+    }
+
+    /**
+     * Max number of parse and compress tasks running at the same time, default is the number
+     * of available processors. Executors, deflaters pool and windows of the parallel metadata
+     * processing are sized by it.
+     * @return Parallelism
+     */
+    default int parallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Executors to run blocking update work on, default are {@link RepoExecutors.Bounded} pools
+     * with {@link #parallelism()}.
+     * @return Executors
+     */
+    default RepoExecutors executors() {
+        return RepoExecutors.Bounded.shared(this.parallelism());
+    }
+
+    /**
+     * Number of packages in chunk to filter existing metadata in parallel on removal,
+     * see {@link com.artipie.rpm.meta.XmlChunkedMaid}. Default is zero: metadata is
+     * filtered in a single thread.
+     * @return Chunk size
+     */
+    default int filterChunk() {
+        return 0;
+    }
+
+    /**
+     * Max number of new packages xml fragments rendered in parallel ahead of the metadata
+     * writer on the packages addition. Default is zero: new packages are written one by one.
+     * @return Render window
+     */
+    default int renderWindow() {
+        return 0;
+    }
+
+    /**
+     * Should rendered packages metadata records be stored and reused, see
+     * {@link com.artipie.rpm.asto.AstoPackageFragments}? Default is false.
+     * @return True if records should be stored
+     */
+    default boolean fragments() {
+        return false;
+    }
+
+    /**
+     * Should metadata files be compressed as multi-member gzip, see
+     * {@link com.artipie.rpm.meta.XmlGzipMembers}? Default is false.
+     * @return True if metadata files are compressed as gzip members
+     */
+    default boolean gzipMembers() {
+        return false;
+    }
+
+    /**
+     * Max number of the most recent changelog entries of each package written to other.xml,
+     * same as createrepo `--changelog-limit` option. Default is zero: all entries are written.
+     * @return Changelog limit
+     */
+    default int changelogLimit() {
+        return 0;
+    }
+
+    /**
+     * Should filelists.xml be updated in background after primary and other xmls update is
+     * published, see {@link com.artipie.rpm.asto.AstoFilelistsSync}? Default is false.
+     * Synchronization renders records of the packages missing in filelists from the package
+     * files: without rendered records store, see {@link #fragments()}, each synchronization
+     * downloads and parses every missing package again, so enable both on large repositories.
+     * @return True if filelists update is deferred
+     */
+    default boolean filelistsDeferred() {
+        return false;
+    }
+
+    /**
+     * Local storage to stage intermediate metadata files of the update in, see
+     * {@link com.artipie.rpm.asto.AstoStagedStorage}. Default is empty: intermediate
+     * files are written to the repository storage.
+     * @return Staging storage
+     */
+    default Optional<Storage> staging() {
+        return Optional.empty();
+    }
+
+    /**
+     * Max size of the intermediate files staged by a single update in megabytes, default
+     * is 256. Files, which do not fit, are written to the repository storage.
+     * @return Staging limit
+     */
+    default int stagingLimit() {
+        return 256;
+    }
+
+    /**
+     * Memory budget for the parsed packages of a single addition in megabytes, see
+     * {@link com.artipie.rpm.meta.PackagesBuffer}. Default is zero: the budget is disabled and
+     * parsed packages are kept in memory as they are.
+     * @return Memory budget
+     */
+    default int addBudget() {
+        return 0;
+    }
+
+    /**
+     * Metrics to record update stages to, default is {@link RepoMetrics.Noop}.
+     * @return Metrics
+     */
+    default RepoMetrics metrics() {
+        return new RepoMetrics.Noop();
+    }
+
+    /**
+     * Repository locks.
+     * @since 1.10
+     */
+    enum LockMode {
+
+        /**
+         * Locks are stored in the repository storage and are visible for all nodes,
+         * see {@link com.artipie.asto.lock.storage.StorageLock}.
+         */
+        STORAGE,
+
+        /**
+         * In-memory locks, visible for current JVM only, see
+         * {@link com.artipie.rpm.misc.StripedLocks}.
+         */
+        MEMORY
+    }
+
+    /**
+     * Metadata commit mode.
+     * @since 1.10
+     */
+    enum CommitMode {
+
+        /**
+         * Whole repository update is performed under the repository lock.
+         */
+        LOCK,
+
+        /**
+         * Update is calculated without the lock and is committed only if `repomd.xml`
+         * revision update started from is still current, otherwise update is calculated
+         * again against new revision, see {@link RepoConfig#commitAttempts()}.
+         */
+        OPTIMISTIC
+    }
+
     /**
      * Rpm repository update mode.
      * @since 1.9
@@ -84,17 +285,117 @@ public interface RepoConfig {
          */
         private static final String CRON = "cron";
 
+        /**
+         * Grace period (in seconds) yaml setting name.
+         */
+        private static final String GRACE = "grace-period";
+
+        /**
+         * Commit mode yaml setting name.
+         */
+        private static final String COMMIT = "commit";
+
+        /**
+         * Commit attempts yaml setting name.
+         */
+        private static final String ATTEMPTS = "commit-attempts";
+
+        /**
+         * Locks yaml setting name.
+         */
+        private static final String LOCKS = "locks";
+
+        /**
+         * Lock timeout (in seconds) yaml setting name.
+         */
+        private static final String LOCK_TIMEOUT = "lock-timeout";
+
+        /**
+         * Executors yaml setting name.
+         */
+        private static final String EXECUTORS = "executors";
+
+        /**
+         * Parallelism yaml setting name.
+         */
+        private static final String PARALLELISM = "parallelism";
+
+        /**
+         * Filter chunk size yaml setting name.
+         */
+        private static final String FILTER_CHUNK = "filter-chunk";
+
+        /**
+         * Render window yaml setting name.
+         */
+        private static final String RENDER_WINDOW = "render-window";
+
+        /**
+         * Fragments store yaml setting name.
+         */
+        private static final String FRAGMENTS = "fragments";
+
+        /**
+         * Gzip members layout yaml setting name.
+         */
+        private static final String GZIP_MEMBERS = "gzip-members";
+
+        /**
+         * Changelog limit yaml setting name.
+         */
+        private static final String CHANGELOG_LIMIT = "changelog-limit";
+
+        /**
+         * Deferred filelists yaml setting name.
+         */
+        private static final String FILELISTS_DEFERRED = "filelists-deferred";
+
+        /**
+         * Staging yaml setting name.
+         */
+        private static final String STAGING = "staging";
+
+        /**
+         * Staging limit yaml setting name.
+         */
+        private static final String STAGING_LIMIT = "staging-limit";
+
+        /**
+         * Addition memory budget yaml setting name.
+         */
+        private static final String ADD_BUDGET = "add-memory-budget";
+
+        /**
+         * In-memory staging yaml setting value.
+         */
+        private static final String MEMORY = "memory";
+
         /**
          * Settings.
          */
         private final YamlMapping yaml;
 
+        /**
+         * Metrics.
+         */
+        private final RepoMetrics mtrcs;
+
         /**
          * Ctor.
          * @param yaml Yaml settings
+         * @param mtrcs Metrics
          */
-        public FromYaml(final YamlMapping yaml) {
+        public FromYaml(final YamlMapping yaml, final RepoMetrics mtrcs) {
             this.yaml = yaml;
+            this.mtrcs = mtrcs;
+        }
+
+        /**
+         * Ctor.
+         * @param yaml Yaml settings
+         */
+        public FromYaml(final YamlMapping yaml) {
+            this(yaml, new RepoMetrics.Noop());
         }
 
         /**
@@ -156,6 +457,173 @@ public interface RepoConfig {
             }
             return res;
         }
+
+        @Override
+        public Duration gracePeriod() {
+            return Optional.ofNullable(this.yaml.string(FromYaml.GRACE))
+                .map(sec -> Duration.ofSeconds(Long.parseLong(sec)))
+                .orElse(Duration.ofMinutes(5));
+        }
+
+        @Override
+        public CommitMode commit() {
+            return Optional.ofNullable(this.yaml.string(FromYaml.COMMIT))
+                .map(mode -> CommitMode.valueOf(mode.toUpperCase(Locale.US)))
+                .orElse(CommitMode.LOCK);
+        }
+
+        @Override
+        public int commitAttempts() {
+            return this.number(FromYaml.ATTEMPTS, 5, 1, "a number");
+        }
+
+        @Override
+        public LockMode locks() {
+            return Optional.ofNullable(this.yaml.string(FromYaml.LOCKS))
+                .map(mode -> LockMode.valueOf(mode.toUpperCase(Locale.US)))
+                .orElse(LockMode.STORAGE);
+        }
+
+        @Override
+        public Duration lockTimeout() {
+            return Optional.ofNullable(this.yaml.string(FromYaml.LOCK_TIMEOUT))
+                .map(sec -> Duration.ofSeconds(Long.parseLong(sec))).orElse(Duration.ZERO);
+        }
+
+        @Override
+        public int parallelism() {
+            return this.number(
+                FromYaml.PARALLELISM, Runtime.getRuntime().availableProcessors(), 1, "a number"
+            );
+        }
+
+        @Override
+        public RepoExecutors executors() {
+            final int parallelism = this.parallelism();
+            final String mode = Optional.ofNullable(this.yaml.string(FromYaml.EXECUTORS))
+                .orElse("bounded");
+            final RepoExecutors res;
+            if ("virtual".equals(mode)) {
+                res = RepoExecutors.VirtualThreads.shared(parallelism);
+            } else if ("bounded".equals(mode)) {
+                res = RepoExecutors.Bounded.shared(parallelism);
+            } else {
+                throw new ArtipieException(
+                    String.format("Unknown executors `%s`, use `bounded` or `virtual`", mode)
+                );
+            }
+            return res;
+        }
+
+        @Override
+        public int filterChunk() {
+            return this.number(FromYaml.FILTER_CHUNK, 0, 0, "a number of packages");
+        }
+
+        @Override
+        public int renderWindow() {
+            return this.number(FromYaml.RENDER_WINDOW, 0, 0, "a number of packages");
+        }
+
+        @Override
+        public boolean fragments() {
+            return Boolean.TRUE.toString().equals(this.yaml.string(FromYaml.FRAGMENTS));
+        }
+
+        @Override
+        public boolean gzipMembers() {
+            return Boolean.TRUE.toString().equals(this.yaml.string(FromYaml.GZIP_MEMBERS));
+        }
+
+        @Override
+        public int changelogLimit() {
+            return this.number(FromYaml.CHANGELOG_LIMIT, 0, 0, "a number of entries");
+        }
+
+        @Override
+        public boolean filelistsDeferred() {
+            return Boolean.TRUE.toString().equals(this.yaml.string(FromYaml.FILELISTS_DEFERRED));
+        }
+
+        @Override
+        public Optional<Storage> staging() {
+            return Optional.ofNullable(this.yaml.string(FromYaml.STAGING)).map(
+                value -> {
+                    final Storage res;
+                    if (FromYaml.MEMORY.equals(value)) {
+                        res = new InMemoryStorage();
+                    } else {
+                        res = new FileStorage(Paths.get(value));
+                    }
+                    return res;
+                }
+            );
+        }
+
+        @Override
+        public int stagingLimit() {
+            return this.size(FromYaml.STAGING_LIMIT, 256);
+        }
+
+        @Override
+        public int addBudget() {
+            return this.size(FromYaml.ADD_BUDGET, 0);
+        }
+
+        @Override
+        public RepoMetrics metrics() {
+            return this.mtrcs;
+        }
+
+        /**
+         * Reads size setting in megabytes, which should be a non-negative number.
+         * @param name Setting name
+         * @param def Default value
+         * @return Setting value
+         * @throws ArtipieException When setting value is not a non-negative number
+         */
+        private int size(final String name, final int def) {
+            return this.number(name, def, 0, "a number of megabytes");
+        }
+
+        /**
+         * Reads numeric setting.
+         * @param name Setting name
+         * @param def Default value
+         * @param min Min allowed value
+         * @param what What the setting value is, for the error message
+         * @return Setting value
+         * @throws ArtipieException When setting value is not a number or is less than min
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        private int number(final String name, final int def, final int min,
+            final String what) {
+            return Optional.ofNullable(this.yaml.string(name)).map(
+                value -> {
+                    final int res;
+                    try {
+                        res = Integer.parseInt(value.trim());
+                    } catch (final NumberFormatException err) {
+                        throw new ArtipieException(
+                            String.format(
+                                "Repository setting `%s` should be %s, got `%s`",
+                                name, what, value
+                            ),
+                            err
+                        );
+                    }
+                    if (res < min) {
+                        throw new ArtipieException(
+                            String.format(
+                                "Repository setting `%s` should not be less than %d, got `%s`",
+                                name, min, value
+                            )
+                        );
+                    }
+                    return res;
+                }
+            ).orElse(def);
+        }
     }
 
     /**
@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import com.artipie.rpm.misc.LimitedExecutor;
+import com.jcabi.log.Logger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors to run blocking repository update work on.
+ * @since 1.10
+ */
+public interface RepoExecutors {
+
+    /**
+     * Executor to parse rpm packages and read/write metadata xmls.
+     * @return Executor
+     */
+    Executor parse();
+
+    /**
+     * Executor to compress metadata and calculate checksums.
+     * @return Executor
+     */
+    Executor compress();
+
+    /**
+     * Executor for other blocking storage IO operations.
+     * @return Executor
+     */
+    Executor io();
+
+    /**
+     * Bounded thread pools: parse and compress pools have `parallelism` threads, IO pool has
+     * twice as many threads. Idle threads are stopped after one minute. Pools are shared by
+     * repositories with the same parallelism, see {@link Bounded#shared(int)}.
+     * @since 1.10
+     */
+    final class Bounded implements RepoExecutors {
+
+        /**
+         * Pools shared by the JVM by parallelism.
+         */
+        private static final ConcurrentMap<Integer, RepoExecutors> SHARED =
+            new ConcurrentHashMap<>();
+
+        /**
+         * Parse pool.
+         */
+        private final Executor prs;
+
+        /**
+         * Compress pool.
+         */
+        private final Executor cmprs;
+
+        /**
+         * IO pool.
+         */
+        private final Executor blocking;
+
+        /**
+         * Ctor.
+         * @param parallelism Parse and compress pools size
+         */
+        public Bounded(final int parallelism) {
+            this.prs = Bounded.pool("rpm-parse", parallelism);
+            this.cmprs = Bounded.pool("rpm-compress", parallelism);
+            this.blocking = Bounded.pool("rpm-io", parallelism * 2);
+        }
+
+        @Override
+        public Executor parse() {
+            return this.prs;
+        }
+
+        @Override
+        public Executor compress() {
+            return this.cmprs;
+        }
+
+        @Override
+        public Executor io() {
+            return this.blocking;
+        }
+
+        /**
+         * Pools shared by the JVM.
+         * @param parallelism Parse and compress pools size
+         * @return Executors
+         */
+        public static RepoExecutors shared(final int parallelism) {
+            return Bounded.SHARED.computeIfAbsent(parallelism, Bounded::new);
+        }
+
+        /**
+         * Creates thread pool with daemon threads.
+         * @param name Threads name prefix
+         * @param size Pool size
+         * @return Thread pool
+         */
+        private static Executor pool(final String name, final int size) {
+            final AtomicInteger cnt = new AtomicInteger();
+            final ThreadFactory factory = runnable -> {
+                final Thread thread = new Thread(
+                    runnable, String.format("%s-%d", name, cnt.incrementAndGet())
+                );
+                thread.setDaemon(true);
+                return thread;
+            };
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                size, size, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), factory
+            );
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * Virtual thread per task executors, available on Java 21 and later. Parse and compress
+     * tasks are limited to `parallelism` tasks running at the same time, IO tasks
+     * to twice as many. On older Java versions {@link Bounded} pools are used.
+     * @since 1.10
+     */
+    final class VirtualThreads implements RepoExecutors {
+
+        /**
+         * Executors shared by the JVM by parallelism.
+         */
+        private static final ConcurrentMap<Integer, RepoExecutors> SHARED =
+            new ConcurrentHashMap<>();
+
+        /**
+         * Parse executor.
+         */
+        private final Executor prs;
+
+        /**
+         * Compress executor.
+         */
+        private final Executor cmprs;
+
+        /**
+         * IO executor.
+         */
+        private final Executor blocking;
+
+        /**
+         * Ctor.
+         * @param origin Virtual thread per task executor
+         * @param parallelism Max number of parse and compress tasks running at the same time
+         */
+        VirtualThreads(final Executor origin, final int parallelism) {
+            this.prs = new LimitedExecutor(origin, parallelism);
+            this.cmprs = new LimitedExecutor(origin, parallelism);
+            this.blocking = new LimitedExecutor(origin, parallelism * 2);
+        }
+
+        @Override
+        public Executor parse() {
+            return this.prs;
+        }
+
+        @Override
+        public Executor compress() {
+            return this.cmprs;
+        }
+
+        @Override
+        public Executor io() {
+            return this.blocking;
+        }
+
+        /**
+         * Executors shared by the JVM.
+         * @param parallelism Max number of parse and compress tasks running at the same time
+         * @return Executors
+         */
+        public static RepoExecutors shared(final int parallelism) {
+            return VirtualThreads.SHARED.computeIfAbsent(
+                parallelism,
+                size -> {
+                    RepoExecutors res;
+                    try {
+                        res = new VirtualThreads(
+                            (Executor) java.util.concurrent.Executors.class
+                                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null),
+                            size
+                        );
+                    } catch (final ReflectiveOperationException err) {
+                        Logger.warn(
+                            VirtualThreads.class,
+                            "Virtual threads are not available, bounded pools are used: %s",
+                            err.getMessage()
+                        );
+                        res = Bounded.shared(size);
+                    }
+                    return res;
+                }
+            );
+        }
+    }
+}
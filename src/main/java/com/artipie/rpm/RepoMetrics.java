@@ -0,0 +1,375 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Repository update metrics: time of the update stages, number of the processed packages
+ * and bytes, time spent waiting for locks and number of pending packages.
+ * @since 1.10
+ */
+public interface RepoMetrics {
+
+    /**
+     * Records stage duration.
+     * @param stage Update stage
+     * @param duration Duration
+     */
+    void time(Stage stage, Duration duration);
+
+    /**
+     * Increments counter.
+     * @param counter Counter
+     * @param amount Amount to add
+     */
+    void count(Counter counter, long amount);
+
+    /**
+     * Sets gauge value.
+     * @param gauge Gauge
+     * @param value Current value
+     */
+    void gauge(Gauge gauge, long value);
+
+    /**
+     * Performs action and records its duration once it is completed.
+     * @param stage Update stage
+     * @param action Action
+     * @param <T> Result type
+     * @return Completable action
+     */
+    default <T> CompletionStage<T> timed(final Stage stage,
+        final Supplier<? extends CompletionStage<T>> action) {
+        final long start = System.nanoTime();
+        return action.get().whenComplete(
+            (res, err) -> this.time(stage, Duration.ofNanos(System.nanoTime() - start))
+        );
+    }
+
+    /**
+     * Update stages, recorded by `artipie.rpm.update` timer with `stage` tag.
+     * @since 1.10
+     */
+    enum Stage {
+
+        /**
+         * Whole batch update including lock wait.
+         */
+        BATCH_UPDATE("batch-update"),
+
+        /**
+         * Calculation of the difference between metadata and repository packages.
+         */
+        CALC_DIFF("calc-diff"),
+
+        /**
+         * Parsing of the added packages.
+         */
+        PARSE("parse"),
+
+        /**
+         * Adding packages to metadata.
+         */
+        METADATA_ADD("metadata-add"),
+
+        /**
+         * Removing packages from metadata.
+         */
+        METADATA_REMOVE("metadata-remove"),
+
+        /**
+         * Compression of the metadata file.
+         */
+        GZIP("gzip"),
+
+        /**
+         * Creation of repomd.xml.
+         */
+        REPOMD("repomd"),
+
+        /**
+         * Moving metadata files to the repository on commit.
+         */
+        COMMIT_MOVE("commit-move"),
+
+        /**
+         * Waiting for the repository lock.
+         */
+        LOCK_WAIT("lock-wait");
+
+        /**
+         * Tag value.
+         */
+        private final String value;
+
+        /**
+         * Ctor.
+         * @param value Tag value
+         */
+        Stage(final String value) {
+            this.value = value;
+        }
+
+        /**
+         * Meter name.
+         * @return Name
+         */
+        public String meter() {
+            return "artipie.rpm.update";
+        }
+
+        /**
+         * Meter tags as key-value pairs.
+         * @return Tags
+         */
+        public String[] tags() {
+            return new String[] {"stage", this.value};
+        }
+    }
+
+    /**
+     * Counters of the packages, recorded by `artipie.rpm.packages` counter with `state` tag,
+     * and of the metadata bytes, recorded by `artipie.rpm.bytes` counter with `direction` tag.
+     * @since 1.10
+     */
+    enum Counter {
+
+        /**
+         * Parsed packages.
+         */
+        PARSED("artipie.rpm.packages", "state", "parsed"),
+
+        /**
+         * Packages added to metadata.
+         */
+        ADDED("artipie.rpm.packages", "state", "added"),
+
+        /**
+         * Packages removed from metadata.
+         */
+        REMOVED("artipie.rpm.packages", "state", "removed"),
+
+        /**
+         * Packages, which failed to parse.
+         */
+        INVALID("artipie.rpm.packages", "state", "invalid"),
+
+        /**
+         * Uncompressed metadata bytes read by compression.
+         */
+        BYTES_READ("artipie.rpm.bytes", "direction", "read"),
+
+        /**
+         * Compressed metadata bytes written.
+         */
+        BYTES_WRITTEN("artipie.rpm.bytes", "direction", "written");
+
+        /**
+         * Meter name.
+         */
+        private final String name;
+
+        /**
+         * Tag key.
+         */
+        private final String key;
+
+        /**
+         * Tag value.
+         */
+        private final String value;
+
+        /**
+         * Ctor.
+         * @param name Meter name
+         * @param key Tag key
+         * @param value Tag value
+         */
+        Counter(final String name, final String key, final String value) {
+            this.name = name;
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Meter name.
+         * @return Name
+         */
+        public String meter() {
+            return this.name;
+        }
+
+        /**
+         * Meter tags as key-value pairs.
+         * @return Tags
+         */
+        public String[] tags() {
+            return new String[] {this.key, this.value};
+        }
+    }
+
+    /**
+     * Number of the pending packages, recorded by `artipie.rpm.pending` gauge
+     * with `queue` tag.
+     * @since 1.10
+     */
+    enum Gauge {
+
+        /**
+         * Packages in {@link com.artipie.rpm.http.RpmUpload#TO_ADD} location.
+         */
+        PENDING_ADD("add"),
+
+        /**
+         * Packages in {@link com.artipie.rpm.http.RpmRemove#TO_RM} location.
+         */
+        PENDING_REMOVE("remove");
+
+        /**
+         * Tag value.
+         */
+        private final String value;
+
+        /**
+         * Ctor.
+         * @param value Tag value
+         */
+        Gauge(final String value) {
+            this.value = value;
+        }
+
+        /**
+         * Meter name.
+         * @return Name
+         */
+        public String meter() {
+            return "artipie.rpm.pending";
+        }
+
+        /**
+         * Meter tags as key-value pairs.
+         * @return Tags
+         */
+        public String[] tags() {
+            return new String[] {"queue", this.value};
+        }
+    }
+
+    /**
+     * No metrics.
+     * @since 1.10
+     */
+    final class Noop implements RepoMetrics {
+
+        @Override
+        public void time(final Stage stage, final Duration duration) {
+            // metrics are not recorded
+        }
+
+        @Override
+        public void count(final Counter counter, final long amount) {
+            // metrics are not recorded
+        }
+
+        @Override
+        public void gauge(final Gauge gauge, final long value) {
+            // metrics are not recorded
+        }
+    }
+
+    /**
+     * Metrics recorded to the meters created by name and tags, compatible with the Micrometer
+     * `MeterRegistry` API:
+     * <pre>{@code
+     * new RepoMetrics.Meters(
+     *     (name, tags) -> registry.timer(name, tags)::record,
+     *     (name, tags) -> registry.counter(name, tags)::increment,
+     *     (name, tags) -> registry.gauge(name, Tags.of(tags), new AtomicLong())
+     * )
+     * }</pre>
+     * Meters are created once and cached: gauge value holder is strongly referenced,
+     * so it is not collected while the metrics are used.
+     * @since 1.10
+     */
+    final class Meters implements RepoMetrics {
+
+        /**
+         * Timers factory.
+         */
+        private final BiFunction<String, String[], Consumer<Duration>> timers;
+
+        /**
+         * Counters factory.
+         */
+        private final BiFunction<String, String[], LongConsumer> counters;
+
+        /**
+         * Gauges factory.
+         */
+        private final BiFunction<String, String[], AtomicLong> gauges;
+
+        /**
+         * Created timers.
+         */
+        private final Map<Stage, Consumer<Duration>> timer;
+
+        /**
+         * Created counters.
+         */
+        private final Map<Counter, LongConsumer> counter;
+
+        /**
+         * Created gauges.
+         */
+        private final Map<Gauge, AtomicLong> gauge;
+
+        /**
+         * Ctor.
+         * @param timers Timers factory, accepts meter name and tags
+         * @param counters Counters factory, accepts meter name and tags
+         * @param gauges Gauges factory, accepts meter name and tags
+         */
+        public Meters(final BiFunction<String, String[], Consumer<Duration>> timers,
+            final BiFunction<String, String[], LongConsumer> counters,
+            final BiFunction<String, String[], AtomicLong> gauges) {
+            this.timers = timers;
+            this.counters = counters;
+            this.gauges = gauges;
+            this.timer = new ConcurrentHashMap<>();
+            this.counter = new ConcurrentHashMap<>();
+            this.gauge = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public void time(final Stage stage, final Duration duration) {
+            this.timer.computeIfAbsent(
+                stage, item -> this.timers.apply(item.meter(), item.tags())
+            ).accept(duration);
+        }
+
+        @Override
+        public void count(final Counter cntr, final long amount) {
+            this.counter.computeIfAbsent(
+                cntr, item -> this.counters.apply(item.meter(), item.tags())
+            ).accept(amount);
+        }
+
+        @Override
+        public void gauge(final Gauge item, final long value) {
+            this.gauge.computeIfAbsent(
+                item, gge -> this.gauges.apply(gge.meter(), gge.tags())
+            ).set(value);
+        }
+    }
+}
@@ -5,18 +5,18 @@
 package com.artipie.rpm;
 
 import com.artipie.asto.ArtipieIOException;
-import com.artipie.asto.Copy;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.SubStorage;
 import com.artipie.asto.lock.Lock;
-import com.artipie.asto.lock.storage.StorageLock;
-import com.artipie.asto.misc.UncheckedIOScalar;
-import com.artipie.asto.streams.ContentAsStream;
 import com.artipie.rpm.asto.AstoChecksumAndName;
+import com.artipie.rpm.asto.AstoLocks;
+import com.artipie.rpm.asto.AstoMetadataLocations;
 import com.artipie.rpm.asto.AstoRepoAdd;
 import com.artipie.rpm.asto.AstoRepoRemove;
+import com.artipie.rpm.asto.AstoRepodataCommit;
 import com.artipie.rpm.http.RpmUpload;
+import com.artipie.rpm.meta.XmlGzipFeed;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.meta.XmlPrimaryChecksums;
 import com.artipie.rpm.misc.PackagesDiff;
@@ -25,15 +25,12 @@ import io.reactivex.Completable;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.zip.GZIPInputStream;
+import java.util.stream.Stream;
 
 /**
  * The RPM front.
@@ -154,21 +151,29 @@ public final class Rpm {
     }
 
     /**
-     * Batch update RPM files for repository.
+     * Batch update RPM files for repository. Update is performed under the repository lock,
+     * unless metadata is committed optimistically (see {@link RepoConfig#commit()}). Packages,
+     * which are located in the repository but are absent in metadata, are indexed in place,
+     * packages uploaded to {@link RpmUpload#TO_ADD} are added as well.
      * @param prefix Repository key prefix
      * @return Completable action
      * @throws ArtipieIOException On IO-operation errors
      */
     public Completable batchUpdate(final Key prefix) {
-        return this.doWithLock(
-            prefix,
-            () -> Completable.fromFuture(this.calcDiff(prefix).thenCompose(
-                list -> {
-                    final Storage sub = new SubStorage(prefix, this.storage);
-                    return new AstoRepoAdd(sub, this.config).perform().thenCompose(
-                        nothing -> new AstoRepoRemove(sub, this.config).perform(list)
-                    );
-                }).toCompletableFuture()
+        final Supplier<Completable> update = () -> Completable.fromFuture(
+            this.update(new SubStorage(prefix, this.storage), prefix).toCompletableFuture()
+        );
+        final Completable res;
+        if (new AstoRepodataCommit(this.storage, this.config).optimistic()) {
+            res = Completable.defer(update::get);
+        } else {
+            res = this.doWithLock(prefix, update);
+        }
+        return Completable.defer(
+            () -> Completable.fromFuture(
+                this.config.metrics().timed(
+                    RepoMetrics.Stage.BATCH_UPDATE, () -> res.to(CompletableInterop.await())
+                ).toCompletableFuture()
             )
         );
     }
@@ -194,10 +199,9 @@ public final class Rpm {
      * @return Completion of operation and lock.
      */
     private Completable doWithLock(final Key target, final Supplier<Completable> operation) {
-        final Lock lock = new StorageLock(
-            this.storage,
+        final Lock lock = new AstoLocks(this.storage, this.config).lock(
             target,
-            Instant.now().plus(Duration.ofHours(1))
+            Optional.of(Instant.now().plus(Duration.ofHours(1)))
         );
         return Completable.fromFuture(
             lock.acquire()
@@ -208,47 +212,48 @@ public final class Rpm {
     }
 
     /**
-     * Calculate differences between current metadata and storage rpms, prepare
-     * packages to add or to remove.
+     * Calculate differences between current metadata and storage rpms and update metadata:
+     * new packages are added to metadata at their current locations, removed packages are
+     * removed from metadata. Packages in {@link RpmUpload#TO_ADD} and
+     * {@link AstoRepoAdd#CLAIMED} locations are not considered as the repository packages,
+     * they are added by {@link AstoRepoAdd} as uploaded ones.
+     * @param sub Repository storage
      * @param prefix Prefix key
-     * @return Completable action with list of the checksums of the remove packages
+     * @return Completable action
      */
-    private CompletionStage<Collection<String>> calcDiff(final Key prefix) {
-        return this.storage.list(new Key.From(prefix, "repodata"))
-            .thenApply(
-                list -> list.stream().filter(
-                    item -> item.string().contains(XmlPackage.PRIMARY.lowercase())
-                        && item.string().endsWith("xml.gz")
-                ).findFirst()
-            ).thenCompose(
+    private CompletionStage<Void> update(final Storage sub, final Key prefix) {
+        final AstoLocks locks = new AstoLocks(sub, this.config, this.storage, prefix);
+        return new AstoMetadataLocations(sub).find(XmlPackage.PRIMARY)
+            .thenCompose(
                 opt -> {
-                    final CompletionStage<Collection<String>> res;
-                    final SubStorage sub = new SubStorage(prefix, this.storage);
+                    final CompletionStage<Void> res;
                     if (opt.isPresent()) {
-                        res = this.storage.value(opt.get()).thenCompose(
-                            val -> new ContentAsStream<Map<String, String>>(val).process(
-                                input -> new XmlPrimaryChecksums(
-                                    new UncheckedIOScalar<>(() -> new GZIPInputStream(input))
-                                        .value()
-                                ).read()
+                        res = this.config.metrics().timed(
+                            RepoMetrics.Stage.CALC_DIFF,
+                            () -> sub.value(opt.get()).thenCompose(
+                                val -> new XmlGzipFeed(val, this.config.executors().parse())
+                                    .read(new XmlPrimaryChecksums.Events())
+                            ).thenCompose(
+                                primary -> new AstoChecksumAndName(
+                                    this.storage, this.config.digest()
+                                ).calculate(prefix).thenApply(
+                                    repo -> new PackagesDiff(primary, repo)
+                                )
                             )
                         ).thenCompose(
-                            primary -> new AstoChecksumAndName(this.storage, this.config.digest())
-                                .calculate(prefix)
-                                .thenApply(repo -> new PackagesDiff(primary, repo))
-                        ).thenCompose(
-                            diff -> Rpm.copyPackagesToAdd(
-                                sub,
-                                diff.toAdd().stream().map(Key.From::new)
-                                    .collect(Collectors.toList())
-                            ).thenApply(nothing -> diff.toDelete().values())
+                            diff -> new AstoRepoAdd(sub, this.config, locks).perform(
+                                Rpm.packages(diff.toAdd().stream().map(Key.From::new))
+                            ).thenCompose(
+                                nothing -> new AstoRepoRemove(sub, this.config, locks)
+                                    .perform(diff.toDelete().values())
+                            )
                         );
                     } else {
-                        res = sub.list(Key.ROOT).thenApply(
-                            list -> list.stream().filter(item -> item.string().endsWith("rpm"))
-                        ).thenCompose(
-                            rpms -> copyPackagesToAdd(sub, rpms.collect(Collectors.toList()))
-                        ).thenApply(nothing -> Collections.emptySet());
+                        res = sub.list(Key.ROOT).thenCompose(
+                            list -> new AstoRepoAdd(sub, this.config, locks).perform(
+                                Rpm.packages(list.stream())
+                            )
+                        );
                     }
                     return res;
                 }
@@ -256,14 +261,17 @@ public final class Rpm {
     }
 
     /**
-     * Handles packages that should be added to metadata.
-     * @param asto Storage
-     * @param rpms Packages
-     * @return Completable action
+     * Filters repository packages: keys, which end with `rpm` and are not located
+     * in {@link RpmUpload#TO_ADD} or {@link AstoRepoAdd#CLAIMED}.
+     * @param keys Keys
+     * @return Packages keys
      */
-    private static CompletableFuture<Void> copyPackagesToAdd(
-        final Storage asto, final List<Key> rpms
-    ) {
-        return new Copy(asto, rpms).copy(new SubStorage(RpmUpload.TO_ADD, asto));
+    private static List<Key> packages(final Stream<? extends Key> keys) {
+        final String staged = String.format("%s/", RpmUpload.TO_ADD.string());
+        final String claimed = String.format("%s/", AstoRepoAdd.CLAIMED.string());
+        return keys.filter(
+            item -> item.string().endsWith("rpm") && !item.string().startsWith(staged)
+                && !item.string().startsWith(claimed)
+        ).collect(Collectors.toList());
     }
 }
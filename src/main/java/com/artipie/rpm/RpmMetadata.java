@@ -17,7 +17,6 @@ import com.artipie.rpm.meta.XmlPrimaryMaid;
 import com.artipie.rpm.pkg.Checksum;
 import com.artipie.rpm.pkg.FilePackage;
 import com.artipie.rpm.pkg.Package;
-import com.jcabi.log.Logger;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
@@ -28,9 +27,9 @@ import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import org.redline_rpm.header.Header;
 
 /**
@@ -115,16 +114,34 @@ public interface RpmMetadata {
          */
         private final Collection<MetadataItem> items;
 
+        /**
+         * Executors.
+         */
+        private final RepoExecutors executors;
+
         /**
          * Ctor.
          * @param items Metadata items
          */
         public Append(final MetadataItem... items) {
+            this(RepoExecutors.Bounded.shared(Runtime.getRuntime().availableProcessors()), items);
+        }
+
+        /**
+         * Ctor.
+         * @param executors Executors to run metadata updates on
+         * @param items Metadata items
+         */
+        public Append(final RepoExecutors executors, final MetadataItem... items) {
+            this.executors = executors;
             this.items = Arrays.asList(items);
         }
 
         /**
-         * Appends records about provided RPMs.
+         * Appends records about provided RPMs. Primary is merged on the calling thread,
+         * other and filelists are merged on {@link RepoExecutors#io()} executor while
+         * the calling thread waits for them, so this method should not be called from
+         * the io executor itself.
          * @param packages Rpms to append info about, map of the path to file and location
          * @throws ArtipieIOException On io-operation error
          * @checkstyle NestedTryDepthCheck (20 lines)
@@ -140,15 +157,14 @@ public interface RpmMetadata {
                         res = new MergedXmlPrimary(primary.input, out)
                             .merge(packages, new XmlEventPrimary());
                     }
-                    final ExecutorService service = Executors.newFixedThreadPool(3);
-                    service.submit(Append.setPrimaryPckg(temp, res, primary));
-                    service.submit(this.updateOther(packages, res));
-                    service.submit(this.updateFilelist(packages, res));
-                    service.shutdown();
-                    service.awaitTermination(Long.MAX_VALUE, TimeUnit.HOURS);
-                } catch (final InterruptedException err) {
-                    Thread.currentThread().interrupt();
-                    Logger.error(this, err.getMessage());
+                    final Executor exec = this.executors.io();
+                    CompletableFuture.allOf(
+                        CompletableFuture.runAsync(Append.setPrimaryPckg(temp, res, primary), exec),
+                        CompletableFuture.runAsync(this.updateOther(packages, res), exec),
+                        CompletableFuture.runAsync(this.updateFilelist(packages, res), exec)
+                    ).join();
+                } catch (final CompletionException err) {
+                    throw new ArtipieIOException(err.getCause());
                 } finally {
                     Files.delete(temp);
                 }
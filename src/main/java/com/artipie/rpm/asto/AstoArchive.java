@@ -7,10 +7,13 @@ package com.artipie.rpm.asto;
 import com.artipie.asto.ArtipieIOException;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
-import com.artipie.asto.streams.StorageValuePipeline;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.RepoMetrics;
+import com.artipie.rpm.meta.GzipMember;
+import com.google.common.io.CountingOutputStream;
 import java.io.IOException;
 import java.util.concurrent.CompletionStage;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.Executor;
 
 /**
  * Archive storage item.
@@ -23,12 +26,56 @@ final class AstoArchive {
      */
     private final Storage asto;
 
+    /**
+     * Metrics.
+     */
+    private final RepoMetrics metrics;
+
+    /**
+     * Executor to compress on.
+     */
+    private final Executor exec;
+
+    /**
+     * Deflaters pool.
+     */
+    private final GzipMember.Pool deflaters;
+
     /**
      * Ctor.
      * @param asto Asto storage
+     * @param cnfg Repository config: metrics to record compression time and size to,
+     *  compress executor and parallelism to size deflaters pool by
      */
-    AstoArchive(final Storage asto) {
+    AstoArchive(final Storage asto, final RepoConfig cnfg) {
+        this(
+            asto, cnfg.metrics(), cnfg.executors().compress(),
+            GzipMember.Pool.shared(cnfg.parallelism() * 2)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param metrics Metrics to record compression time and size to
+     * @param exec Executor to compress on
+     * @param deflaters Deflaters pool
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    AstoArchive(final Storage asto, final RepoMetrics metrics, final Executor exec,
+        final GzipMember.Pool deflaters) {
         this.asto = asto;
+        this.metrics = metrics;
+        this.exec = exec;
+        this.deflaters = deflaters;
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     */
+    AstoArchive(final Storage asto) {
+        this(asto, new RepoConfig.Simple());
     }
 
     /**
@@ -37,23 +84,33 @@ final class AstoArchive {
      * @return Completable action
      */
     public CompletionStage<Void> gzip(final Key key) {
-        return new StorageValuePipeline<>(this.asto, key).process(
-            (inpt, out) -> {
-                try (GZIPOutputStream gzos = new GZIPOutputStream(out)) {
-                    // @checkstyle MagicNumberCheck (1 line)
-                    final byte[] buffer = new byte[1024 * 8];
-                    while (true) {
-                        final int length = inpt.get().read(buffer);
-                        if (length < 0) {
-                            break;
+        return this.metrics.timed(
+            RepoMetrics.Stage.GZIP,
+            () -> new AstoValuePipeline<>(this.asto, key, this.exec).process(
+                (inpt, out) -> {
+                    final GzipEvent jfr = new GzipEvent(key.string());
+                    final CountingOutputStream counting = new CountingOutputStream(out);
+                    try (GzipMember gzos = new GzipMember(counting, this.deflaters)) {
+                        // @checkstyle MagicNumberCheck (1 line)
+                        final byte[] buffer = new byte[1024 * 8];
+                        long read = 0;
+                        while (true) {
+                            final int length = inpt.get().read(buffer);
+                            if (length < 0) {
+                                break;
+                            }
+                            gzos.write(buffer, 0, length);
+                            read = read + length;
                         }
-                        gzos.write(buffer, 0, length);
+                        gzos.finish();
+                        this.metrics.count(RepoMetrics.Counter.BYTES_READ, read);
+                        this.metrics.count(RepoMetrics.Counter.BYTES_WRITTEN, counting.getCount());
+                        jfr.record(read, counting.getCount());
+                    } catch (final IOException err) {
+                        throw new ArtipieIOException(err);
                     }
-                    gzos.finish();
-                } catch (final IOException err) {
-                    throw new ArtipieIOException(err);
                 }
-            }
+            )
         );
     }
 }
@@ -10,11 +10,23 @@ import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.ext.ContentDigest;
 import com.artipie.rpm.Digest;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.meta.GzipFeed;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.bind.DatatypeConverter;
 
 /**
- * Calculates storage item checksums and size.
+ * Calculates storage item checksums and size. Item content is digested (and inflated)
+ * on the given executor as it arrives from the storage.
  * @since 1.9
  */
 public final class AstoChecksumAndSize {
@@ -29,14 +41,39 @@ public final class AstoChecksumAndSize {
      */
     private final Digest dgst;
 
+    /**
+     * Executor to digest content on.
+     */
+    private final Executor exec;
+
     /**
      * Ctor.
      * @param asto Asto storage
      * @param dgst Digest algorithm
+     * @param exec Executor to digest content on
      */
-    public AstoChecksumAndSize(final Storage asto, final Digest dgst) {
+    public AstoChecksumAndSize(final Storage asto, final Digest dgst, final Executor exec) {
         this.asto = asto;
         this.dgst = dgst;
+        this.exec = exec;
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config: digest algorithm and compress executor
+     */
+    public AstoChecksumAndSize(final Storage asto, final RepoConfig cnfg) {
+        this(asto, cnfg.digest(), cnfg.executors().compress());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param dgst Digest algorithm
+     */
+    public AstoChecksumAndSize(final Storage asto, final Digest dgst) {
+        this(asto, dgst, new RepoConfig.Simple().executors().compress());
     }
 
     /**
@@ -48,7 +85,10 @@ public final class AstoChecksumAndSize {
     CompletionStage<Void> calculate(final Key key) {
         return this.asto.value(key).thenCompose(
             val -> new ContentDigest(
-                val, this.dgst::messageDigest
+                new Content.From(
+                    val.size(), Flowable.fromPublisher(val).observeOn(Schedulers.from(this.exec))
+                ),
+                this.dgst::messageDigest
             ).hex().thenCompose(
                 hex -> this.asto.save(
                     new Key.From(key, this.dgst.name()),
@@ -64,4 +104,49 @@ public final class AstoChecksumAndSize {
             )
         );
     }
+
+    /**
+     * Calculates checksum and size of the gzipped item uncompressed content and saves them
+     * adding digest algorithm name postfix in text format [hex size].
+     * @param key Storage key
+     * @return Completable action
+     */
+    CompletionStage<Void> calculateUncompressed(final Key key) {
+        return this.asto.value(key).thenCompose(
+            val -> Single.defer(
+                () -> {
+                    final MessageDigest digest = this.dgst.messageDigest();
+                    final AtomicLong size = new AtomicLong();
+                    final GzipFeed gzip = new GzipFeed(
+                        (bytes, len) -> {
+                            digest.update(bytes, 0, len);
+                            size.addAndGet(len);
+                        }
+                    );
+                    return Flowable.fromPublisher(val)
+                        .observeOn(Schedulers.from(this.exec))
+                        .doOnNext(gzip::accept)
+                        .ignoreElements()
+                        .andThen(
+                            Single.fromCallable(
+                                () -> {
+                                    gzip.finish();
+                                    return String.format(
+                                        "%s %d",
+                                        DatatypeConverter.printHexBinary(digest.digest())
+                                            .toLowerCase(Locale.US),
+                                        size.get()
+                                    );
+                                }
+                            )
+                        ).doFinally(gzip::close);
+                }
+            ).to(SingleInterop.get())
+        ).thenCompose(
+            text -> this.asto.save(
+                new Key.From(key, this.dgst.name()),
+                new Content.From(text.getBytes(StandardCharsets.US_ASCII))
+            )
+        );
+    }
 }
@@ -11,10 +11,11 @@ import com.artipie.asto.Storage;
 import com.artipie.asto.ext.ContentAs;
 import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.rx.RxStorageWrapper;
-import com.artipie.asto.streams.StorageValuePipeline;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.RepoMetrics;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.meta.XmlRepomd;
+import com.artipie.rpm.meta.XmlRepomdLocations;
 import com.artipie.rpm.pkg.Checksum;
 import com.jcabi.aspects.Tv;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
@@ -22,7 +23,9 @@ import io.reactivex.Observable;
 import io.reactivex.Single;
 import java.io.IOException;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
 import javax.xml.stream.XMLStreamException;
 import org.cactoos.map.MapEntry;
 
@@ -33,6 +36,31 @@ import org.cactoos.map.MapEntry;
  */
 public final class AstoCreateRepomd {
 
+    /**
+     * Checksum element.
+     */
+    private static final String CHECKSUM = "checksum";
+
+    /**
+     * Open checksum element.
+     */
+    private static final String OPEN_CHECKSUM = "open-checksum";
+
+    /**
+     * Location element.
+     */
+    private static final String LOCATION = "location";
+
+    /**
+     * Size element.
+     */
+    private static final String SIZE = "size";
+
+    /**
+     * Open size element.
+     */
+    private static final String OPEN_SIZE = "open-size";
+
     /**
      * Asto storage.
      */
@@ -54,47 +82,109 @@ public final class AstoCreateRepomd {
     }
 
     /**
-     * Creates repomd.xml.
+     * Creates repomd.xml. Metadata files of the types, which are not found in the temp
+     * location, are not updated: their entries are copied from the current repomd.xml
+     * as is, if present.
      * @param temp Temp location to read/write data
      * @return Completable action
      */
     public CompletionStage<Void> perform(final Key temp) {
+        return this.cnfg.metrics().timed(RepoMetrics.Stage.REPOMD, () -> this.create(temp));
+    }
+
+    /**
+     * Creates repomd.xml, see {@link #perform(Key)}.
+     * @param temp Temp location to read/write data
+     * @return Completable action
+     */
+    private CompletionStage<Void> create(final Key temp) {
         return this.openChecksums(temp).thenCompose(
             open -> this.gzipedChecksums(temp).thenCompose(
-                gziped -> new StorageValuePipeline<>(this.asto, new Key.From(temp, "repomd.xml"))
-                    .process(
+                gziped -> new AstoMetadataLocations(this.asto).entries().thenCompose(
+                    current -> new AstoValuePipeline<>(
+                        this.asto, new Key.From(temp, "repomd.xml"), this.cnfg.executors().io()
+                    ).process(
                         (opt, out) -> {
                             try (XmlRepomd repomd = new XmlRepomd(out)) {
                                 repomd.begin(System.currentTimeMillis() / Tv.THOUSAND);
-                                new XmlPackage.Stream(this.cnfg.filelists()).get()
-                                    .filter(
-                                        item -> gziped.containsKey(item) && open.containsKey(item)
-                                    ).forEach(
-                                        type -> {
-                                            try (XmlRepomd.Data data =
-                                                repomd.beginData(type.lowercase())) {
-                                                final Checksum gzsum = this.checksum(gziped, type);
-                                                data.gzipChecksum(gzsum);
-                                                data.openChecksum(this.checksum(open, type));
-                                                data.location(
-                                                    this.cnfg.naming().fullName(type, gzsum.hex())
-                                                );
-                                                data.gzipSize(AstoCreateRepomd.size(gziped, type));
-                                                data.openSize(AstoCreateRepomd.size(open, type));
-                                            } catch (final XMLStreamException | IOException err) {
-                                                throw new ArtipieIOException(
-                                                    "Failed to update repomd.xml", err
-                                                );
-                                            }
+                                new XmlPackage.Stream(this.cnfg.filelists()).get().forEach(
+                                    type -> {
+                                        if (gziped.containsKey(type) && open.containsKey(type)) {
+                                            this.data(repomd, type, gziped, open);
+                                        } else if (AstoCreateRepomd.complete(current, type)) {
+                                            this.carry(repomd, type, current.get(type.lowercase()));
                                         }
-                                    );
+                                    }
+                                );
                             }
                         }
                     )
+                )
             )
         );
     }
 
+    /**
+     * Writes repomd data entry of the updated metadata file.
+     * @param repomd Repomd writer
+     * @param type Metadata type
+     * @param gziped Gziped checksums and sizes
+     * @param open Open checksums and sizes
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private void data(final XmlRepomd repomd, final XmlPackage type,
+        final Map<XmlPackage, String> gziped, final Map<XmlPackage, String> open) {
+        try (XmlRepomd.Data data = repomd.beginData(type.lowercase())) {
+            final Checksum gzsum = this.checksum(gziped, type);
+            data.gzipChecksum(gzsum);
+            data.openChecksum(this.checksum(open, type));
+            data.location(this.cnfg.naming().fullName(type, gzsum.hex()));
+            data.gzipSize(AstoCreateRepomd.size(gziped, type));
+            data.openSize(AstoCreateRepomd.size(open, type));
+        } catch (final XMLStreamException | IOException err) {
+            throw new ArtipieIOException("Failed to update repomd.xml", err);
+        }
+    }
+
+    /**
+     * Copies repomd data entry of the metadata file, which was not updated.
+     * @param repomd Repomd writer
+     * @param type Metadata type
+     * @param entry Current entry, see {@link XmlRepomdLocations#entries()}
+     */
+    private void carry(final XmlRepomd repomd, final XmlPackage type,
+        final Map<String, String> entry) {
+        try (XmlRepomd.Data data = repomd.beginData(type.lowercase())) {
+            data.gzipChecksum(
+                new Checksum.Simple(this.cnfg.digest(), entry.get(AstoCreateRepomd.CHECKSUM))
+            );
+            data.openChecksum(
+                new Checksum.Simple(this.cnfg.digest(), entry.get(AstoCreateRepomd.OPEN_CHECKSUM))
+            );
+            data.location(entry.get(AstoCreateRepomd.LOCATION));
+            data.gzipSize(Long.parseLong(entry.get(AstoCreateRepomd.SIZE)));
+            data.openSize(Long.parseLong(entry.get(AstoCreateRepomd.OPEN_SIZE)));
+        } catch (final XMLStreamException | IOException err) {
+            throw new ArtipieIOException("Failed to update repomd.xml", err);
+        }
+    }
+
+    /**
+     * Checks that current repomd.xml has complete entry of the metadata type.
+     * @param current Current repomd.xml entries
+     * @param type Metadata type
+     * @return True if entry is present and complete
+     */
+    private static boolean complete(final Map<String, Map<String, String>> current,
+        final XmlPackage type) {
+        return Optional.ofNullable(current.get(type.lowercase())).map(
+            entry -> Stream.of(
+                AstoCreateRepomd.CHECKSUM, AstoCreateRepomd.OPEN_CHECKSUM,
+                AstoCreateRepomd.LOCATION, AstoCreateRepomd.SIZE, AstoCreateRepomd.OPEN_SIZE
+            ).allMatch(entry::containsKey)
+        ).orElse(false);
+    }
+
     /**
      * Reads gziped checksums from temp locations.
      * @param temp Temp location
@@ -0,0 +1,298 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.misc.UncheckedIOFunc;
+import com.artipie.asto.misc.UncheckedIOScalar;
+import com.artipie.asto.misc.UncheckedScalar;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.meta.MergedXml;
+import com.artipie.rpm.meta.MergedXmlPackage;
+import com.artipie.rpm.meta.PackageRecords;
+import com.artipie.rpm.meta.XmlEvent;
+import com.artipie.rpm.meta.XmlGzipFeed;
+import com.artipie.rpm.meta.XmlGzipMembers;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlPackageIds;
+import com.artipie.rpm.meta.XmlPrimaryChecksums;
+import com.jcabi.log.Logger;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Deferred filelists.xml update. When filelists update is deferred (see
+ * {@link RepoConfig#filelistsDeferred()}), packages additions and removals update and publish
+ * primary and other xmls only, repomd.xml keeps referencing current filelists.xml. Filelists
+ * are then synchronized with the current primary in background: records of the packages absent
+ * in primary are removed, records of the packages absent in filelists are rendered from the
+ * packages in the repository, and new filelists.xml is published by the next repomd.xml
+ * revision, which keeps current primary and other entries. Synchronization works against
+ * the current metadata revision and not against the particular update, so concurrent or
+ * failed synchronizations are caught up by the next one. Filelists update can be deferred
+ * only when metadata is committed optimistically (see {@link AstoRepodataCommit#optimistic()}),
+ * as both publishes have to check that the revision they were calculated against is current.
+ * @since 1.10
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class AstoFilelistsSync {
+
+    /**
+     * Target key of the coalesced synchronizations.
+     */
+    private static final Key SYNC = new Key.From("filelists-sync");
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private final RepoConfig cnfg;
+
+    /**
+     * Repository locks.
+     */
+    private final AstoLocks locks;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     */
+    public AstoFilelistsSync(final Storage asto, final RepoConfig cnfg) {
+        this(asto, cnfg, new AstoLocks(asto, cnfg));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     * @param locks Repository locks
+     */
+    public AstoFilelistsSync(final Storage asto, final RepoConfig cnfg, final AstoLocks locks) {
+        this.asto = asto;
+        this.cnfg = cnfg;
+        this.locks = locks;
+    }
+
+    /**
+     * Is filelists update deferred?
+     * @return True if filelists are not updated along with primary and other
+     */
+    public boolean deferred() {
+        return this.cnfg.filelists() && this.cnfg.filelistsDeferred()
+            && new AstoRepodataCommit(this.asto, this.cnfg).optimistic();
+    }
+
+    /**
+     * Starts filelists synchronization in background if filelists update is deferred.
+     * Synchronizations of the repository are coalesced (see {@link AstoLocks#coalesced}):
+     * at most one is running and at most one is pending, triggers made while synchronization
+     * is pending share it. Returns immediately, synchronization failure is logged.
+     * @return Completable action, completed when synchronization, which covers this trigger,
+     *  completes; can be awaited by tests or on shutdown
+     */
+    public CompletionStage<Void> trigger() {
+        CompletionStage<Void> res = CompletableFuture.allOf();
+        if (this.deferred()) {
+            res = this.locks.coalesced(AstoFilelistsSync.SYNC, this::perform).whenComplete(
+                (nothing, err) -> {
+                    if (err != null) {
+                        Logger.error(
+                            this, "Failed to synchronize filelists.xml\n%s", err.getMessage()
+                        );
+                    }
+                }
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Synchronizes filelists with current primary and publishes new filelists, nothing
+     * is published if filelists are already in sync. Intermediate files are staged,
+     * see {@link AstoStagedStorage}.
+     * @return Completable action
+     */
+    public CompletionStage<Void> perform() {
+        final Storage staged = new AstoStagedStorage(this.asto, this.cnfg);
+        return new AstoRepodataCommit(staged, this.cnfg, this.locks)
+            .perform(new AstoFilelistsSync(staged, this.cnfg, this.locks)::update);
+    }
+
+    /**
+     * Calculates filelists update against current metadata.
+     * @return Completable action with temp key, which contains updated filelists or is
+     *  empty if filelists are in sync with primary
+     */
+    private CompletionStage<Key> update() {
+        final Key prefix = AstoStagedStorage.temp();
+        final AstoMetadataLocations locations = new AstoMetadataLocations(
+            new AstoMemoizedStorage(this.asto, AstoMetadataLocations.META)
+        );
+        return locations.find(XmlPackage.PRIMARY).thenCompose(
+            primary -> this.read(
+                primary, new XmlPrimaryChecksums.Events(),
+                Collections.<String, String>emptyMap()
+            )
+        ).thenCompose(
+            packages -> locations.find(XmlPackage.FILELISTS).thenCompose(
+                filelists -> this.read(
+                    filelists, new XmlPackageIds.Events(),
+                    Collections.<String>emptySet()
+                ).thenCompose(
+                    ids -> this.sync(
+                        new Key.From(prefix, XmlPackage.FILELISTS.name()), filelists, packages, ids
+                    )
+                )
+            )
+        ).thenApply(nothing -> prefix);
+    }
+
+    /**
+     * Writes filelists synchronized with primary, if filelists are not in sync.
+     * @param tempkey Where to write the result
+     * @param filelists Current filelists key, empty if filelists does not exist
+     * @param packages Primary packages locations and checksums
+     * @param ids Filelists packages checksums
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Void> sync(final Key tempkey, final Optional<Key> filelists,
+        final Map<String, String> packages, final Set<String> ids) {
+        final Set<String> current = new HashSet<>(packages.values());
+        final List<String> stale = ids.stream().filter(id -> !current.contains(id))
+            .collect(Collectors.toList());
+        final Map<String, String> missing = packages.entrySet().stream()
+            .filter(entry -> !ids.contains(entry.getValue()))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        CompletionStage<Void> res = CompletableFuture.allOf();
+        if (!stale.isEmpty() || !missing.isEmpty()) {
+            res = this.metas(missing).thenCompose(
+                metas -> this.write(
+                    tempkey, filelists, metas,
+                    new MergedXml.Result(ids.size() - stale.size() + metas.size(), stale)
+                )
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Reads compressed metadata file without blocking, see {@link XmlGzipFeed}.
+     * @param key Metadata file key, empty if metadata file does not exist
+     * @param handler Xml events handler
+     * @param absent Result if metadata file does not exist
+     * @param <T> Result type
+     * @return Completable action with the result
+     */
+    private <T> CompletionStage<T> read(final Optional<Key> key,
+        final XmlGzipFeed.Handler<T> handler, final T absent) {
+        return key.<CompletionStage<T>>map(
+            item -> this.asto.value(item).thenCompose(
+                val -> new XmlGzipFeed(val, this.cnfg.executors().parse()).read(handler)
+            )
+        ).orElse(CompletableFuture.completedFuture(absent));
+    }
+
+    /**
+     * Reads metadata of the packages from the repository. Packages, which can not be read or
+     * were replaced after primary was published, are skipped: they are caught up by the next
+     * synchronization.
+     * @param packages Packages locations and checksums
+     * @return Completable action with packages metadata
+     */
+    private CompletionStage<List<PackageRecords>> metas(final Map<String, String> packages) {
+        final AstoPackageRecords records = new AstoPackageRecords(this.asto, this.cnfg);
+        return Flowable.fromIterable(packages.entrySet())
+            .parallel().runOn(Schedulers.from(this.cnfg.executors().parse()))
+            .flatMap(
+                entry -> Flowable.<PackageRecords>fromFuture(
+                    records.records(new Key.From(entry.getKey()), entry.getKey())
+                        .toCompletableFuture()
+                ).filter(
+                    meta -> new UncheckedIOScalar<>(() -> meta.checksum().hex()).value()
+                        .equals(entry.getValue())
+                ).onErrorResumeNext(
+                    throwable -> {
+                        Logger.warn(
+                            this, "Failed to read rpm package %s\n%s",
+                            entry.getKey(), throwable.getMessage()
+                        );
+                        return Flowable.empty();
+                    }
+                )
+            ).sequential().observeOn(Schedulers.from(this.cnfg.executors().io())).toList()
+            .to(SingleInterop.get());
+    }
+
+    /**
+     * Writes updated filelists, compresses it and saves checksum and size of the
+     * uncompressed filelists.
+     * @param tempkey Where to write the result
+     * @param filelists Current filelists key, empty if filelists does not exist
+     * @param metas Metadata of the packages to add
+     * @param res Packages count and checksums of the packages to remove
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Void> write(final Key tempkey, final Optional<Key> filelists,
+        final Collection<PackageRecords> metas, final MergedXml.Result res) {
+        return CompletableFuture.completedFuture(
+            filelists.orElse(
+                new Key.From(String.format("%s.xml.gz", XmlPackage.FILELISTS.lowercase()))
+            )
+        ).thenCompose(
+            key -> new AstoValuePipeline<>(
+                this.asto, key, tempkey, this.cnfg.executors().io()
+            ).process(
+                (input, out) -> new UncheckedScalar<>(
+                    () -> new MergedXmlPackage(
+                        input.map(new UncheckedIOFunc<>(GZIPInputStream::new)),
+                        out, XmlPackage.FILELISTS, res, this.cnfg.executors().parse(),
+                        this.cnfg.renderWindow()
+                    ).mergeRecords(metas, new XmlEvent.Filelists())
+                ).value()
+            )
+        ).thenCompose(
+            nothing -> new AstoChecksumAndSize(this.asto, this.cnfg).calculate(tempkey)
+        ).thenCompose(nothing -> this.archive(tempkey));
+    }
+
+    /**
+     * Compresses filelists.
+     * @param key Filelists key
+     * @return Completable action
+     */
+    private CompletionStage<Void> archive(final Key key) {
+        final CompletionStage<Void> res;
+        if (this.cnfg.gzipMembers()) {
+            res = new AstoGzipIndex(this.asto, this.cnfg).write(
+                key, key, XmlPackage.FILELISTS,
+                (input, out) -> new XmlGzipMembers(XmlPackage.FILELISTS, this.cnfg)
+                    .compress(input.get(), out)
+            );
+        } else {
+            res = new AstoArchive(this.asto, this.cnfg).gzip(key);
+        }
+        return res;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.misc.UncheckedIOScalar;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.meta.XmlGzipIndex;
+import com.artipie.rpm.meta.XmlGzipMembers;
+import com.artipie.rpm.meta.XmlPackage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.util.AbstractMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import javax.xml.bind.DatatypeConverter;
+
+/**
+ * Seek indexes of the metadata files compressed as gzip members, see {@link XmlGzipMembers}
+ * and {@link XmlGzipIndex}. Index is stored in {@link #ROOT} location by metadata type and
+ * compressed metadata file checksum, index of the current metadata file is found by the
+ * checksum from repomd.xml. Index is removed when its metadata file is superseded by
+ * publish or when the update, which has written it, is rejected.
+ * @since 1.10
+ */
+public final class AstoGzipIndex {
+
+    /**
+     * Indexes root key.
+     */
+    static final Key ROOT = new Key.From(".index");
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Digest algorithm.
+     */
+    private final Digest dgst;
+
+    /**
+     * Executor to compress metadata files on.
+     */
+    private final Executor exec;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config: digest algorithm and executors
+     */
+    public AstoGzipIndex(final Storage asto, final RepoConfig cnfg) {
+        this(asto, cnfg.digest(), cnfg.executors().compress());
+    }
+
+    /**
+     * Ctor to find and clean indexes.
+     * @param asto Asto storage
+     */
+    AstoGzipIndex(final Storage asto) {
+        this(asto, Digest.SHA256);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param dgst Digest algorithm
+     */
+    public AstoGzipIndex(final Storage asto, final Digest dgst) {
+        this(asto, dgst, new RepoConfig.Simple().executors().compress());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param dgst Digest algorithm
+     * @param exec Executor to compress metadata files on
+     */
+    public AstoGzipIndex(final Storage asto, final Digest dgst, final Executor exec) {
+        this.asto = asto;
+        this.dgst = dgst;
+        this.exec = exec;
+    }
+
+    /**
+     * Finds seek index of the current metadata file.
+     * @param type Metadata type
+     * @return Completable action with the index, empty if metadata file has no index
+     */
+    public CompletionStage<Optional<XmlGzipIndex>> find(final XmlPackage type) {
+        return new AstoMetadataLocations(this.asto).checksum(type).thenCompose(
+            opt -> {
+                CompletionStage<Optional<XmlGzipIndex>> res =
+                    CompletableFuture.completedFuture(Optional.empty());
+                if (opt.isPresent()) {
+                    final Key key = AstoGzipIndex.key(type, opt.get());
+                    res = this.asto.exists(key).thenCompose(
+                        exists -> {
+                            CompletionStage<Optional<XmlGzipIndex>> index =
+                                CompletableFuture.completedFuture(Optional.empty());
+                            if (exists) {
+                                index = this.asto.value(key).thenCompose(
+                                    val -> new PublisherAs(val).bytes()
+                                ).thenApply(bytes -> Optional.of(new XmlGzipIndex(bytes)));
+                            }
+                            return index;
+                        }
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Writes metadata file compressed as gzip members and saves its seek index. Other
+     * indexes are kept: they can belong to the current metadata or to the metadata written
+     * by concurrent updates, indexes are removed when publish supersedes or rejects their
+     * metadata, see {@link #clean(Map)}.
+     * @param read Key to read metadata from
+     * @param write Key to write compressed metadata to
+     * @param type Metadata type
+     * @param writer Compressed metadata writer
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public CompletionStage<Void> write(final Key read, final Key write, final XmlPackage type,
+        final Writer writer) {
+        return new AstoValuePipeline<Map.Entry<String, XmlGzipIndex>>(
+            this.asto, read, write, this.exec
+        ).processWithResult(
+            (input, out) -> new UncheckedIOScalar<>(
+                () -> this.dgst.digest(
+                    digest -> {
+                        final XmlGzipIndex index = writer.write(
+                            input, new DigestOutputStream(out, digest)
+                        );
+                        return new AbstractMap.SimpleImmutableEntry<>(
+                            DatatypeConverter.printHexBinary(digest.digest())
+                                .toLowerCase(Locale.US),
+                            index
+                        );
+                    }
+                )
+            ).value()
+        ).thenCompose(
+            res -> this.asto.save(
+                AstoGzipIndex.key(type, res.getKey()), new Content.From(res.getValue().bytes())
+            )
+        );
+    }
+
+    /**
+     * Removes indexes of the given metadata files, which are not referenced by the current
+     * repomd.xml. Publish calls it with the checksums of the superseded revision right after
+     * `repomd.xml` swap, and with the checksums of the update if the update was rejected, so
+     * indexes of the metadata written by concurrent updates are never removed.
+     * @param checksums Map of metadata type and compressed metadata file checksum
+     * @return Completable action
+     */
+    public CompletionStage<Void> clean(final Map<String, String> checksums) {
+        return new AstoMetadataLocations(this.asto).checksums().thenCompose(
+            current -> CompletableFuture.allOf(
+                checksums.entrySet().stream()
+                    .filter(entry -> !entry.getValue().equals(current.get(entry.getKey())))
+                    .map(
+                        entry -> new Key.From(AstoGzipIndex.ROOT, entry.getKey(), entry.getValue())
+                    )
+                    .map(
+                        key -> this.asto.exists(key).thenCompose(
+                            exists -> {
+                                CompletionStage<Void> res = CompletableFuture.allOf();
+                                if (exists) {
+                                    res = this.asto.delete(key);
+                                }
+                                return res;
+                            }
+                        )
+                    ).toArray(CompletableFuture[]::new)
+            )
+        );
+    }
+
+    /**
+     * Index key.
+     * @param type Metadata type
+     * @param hex Compressed metadata file checksum
+     * @return Key
+     */
+    private static Key key(final XmlPackage type, final String hex) {
+        return new Key.From(AstoGzipIndex.ROOT, type.lowercase(), hex);
+    }
+
+    /**
+     * Writer of the metadata compressed as gzip members.
+     * @since 1.10
+     */
+    @FunctionalInterface
+    public interface Writer {
+
+        /**
+         * Writes compressed metadata.
+         * @param input Metadata input, if present
+         * @param out Where to write compressed metadata
+         * @return Seek index of the written metadata
+         * @throws IOException On error
+         */
+        XmlGzipIndex write(Optional<InputStream> input, OutputStream out) throws IOException;
+    }
+}
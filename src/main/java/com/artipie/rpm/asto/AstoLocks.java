@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.lock.Lock;
+import com.artipie.asto.lock.storage.StorageLock;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.RepoMetrics;
+import com.artipie.rpm.misc.CoalescedTasks;
+import com.artipie.rpm.misc.StripedLocks;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Repository locks: storage or in-memory locks according to {@link RepoConfig#locks()}.
+ * Storage locks are stored in the repository storage. In-memory locks are scoped by the
+ * storage instance the repository is located in and by the repository prefix in this storage:
+ * repositories in different storages or with different prefixes never share the locks, while
+ * the same repository should be accessed through the same storage instance to be locked.
+ * Time spent to acquire the lock is recorded to {@link RepoConfig#metrics()}.
+ * @since 1.10
+ */
+public final class AstoLocks {
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private final RepoConfig cnfg;
+
+    /**
+     * In-memory locks.
+     */
+    private final StripedLocks memory;
+
+    /**
+     * Storage the repository is located in, owner of the in-memory locks.
+     */
+    private final Storage owner;
+
+    /**
+     * Repository prefix in the owner storage.
+     */
+    private final Key prefix;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     */
+    public AstoLocks(final Storage asto, final RepoConfig cnfg) {
+        this(asto, cnfg, StripedLocks.SHARED);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     * @param memory In-memory locks
+     */
+    public AstoLocks(final Storage asto, final RepoConfig cnfg, final StripedLocks memory) {
+        this(asto, cnfg, memory, asto, Key.ROOT);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     * @param owner Storage the repository is located in
+     * @param prefix Repository prefix in the owner storage
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public AstoLocks(final Storage asto, final RepoConfig cnfg, final Storage owner,
+        final Key prefix) {
+        this(asto, cnfg, StripedLocks.SHARED, owner, prefix);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     * @param memory In-memory locks
+     * @param owner Storage the repository is located in
+     * @param prefix Repository prefix in the owner storage
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public AstoLocks(final Storage asto, final RepoConfig cnfg, final StripedLocks memory,
+        final Storage owner, final Key prefix) {
+        this.asto = asto;
+        this.cnfg = cnfg;
+        this.memory = memory;
+        this.owner = owner;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Creates lock for the target key.
+     * @param target Target key
+     * @param expiration Lock expiration time
+     * @return Lock
+     */
+    public Lock lock(final Key target, final Optional<Instant> expiration) {
+        final Lock res;
+        if (this.cnfg.locks() == RepoConfig.LockMode.MEMORY) {
+            res = this.memory.lock(
+                this.owner, new Key.From(this.prefix, target), expiration, this.cnfg.lockTimeout()
+            );
+        } else {
+            res = new StorageLock(
+                this.asto, target, UUID.randomUUID().toString(), expiration
+            );
+        }
+        return new Timed(res, this.cnfg.metrics());
+    }
+
+    /**
+     * Submits background task of the repository, which is coalesced with other tasks for
+     * the same target of the repository, see {@link CoalescedTasks}. Tasks are grouped by
+     * the storage the repository is located in, repository prefix and target key.
+     * @param target Task target key
+     * @param task Task
+     * @return Completable action, completed when the task covering this submission completes
+     */
+    public CompletionStage<Void> coalesced(final Key target,
+        final Supplier<CompletionStage<Void>> task) {
+        return CoalescedTasks.SHARED.submit(
+            this.owner, new Key.From(this.prefix, target).string(), task
+        );
+    }
+
+    /**
+     * Lock, which records acquisition time.
+     * @since 1.10
+     */
+    private static final class Timed implements Lock {
+
+        /**
+         * Origin lock.
+         */
+        private final Lock origin;
+
+        /**
+         * Metrics.
+         */
+        private final RepoMetrics metrics;
+
+        /**
+         * Ctor.
+         * @param origin Origin lock
+         * @param metrics Metrics
+         */
+        Timed(final Lock origin, final RepoMetrics metrics) {
+            this.origin = origin;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public CompletionStage<Void> acquire() {
+            return this.metrics.timed(RepoMetrics.Stage.LOCK_WAIT, this.origin::acquire);
+        }
+
+        @Override
+        public CompletionStage<Void> release() {
+            return this.origin.release();
+        }
+    }
+}
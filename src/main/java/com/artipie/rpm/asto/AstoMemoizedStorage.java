@@ -0,0 +1,224 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Storage, which memoizes listings and existence checks of the keys in the given scopes, so
+ * that repeated list and exists calls of the single operation do not reach the origin storage.
+ * Memoized values are kept coherent with the writes made through this storage: saved and
+ * moved keys are added to the memoized listings, deleted and moved keys are removed from them.
+ * Writes made by anyone else are not visible, that's why the storage should be created for
+ * a single operation and the scopes should contain only the keys, which are not changed
+ * concurrently by others during the operation or which should be seen as a snapshot.
+ * Keys out of the scopes are always listed and checked in the origin storage.
+ * @since 1.10
+ */
+public final class AstoMemoizedStorage implements Storage {
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Memoized scopes.
+     */
+    private final Collection<Key> scopes;
+
+    /**
+     * Memoized listings by the prefix.
+     */
+    private final ConcurrentMap<String, CompletableFuture<List<Key>>> lists;
+
+    /**
+     * Memoized existence checks by the key.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> exist;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param scopes Memoized scopes: keys within any of the scopes are memoized
+     */
+    public AstoMemoizedStorage(final Storage origin, final Key... scopes) {
+        this(origin, Arrays.asList(scopes), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Primary ctor.
+     * @param origin Origin storage
+     * @param scopes Memoized scopes
+     * @param lists Memoized listings
+     * @param exist Memoized existence checks
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private AstoMemoizedStorage(final Storage origin, final Collection<Key> scopes,
+        final ConcurrentMap<String, CompletableFuture<List<Key>>> lists,
+        final ConcurrentMap<String, CompletableFuture<Boolean>> exist) {
+        this.origin = origin;
+        this.scopes = scopes;
+        this.lists = lists;
+        this.exist = exist;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        final CompletableFuture<Boolean> res;
+        if (this.scoped(key)) {
+            res = this.exist.computeIfAbsent(key.string(), str -> this.origin.exists(key));
+        } else {
+            res = this.origin.exists(key);
+        }
+        return res;
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        final CompletableFuture<Collection<Key>> res;
+        if (this.scoped(prefix)) {
+            res = this.lists.computeIfAbsent(
+                prefix.string(),
+                str -> this.origin.list(prefix).thenApply(ArrayList::new)
+            ).thenApply(ArrayList::new);
+        } else {
+            res = this.origin.list(prefix);
+        }
+        return res;
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        return this.origin.save(key, content).thenRun(() -> this.added(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        return this.origin.move(source, destination).thenRun(
+            () -> {
+                this.removed(source);
+                this.added(destination);
+            }
+        );
+    }
+
+    @Override
+    public CompletableFuture<Long> size(final Key key) {
+        return this.origin.size(key);
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        return this.origin.value(key);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.origin.delete(key).thenRun(() -> this.removed(key));
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        return this.origin.exclusively(
+            key,
+            sto -> operation.apply(
+                new AstoMemoizedStorage(sto, this.scopes, this.lists, this.exist)
+            )
+        );
+    }
+
+    /**
+     * Updates memoized values with the key, which was written.
+     * @param key Written key
+     */
+    private void added(final Key key) {
+        if (this.scoped(key)) {
+            this.exist.put(key.string(), CompletableFuture.completedFuture(true));
+            this.lists.replaceAll(
+                (prefix, keys) -> {
+                    CompletableFuture<List<Key>> res = keys;
+                    if (AstoMemoizedStorage.within(key, prefix)) {
+                        res = keys.thenApply(
+                            list -> {
+                                final List<Key> copy = AstoMemoizedStorage.without(list, key);
+                                copy.add(key);
+                                return copy;
+                            }
+                        );
+                    }
+                    return res;
+                }
+            );
+        }
+    }
+
+    /**
+     * Updates memoized values with the key, which was removed.
+     * @param key Removed key
+     */
+    private void removed(final Key key) {
+        if (this.scoped(key)) {
+            this.exist.put(key.string(), CompletableFuture.completedFuture(false));
+            this.lists.replaceAll(
+                (prefix, keys) -> {
+                    CompletableFuture<List<Key>> res = keys;
+                    if (AstoMemoizedStorage.within(key, prefix)) {
+                        res = keys.thenApply(list -> AstoMemoizedStorage.without(list, key));
+                    }
+                    return res;
+                }
+            );
+        }
+    }
+
+    /**
+     * Is key memoized?
+     * @param key Key
+     * @return True if key is within any of the scopes
+     */
+    private boolean scoped(final Key key) {
+        return this.scopes.stream().anyMatch(
+            scope -> AstoMemoizedStorage.within(key, scope.string())
+        );
+    }
+
+    /**
+     * Is key within the prefix? Prefix is matched by whole key segments: key is within
+     * the prefix if it is equal to the prefix or starts with the prefix and the delimiter,
+     * any key is within the root prefix.
+     * @param key Key
+     * @param prefix Prefix
+     * @return True if key is within the prefix
+     */
+    private static boolean within(final Key key, final String prefix) {
+        return prefix.isEmpty() || key.string().equals(prefix)
+            || key.string().startsWith(String.format("%s/", prefix));
+    }
+
+    /**
+     * Copy of the keys list without the key.
+     * @param list Keys list
+     * @param key Key to exclude
+     * @return List copy
+     */
+    private static List<Key> without(final List<Key> list, final Key key) {
+        return list.stream().filter(item -> !item.string().equals(key.string()))
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
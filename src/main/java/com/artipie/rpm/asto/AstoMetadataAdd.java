@@ -8,22 +8,25 @@ import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.misc.UncheckedIOFunc;
 import com.artipie.asto.misc.UncheckedScalar;
-import com.artipie.asto.streams.StorageValuePipeline;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.RepoMetrics;
 import com.artipie.rpm.meta.MergedXml;
 import com.artipie.rpm.meta.MergedXmlPackage;
 import com.artipie.rpm.meta.MergedXmlPrimary;
+import com.artipie.rpm.meta.PackageRecords;
 import com.artipie.rpm.meta.XmlAlter;
 import com.artipie.rpm.meta.XmlEvent;
 import com.artipie.rpm.meta.XmlEventPrimary;
+import com.artipie.rpm.meta.XmlGzipIndex;
+import com.artipie.rpm.meta.XmlGzipMembers;
 import com.artipie.rpm.meta.XmlPackage;
-import com.artipie.rpm.pkg.Package;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.util.Collection;
-import java.util.UUID;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -54,37 +57,199 @@ public final class AstoMetadataAdd {
     }
 
     /**
-     * Adds provided packages collection to metadata.
+     * Adds provided packages collection to metadata. Other and filelists xmls need packages
+     * replaced by the new ones, which are found by the primary merge pass: other and filelists
+     * xmls are merged concurrently once primary is merged, while primary is compressed. If
+     * metadata is compressed as gzip members (see {@link XmlGzipMembers}), replaced packages
+     * are found by the primary seek index, so primary, other and filelists xmls are merged
+     * concurrently and, if no packages are replaced, new packages are appended to compressed
+     * metadata. Filelists xml is not updated if its update is deferred, see
+     * {@link AstoFilelistsSync}.
      * @param metas Packages metadata to add
      * @return Completable action with temp key
      */
-    @SuppressWarnings("SuspiciousToArrayCall")
-    public CompletionStage<Key> perform(final Collection<Package.Meta> metas) {
-        final Key prefix = new Key.From(UUID.randomUUID().toString());
-        return this.addToPrimary(prefix, metas).thenCompose(
-            res -> {
-                final CompletableFuture<Void> future;
-                if (this.cnfg.filelists()) {
-                    future = CompletableFuture.allOf(
-                        this.add(prefix, metas, res, XmlPackage.OTHER, new XmlEvent.Other()),
-                        this.add(prefix, metas, res, XmlPackage.FILELISTS, new XmlEvent.Filelists())
+    public CompletionStage<Key> perform(final Collection<? extends PackageRecords> metas) {
+        return this.cnfg.metrics().timed(
+            RepoMetrics.Stage.METADATA_ADD, () -> this.merge(metas)
+        );
+    }
+
+    /**
+     * Adds packages to metadata, see {@link #perform(Collection)}.
+     * @param metas Packages metadata to add
+     * @return Completable action with temp key
+     */
+    private CompletionStage<Key> merge(final Collection<? extends PackageRecords> metas) {
+        final Key prefix = AstoStagedStorage.temp();
+        final boolean filelists = this.cnfg.filelists()
+            && !new AstoFilelistsSync(this.asto, this.cnfg).deferred();
+        return this.indexed(metas).thenCompose(
+            opt -> opt.<CompletionStage<Void>>map(
+                res -> CompletableFuture.allOf(
+                    new XmlPackage.Stream(filelists).get().map(
+                        type -> this.update(prefix, metas, res, type)
+                    ).toArray(CompletableFuture[]::new)
+                )
+            ).orElseGet(
+                () -> this.addToPrimary(prefix, metas).thenCompose(
+                    res -> CompletableFuture.allOf(
+                        new XmlPackage.Stream(filelists).get().map(
+                            type -> {
+                                final CompletionStage<?> merge;
+                                if (type == XmlPackage.PRIMARY) {
+                                    merge = CompletableFuture.allOf();
+                                } else {
+                                    merge = this.add(prefix, metas, res, type);
+                                }
+                                return merge.thenCompose(
+                                    nothing -> this.compress(prefix, type)
+                                ).toCompletableFuture();
+                            }
+                        ).toArray(CompletableFuture[]::new)
+                    )
+                )
+            )
+        ).thenApply(nothing -> prefix);
+    }
+
+    /**
+     * Updates metadata file: appends new packages to compressed metadata if possible,
+     * merges and compresses metadata otherwise. Checksum and size of the uncompressed
+     * metadata are saved along with the result.
+     * @param prefix Temp location
+     * @param metas Packages metadata to add
+     * @param res Packages replaced by the new ones found by the primary seek index
+     * @param type Metadata type
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletableFuture<Void> update(final Key prefix,
+        final Collection<? extends PackageRecords> metas, final MergedXml.Result res,
+        final XmlPackage type) {
+        final Key tempkey = new Key.From(prefix, type.name());
+        return this.appendable(type, res).thenCompose(
+            opt -> {
+                final CompletionStage<Void> upd;
+                if (opt.isPresent()) {
+                    upd = this.append(tempkey, metas, opt.get(), type).thenCompose(
+                        nothing -> new AstoChecksumAndSize(this.asto, this.cnfg)
+                            .calculateUncompressed(tempkey)
                     );
                 } else {
-                    future = this.add(prefix, metas, res, XmlPackage.OTHER, new XmlEvent.Other());
+                    final CompletionStage<?> merge;
+                    if (type == XmlPackage.PRIMARY) {
+                        merge = this.addToPrimary(prefix, metas);
+                    } else {
+                        merge = this.add(prefix, metas, res, type);
+                    }
+                    upd = merge.thenCompose(nothing -> this.compress(prefix, type));
                 }
-                return future;
+                return upd;
             }
-        ).thenCompose(
-            ignored -> this.asto.list(prefix).thenCompose(
-                list -> CompletableFuture.allOf(
-                    list.stream().map(
-                        item -> new AstoChecksumAndSize(this.asto, this.cnfg.digest())
-                            .calculate(item)
-                            .thenCompose(nothing -> new AstoArchive(this.asto).gzip(item))
-                    ).toArray(CompletableFuture[]::new)
-                )
+        ).toCompletableFuture();
+    }
+
+    /**
+     * Calculates checksum and size of the merged uncompressed metadata and compresses it.
+     * @param prefix Temp location
+     * @param type Metadata type
+     * @return Completable action
+     */
+    private CompletionStage<Void> compress(final Key prefix, final XmlPackage type) {
+        final Key tempkey = new Key.From(prefix, type.name());
+        return new AstoChecksumAndSize(this.asto, this.cnfg).calculate(tempkey)
+            .thenCompose(nothing -> this.archive(tempkey, type));
+    }
+
+    /**
+     * Finds seek index of the existing metadata, to which new packages can be appended:
+     * metadata should be compressed as gzip members, no packages should be replaced and
+     * metadata should not be too fragmented by previous appends, see
+     * {@link XmlGzipMembers#appendable(XmlGzipIndex)}. Fragmented metadata is merged and
+     * compressed compactly again.
+     * @param type Metadata type
+     * @param res Packages replaced by the new ones found by the primary seek index
+     * @return Completable action with the index, empty if packages can not be appended
+     */
+    private CompletionStage<Optional<XmlGzipIndex>> appendable(final XmlPackage type,
+        final MergedXml.Result res) {
+        CompletionStage<Optional<XmlGzipIndex>> result = CompletableFuture.completedFuture(
+            Optional.empty()
+        );
+        if (this.cnfg.gzipMembers() && res.checksums().isEmpty()) {
+            result = new AstoGzipIndex(this.asto, this.cnfg).find(type).thenApply(
+                opt -> opt.filter(XmlGzipMembers::appendable)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Appends packages to metadata compressed as gzip members.
+     * @param tempkey Where to write the result
+     * @param metas Packages metadata to add
+     * @param index Seek index of the existing metadata
+     * @param type Metadata type
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Void> append(final Key tempkey,
+        final Collection<? extends PackageRecords> metas, final XmlGzipIndex index,
+        final XmlPackage type) {
+        return this.getExistingOrDefaultKey(type).thenCompose(
+            key -> new AstoGzipIndex(this.asto, this.cnfg).write(
+                key, tempkey, type,
+                (input, out) -> new XmlGzipMembers(type, this.cnfg)
+                    .append(input.get(), out, metas, index)
             )
-        ).thenApply(nothing -> prefix);
+        );
+    }
+
+    /**
+     * Compresses metadata file.
+     * @param key Metadata file key
+     * @param type Metadata type
+     * @return Completable action
+     */
+    private CompletionStage<Void> archive(final Key key, final XmlPackage type) {
+        final CompletionStage<Void> res;
+        if (this.cnfg.gzipMembers()) {
+            res = new AstoGzipIndex(this.asto, this.cnfg).write(
+                key, key, type,
+                (input, out) -> new XmlGzipMembers(type, this.cnfg).compress(input.get(), out)
+            );
+        } else {
+            res = new AstoArchive(this.asto, this.cnfg).gzip(key);
+        }
+        return res;
+    }
+
+    /**
+     * Finds packages replaced by the new ones by the primary seek index, if metadata is
+     * compressed as gzip members and index exists.
+     * @param metas Packages metadata to add
+     * @return Completable action with the primary merge result, empty if there is no index
+     */
+    private CompletionStage<Optional<MergedXml.Result>> indexed(
+        final Collection<? extends PackageRecords> metas) {
+        CompletionStage<Optional<XmlGzipIndex>> index = CompletableFuture.completedFuture(
+            Optional.empty()
+        );
+        if (this.cnfg.gzipMembers()) {
+            index = new AstoGzipIndex(this.asto, this.cnfg).find(XmlPackage.PRIMARY);
+        }
+        return index.thenApply(
+            opt -> opt.map(
+                idx -> {
+                    final Collection<String> replaced = idx.checksums(
+                        metas.stream().map(PackageRecords::href).collect(Collectors.toSet())
+                    );
+                    return new MergedXml.Result(
+                        idx.count() - replaced.size() + metas.size(), replaced
+                    );
+                }
+            )
+        );
     }
 
     /**
@@ -94,26 +259,30 @@ public final class AstoMetadataAdd {
      * @return Completable action with the result
      */
     private CompletionStage<MergedXml.Result> addToPrimary(
-        final Key temp, final Collection<Package.Meta> metas
+        final Key temp, final Collection<? extends PackageRecords> metas
     ) {
         return this.getExistingOrDefaultKey(XmlPackage.PRIMARY).thenCompose(
             key -> {
                 final Key tempkey = new Key.From(temp, XmlPackage.PRIMARY.name());
-                return new StorageValuePipeline<MergedXml.Result>(this.asto, key, tempkey)
-                    .processWithResult(
-                        (input, out) -> new UncheckedScalar<>(
-                            () -> new MergedXmlPrimary(
-                                input.map(new UncheckedIOFunc<>(GZIPInputStream::new)), out
-                            ).merge(metas, new XmlEventPrimary())
-                        ).value()
-                    ).thenCompose(
-                        res -> new StorageValuePipeline<>(this.asto, tempkey).process(
-                            (input, out) -> new XmlAlter.Stream(
-                                new BufferedInputStream(input.get()),
-                                new BufferedOutputStream(out)
-                            ).pkgAttr(XmlPackage.PRIMARY.tag(), String.valueOf(res.count()))
-                        ).thenApply(nothing -> res)
-                    );
+                return new AstoValuePipeline<MergedXml.Result>(
+                    this.asto, key, tempkey, this.cnfg.executors().io()
+                ).processWithResult(
+                    (input, out) -> new UncheckedScalar<>(
+                        () -> new MergedXmlPrimary(
+                            input.map(new UncheckedIOFunc<>(GZIPInputStream::new)), out,
+                            this.cnfg.executors().parse(), this.cnfg.renderWindow()
+                        ).mergeRecords(metas, new XmlEventPrimary())
+                    ).value()
+                ).thenCompose(
+                    res -> new AstoValuePipeline<>(
+                        this.asto, tempkey, this.cnfg.executors().io()
+                    ).process(
+                        (input, out) -> new XmlAlter.Stream(
+                            new BufferedInputStream(input.get()),
+                            new BufferedOutputStream(out)
+                        ).pkgAttr(XmlPackage.PRIMARY.tag(), String.valueOf(res.count()))
+                    ).thenApply(nothing -> res)
+                );
             }
         );
     }
@@ -123,22 +292,31 @@ public final class AstoMetadataAdd {
      * @param temp Temp location
      * @param metas Packages metadata to add
      * @param primary Result of adding packages to primary xml
-     * @param type Metadata type
-     * @param event Xml event instance
+     * @param type Metadata type, other or filelists
      * @return COmpletable action
      * @checkstyle ParameterNumberCheck (10 lines)
      */
-    private CompletableFuture<Void> add(final Key temp, final Collection<Package.Meta> metas,
-        final MergedXml.Result primary, final XmlPackage type, final XmlEvent event) {
+    private CompletableFuture<Void> add(final Key temp,
+        final Collection<? extends PackageRecords> metas, final MergedXml.Result primary,
+        final XmlPackage type) {
+        final XmlEvent event;
+        if (type == XmlPackage.OTHER) {
+            event = new XmlEvent.Other(this.cnfg.changelogLimit());
+        } else {
+            event = new XmlEvent.Filelists();
+        }
         return this.getExistingOrDefaultKey(type).thenCompose(
             key -> {
                 final Key tempkey = new Key.From(temp, type.name());
-                return new StorageValuePipeline<>(this.asto, key, tempkey).process(
+                return new AstoValuePipeline<>(
+                    this.asto, key, tempkey, this.cnfg.executors().io()
+                ).process(
                     (input, out) -> new UncheckedScalar<>(
                         () -> new MergedXmlPackage(
                             input.map(new UncheckedIOFunc<>(GZIPInputStream::new)),
-                            out, type, primary
-                        ).merge(metas, event)
+                            out, type, primary, this.cnfg.executors().parse(),
+                            this.cnfg.renderWindow()
+                        ).mergeRecords(metas, event)
                     ).value()
                 );
             }
@@ -147,16 +325,14 @@ public final class AstoMetadataAdd {
 
     /**
      * Find existing metadata key or return default key. Item with default key does not actually
-     * exist in storage, but later this key is used in {@link StorageValuePipeline}
+     * exist in storage, but later this key is used in {@link AstoValuePipeline}
      * which handle the situation correctly.
      * @param type Metadata type
      * @return Completable action with the key
      */
     private CompletionStage<Key> getExistingOrDefaultKey(final XmlPackage type) {
-        final String key = String.format("%s.xml.gz", type.lowercase());
-        return this.asto.list(new Key.From("repodata")).thenApply(
-            list -> list.stream().filter(item -> item.string().endsWith(key))
-                .findFirst().orElse(new Key.From(key))
+        return new AstoMetadataLocations(this.asto).find(type).thenApply(
+            opt -> opt.orElse(new Key.From(String.format("%s.xml.gz", type.lowercase())))
         );
     }
 }
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.ContentDigest;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.meta.XmlRepomdLocations;
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Locations of the current repository metadata generation. Current metadata files are
+ * the files referenced by `repodata/repomd.xml`, superseded generations can still be
+ * present in `repodata` during grace period (see {@link com.artipie.rpm.RepoConfig#gracePeriod()}),
+ * that's why metadata should be looked up with the help of this class.
+ * @since 1.10
+ */
+public final class AstoMetadataLocations {
+
+    /**
+     * Metadata key.
+     */
+    static final Key META = new Key.From("repodata");
+
+    /**
+     * Repomd key.
+     */
+    static final Key REPOMD = new Key.From(AstoMetadataLocations.META, "repomd.xml");
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repomd key.
+     */
+    private final Key repomd;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     */
+    public AstoMetadataLocations(final Storage asto) {
+        this(asto, AstoMetadataLocations.REPOMD);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param repomd Repomd key to read locations from, for instance, the key of the temp
+     *  repomd.xml of the update to be published
+     */
+    AstoMetadataLocations(final Storage asto, final Key repomd) {
+        this.asto = asto;
+        this.repomd = repomd;
+    }
+
+    /**
+     * Metadata files, referenced by current repomd.xml.
+     * @return Completable action with the map of metadata type and key
+     */
+    public CompletionStage<Map<String, Key>> referenced() {
+        return this.asto.exists(this.repomd).thenCompose(
+            exists -> {
+                CompletionStage<Map<String, Key>> res =
+                    CompletableFuture.completedFuture(Collections.emptyMap());
+                if (exists) {
+                    res = this.asto.value(this.repomd).thenCompose(
+                        val -> new PublisherAs(val).bytes()
+                    ).thenApply(
+                        bytes -> new XmlRepomdLocations(new ByteArrayInputStream(bytes)).read()
+                    ).thenApply(
+                        hrefs -> {
+                            final Map<String, Key> keys = new HashMap<>(hrefs.size());
+                            hrefs.forEach((type, href) -> keys.put(type, new Key.From(href)));
+                            return keys;
+                        }
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Entries of the metadata files, referenced by current repomd.xml, see
+     * {@link XmlRepomdLocations#entries()}.
+     * @return Completable action with the map of metadata type and entry
+     */
+    public CompletionStage<Map<String, Map<String, String>>> entries() {
+        return this.asto.exists(this.repomd).thenCompose(
+            exists -> {
+                CompletionStage<Map<String, Map<String, String>>> res =
+                    CompletableFuture.completedFuture(Collections.emptyMap());
+                if (exists) {
+                    res = this.asto.value(this.repomd).thenCompose(
+                        val -> new PublisherAs(val).bytes()
+                    ).thenApply(
+                        bytes -> new XmlRepomdLocations(new ByteArrayInputStream(bytes)).entries()
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Finds checksum of the current compressed metadata file of the given type in repomd.xml.
+     * @param type Metadata type
+     * @return Completable action with the checksum, empty if repomd.xml does not reference
+     *  metadata of this type
+     */
+    public CompletionStage<Optional<String>> checksum(final XmlPackage type) {
+        return this.checksums().thenApply(sums -> Optional.ofNullable(sums.get(type.lowercase())));
+    }
+
+    /**
+     * Checksums of the compressed metadata files, referenced by repomd.xml, see
+     * {@link XmlRepomdLocations#checksums()}.
+     * @return Completable action with the map of metadata type and checksum
+     */
+    public CompletionStage<Map<String, String>> checksums() {
+        return this.asto.exists(this.repomd).thenCompose(
+            exists -> {
+                CompletionStage<Map<String, String>> res =
+                    CompletableFuture.completedFuture(Collections.emptyMap());
+                if (exists) {
+                    res = this.asto.value(this.repomd).thenCompose(
+                        val -> new PublisherAs(val).bytes()
+                    ).thenApply(
+                        bytes -> new XmlRepomdLocations(new ByteArrayInputStream(bytes))
+                            .checksums()
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Finds current metadata file of the given type. If repomd.xml does not reference
+     * metadata of this type, `repodata` is listed to find the item.
+     * @param type Metadata type
+     * @return Completable action with the key, empty if metadata does not exist
+     */
+    public CompletionStage<Optional<Key>> find(final XmlPackage type) {
+        return this.referenced().thenCompose(
+            refs -> {
+                final CompletionStage<Optional<Key>> res;
+                if (refs.containsKey(type.lowercase())) {
+                    res = CompletableFuture.completedFuture(
+                        Optional.of(refs.get(type.lowercase()))
+                    );
+                } else {
+                    final String name = String.format("%s.xml.gz", type.lowercase());
+                    res = this.asto.list(AstoMetadataLocations.META).thenApply(
+                        list -> list.stream().filter(item -> item.string().endsWith(name))
+                            .findFirst()
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Revision of the current metadata generation: hex sha256 checksum of `repomd.xml`,
+     * changes on every publish. Empty string if repository does not have metadata yet.
+     * @return Completable action with the revision
+     */
+    public CompletionStage<String> revision() {
+        return this.asto.exists(this.repomd).thenCompose(
+            exists -> {
+                CompletionStage<String> res = CompletableFuture.completedFuture("");
+                if (exists) {
+                    res = this.asto.value(this.repomd).thenCompose(
+                        val -> new ContentDigest(val, Digest.SHA256::messageDigest).hex()
+                    );
+                }
+                return res;
+            }
+        );
+    }
+}
@@ -8,19 +8,23 @@ import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.misc.UncheckedIOFunc;
 import com.artipie.asto.misc.UncheckedIOScalar;
-import com.artipie.asto.streams.StorageValuePipeline;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.RepoMetrics;
 import com.artipie.rpm.meta.XmlAlter;
+import com.artipie.rpm.meta.XmlChunkedMaid;
+import com.artipie.rpm.meta.XmlGzipIndex;
+import com.artipie.rpm.meta.XmlGzipMembers;
 import com.artipie.rpm.meta.XmlMaid;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.meta.XmlPrimaryMaid;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
@@ -56,51 +60,138 @@ public final class AstoMetadataRemove {
     /**
      * Removes packages from metadata xmls. Resulting new xmls are stored into temp location
      * along with checksums and size of un-gziped files. Temp location key as returned in result.
+     * Filelists xml is not updated if its update is deferred, see {@link AstoFilelistsSync}.
      * @param checksums Checksums of the packages to remove
      * @return Completable action with temp location key
      */
-    @SuppressWarnings("rawtypes")
     public CompletionStage<Key> perform(final Collection<String> checksums) {
+        return this.cnfg.metrics().timed(
+            RepoMetrics.Stage.METADATA_REMOVE, () -> this.remove(checksums)
+        );
+    }
+
+    /**
+     * Removes packages from metadata, see {@link #perform(Collection)}.
+     * @param checksums Checksums of the packages to remove
+     * @return Completable action with temp key
+     */
+    @SuppressWarnings("rawtypes")
+    private CompletionStage<Key> remove(final Collection<String> checksums) {
         final List<CompletableFuture<Void>> res = new ArrayList<>(3);
-        final Key.From prefix = new Key.From(UUID.randomUUID().toString());
-        for (final XmlPackage pckg : new XmlPackage.Stream(this.cnfg.filelists())
-            .get().collect(Collectors.toList())) {
+        final Key prefix = AstoStagedStorage.temp();
+        for (final XmlPackage pckg : new XmlPackage.Stream(
+            this.cnfg.filelists() && !new AstoFilelistsSync(this.asto, this.cnfg).deferred()
+        ).get().collect(Collectors.toList())) {
             res.add(
-                CompletableFuture.supplyAsync(() -> pckg).thenCompose(
-                    pkg -> this.asto.list(new Key.From("repodata")).thenApply(
-                        list -> list.stream()
-                            .filter(item -> item.string().contains(pckg.lowercase())).findFirst()
-                    ).thenCompose(
-                        opt -> {
-                            final Key tmpkey = new Key.From(prefix, pkg.name());
-                            CompletionStage<Void> result = CompletableFuture.allOf();
-                            if (opt.isPresent()) {
-                                result = this.removePackages(pckg, opt.get(), tmpkey, checksums)
-                                    .thenCompose(
-                                        cnt -> new StorageValuePipeline<>(this.asto, tmpkey)
-                                            .process(
-                                                (inpt, out) -> new XmlAlter.Stream(
-                                                    new BufferedInputStream(inpt.get()),
-                                                    new BufferedOutputStream(out)
-                                                ).pkgAttr(pckg.tag(), String.valueOf(cnt))
-                                        )
-                                    ).thenCompose(
-                                        nothing -> new AstoChecksumAndSize(
-                                            this.asto, this.cnfg.digest()
-                                        ).calculate(tmpkey)
+                new AstoMetadataLocations(this.asto).find(pckg).thenComposeAsync(
+                    opt -> {
+                        final Key tmpkey = new Key.From(prefix, pckg.name());
+                        CompletionStage<Void> result = CompletableFuture.allOf();
+                        if (opt.isPresent()) {
+                            result = this.index(pckg).thenCompose(
+                                index -> index.<CompletionStage<Void>>map(
+                                    idx -> this.removeBlocks(
+                                        pckg, opt.get(), tmpkey, checksums, idx
                                     )
-                                    .thenCompose(hex -> new AstoArchive(this.asto).gzip(tmpkey));
-                            }
-                            return result;
+                                ).orElseGet(
+                                    () -> this.removeAndArchive(pckg, opt.get(), tmpkey, checksums)
+                                )
+                            );
                         }
-                    )
-                )
+                        return result;
+                    },
+                    this.cnfg.executors().parse()
+                ).toCompletableFuture()
             );
         }
         return CompletableFuture.allOf(res.toArray(new CompletableFuture[]{}))
             .thenApply(nothing -> prefix);
     }
 
+    /**
+     * Removes packages from metadata file, compresses the result and saves checksum and size
+     * of the uncompressed metadata.
+     * @param pckg Package type
+     * @param key Item key
+     * @param tmpkey Temp key where to write the result
+     * @param checksums Checksums to remove
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Void> removeAndArchive(final XmlPackage pckg, final Key key,
+        final Key tmpkey, final Collection<String> checksums) {
+        return this.removePackages(pckg, key, tmpkey, checksums)
+            .thenCompose(
+                cnt -> new AstoValuePipeline<>(
+                    this.asto, tmpkey, this.cnfg.executors().io()
+                ).process(
+                    (inpt, out) -> new XmlAlter.Stream(
+                        new BufferedInputStream(inpt.get()),
+                        new BufferedOutputStream(out)
+                    ).pkgAttr(pckg.tag(), String.valueOf(cnt))
+                )
+            ).thenCompose(
+                nothing -> new AstoChecksumAndSize(this.asto, this.cnfg).calculate(tmpkey)
+            )
+            .thenCompose(hex -> this.archive(tmpkey, pckg));
+    }
+
+    /**
+     * Removes packages from metadata compressed as gzip members by the seek index, see
+     * {@link XmlGzipMembers#remove(InputStream, OutputStream, XmlGzipIndex, Collection)},
+     * and saves checksum and size of the uncompressed metadata.
+     * @param pckg Package type
+     * @param key Item key
+     * @param tmpkey Temp key where to write the result
+     * @param checksums Checksums to remove
+     * @param index Seek index of the metadata
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Void> removeBlocks(final XmlPackage pckg, final Key key,
+        final Key tmpkey, final Collection<String> checksums, final XmlGzipIndex index) {
+        return new AstoGzipIndex(this.asto, this.cnfg).write(
+            key, tmpkey, pckg,
+            (input, out) -> new XmlGzipMembers(pckg, this.cnfg)
+                .remove(input.get(), out, index, checksums)
+        ).thenCompose(
+            nothing -> new AstoChecksumAndSize(this.asto, this.cnfg).calculateUncompressed(tmpkey)
+        );
+    }
+
+    /**
+     * Finds seek index of the metadata, if metadata is compressed as gzip members.
+     * @param pckg Package type
+     * @return Completable action with the index, empty if metadata has no index
+     */
+    private CompletionStage<Optional<XmlGzipIndex>> index(final XmlPackage pckg) {
+        CompletionStage<Optional<XmlGzipIndex>> res =
+            CompletableFuture.completedFuture(Optional.empty());
+        if (this.cnfg.gzipMembers()) {
+            res = new AstoGzipIndex(this.asto, this.cnfg).find(pckg);
+        }
+        return res;
+    }
+
+    /**
+     * Compresses metadata file.
+     * @param key Metadata file key
+     * @param type Metadata type
+     * @return Completable action
+     */
+    private CompletionStage<Void> archive(final Key key, final XmlPackage type) {
+        final CompletionStage<Void> res;
+        if (this.cnfg.gzipMembers()) {
+            res = new AstoGzipIndex(this.asto, this.cnfg).write(
+                key, key, type,
+                (input, out) -> new XmlGzipMembers(type, this.cnfg).compress(input.get(), out)
+            );
+        } else {
+            res = new AstoArchive(this.asto, this.cnfg).gzip(key);
+        }
+        return res;
+    }
+
     /**
      * Removes packages from metadata file.
      * @param pckg Package type
@@ -113,12 +204,19 @@ public final class AstoMetadataRemove {
     private CompletionStage<Long> removePackages(
         final XmlPackage pckg, final Key key, final Key temp, final Collection<String> checksums
     ) {
-        return new StorageValuePipeline<Long>(this.asto, key, temp).processWithResult(
+        return new AstoValuePipeline<Long>(
+            this.asto, key, temp, this.cnfg.executors().io()
+        ).processWithResult(
             (opt, out) -> {
                 final XmlMaid maid;
                 final InputStream input = opt.map(new UncheckedIOFunc<>(GZIPInputStream::new))
                     .get();
-                if (pckg == XmlPackage.PRIMARY) {
+                if (this.cnfg.filterChunk() > 0) {
+                    maid = new XmlChunkedMaid(
+                        input, out, pckg, this.cnfg.executors().parse(), this.cnfg.filterChunk(),
+                        this.cnfg.parallelism() * 2
+                    );
+                } else if (pckg == XmlPackage.PRIMARY) {
                     maid = new XmlPrimaryMaid.Stream(input, out);
                 } else {
                     maid = new XmlMaid.ByPkgidAttr.Stream(input, out);
@@ -0,0 +1,339 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.misc.Delay;
+import io.reactivex.Flowable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Storage, which counts the operations and the bytes transferred to and from the origin
+ * storage and, optionally, delays each operation by the given latency before it reaches
+ * the origin. Counting shows how many storage round trips the repository update makes,
+ * latency allows to see how the update time changes on the remote storages, like S3,
+ * where each round trip is expensive. Delayed operations proceed on the io executor,
+ * see {@link RepoConfig#executors()}.
+ * @since 1.10
+ */
+public final class AstoMeteredStorage implements Storage {
+
+    /**
+     * Origin storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Operations statistics.
+     */
+    private final Stats stats;
+
+    /**
+     * Latency of the operations.
+     */
+    private final Function<Operation, Duration> latency;
+
+    /**
+     * Executor to proceed the delayed operations on.
+     */
+    private final Executor exec;
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param stats Operations statistics
+     */
+    public AstoMeteredStorage(final Storage origin, final Stats stats) {
+        this(origin, stats, Duration.ZERO);
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param stats Operations statistics
+     * @param latency Latency of each operation
+     */
+    public AstoMeteredStorage(final Storage origin, final Stats stats, final Duration latency) {
+        this(origin, stats, operation -> latency);
+    }
+
+    /**
+     * Ctor.
+     * @param origin Origin storage
+     * @param stats Operations statistics
+     * @param latency Latency by operation
+     */
+    public AstoMeteredStorage(final Storage origin, final Stats stats,
+        final Function<Operation, Duration> latency) {
+        this(origin, stats, latency, new RepoConfig.Simple().executors().io());
+    }
+
+    /**
+     * Primary ctor.
+     * @param origin Origin storage
+     * @param stats Operations statistics
+     * @param latency Latency by operation
+     * @param exec Executor to proceed the delayed operations on
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public AstoMeteredStorage(final Storage origin, final Stats stats,
+        final Function<Operation, Duration> latency, final Executor exec) {
+        this.origin = origin;
+        this.stats = stats;
+        this.latency = latency;
+        this.exec = exec;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        return this.delay(Operation.EXISTS).thenCompose(nothing -> this.origin.exists(key));
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        return this.delay(Operation.LIST).thenCompose(nothing -> this.origin.list(prefix));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        return this.delay(Operation.SAVE).thenCompose(
+            nothing -> this.origin.save(
+                key,
+                new Content.From(
+                    content.size(),
+                    Flowable.fromPublisher(content)
+                        .doOnNext(buf -> this.stats.written(buf.remaining()))
+                )
+            )
+        );
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        return this.delay(Operation.MOVE)
+            .thenCompose(nothing -> this.origin.move(source, destination));
+    }
+
+    @Override
+    public CompletableFuture<Long> size(final Key key) {
+        return this.delay(Operation.SIZE).thenCompose(nothing -> this.origin.size(key));
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        return this.delay(Operation.VALUE).thenCompose(nothing -> this.origin.value(key))
+            .thenApply(
+                content -> new Content.From(
+                    content.size(),
+                    Flowable.fromPublisher(content)
+                        .doOnNext(buf -> this.stats.read(buf.remaining()))
+                )
+            );
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.delay(Operation.DELETE).thenCompose(nothing -> this.origin.delete(key));
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        return this.delay(Operation.EXCLUSIVELY).thenCompose(
+            nothing -> this.origin.exclusively(
+                key,
+                sto -> operation.apply(
+                    new AstoMeteredStorage(sto, this.stats, this.latency, this.exec)
+                )
+            )
+        );
+    }
+
+    /**
+     * Counts the operation and delays it by the latency.
+     * @param operation Operation
+     * @return Future, completed after the latency
+     */
+    private CompletableFuture<Void> delay(final Operation operation) {
+        this.stats.called(operation);
+        final Duration time = this.latency.apply(operation);
+        final CompletableFuture<Void> res;
+        if (time.isZero()) {
+            res = CompletableFuture.completedFuture(null);
+        } else {
+            res = new Delay(time, this.exec).start().toCompletableFuture();
+        }
+        return res;
+    }
+
+    /**
+     * Storage operations.
+     * @since 1.10
+     */
+    public enum Operation {
+
+        /**
+         * Existence check.
+         */
+        EXISTS,
+
+        /**
+         * Keys listing.
+         */
+        LIST,
+
+        /**
+         * Value saving.
+         */
+        SAVE,
+
+        /**
+         * Value moving.
+         */
+        MOVE,
+
+        /**
+         * Value size request.
+         */
+        SIZE,
+
+        /**
+         * Value reading.
+         */
+        VALUE,
+
+        /**
+         * Value deletion.
+         */
+        DELETE,
+
+        /**
+         * Exclusive operation under lock.
+         */
+        EXCLUSIVELY
+    }
+
+    /**
+     * Statistics of the storage operations, can be shared between several storages.
+     * @since 1.10
+     */
+    public static final class Stats {
+
+        /**
+         * Number of the calls by operation.
+         */
+        private final Map<Operation, AtomicLong> calls;
+
+        /**
+         * Number of the read bytes.
+         */
+        private final AtomicLong rbytes;
+
+        /**
+         * Number of the written bytes.
+         */
+        private final AtomicLong wbytes;
+
+        /**
+         * Ctor.
+         */
+        public Stats() {
+            this.calls = new EnumMap<>(Operation.class);
+            for (final Operation operation : Operation.values()) {
+                this.calls.put(operation, new AtomicLong());
+            }
+            this.rbytes = new AtomicLong();
+            this.wbytes = new AtomicLong();
+        }
+
+        /**
+         * Number of the operation calls.
+         * @param operation Operation
+         * @return Number of calls
+         */
+        public long calls(final Operation operation) {
+            return this.calls.get(operation).get();
+        }
+
+        /**
+         * Total number of the calls, which is the number of the storage round trips.
+         * @return Number of calls
+         */
+        public long total() {
+            return this.calls.values().stream().mapToLong(AtomicLong::get).sum();
+        }
+
+        /**
+         * Number of the bytes read from the storage.
+         * @return Bytes count
+         */
+        public long read() {
+            return this.rbytes.get();
+        }
+
+        /**
+         * Number of the bytes written to the storage.
+         * @return Bytes count
+         */
+        public long written() {
+            return this.wbytes.get();
+        }
+
+        @Override
+        public String toString() {
+            return Stream.concat(
+                this.calls.entrySet().stream().map(
+                    entry -> String.format(
+                        "%s=%d",
+                        entry.getKey().name().toLowerCase(Locale.US), entry.getValue().get()
+                    )
+                ),
+                Stream.of(
+                    String.format("total=%d", this.total()),
+                    String.format("read=%d", this.read()),
+                    String.format("written=%d", this.written())
+                )
+            ).collect(Collectors.joining(", "));
+        }
+
+        /**
+         * Counts operation call.
+         * @param operation Operation
+         */
+        void called(final Operation operation) {
+            this.calls.get(operation).incrementAndGet();
+        }
+
+        /**
+         * Counts read bytes.
+         * @param bytes Number of bytes
+         */
+        void read(final long bytes) {
+            this.rbytes.addAndGet(bytes);
+        }
+
+        /**
+         * Counts written bytes.
+         * @param bytes Number of bytes
+         */
+        void written(final long bytes) {
+            this.wbytes.addAndGet(bytes);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ValueNotFoundException;
+import com.artipie.asto.ext.ContentDigest;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.misc.UncheckedIOScalar;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.meta.RenderedPackage;
+import com.artipie.rpm.meta.XmlFragments;
+import com.artipie.rpm.meta.XmlPackage;
+import com.artipie.rpm.pkg.Checksum;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Store of the rendered packages metadata xml records. Records are stored by package
+ * checksum (pkgid) along with package location, so packages, which were rendered once, are
+ * added to metadata without parsing rpm header and rendering records again. Note, that
+ * package file is still read once to calculate the checksum the records are stored by:
+ * rebuilds with the store skip parsing and rendering, but not reading the packages.
+ * @since 1.10
+ */
+public final class AstoPackageFragments {
+
+    /**
+     * Store root key.
+     */
+    static final Key ROOT = new Key.From(".fragments");
+
+    /**
+     * Location key name.
+     */
+    private static final String HREF = "href";
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private final RepoConfig cnfg;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     */
+    public AstoPackageFragments(final Storage asto, final RepoConfig cnfg) {
+        this.asto = asto;
+        this.cnfg = cnfg;
+    }
+
+    /**
+     * Obtain rendered package records. Records are read from the store if package with
+     * the same checksum and location was rendered before, otherwise package is parsed and
+     * rendered, new records are saved to the store.
+     * @param key Package key
+     * @param path Package repository relative path
+     * @return Completable action
+     */
+    public CompletionStage<RenderedPackage> records(final Key key, final String path) {
+        return this.asto.value(key).thenCompose(
+            val -> new ContentDigest(val, this.cnfg.digest()::messageDigest).hex().thenCompose(
+                hex -> {
+                    final Checksum sum = new Checksum.Simple(this.cnfg.digest(), hex);
+                    final long size = val.size()
+                        .orElseThrow(() -> new ArtipieException("Content size unknown!"));
+                    final Key base = new Key.From(
+                        AstoPackageFragments.ROOT,
+                        this.cnfg.digest().name().toLowerCase(Locale.US), hex
+                    );
+                    return this.cached(base, path, sum).thenCompose(
+                        opt -> opt.<CompletionStage<RenderedPackage>>map(
+                            CompletableFuture::completedFuture
+                        ).orElseGet(() -> this.render(key, path, base, sum, size))
+                    );
+                }
+            )
+        );
+    }
+
+    /**
+     * Reads package records from the store.
+     * @param base Package records key
+     * @param path Package repository relative path
+     * @param sum Package checksum
+     * @return Completable action with rendered package, empty if package was not rendered
+     *  with the same location or some of the records are absent
+     */
+    private CompletionStage<Optional<RenderedPackage>> cached(final Key base,
+        final String path, final Checksum sum) {
+        return this.read(new Key.From(base, AstoPackageFragments.HREF)).thenCompose(
+            href -> {
+                CompletionStage<Optional<RenderedPackage>> res =
+                    CompletableFuture.completedFuture(Optional.empty());
+                if (href.isPresent() && href.get().equals(path)) {
+                    final Map<XmlPackage, CompletableFuture<Optional<String>>> reads =
+                        new EnumMap<>(XmlPackage.class);
+                    for (final XmlPackage type : this.types()) {
+                        reads.put(type, this.read(this.key(base, type)));
+                    }
+                    res = CompletableFuture.allOf(
+                        reads.values().toArray(new CompletableFuture<?>[0])
+                    ).thenApply(
+                        nothing -> {
+                            final Map<XmlPackage, String> records =
+                                new EnumMap<>(XmlPackage.class);
+                            reads.forEach(
+                                (type, rec) -> rec.join().ifPresent(
+                                    text -> records.put(type, text)
+                                )
+                            );
+                            Optional<RenderedPackage> pkg = Optional.empty();
+                            if (records.size() == reads.size()) {
+                                pkg = Optional.of(new RenderedPackage(sum, path, records));
+                            }
+                            return pkg;
+                        }
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Parses and renders package, saves records to the store.
+     * @param key Package key
+     * @param path Package repository relative path
+     * @param base Package records key
+     * @param sum Package checksum
+     * @param size Package size
+     * @return Completable action with rendered package
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<RenderedPackage> render(final Key key, final String path,
+        final Key base, final Checksum sum, final long size) {
+        final List<XmlPackage> types = this.types();
+        return new AstoRpmPackage(this.asto, this.cnfg.digest())
+            .packageMeta(key, path, sum, size)
+            .thenApply(
+                meta -> new UncheckedIOScalar<>(
+                    () -> new XmlFragments(meta, this.cnfg.changelogLimit()).render(types)
+                ).value()
+            ).thenCompose(
+                pkg -> CompletableFuture.allOf(
+                    types.stream().map(
+                        type -> this.asto.save(
+                            this.key(base, type),
+                            new Content.From(
+                                pkg.fragment(type).get().getBytes(StandardCharsets.UTF_8)
+                            )
+                        )
+                    ).toArray(CompletableFuture[]::new)
+                ).thenCompose(
+                    nothing -> this.asto.save(
+                        new Key.From(base, AstoPackageFragments.HREF),
+                        new Content.From(path.getBytes(StandardCharsets.UTF_8))
+                    )
+                ).thenApply(nothing -> pkg)
+            );
+    }
+
+    /**
+     * Reads value as string if it exists: value is requested without existence check,
+     * so that each record costs one storage round trip.
+     * @param key Key to read
+     * @return Completable action with value
+     */
+    private CompletableFuture<Optional<String>> read(final Key key) {
+        return this.asto.value(key).thenCompose(
+            val -> new PublisherAs(val).string(StandardCharsets.UTF_8)
+        ).thenApply(Optional::of).handle(
+            (res, err) -> {
+                final CompletableFuture<Optional<String>> result = new CompletableFuture<>();
+                if (err == null) {
+                    result.complete(res);
+                } else if (AstoPackageFragments.notFound(err)) {
+                    result.complete(Optional.empty());
+                } else {
+                    result.completeExceptionally(err);
+                }
+                return result;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Checks whether error is caused by the absent value.
+     * @param err Error
+     * @return True if value is not found
+     */
+    private static boolean notFound(final Throwable err) {
+        Throwable cause = err;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof ValueNotFoundException;
+    }
+
+    /**
+     * Metadata types of the repository.
+     * @return Types list
+     */
+    private List<XmlPackage> types() {
+        return new XmlPackage.Stream(this.cnfg.filelists()).get().collect(Collectors.toList());
+    }
+
+    /**
+     * Record key. Other.xml records rendered with changelog limit are stored separately
+     * from the complete ones, so limit change does not reuse records with other changelog.
+     * @param base Package records key
+     * @param type Metadata type
+     * @return Key
+     */
+    private Key key(final Key base, final XmlPackage type) {
+        final String name;
+        if (type == XmlPackage.OTHER && this.cnfg.changelogLimit() > 0) {
+            name = String.format("%s-%d.xml", type.lowercase(), this.cnfg.changelogLimit());
+        } else {
+            name = String.format("%s.xml", type.lowercase());
+        }
+        return new Key.From(base, name);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.meta.PackageRecords;
+import com.artipie.rpm.meta.ParsedPackage;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Metadata records of the package from the storage: records are read from the rendered
+ * records store, see {@link AstoPackageFragments}, if it is enabled, otherwise package
+ * header is parsed.
+ * @since 1.10
+ */
+final class AstoPackageRecords {
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private final RepoConfig cnfg;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     */
+    AstoPackageRecords(final Storage asto, final RepoConfig cnfg) {
+        this.asto = asto;
+        this.cnfg = cnfg;
+    }
+
+    /**
+     * Reads package records.
+     * @param key Package key
+     * @param path Package repository relative path
+     * @return Completable action with package records
+     */
+    CompletionStage<? extends PackageRecords> records(final Key key, final String path) {
+        final CompletionStage<? extends PackageRecords> res;
+        if (this.cnfg.fragments()) {
+            res = new AstoPackageFragments(this.asto, this.cnfg).records(key, path);
+        } else {
+            res = new AstoRpmPackage(this.asto, this.cnfg.digest()).packageMeta(key, path)
+                .thenApply(ParsedPackage::new);
+        }
+        return res;
+    }
+}
@@ -7,18 +7,26 @@ package com.artipie.rpm.asto;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.key.KeyExcludeFirst;
-import com.artipie.asto.lock.storage.StorageLock;
+import com.artipie.asto.misc.UncheckedIOScalar;
 import com.artipie.asto.rx.RxStorageWrapper;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.RepoMetrics;
 import com.artipie.rpm.http.RpmUpload;
-import com.artipie.rpm.pkg.Package;
+import com.artipie.rpm.meta.PackageRecords;
+import com.artipie.rpm.meta.PackagesBuffer;
+import com.artipie.rpm.meta.XmlPackage;
 import com.jcabi.log.Logger;
-import hu.akarnokd.rxjava2.interop.SingleInterop;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Completable;
 import io.reactivex.Flowable;
 import io.reactivex.schedulers.Schedulers;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Add packages to metadata and repository.
@@ -28,9 +36,16 @@ import java.util.concurrent.CompletionStage;
 public final class AstoRepoAdd {
 
     /**
-     * Metadata key.
+     * Location of the packages claimed by the updates: each update moves packages from
+     * {@link RpmUpload#TO_ADD} to its own sub-key, so that concurrent updates never add
+     * or move the same uploaded package.
      */
-    private static final Key META = new Key.From("repodata");
+    public static final Key CLAIMED = new Key.From(".claimed");
+
+    /**
+     * Megabyte size in bytes.
+     */
+    private static final long MEGABYTE = 1024L * 1024L;
 
     /**
      * Asto storage.
@@ -42,100 +57,278 @@ public final class AstoRepoAdd {
      */
     private final RepoConfig cnfg;
 
+    /**
+     * Repository locks.
+     */
+    private final AstoLocks locks;
+
     /**
      * Ctor.
      * @param asto Abstract storage
      * @param cnfg Repository config
      */
     public AstoRepoAdd(final Storage asto, final RepoConfig cnfg) {
+        this(asto, cnfg, new AstoLocks(asto, cnfg));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param cnfg Repository config
+     * @param locks Repository locks
+     */
+    public AstoRepoAdd(final Storage asto, final RepoConfig cnfg, final AstoLocks locks) {
         this.asto = asto;
         this.cnfg = cnfg;
+        this.locks = locks;
     }
 
     /**
      * Performs whole workflow to add items, listed in {@link com.artipie.rpm.http.RpmUpload#TO_ADD}
-     * location, to the repository and metadata files.
+     * location, to the repository and metadata files. Staged packages are listed once and
+     * claimed by the update: they are moved to the update own key in {@link #CLAIMED}
+     * location, packages, which arrive while the update is calculated or are claimed by a
+     * concurrent update, are left for the next update. Metadata update is committed by
+     * {@link AstoRepodataCommit}, claimed packages are moved to the repository only after the
+     * commit succeeds, so packages they replace are kept if the commit fails; failed update
+     * moves claimed packages back to {@link RpmUpload#TO_ADD} location unless newer packages
+     * were uploaded there meanwhile. Each metadata update attempt lists and checks current
+     * metadata once, see {@link AstoMemoizedStorage}.
+     * Intermediate metadata files are staged, see {@link AstoStagedStorage}. If filelists
+     * update is deferred, it is started in background after the update is committed,
+     * see {@link AstoFilelistsSync}.
      * @return Completable action
      */
     public CompletionStage<Void> perform() {
-        return this.read().thenCompose(
-            list -> new AstoMetadataAdd(this.asto, this.cnfg).perform(list)
-        ).thenCompose(
-            temp -> new AstoCreateRepomd(this.asto, this.cnfg).perform(temp).thenCompose(
-                nothing -> new AstoMetadataNames(this.asto, this.cnfg).prepareNames(temp)
-                    .thenCompose(
-                        keys -> {
-                            final StorageLock lock = new StorageLock(this.asto, AstoRepoAdd.META);
-                            return lock.acquire()
-                                .thenCompose(ignored -> this.remove(AstoRepoAdd.META))
-                                .thenCompose(
-                                    ignored -> CompletableFuture.allOf(
-                                        keys.entrySet().stream().map(
-                                            entry -> this.asto
-                                                .move(entry.getKey(), entry.getValue())
-                                        ).toArray(CompletableFuture[]::new)
-                                    )
-                                )
-                                .thenCompose(
-                                    ignored -> this.asto.list(RpmUpload.TO_ADD).thenCompose(
-                                        list -> CompletableFuture.allOf(
-                                            list.stream().map(
-                                                key -> this.asto.move(
-                                                    key, AstoRepoAdd.removeTempPart(key)
-                                                )
-                                            ).toArray(CompletableFuture[]::new)
-                                        )
-                                    )
-                                )
-                                .thenCompose(ignored -> lock.release()).thenCompose(
-                                    ignored -> this.remove(temp)
-                                );
-                        }
-                    )
+        return this.perform(Collections.emptyList());
+    }
+
+    /**
+     * Performs whole workflow to add items, listed in {@link com.artipie.rpm.http.RpmUpload#TO_ADD}
+     * location, and packages, which are already located in the repository, to the metadata
+     * files, see {@link #perform()}. Packages located in the repository are indexed in place:
+     * they are neither copied nor moved, invalid ones are skipped. Packages are streamed into
+     * {@link PackagesBuffer} as they are parsed, at most {@link RepoConfig#parallelism()}
+     * packages are parsed at once, and the buffer keeps them within the memory budget,
+     * see {@link RepoConfig#addBudget()}, for the metadata mergers.
+     * @param rpms Keys of the packages in the repository to add
+     * @return Completable action
+     */
+    public CompletionStage<Void> perform(final Collection<Key> rpms) {
+        final Key claim = new Key.From(AstoRepoAdd.CLAIMED, UUID.randomUUID().toString());
+        final PackagesBuffer buffer = new PackagesBuffer(
+            this.cnfg.addBudget() * AstoRepoAdd.MEGABYTE,
+            new XmlPackage.Stream(
+                this.cnfg.filelists() && !new AstoFilelistsSync(this.asto, this.cnfg).deferred()
+            ).get().collect(Collectors.toList()),
+            this.cnfg.changelogLimit()
+        );
+        return this.claim(claim).thenCompose(
+            nothing -> this.read(claim, buffer).thenCompose(
+                read -> this.index(rpms, buffer)
+            ).thenCompose(indexed -> this.commit(buffer.packages())).handle(
+                (committed, err) -> {
+                    final CompletionStage<Void> res;
+                    if (err == null) {
+                        res = this.place(claim);
+                    } else {
+                        res = this.restage(claim, err);
+                    }
+                    return res;
+                }
+            ).thenCompose(Function.identity())
+        ).whenComplete(
+            (nothing, err) -> new UncheckedIOScalar<>(
+                () -> {
+                    buffer.close();
+                    return true;
+                }
+            ).value()
+        ).thenRun(new AstoFilelistsSync(this.asto, this.cnfg, this.locks)::trigger);
+    }
+
+    /**
+     * Commits metadata update with the packages.
+     * @param list Packages metadata to add
+     * @return Completable action
+     */
+    private CompletionStage<Void> commit(final Collection<PackageRecords> list) {
+        final Storage sto = new AstoStagedStorage(this.asto, this.cnfg);
+        final CommitEvent jfr = new CommitEvent("add", list.size());
+        return new AstoRepodataCommit(sto, this.cnfg, this.locks).perform(
+            () -> new AstoMetadataAdd(
+                new AstoMemoizedStorage(sto, AstoMetadataLocations.META), this.cnfg
+            ).perform(list)
+        ).whenComplete((ignored, err) -> jfr.record(err == null)).thenRun(
+            () -> this.cnfg.metrics().count(RepoMetrics.Counter.ADDED, list.size())
+        );
+    }
+
+    /**
+     * Claims packages staged in {@link RpmUpload#TO_ADD} location for the update: moves them
+     * to the claim key. Packages, which failed to move, are claimed by concurrent updates.
+     * @param claim Claim key of the update
+     * @return Completable action
+     */
+    private CompletionStage<Void> claim(final Key claim) {
+        return this.asto.list(RpmUpload.TO_ADD).thenCompose(
+            keys -> {
+                this.cnfg.metrics().gauge(RepoMetrics.Gauge.PENDING_ADD, keys.size());
+                return CompletableFuture.allOf(
+                    keys.stream().map(
+                        key -> this.asto.move(
+                            key, new Key.From(claim, AstoRepoAdd.removeTempPart(key))
+                        ).handle((nothing, err) -> err == null)
+                    ).toArray(CompletableFuture[]::new)
+                );
+            }
+        );
+    }
+
+    /**
+     * Reads claimed packages metadata into the buffer, invalid packages are removed.
+     * @param claim Claim key of the update
+     * @param buffer Parsed packages buffer
+     * @return Completable action
+     */
+    private CompletionStage<Void> read(final Key claim,
+        final PackagesBuffer buffer) {
+        return this.asto.list(claim).thenCompose(
+            keys -> this.parse(
+                keys, key -> AstoRepoAdd.unclaimed(claim, key).string(),
+                key -> new RxStorageWrapper(this.asto).delete(key), buffer
             )
         );
     }
 
     /**
-     * Read new packages metadata.
-     * @return Completable action with the list of packages metadata to add
-     */
-    private CompletionStage<List<Package.Meta>> read() {
-        return SingleInterop.fromFuture(this.asto.list(RpmUpload.TO_ADD))
-            .flatMapPublisher(Flowable::fromIterable)
-            .parallel().runOn(Schedulers.io())
-            .flatMap(
-                key -> Flowable.fromFuture(
-                    new AstoRpmPackage(this.asto, this.cnfg.digest()).packageMeta(
-                        key, AstoRepoAdd.removeTempPart(key).string()
-                    ).toCompletableFuture()
-                ).onErrorResumeNext(
-                    throwable -> {
-                        Logger.warn(
-                            this, "Failed to parse rpm package %s\n%s",
-                            key.string(), throwable.getMessage()
-                        );
-                        return new RxStorageWrapper(this.asto).delete(key)
-                            .andThen(Flowable.empty());
-                    }
-                )
-            ).sequential().observeOn(Schedulers.io()).toList().to(SingleInterop.get());
+     * Reads metadata of the packages located in the repository into the buffer, invalid
+     * packages are skipped.
+     * @param rpms Packages keys
+     * @param buffer Parsed packages buffer
+     * @return Completable action
+     */
+    private CompletionStage<Void> index(final Collection<Key> rpms,
+        final PackagesBuffer buffer) {
+        return this.parse(rpms, Key::string, key -> Completable.complete(), buffer);
+    }
+
+    /**
+     * Parses packages in parallel and streams them into the buffer: each of the
+     * {@link RepoConfig#parallelism()} rails parses one package at a time and adds it to
+     * the buffer right away, so that only the buffer holds parsed packages.
+     * @param keys Packages keys
+     * @param path Package repository relative path by the key
+     * @param invalid Action on the package, which failed to parse
+     * @param buffer Parsed packages buffer
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private CompletionStage<Void> parse(final Collection<Key> keys,
+        final Function<Key, String> path, final Function<Key, Completable> invalid,
+        final PackagesBuffer buffer) {
+        final RepoMetrics metrics = this.cnfg.metrics();
+        final AstoPackageRecords records = new AstoPackageRecords(this.asto, this.cnfg);
+        return metrics.timed(
+            RepoMetrics.Stage.PARSE,
+            () -> Flowable.fromIterable(keys)
+                .parallel(this.cnfg.parallelism())
+                .runOn(Schedulers.from(this.cnfg.executors().parse()))
+                .flatMap(
+                    key -> Flowable.fromFuture(
+                        records.records(key, path.apply(key)).toCompletableFuture()
+                    ).doOnNext(
+                        meta -> metrics.count(RepoMetrics.Counter.PARSED, 1)
+                    ).onErrorResumeNext(
+                        throwable -> {
+                            Logger.warn(
+                                this, "Failed to parse rpm package %s\n%s",
+                                key.string(), throwable.getMessage()
+                            );
+                            metrics.count(RepoMetrics.Counter.INVALID, 1);
+                            return invalid.apply(key).andThen(Flowable.empty());
+                        }
+                    ),
+                    false, 1
+                ).doOnNext(buffer::add).sequential().ignoreElements()
+                .observeOn(Schedulers.from(this.cnfg.executors().io()))
+                .to(CompletableInterop.await())
+        );
     }
 
     /**
-     * Removes all items found by the key.
-     * @param key Key to remove items
+     * Moves claimed packages to the repository after metadata update is committed.
+     * @param claim Claim key of the update
      * @return Completable action
      */
-    private CompletableFuture<Void> remove(final Key key) {
-        return this.asto.list(key).thenCompose(
-            list -> CompletableFuture.allOf(
-                list.stream().map(this.asto::delete)
+    private CompletionStage<Void> place(final Key claim) {
+        return this.asto.list(claim).thenCompose(
+            keys -> CompletableFuture.allOf(
+                keys.stream().map(key -> this.asto.move(key, AstoRepoAdd.unclaimed(claim, key)))
                     .toArray(CompletableFuture[]::new)
             )
         );
     }
 
+    /**
+     * Moves claimed packages back to {@link RpmUpload#TO_ADD} location after failed metadata
+     * update, so that the next update adds them, and fails with the update error. Claimed
+     * package is removed if newer package with the same name was uploaded meanwhile.
+     * @param claim Claim key of the update
+     * @param err Update error
+     * @return Failed completable action
+     */
+    private CompletionStage<Void> restage(final Key claim, final Throwable err) {
+        return this.asto.list(claim).thenCompose(
+            keys -> CompletableFuture.allOf(
+                keys.stream().map(
+                    key -> {
+                        final Key staged = new Key.From(
+                            RpmUpload.TO_ADD, AstoRepoAdd.unclaimed(claim, key)
+                        );
+                        return this.asto.exists(staged).thenCompose(
+                            newer -> {
+                                final CompletableFuture<Void> res;
+                                if (newer) {
+                                    res = this.asto.delete(key);
+                                } else {
+                                    res = this.asto.move(key, staged);
+                                }
+                                return res;
+                            }
+                        );
+                    }
+                ).toArray(CompletableFuture[]::new)
+            ).thenApply(nothing -> keys.size())
+        ).handle(
+            (count, rerr) -> {
+                if (rerr == null) {
+                    Logger.warn(
+                        AstoRepoAdd.class, "Failed to update metadata, %d packages re-staged",
+                        count
+                    );
+                } else {
+                    Logger.error(
+                        AstoRepoAdd.class, "Failed to re-stage packages: %[exception]s", rerr
+                    );
+                }
+                final CompletableFuture<Void> failed = new CompletableFuture<>();
+                failed.completeExceptionally(err);
+                return failed;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Removes claim key part from the claimed package key.
+     * @param claim Claim key of the update
+     * @param key Claimed package key
+     * @return Package key in the repository
+     */
+    private static Key unclaimed(final Key claim, final Key key) {
+        return new Key.From(key.string().substring(claim.string().length() + 1));
+    }
+
     /**
      * Removes first {@link RpmUpload#TO_ADD} part from the key.
      * @param key Origin key
@@ -8,9 +8,9 @@ import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.key.KeyExcludeFirst;
-import com.artipie.asto.lock.storage.StorageLock;
 import com.artipie.asto.rx.RxStorageWrapper;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.RepoMetrics;
 import com.artipie.rpm.http.RpmRemove;
 import hu.akarnokd.rxjava2.interop.SingleInterop;
 import io.reactivex.Observable;
@@ -27,11 +27,6 @@ import java.util.concurrent.CompletionStage;
  */
 public final class AstoRepoRemove {
 
-    /**
-     * Metadata key.
-     */
-    private static final Key META = new Key.From("repodata");
-
     /**
      * Asto storage.
      */
@@ -42,47 +37,51 @@ public final class AstoRepoRemove {
      */
     private final RepoConfig cnfg;
 
+    /**
+     * Repository locks.
+     */
+    private final AstoLocks locks;
+
     /**
      * Ctor.
      * @param asto Abstract storage
      * @param cnfg Repository config
      */
     public AstoRepoRemove(final Storage asto, final RepoConfig cnfg) {
+        this(asto, cnfg, new AstoLocks(asto, cnfg));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Abstract storage
+     * @param cnfg Repository config
+     * @param locks Repository locks
+     */
+    public AstoRepoRemove(final Storage asto, final RepoConfig cnfg, final AstoLocks locks) {
         this.asto = asto;
         this.cnfg = cnfg;
+        this.locks = locks;
     }
 
     /**
      * Performs whole workflow to remove items by provided checksums from
      * the repository. Rpm packages themselves are considered to be already removed
-     * from the repository.
+     * from the repository. Intermediate metadata files are staged, see
+     * {@link AstoStagedStorage}. If filelists update is deferred, it is started in background
+     * after the update is committed, see {@link AstoFilelistsSync}.
      * @param checksums Checksums of the packages to remove to
      * @return Completable action
      */
     public CompletionStage<Void> perform(final Collection<String> checksums) {
-        return new AstoMetadataRemove(this.asto, this.cnfg).perform(checksums).thenCompose(
-            temp -> new AstoCreateRepomd(this.asto, this.cnfg).perform(temp).thenCompose(
-                nothing -> new AstoMetadataNames(this.asto, this.cnfg).prepareNames(temp)
-                    .thenCompose(
-                        keys -> {
-                            final StorageLock lock =
-                                new StorageLock(this.asto, AstoRepoRemove.META);
-                            return lock.acquire()
-                                .thenCompose(ignored -> this.remove(AstoRepoRemove.META))
-                                .thenCompose(
-                                    ignored -> CompletableFuture.allOf(
-                                        keys.entrySet().stream().map(
-                                            entry ->
-                                                this.asto.move(entry.getKey(), entry.getValue())
-                                        ).toArray(CompletableFuture[]::new)
-                                    )
-                                ).thenCompose(ignored -> lock.release()).thenCompose(
-                                    ignored -> this.remove(temp)
-                                );
-                        }
-                    )
-            )
-        );
+        final Storage sto = new AstoStagedStorage(this.asto, this.cnfg);
+        final CommitEvent jfr = new CommitEvent("remove", checksums.size());
+        return new AstoRepodataCommit(sto, this.cnfg, this.locks).perform(
+            () -> new AstoMetadataRemove(
+                new AstoMemoizedStorage(sto, AstoMetadataLocations.META), this.cnfg
+            ).perform(checksums)
+        ).whenComplete((nothing, err) -> jfr.record(err == null)).thenRun(
+            () -> this.cnfg.metrics().count(RepoMetrics.Counter.REMOVED, checksums.size())
+        ).thenRun(new AstoFilelistsSync(this.asto, this.cnfg, this.locks)::trigger);
     }
 
     /**
@@ -104,20 +103,6 @@ public final class AstoRepoRemove {
         );
     }
 
-    /**
-     * Removes all items found by the key.
-     * @param key Key to remove items
-     * @return Completable action
-     */
-    private CompletableFuture<Void> remove(final Key key) {
-        return this.asto.list(key).thenCompose(
-            list -> CompletableFuture.allOf(
-                list.stream().map(this.asto::delete)
-                    .toArray(CompletableFuture[]::new)
-            )
-        );
-    }
-
     /**
      * Calculate checksums of the packages to remove and removes items from
      * temp location {@link RpmRemove#TO_RM}.
@@ -126,6 +111,9 @@ public final class AstoRepoRemove {
     private CompletionStage<List<String>> checksums() {
         final RxStorageWrapper rxsto = new RxStorageWrapper(this.asto);
         return rxsto.list(RpmRemove.TO_RM)
+            .doOnSuccess(
+                list -> this.cnfg.metrics().gauge(RepoMetrics.Gauge.PENDING_REMOVE, list.size())
+            )
             .flatMapObservable(Observable::fromIterable)
             .map(AstoRepoRemove::removeTemp)
             .flatMapSingle(
@@ -0,0 +1,234 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.ArtipieException;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.StandardNamingPolicy;
+import com.artipie.rpm.misc.Delay;
+import com.jcabi.log.Logger;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Commits metadata update: creates repomd.xml for the updated metadata, prepares metadata
+ * names and publishes new metadata generation. In {@link RepoConfig.CommitMode#OPTIMISTIC}
+ * mode update is published only if metadata revision update started from is still current,
+ * otherwise update is calculated again against new revision, at most
+ * {@link RepoConfig#commitAttempts()} times. Optimistic commit requires metadata names to
+ * be unique for each generation, so with {@link StandardNamingPolicy#PLAIN} naming policy
+ * metadata is always committed in {@link RepoConfig.CommitMode#LOCK} mode.
+ * @since 1.10
+ */
+public final class AstoRepodataCommit {
+
+    /**
+     * Backoff delay before the second attempt.
+     */
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(50);
+
+    /**
+     * Max backoff delay.
+     */
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(2);
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private final RepoConfig cnfg;
+
+    /**
+     * Repository locks.
+     */
+    private final AstoLocks locks;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     */
+    public AstoRepodataCommit(final Storage asto, final RepoConfig cnfg) {
+        this(asto, cnfg, new AstoLocks(asto, cnfg));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     * @param locks Repository locks
+     */
+    public AstoRepodataCommit(final Storage asto, final RepoConfig cnfg, final AstoLocks locks) {
+        this.asto = asto;
+        this.cnfg = cnfg;
+        this.locks = locks;
+    }
+
+    /**
+     * Is optimistic commit used?
+     * @return True if metadata is committed optimistically
+     */
+    public boolean optimistic() {
+        return this.cnfg.commit() == RepoConfig.CommitMode.OPTIMISTIC
+            && this.cnfg.naming() != StandardNamingPolicy.PLAIN;
+    }
+
+    /**
+     * Commits metadata update. Listing of the temp key with updated metadata is memoized
+     * for the update attempt, see {@link AstoMemoizedStorage}, while repomd.xml revision and
+     * published metadata are always read from the storage.
+     * @param update Metadata update, returns temp key with updated metadata files
+     * @return Completable action
+     */
+    public CompletionStage<Void> perform(final Supplier<CompletionStage<Key>> update) {
+        final CompletionStage<Void> res;
+        if (this.optimistic()) {
+            res = this.attempt(update, 1);
+        } else {
+            res = update.get().thenCompose(
+                temp -> {
+                    final Storage sto = new AstoMemoizedStorage(this.asto, temp);
+                    return this.prepare(sto, temp).thenCompose(
+                        keys -> new AstoRepodataPublish(sto, this.cnfg, this.locks).publish(keys)
+                    ).thenCompose(nothing -> AstoRepodataCommit.remove(sto, temp));
+                }
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Attempts to commit metadata update optimistically. Rejected attempt is retried after
+     * a random backoff delay, which doubles with each attempt up to {@link #MAX_BACKOFF}:
+     * the jitter spreads retries of the concurrent updates, so that they do not collide again.
+     * @param update Metadata update
+     * @param attempt Attempt number
+     * @return Completable action
+     */
+    private CompletionStage<Void> attempt(
+        final Supplier<CompletionStage<Key>> update, final int attempt
+    ) {
+        return new AstoMetadataLocations(this.asto).revision().thenCompose(
+            rev -> update.get().thenCompose(
+                temp -> {
+                    final Storage sto = new AstoMemoizedStorage(this.asto, temp);
+                    return this.prepare(sto, temp).thenCompose(
+                        keys -> new AstoRepodataPublish(sto, this.cnfg, this.locks)
+                            .publish(keys, rev)
+                    ).thenCompose(
+                        done -> AstoRepodataCommit.remove(sto, temp).thenApply(nothing -> done)
+                    );
+                }
+            )
+        ).thenCompose(
+            outcome -> {
+                final CompletionStage<Void> res;
+                if (outcome == AstoRepodataPublish.Outcome.PUBLISHED) {
+                    res = CompletableFuture.allOf();
+                } else if (attempt < this.cnfg.commitAttempts()) {
+                    final Duration backoff = AstoRepodataCommit.backoff(attempt);
+                    if (outcome == AstoRepodataPublish.Outcome.BUSY) {
+                        Logger.info(
+                            this, "Repodata lock is busy, retrying update in %dms, attempt %d",
+                            backoff.toMillis(), attempt
+                        );
+                    } else {
+                        Logger.info(
+                            this, "Metadata revision changed, retrying update in %dms, attempt %d",
+                            backoff.toMillis(), attempt
+                        );
+                    }
+                    res = new Delay(backoff, this.cnfg.executors().io()).start()
+                        .thenCompose(nothing -> this.attempt(update, attempt + 1));
+                } else {
+                    final CompletableFuture<Void> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(
+                        new ArtipieException(
+                            String.format(
+                                "Failed to commit metadata in %d attempts, last attempt: %s",
+                                attempt, outcome.name().toLowerCase(Locale.US)
+                            )
+                        )
+                    );
+                    res = failed;
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Creates repomd.xml and prepares metadata names. If update has not produced any
+     * metadata files and repository already has repomd.xml, there is nothing to publish.
+     * @param sto Storage, which memoizes temp key listing for the attempt
+     * @param temp Temp key with updated metadata files
+     * @return Completable action with the map of temp location -> location in the repository
+     */
+    private CompletionStage<Map<Key, Key>> prepare(final Storage sto, final Key temp) {
+        return sto.list(temp).thenCompose(
+            list -> {
+                final CompletionStage<Boolean> empty;
+                if (list.isEmpty()) {
+                    empty = sto.exists(AstoMetadataLocations.REPOMD);
+                } else {
+                    empty = CompletableFuture.completedFuture(false);
+                }
+                return empty;
+            }
+        ).thenCompose(
+            empty -> {
+                CompletionStage<Map<Key, Key>> res =
+                    CompletableFuture.completedFuture(Collections.emptyMap());
+                if (!empty) {
+                    res = new AstoCreateRepomd(sto, this.cnfg).perform(temp).thenCompose(
+                        nothing -> new AstoMetadataNames(sto, this.cnfg).prepareNames(temp)
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Removes all items found by the key.
+     * @param sto Storage
+     * @param key Key to remove items
+     * @return Completable action
+     */
+    private static CompletableFuture<Void> remove(final Storage sto, final Key key) {
+        return sto.list(key).thenCompose(
+            list -> CompletableFuture.allOf(
+                list.stream().map(sto::delete)
+                    .toArray(CompletableFuture[]::new)
+            )
+        );
+    }
+
+    /**
+     * Random backoff delay after the attempt: uniformly distributed between zero and
+     * exponentially growing upper bound.
+     * @param attempt Attempt number
+     * @return Delay
+     */
+    private static Duration backoff(final int attempt) {
+        final long bound = Math.min(
+            AstoRepodataCommit.MAX_BACKOFF.toMillis(),
+            AstoRepodataCommit.MIN_BACKOFF.toMillis() << Math.min(attempt - 1, Short.SIZE)
+        );
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+}
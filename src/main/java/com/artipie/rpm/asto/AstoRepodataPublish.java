@@ -0,0 +1,452 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.ContentAs;
+import com.artipie.asto.lock.Lock;
+import com.artipie.asto.rx.RxStorageWrapper;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.RepoMetrics;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes new generation of the repository metadata. Metadata files are moved into
+ * `repodata` first, `repomd.xml` is swapped last, so that clients never see `repomd.xml`
+ * referencing absent files. Superseded metadata files (files in `repodata`, which are not
+ * referenced by current `repomd.xml`) are collected under the `repodata` lock right after
+ * the swap: they are removed at once if grace period is zero, otherwise they are recorded
+ * into {@link AstoRepodataPublish#LEDGER} and removed by the first publish after grace period
+ * expires. Publish without revision moves metadata files under the lock too, compare-and-swap
+ * publish moves them before taking the lock and checks that they still exist under the lock:
+ * files moved by a concurrent publisher are never collected before its `repomd.xml` swap.
+ * Seek indexes of the superseded metadata files are removed right after the swap, indexes of
+ * the rejected update metadata files are removed when compare-and-swap publish is rejected.
+ * @since 1.10
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class AstoRepodataPublish {
+
+    /**
+     * Superseded metadata ledger key: each line contains epoch millis when item was
+     * superseded and item key.
+     */
+    static final Key LEDGER = new Key.From(AstoMetadataLocations.META, ".superseded");
+
+    /**
+     * Expiration time of the `repodata` lock taken by compare-and-swap publish: the lock
+     * covers only revision check, `repomd.xml` swap and superseded items removal, so
+     * crashed publisher does not block the repository for long.
+     */
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Grace period to keep superseded metadata.
+     */
+    private final Duration grace;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Repository locks.
+     */
+    private final AstoLocks locks;
+
+    /**
+     * Metrics.
+     */
+    private final RepoMetrics metrics;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     */
+    AstoRepodataPublish(final Storage asto, final RepoConfig cnfg) {
+        this(asto, cnfg, new AstoLocks(asto, cnfg));
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param cnfg Repository config
+     * @param locks Repository locks
+     */
+    AstoRepodataPublish(final Storage asto, final RepoConfig cnfg, final AstoLocks locks) {
+        this(asto, cnfg.gracePeriod(), Clock.systemUTC(), locks, cnfg.metrics());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param grace Grace period to keep superseded metadata
+     * @param clock Clock
+     * @param locks Repository locks
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    AstoRepodataPublish(final Storage asto, final Duration grace, final Clock clock,
+        final AstoLocks locks) {
+        this(asto, grace, clock, locks, new RepoMetrics.Noop());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param grace Grace period to keep superseded metadata
+     * @param clock Clock
+     * @param locks Repository locks
+     * @param metrics Metrics
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    AstoRepodataPublish(final Storage asto, final Duration grace, final Clock clock,
+        final AstoLocks locks, final RepoMetrics metrics) {
+        this.asto = asto;
+        this.grace = grace;
+        this.clock = clock;
+        this.locks = locks;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Publishes metadata.
+     * @param names Map of the temp metadata location -> location in the repository,
+     *  see {@link AstoMetadataNames#prepareNames(Key)}
+     * @return Completable action
+     */
+    CompletionStage<Void> publish(final Map<Key, Key> names) {
+        final Optional<Key> repomd = AstoRepodataPublish.repomd(names);
+        final Lock lock = this.locks.lock(AstoMetadataLocations.META, Optional.empty());
+        return lock.acquire().thenCompose(
+            nothing -> AstoRepodataPublish.released(
+                lock,
+                this.move(names)
+                    .thenCompose(ignored -> this.swap(repomd))
+                    .thenCompose(ignored -> this.collect())
+            )
+        );
+    }
+
+    /**
+     * Publishes metadata if current metadata revision is still the given one: compares
+     * revisions and swaps `repomd.xml` under the `repodata` lock. Publish is rejected if
+     * the revision has changed, if metadata files to publish were removed meanwhile, or if
+     * the `repodata` lock is held by another publisher at the moment.
+     * @param names Map of the temp metadata location -> location in the repository,
+     *  see {@link AstoMetadataNames#prepareNames(Key)}
+     * @param revision Expected revision, see {@link AstoMetadataLocations#revision()}
+     * @return Completable action with publish outcome
+     */
+    CompletionStage<Outcome> publish(final Map<Key, Key> names, final String revision) {
+        final Optional<Key> repomd = AstoRepodataPublish.repomd(names);
+        final Collection<Key> moved = names.entrySet().stream()
+            .filter(entry -> !AstoRepodataPublish.isRepomd(entry.getValue()))
+            .map(Map.Entry::getValue).collect(Collectors.toList());
+        final Lock lock = this.locks.lock(
+            AstoMetadataLocations.META, Optional.of(Instant.now().plus(AstoRepodataPublish.TTL))
+        );
+        return this.move(names).thenCompose(
+            nothing -> lock.acquire().handle((ignored, err) -> err == null)
+        ).thenCompose(
+            locked -> {
+                CompletionStage<Outcome> res = CompletableFuture.completedFuture(Outcome.BUSY);
+                if (locked) {
+                    res = AstoRepodataPublish.released(
+                        lock,
+                        this.current(revision, moved).thenCompose(
+                            current -> {
+                                CompletionStage<Outcome> swap =
+                                    CompletableFuture.completedFuture(Outcome.CONFLICT);
+                                if (current) {
+                                    swap = this.swap(repomd)
+                                        .thenCompose(ignored -> this.collect())
+                                        .thenApply(ignored -> Outcome.PUBLISHED);
+                                }
+                                return swap;
+                            }
+                        )
+                    );
+                }
+                return res;
+            }
+        ).thenCompose(
+            outcome -> {
+                CompletionStage<Outcome> res = CompletableFuture.completedFuture(outcome);
+                if (outcome != Outcome.PUBLISHED && repomd.isPresent()) {
+                    res = new AstoMetadataLocations(this.asto, repomd.get()).checksums()
+                        .thenCompose(sums -> new AstoGzipIndex(this.asto).clean(sums))
+                        .thenApply(nothing -> outcome);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Moves metadata files (except for `repomd.xml`) to the repository.
+     * @param names Map of the temp metadata location -> location in the repository
+     * @return Completable action
+     */
+    private CompletionStage<Void> move(final Map<Key, Key> names) {
+        return this.metrics.timed(
+            RepoMetrics.Stage.COMMIT_MOVE,
+            () -> CompletableFuture.allOf(
+                names.entrySet().stream()
+                    .filter(entry -> !AstoRepodataPublish.isRepomd(entry.getValue()))
+                    .map(entry -> this.asto.move(entry.getKey(), entry.getValue()))
+                    .toArray(CompletableFuture[]::new)
+            )
+        );
+    }
+
+    /**
+     * Checks that current metadata revision is equal to the expected one and
+     * all the given items exist.
+     * @param revision Expected revision
+     * @param keys Keys to check
+     * @return Completable action with true if revision is current and items exist
+     */
+    private CompletionStage<Boolean> current(final String revision, final Collection<Key> keys) {
+        return new AstoMetadataLocations(this.asto).revision().thenCompose(
+            rev -> {
+                CompletionStage<Boolean> res = CompletableFuture.completedFuture(false);
+                if (rev.equals(revision)) {
+                    final List<CompletableFuture<Boolean>> exist = keys.stream()
+                        .map(this.asto::exists).collect(Collectors.toList());
+                    res = CompletableFuture.allOf(exist.toArray(new CompletableFuture<?>[0]))
+                        .thenApply(
+                            nothing -> exist.stream().allMatch(CompletableFuture::join)
+                        );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Replaces repomd.xml and removes seek indexes of the superseded metadata files, see
+     * {@link AstoGzipIndex#clean(Map)}, should be called under the `repodata` lock.
+     * @param temp Temp repomd location, if present
+     * @return Completable action
+     */
+    private CompletionStage<Void> swap(final Optional<Key> temp) {
+        return temp.<CompletionStage<Void>>map(
+            key -> new AstoMetadataLocations(this.asto).checksums().thenCompose(
+                superseded -> this.asto.move(key, AstoMetadataLocations.REPOMD).thenCompose(
+                    nothing -> new AstoGzipIndex(this.asto).clean(superseded)
+                )
+            )
+        ).orElse(CompletableFuture.allOf());
+    }
+
+    /**
+     * Removes superseded metadata, should be called under the `repodata` lock.
+     * @return Completable action
+     */
+    private CompletionStage<Void> collect() {
+        return new AstoMetadataLocations(this.asto).referenced().thenCompose(
+            refs -> {
+                final Set<String> current = refs.values().stream().map(Key::string)
+                    .collect(Collectors.toCollection(HashSet::new));
+                current.add(AstoMetadataLocations.REPOMD.string());
+                current.add(AstoRepodataPublish.LEDGER.string());
+                return this.asto.list(AstoMetadataLocations.META).thenApply(
+                    list -> list.stream().filter(key -> !current.contains(key.string()))
+                        .collect(Collectors.toList())
+                );
+            }
+        ).thenCompose(
+            stale -> {
+                final CompletionStage<Void> res;
+                if (this.grace.isZero()) {
+                    res = this.delete(stale);
+                } else {
+                    res = this.expire(stale);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Removes superseded items with expired grace period and updates ledger.
+     * @param stale Superseded items
+     * @return Completable action
+     */
+    private CompletionStage<Void> expire(final List<Key> stale) {
+        return this.ledger().thenCompose(
+            ledger -> {
+                final Instant now = this.clock.instant();
+                final Map<String, Instant> kept = new HashMap<>(stale.size());
+                final List<Key> expired = new ArrayList<>(stale.size());
+                for (final Key key : stale) {
+                    final Instant since = ledger.getOrDefault(key.string(), now);
+                    if (since.plus(this.grace).isAfter(now)) {
+                        kept.put(key.string(), since);
+                    } else {
+                        expired.add(key);
+                    }
+                }
+                return this.delete(expired).thenCompose(
+                    nothing -> {
+                        final CompletionStage<Void> res;
+                        if (kept.isEmpty() && ledger.isEmpty()) {
+                            res = CompletableFuture.allOf();
+                        } else if (kept.isEmpty()) {
+                            res = this.asto.delete(AstoRepodataPublish.LEDGER);
+                        } else {
+                            res = this.asto.save(
+                                AstoRepodataPublish.LEDGER,
+                                new Content.From(
+                                    kept.entrySet().stream().map(
+                                        entry -> String.format(
+                                            "%d %s", entry.getValue().toEpochMilli(),
+                                            entry.getKey()
+                                        )
+                                    ).collect(Collectors.joining("\n"))
+                                        .getBytes(StandardCharsets.UTF_8)
+                                )
+                            );
+                        }
+                        return res;
+                    }
+                );
+            }
+        );
+    }
+
+    /**
+     * Reads superseded items ledger.
+     * @return Completable action with the map of item key and time it was superseded
+     */
+    private CompletionStage<Map<String, Instant>> ledger() {
+        final RxStorageWrapper rxsto = new RxStorageWrapper(this.asto);
+        return this.asto.exists(AstoRepodataPublish.LEDGER).thenCompose(
+            exists -> {
+                CompletionStage<Map<String, Instant>> res =
+                    CompletableFuture.completedFuture(new HashMap<>(0));
+                if (exists) {
+                    res = rxsto.value(AstoRepodataPublish.LEDGER).to(ContentAs.STRING)
+                        .map(
+                            str -> Arrays.stream(str.split("\n"))
+                                .filter(line -> !line.isEmpty())
+                                .map(line -> line.split(" ", 2))
+                                .collect(
+                                    Collectors.toMap(
+                                        parts -> parts[1],
+                                        parts -> Instant.ofEpochMilli(Long.parseLong(parts[0])),
+                                        (first, second) -> first
+                                    )
+                                )
+                        ).to(SingleInterop.get());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Releases the lock after the action, successful or not.
+     * @param lock Lock
+     * @param action Action performed under the lock
+     * @param <T> Action result type
+     * @return Completable action with the action result
+     */
+    private static <T> CompletionStage<T> released(final Lock lock,
+        final CompletionStage<T> action) {
+        return action.handle(
+            (res, err) -> lock.release().thenCompose(
+                ignored -> {
+                    final CompletableFuture<T> fut = new CompletableFuture<>();
+                    if (err == null) {
+                        fut.complete(res);
+                    } else {
+                        fut.completeExceptionally(err);
+                    }
+                    return fut;
+                }
+            )
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Finds temp location of the repomd.xml.
+     * @param names Map of the temp metadata location -> location in the repository
+     * @return Temp repomd.xml key if present
+     */
+    private static Optional<Key> repomd(final Map<Key, Key> names) {
+        return names.entrySet().stream()
+            .filter(entry -> AstoRepodataPublish.isRepomd(entry.getValue()))
+            .map(Map.Entry::getKey).findFirst();
+    }
+
+    /**
+     * Is the key repomd.xml location?
+     * @param key Key
+     * @return True if key points to repomd.xml in `repodata`
+     */
+    private static boolean isRepomd(final Key key) {
+        return key.string().equals(AstoMetadataLocations.REPOMD.string());
+    }
+
+    /**
+     * Removes items.
+     * @param keys Keys to remove
+     * @return Completable action
+     */
+    private CompletionStage<Void> delete(final Collection<Key> keys) {
+        return CompletableFuture.allOf(
+            keys.stream().map(this.asto::delete).toArray(CompletableFuture[]::new)
+        );
+    }
+
+    /**
+     * Outcome of the compare-and-swap publish.
+     * @since 1.10
+     */
+    enum Outcome {
+
+        /**
+         * Metadata was published.
+         */
+        PUBLISHED,
+
+        /**
+         * Metadata revision has changed or metadata files to publish were removed.
+         */
+        CONFLICT,
+
+        /**
+         * The `repodata` lock is held by another publisher.
+         */
+        BUSY
+    }
+}
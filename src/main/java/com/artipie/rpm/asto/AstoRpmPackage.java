@@ -70,14 +70,29 @@ public final class AstoRpmPackage {
                 )
             )
         ).thenCompose(
-            pair -> this.asto.value(key).thenCompose(
-                val -> new ContentAsStream<Header>(val).process(
-                    new UncheckedIOFunc<>(input -> new FilePackageHeader(input).header())
-                ).thenApply(
-                    header -> new RpmMetadata.RpmItem(
-                        header, pair.getValue(), new Checksum.Simple(this.dgst, pair.getKey()), path
-                    )
-                )
+            pair -> this.packageMeta(
+                key, path, new Checksum.Simple(this.dgst, pair.getKey()), pair.getValue()
+            )
+        );
+    }
+
+    /**
+     * Obtain rpm package metadata, instance of {@link Package.Meta}, when package checksum
+     * and size are already known.
+     * @param key Package key
+     * @param path Package repository relative path
+     * @param checksum Package checksum
+     * @param size Package size
+     * @return Completable action
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    CompletionStage<Package.Meta> packageMeta(final Key key, final String path,
+        final Checksum checksum, final long size) {
+        return this.asto.value(key).thenCompose(
+            val -> new ContentAsStream<Header>(val).process(
+                new UncheckedIOFunc<>(input -> new FilePackageHeader(input, path).header())
+            ).thenApply(
+                header -> new RpmMetadata.RpmItem(header, size, checksum, path)
             )
         );
     }
@@ -0,0 +1,292 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.rpm.RepoConfig;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Storage, which stages intermediate metadata files of the update in the local staging
+ * storage, see {@link RepoConfig#staging()}. Intermediate files are the keys in the
+ * {@link AstoStagedStorage#TEMP} location, they are written to and read from the staging
+ * storage until staged files size, including known sizes of the files being saved, reaches
+ * the limit, files, which do not fit, are written to the repository storage. Staged file
+ * is uploaded to the repository storage when it is moved out of the temp location, which
+ * happens to the final metadata files only on the update publishing. All the other keys
+ * are written to and read from the repository storage. The storage should be created for
+ * a single update.
+ * @since 1.10
+ */
+public final class AstoStagedStorage implements Storage {
+
+    /**
+     * Temp location of the intermediate metadata files.
+     */
+    static final Key TEMP = new Key.From(".temp");
+
+    /**
+     * Megabyte size in bytes.
+     */
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    /**
+     * Repository storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Staging storage.
+     */
+    private final Storage staging;
+
+    /**
+     * Max size of the staged files in bytes.
+     */
+    private final long limit;
+
+    /**
+     * Sizes of the staged files by the key.
+     */
+    private final ConcurrentMap<String, Long> staged;
+
+    /**
+     * Intermediate files written to the repository storage.
+     */
+    private final Set<String> spilled;
+
+    /**
+     * Ctor.
+     * @param asto Repository storage
+     * @param cnfg Repository config
+     */
+    public AstoStagedStorage(final Storage asto, final RepoConfig cnfg) {
+        this(
+            asto, cnfg.staging().orElse(asto),
+            cnfg.stagingLimit() * AstoStagedStorage.MEGABYTE
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param asto Repository storage
+     * @param staging Staging storage
+     * @param limit Max size of the staged files in bytes
+     */
+    public AstoStagedStorage(final Storage asto, final Storage staging, final long limit) {
+        this(asto, staging, limit, new ConcurrentHashMap<>(), ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Primary ctor.
+     * @param asto Repository storage
+     * @param staging Staging storage
+     * @param limit Max size of the staged files in bytes
+     * @param staged Sizes of the staged files
+     * @param spilled Intermediate files written to the repository storage
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private AstoStagedStorage(final Storage asto, final Storage staging, final long limit,
+        final ConcurrentMap<String, Long> staged, final Set<String> spilled) {
+        this.asto = asto;
+        this.staging = staging;
+        this.limit = limit;
+        this.staged = staged;
+        this.spilled = spilled;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(final Key key) {
+        return this.located(key).exists(key);
+    }
+
+    @Override
+    public CompletableFuture<Collection<Key>> list(final Key prefix) {
+        final CompletableFuture<Collection<Key>> res;
+        if (AstoStagedStorage.intermediate(prefix) && this.staging != this.asto) {
+            CompletableFuture<Collection<Key>> spill =
+                CompletableFuture.completedFuture(Collections.emptyList());
+            if (!this.spilled.isEmpty()) {
+                spill = this.asto.list(prefix);
+            }
+            res = this.staging.list(prefix).thenCombine(
+                spill,
+                (local, remote) -> Stream.concat(local.stream(), remote.stream())
+                    .collect(
+                        Collectors.toMap(Key::string, Function.identity(), (frst, scnd) -> frst)
+                    ).values()
+            );
+        } else {
+            res = this.asto.list(prefix);
+        }
+        return res;
+    }
+
+    @Override
+    public CompletableFuture<Void> save(final Key key, final Content content) {
+        final CompletableFuture<Void> res;
+        if (this.reserve(key, content.size().orElse(0L))) {
+            res = this.staging.save(key, content).thenCompose(
+                nothing -> this.staging.size(key)
+            ).handle(
+                (size, err) -> {
+                    final CompletableFuture<Void> saved = new CompletableFuture<>();
+                    if (err == null) {
+                        this.staged.put(key.string(), size);
+                        saved.complete(null);
+                    } else {
+                        this.staged.remove(key.string());
+                        saved.completeExceptionally(err);
+                    }
+                    return saved;
+                }
+            ).thenCompose(Function.identity());
+        } else {
+            res = this.asto.save(key, content).thenRun(() -> this.spill(key));
+        }
+        return res;
+    }
+
+    @Override
+    public CompletableFuture<Void> move(final Key source, final Key destination) {
+        final CompletableFuture<Void> res;
+        final boolean local = this.staged.containsKey(source.string());
+        if (local && AstoStagedStorage.intermediate(destination)) {
+            res = this.staging.move(source, destination).thenRun(
+                () -> Optional.ofNullable(this.staged.remove(source.string())).ifPresent(
+                    size -> this.staged.put(destination.string(), size)
+                )
+            );
+        } else if (local) {
+            res = this.staging.value(source).thenCompose(
+                content -> this.asto.save(destination, content)
+            ).thenCompose(nothing -> this.delete(source));
+        } else {
+            res = this.asto.move(source, destination).thenRun(
+                () -> {
+                    this.spilled.remove(source.string());
+                    this.spill(destination);
+                }
+            );
+        }
+        return res;
+    }
+
+    @Override
+    public CompletableFuture<Long> size(final Key key) {
+        return this.located(key).size(key);
+    }
+
+    @Override
+    public CompletableFuture<Content> value(final Key key) {
+        return this.located(key).value(key);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Key key) {
+        return this.located(key).delete(key).thenRun(
+            () -> {
+                this.staged.remove(key.string());
+                this.spilled.remove(key.string());
+            }
+        );
+    }
+
+    @Override
+    public <T> CompletionStage<T> exclusively(final Key key,
+        final Function<Storage, CompletionStage<T>> operation) {
+        return this.asto.exclusively(
+            key,
+            sto -> operation.apply(
+                new AstoStagedStorage(sto, this.staging, this.limit, this.staged, this.spilled)
+            )
+        );
+    }
+
+    /**
+     * New unique temp location for the intermediate files of the update.
+     * @return Temp key
+     */
+    static Key temp() {
+        return new Key.From(AstoStagedStorage.TEMP, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Storage, where the key is located.
+     * @param key Key
+     * @return Staging storage if the key is staged, repository storage otherwise
+     */
+    private Storage located(final Key key) {
+        final Storage res;
+        if (this.staged.containsKey(key.string())) {
+            res = this.staging;
+        } else {
+            res = this.asto;
+        }
+        return res;
+    }
+
+    /**
+     * Reserves the staging space for the key, if it should be written to the staging storage.
+     * It should if the key is an intermediate file, which is already staged or fits the limit
+     * along with other staged and reserved files. Reservation is the content size, if it is
+     * known, so that concurrent saves do not exceed the limit together; unknown size is taken
+     * as zero and the file is staged while the limit is not reached. Reservation is replaced
+     * by the actual size once the file is saved and released if the save fails.
+     * @param key Key
+     * @param size Content size, zero if unknown
+     * @return True if key should be staged
+     */
+    private boolean reserve(final Key key, final long size) {
+        boolean res = false;
+        if (AstoStagedStorage.intermediate(key) && this.staging != this.asto) {
+            synchronized (this.staged) {
+                final long used = this.staged.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(key.string()))
+                    .mapToLong(Map.Entry::getValue).sum();
+                res = this.staged.containsKey(key.string())
+                    || used < this.limit && used + size <= this.limit;
+                if (res) {
+                    this.staged.put(key.string(), size);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Remembers the key if it is an intermediate file written to the repository storage.
+     * @param key Written key
+     */
+    private void spill(final Key key) {
+        if (AstoStagedStorage.intermediate(key)) {
+            this.spilled.add(key.string());
+        }
+    }
+
+    /**
+     * Is the key in temp location?
+     * @param key Key
+     * @return True if key is an intermediate file
+     */
+    private static boolean intermediate(final Key key) {
+        return key.string().equals(AstoStagedStorage.TEMP.string())
+            || key.string().startsWith(String.format("%s/", AstoStagedStorage.TEMP.string()));
+    }
+}
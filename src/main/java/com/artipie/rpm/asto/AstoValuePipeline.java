@@ -0,0 +1,261 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.misc.UncheckedIOScalar;
+import com.artipie.rpm.RepoConfig;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import org.reactivestreams.Publisher;
+
+/**
+ * Processes storage value as input stream and saves the result to storage, same as
+ * {@link com.artipie.asto.streams.StorageValuePipeline}, but the result is written to local
+ * temp file first. Storage value pipeline pipes both input and output through storage IO
+ * threads, so the processing thread, which waits for the output to be drained, blocks IO
+ * thread writing the input and vice versa: pipeline stalls when there are fewer IO threads
+ * than pipelines running at once. Here processing thread writes to local file and never
+ * waits for storage IO threads, the file is saved to storage when processing is done.
+ * Storage value is downloaded to another local temp file the same way before processing
+ * starts, so no thread is blocked on reading the value either.
+ * Processing runs on the given executor, repository updates pass
+ * {@link com.artipie.rpm.RepoExecutors#io()}.
+ * @param <R> Result type
+ * @since 1.10
+ */
+public final class AstoValuePipeline<R> {
+
+    /**
+     * Buffer size to read the result file.
+     */
+    private static final int BUF = 8 * 1024;
+
+    /**
+     * Asto storage.
+     */
+    private final Storage asto;
+
+    /**
+     * Key to read.
+     */
+    private final Key read;
+
+    /**
+     * Key to write.
+     */
+    private final Key write;
+
+    /**
+     * Executor to process the value on.
+     */
+    private final Executor exec;
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param read Key to read
+     * @param write Key to write
+     * @param exec Executor to process the value on
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public AstoValuePipeline(final Storage asto, final Key read, final Key write,
+        final Executor exec) {
+        this.asto = asto;
+        this.read = read;
+        this.write = write;
+        this.exec = exec;
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param key Key to read and write
+     * @param exec Executor to process the value on
+     */
+    public AstoValuePipeline(final Storage asto, final Key key, final Executor exec) {
+        this(asto, key, key, exec);
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param read Key to read
+     * @param write Key to write
+     */
+    public AstoValuePipeline(final Storage asto, final Key read, final Key write) {
+        this(asto, read, write, new RepoConfig.Simple().executors().io());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Asto storage
+     * @param key Key to read and write
+     */
+    public AstoValuePipeline(final Storage asto, final Key key) {
+        this(asto, key, key);
+    }
+
+    /**
+     * Processes storage value.
+     * @param action Action, accepts storage value input stream, if value exists, and output
+     *  stream to write the result to
+     * @return Completable action
+     */
+    public CompletionStage<Void> process(
+        final BiConsumer<Optional<InputStream>, OutputStream> action
+    ) {
+        return this.processWithResult(
+            (input, out) -> {
+                action.accept(input, out);
+                return null;
+            }
+        ).thenAccept(nothing -> { });
+    }
+
+    /**
+     * Processes storage value and returns result.
+     * @param action Action, accepts storage value input stream, if value exists, and output
+     *  stream to write the result to
+     * @return Completable action with the result
+     */
+    public CompletionStage<R> processWithResult(
+        final BiFunction<Optional<InputStream>, OutputStream, R> action
+    ) {
+        final Path tmp = new UncheckedIOScalar<>(
+            () -> Files.createTempFile("rpm-pipeline", ".tmp")
+        ).value();
+        final Path src = new UncheckedIOScalar<>(
+            () -> Files.createTempFile("rpm-pipeline", ".src")
+        ).value();
+        return this.asto.exists(this.read).thenCompose(
+            exists -> {
+                final CompletionStage<R> res;
+                if (exists) {
+                    res = this.asto.value(this.read)
+                        .thenCompose(val -> AstoValuePipeline.download(val, src))
+                        .thenApplyAsync(
+                            nothing -> AstoValuePipeline.apply(tmp, src, action), this.exec
+                        );
+                } else {
+                    res = CompletableFuture.supplyAsync(
+                        () -> AstoValuePipeline.apply(tmp, Optional.empty(), action), this.exec
+                    );
+                }
+                return res;
+            }
+        ).thenCompose(
+            res -> this.asto.save(
+                this.write,
+                new Content.From(
+                    new UncheckedIOScalar<>(() -> Files.size(tmp)).value(),
+                    AstoValuePipeline.publisher(tmp)
+                )
+            ).thenApply(nothing -> res)
+        ).whenComplete(
+            (res, err) -> {
+                new UncheckedIOScalar<>(() -> Files.deleteIfExists(tmp)).value();
+                new UncheckedIOScalar<>(() -> Files.deleteIfExists(src)).value();
+            }
+        );
+    }
+
+    /**
+     * Applies action to the downloaded storage value writing the result to the file.
+     * @param tmp File to write the result to
+     * @param src Downloaded storage value
+     * @param action Action
+     * @param <T> Result type
+     * @return Action result
+     */
+    private static <T> T apply(final Path tmp, final Path src,
+        final BiFunction<Optional<InputStream>, OutputStream, T> action) {
+        try (InputStream input = Files.newInputStream(src)) {
+            return AstoValuePipeline.apply(tmp, Optional.of(input), action);
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+    }
+
+    /**
+     * Applies action writing the result to the file.
+     * @param tmp File to write the result to
+     * @param input Storage value input
+     * @param action Action
+     * @param <T> Result type
+     * @return Action result
+     */
+    private static <T> T apply(final Path tmp, final Optional<InputStream> input,
+        final BiFunction<Optional<InputStream>, OutputStream, T> action) {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+            return action.apply(input, out);
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+    }
+
+    /**
+     * Writes content to the file as it arrives from the publisher, no thread waits for
+     * the content.
+     * @param content Content
+     * @param file File to write to
+     * @return Completable action
+     */
+    private static CompletionStage<Void> download(final Publisher<ByteBuffer> content,
+        final Path file) {
+        return Flowable.using(
+            () -> FileChannel.open(file, StandardOpenOption.WRITE),
+            chan -> Flowable.fromPublisher(content).doOnNext(
+                buf -> {
+                    while (buf.hasRemaining()) {
+                        chan.write(buf);
+                    }
+                }
+            ),
+            FileChannel::close
+        ).ignoreElements().to(CompletableInterop.await()).thenApply(nothing -> null);
+    }
+
+    /**
+     * File content publisher.
+     * @param file File
+     * @return Publisher
+     */
+    private static Flowable<ByteBuffer> publisher(final Path file) {
+        return Flowable.using(
+            () -> FileChannel.open(file, StandardOpenOption.READ),
+            chan -> Flowable.generate(
+                emitter -> {
+                    final ByteBuffer buf = ByteBuffer.allocate(AstoValuePipeline.BUF);
+                    if (chan.read(buf) < 0) {
+                        emitter.onComplete();
+                    } else {
+                        buf.flip();
+                        emitter.onNext(buf);
+                    }
+                }
+            ),
+            FileChannel::close
+        );
+    }
+}
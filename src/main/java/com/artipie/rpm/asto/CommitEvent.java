@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.rpm.misc.JfrEvent;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of the metadata update commit, including the repository lock wait,
+ * see {@link AstoRepodataCommit}. Event starts on creation. Event does nothing if flight
+ * recorder is not available, see {@link JfrEvent}.
+ * @since 1.10
+ */
+final class CommitEvent extends JfrEvent<CommitEvent.Recorded> {
+
+    /**
+     * Ctor.
+     * @param operation Update operation
+     * @param packages Number of the packages in the update
+     */
+    CommitEvent(final String operation, final int packages) {
+        super(() -> () -> new Recorded(operation, packages));
+    }
+
+    /**
+     * Records commit result and commits the event.
+     * @param committed Is update committed successfully
+     */
+    void record(final boolean committed) {
+        this.commit(event -> event.record(committed));
+    }
+
+    /**
+     * Flight recorder event of the metadata update commit.
+     * @since 1.10
+     * @checkstyle VisibilityModifierCheck (100 lines)
+     */
+    @Name("com.artipie.rpm.Commit")
+    @Label("RPM Repodata Commit")
+    @Category({"Artipie", "RPM"})
+    @Description("Metadata update commit including repository lock")
+    @StackTrace(false)
+    @SuppressWarnings("PMD.DefaultPackage")
+    static final class Recorded extends Event {
+
+        /**
+         * Update operation.
+         */
+        @Label("Operation")
+        String operation;
+
+        /**
+         * Number of the packages in the update.
+         */
+        @Label("Packages")
+        int packages;
+
+        /**
+         * Is update committed successfully?
+         */
+        @Label("Committed")
+        boolean committed;
+
+        /**
+         * Ctor.
+         * @param operation Update operation
+         * @param packages Number of the packages in the update
+         */
+        Recorded(final String operation, final int packages) {
+            this.operation = operation;
+            this.packages = packages;
+            this.begin();
+        }
+
+        /**
+         * Records commit result and commits the event.
+         * @param committed Is update committed successfully
+         */
+        void record(final boolean committed) {
+            this.committed = committed;
+            this.commit();
+        }
+    }
+}
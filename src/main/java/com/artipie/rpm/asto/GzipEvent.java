@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.rpm.misc.JfrEvent;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of the metadata file compression, see {@link AstoArchive}.
+ * Event starts on creation. Event does nothing if flight recorder is not available,
+ * see {@link JfrEvent}.
+ * @since 1.10
+ */
+final class GzipEvent extends JfrEvent<GzipEvent.Recorded> {
+
+    /**
+     * Ctor.
+     * @param key Metadata file key
+     */
+    GzipEvent(final String key) {
+        super(() -> () -> new Recorded(key));
+    }
+
+    /**
+     * Records sizes and commits the event.
+     * @param read Number of the uncompressed bytes
+     * @param written Number of the compressed bytes
+     */
+    void record(final long read, final long written) {
+        this.commit(event -> event.record(read, written));
+    }
+
+    /**
+     * Flight recorder event of the metadata file compression.
+     * @since 1.10
+     * @checkstyle VisibilityModifierCheck (100 lines)
+     */
+    @Name("com.artipie.rpm.Gzip")
+    @Label("RPM Metadata Gzip")
+    @Category({"Artipie", "RPM"})
+    @Description("Compression of the metadata file")
+    @StackTrace(false)
+    @SuppressWarnings("PMD.DefaultPackage")
+    static final class Recorded extends Event {
+
+        /**
+         * Metadata file key.
+         */
+        @Label("Key")
+        String key;
+
+        /**
+         * Number of the uncompressed bytes.
+         */
+        @Label("Uncompressed Size")
+        @DataAmount
+        long read;
+
+        /**
+         * Number of the compressed bytes.
+         */
+        @Label("Compressed Size")
+        @DataAmount
+        long written;
+
+        /**
+         * Ctor.
+         * @param key Metadata file key
+         */
+        Recorded(final String key) {
+            this.key = key;
+            this.begin();
+        }
+
+        /**
+         * Records sizes and commits the event.
+         * @param read Number of the uncompressed bytes
+         * @param written Number of the compressed bytes
+         */
+        void record(final long read, final long written) {
+            this.read = read;
+            this.written = written;
+            this.commit();
+        }
+    }
+}
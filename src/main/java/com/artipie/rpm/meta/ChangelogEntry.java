@@ -5,42 +5,66 @@
 package com.artipie.rpm.meta;
 
 import com.google.common.primitives.Ints;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.Locale;
-import java.util.TimeZone;
-import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
- * Changelog entry.
+ * Changelog entry of the format {@code * EEE MMM dd yyyy author - content}. Entry is
+ * parsed in a single pass without regular expressions: date is the four words after the
+ * leading asterisk, author is the text up to the first dash, the rest is content.
  *
  * @since 0.8.3
  */
 final class ChangelogEntry {
 
     /**
-     * RegEx pattern of changelog entry string.
+     * Date format without the day of week, which is not checked as rpmbuild does not
+     * check it either. Formatter is immutable and thread-safe, so it's shared.
      */
-    private static final Pattern PATTERN = Pattern.compile(
-        "\\* (?<date>\\w+ \\w+ \\d+ \\d+) (?<author>[^-]+) (?<content>-.*)",
-        Pattern.DOTALL
-    );
+    private static final DateTimeFormatter DATE =
+        DateTimeFormatter.ofPattern("MMM d uuuu", Locale.US);
+
+    /**
+     * Seconds in day.
+     */
+    private static final long DAY = ChronoUnit.DAYS.getDuration().getSeconds();
+
+    /**
+     * Number of words in the date.
+     */
+    private static final int WORDS = 4;
 
     /**
      * Origin string.
      */
     private final String origin;
 
+    /**
+     * Positions of the date end and author end in the origin.
+     */
+    private final int[] bounds;
+
     /**
      * Ctor.
      *
      * @param origin Origin string.
      */
     ChangelogEntry(final String origin) {
+        this(origin, ChangelogEntry.positions(origin));
+    }
+
+    /**
+     * Primary ctor.
+     *
+     * @param origin Origin string.
+     * @param bounds Positions of the date end and author end in the origin.
+     */
+    private ChangelogEntry(final String origin, final int[] bounds) {
         this.origin = origin;
+        this.bounds = bounds;
     }
 
     /**
@@ -49,7 +73,7 @@ final class ChangelogEntry {
      * @return Author string.
      */
     String author() {
-        return this.matcher().group("author");
+        return this.origin.substring(this.bounds[0] + 1, this.bounds[1]);
     }
 
     /**
@@ -58,16 +82,14 @@ final class ChangelogEntry {
      * @return Date in UNIX time.
      */
     int date() {
-        final String str = this.matcher().group("date");
-        final SimpleDateFormat format = new SimpleDateFormat("EEE MMM dd yyyy", Locale.US);
-        format.setTimeZone(TimeZone.getTimeZone("UTC"));
-        final Date date;
+        final String str = this.origin.substring(2, this.bounds[0]);
+        final LocalDate date;
         try {
-            date = format.parse(str);
-        } catch (final ParseException ex) {
+            date = LocalDate.parse(str.substring(str.indexOf(' ') + 1), ChangelogEntry.DATE);
+        } catch (final DateTimeParseException ex) {
             throw new IllegalStateException(String.format("Failed to parse date: '%s'", str), ex);
         }
-        return Ints.checkedCast(TimeUnit.MILLISECONDS.toSeconds(date.getTime()));
+        return Ints.checkedCast(date.toEpochDay() * ChangelogEntry.DAY);
     }
 
     /**
@@ -76,19 +98,34 @@ final class ChangelogEntry {
      * @return Content string.
      */
     String content() {
-        return this.matcher().group("content");
+        return this.origin.substring(this.bounds[1] + 1);
     }
 
     /**
-     * Matches origin string by pattern.
+     * Finds date end (space after the date) and author end (space before the first dash).
      *
-     * @return Matcher.
+     * @param origin Origin string.
+     * @return Positions.
      */
-    private Matcher matcher() {
-        final Matcher matcher = PATTERN.matcher(this.origin);
-        if (!matcher.matches()) {
-            throw new IllegalStateException(String.format("Cannot parse: '%s'", this.origin));
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    private static int[] positions(final String origin) {
+        final int len = origin.length();
+        boolean valid = len > 2 && origin.charAt(0) == '*' && origin.charAt(1) == ' ';
+        int idx = 2;
+        for (int word = 0; valid && word < ChangelogEntry.WORDS; word = word + 1) {
+            final int start = idx;
+            while (idx < len && Character.isLetterOrDigit(origin.charAt(idx))) {
+                idx = idx + 1;
+            }
+            valid = idx > start && idx < len && origin.charAt(idx) == ' ';
+            if (valid && word < ChangelogEntry.WORDS - 1) {
+                idx = idx + 1;
+            }
+        }
+        final int dash = origin.indexOf('-', idx);
+        if (!valid || dash <= idx + 2 || origin.charAt(dash - 1) != ' ') {
+            throw new IllegalStateException(String.format("Cannot parse: '%s'", origin));
         }
-        return matcher;
+        return new int[] {idx, dash - 1};
     }
 }
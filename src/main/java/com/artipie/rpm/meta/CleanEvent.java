@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.misc.JfrEvent;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of the packages removal from metadata xml, see {@link XmlMaid}.
+ * Event starts on creation. Event does nothing if flight recorder is not available,
+ * see {@link JfrEvent}.
+ * @since 1.10
+ */
+final class CleanEvent extends JfrEvent<CleanEvent.Recorded> {
+
+    /**
+     * Ctor.
+     * @param type Metadata type or the cleaner name
+     * @param ids Number of the packages ids to remove
+     */
+    CleanEvent(final String type, final int ids) {
+        super(() -> () -> new Recorded(type, ids));
+    }
+
+    /**
+     * Records number of the packages left in metadata and commits the event.
+     * @param left Number of the packages left
+     */
+    void record(final long left) {
+        this.commit(event -> event.record(left));
+    }
+
+    /**
+     * Flight recorder event of the packages removal from metadata xml.
+     * @since 1.10
+     * @checkstyle VisibilityModifierCheck (100 lines)
+     */
+    @Name("com.artipie.rpm.Clean")
+    @Label("RPM Metadata Clean")
+    @Category({"Artipie", "RPM"})
+    @Description("Removal of the packages from metadata xml")
+    @StackTrace(false)
+    @SuppressWarnings("PMD.DefaultPackage")
+    static final class Recorded extends Event {
+
+        /**
+         * Metadata type or the cleaner name.
+         */
+        @Label("Metadata Type")
+        String type;
+
+        /**
+         * Number of the packages ids to remove.
+         */
+        @Label("Removed Ids")
+        int ids;
+
+        /**
+         * Number of the packages left in metadata.
+         */
+        @Label("Packages Left")
+        long left;
+
+        /**
+         * Ctor.
+         * @param type Metadata type or the cleaner name
+         * @param ids Number of the packages ids to remove
+         */
+        Recorded(final String type, final int ids) {
+            this.type = type;
+            this.ids = ids;
+            this.begin();
+        }
+
+        /**
+         * Records number of the packages left in metadata and commits the event.
+         * @param left Number of the packages left
+         */
+        void record(final long left) {
+            this.left = left;
+            this.commit();
+        }
+    }
+}
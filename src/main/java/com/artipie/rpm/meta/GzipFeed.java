@@ -0,0 +1,326 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Non-blocking gzip decoder: compressed chunks are accepted as they arrive and inflated
+ * bytes are passed to the {@link Inflated} consumer right away. Concatenated gzip members
+ * are supported, checksum and size of every member are checked against its trailer.
+ * Decoder should be closed after use to release the inflater.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (300 lines)
+ */
+public final class GzipFeed implements AutoCloseable {
+
+    /**
+     * Gzip header size without optional fields.
+     */
+    private static final int HEADER = 10;
+
+    /**
+     * Gzip trailer size.
+     */
+    private static final int TRAILER = 8;
+
+    /**
+     * Gzip header flag: header crc is present.
+     */
+    private static final int FHCRC = 2;
+
+    /**
+     * Gzip header flag: extra field is present.
+     */
+    private static final int FEXTRA = 4;
+
+    /**
+     * Gzip header flag: file name is present.
+     */
+    private static final int FNAME = 8;
+
+    /**
+     * Gzip header flag: comment is present.
+     */
+    private static final int FCOMMENT = 16;
+
+    /**
+     * Buffer size.
+     */
+    private static final int BUF = 8 * 1024;
+
+    /**
+     * Inflated bytes consumer.
+     */
+    private final Inflated consumer;
+
+    /**
+     * Inflater.
+     */
+    private final Inflater inflater;
+
+    /**
+     * Checksum of the current member uncompressed data.
+     */
+    private final CRC32 crc;
+
+    /**
+     * Inflated bytes buffer.
+     */
+    private final byte[] out;
+
+    /**
+     * Uncompressed size of the current member.
+     */
+    private long size;
+
+    /**
+     * Compressed bytes, which are not consumed yet.
+     */
+    private byte[] pending;
+
+    /**
+     * Number of the pending bytes.
+     */
+    private int count;
+
+    /**
+     * Is member body being inflated?
+     */
+    private boolean body;
+
+    /**
+     * Is member trailer expected?
+     */
+    private boolean trailer;
+
+    /**
+     * Number of the read gzip members.
+     */
+    private int members;
+
+    /**
+     * Ctor.
+     * @param consumer Inflated bytes consumer
+     */
+    public GzipFeed(final Inflated consumer) {
+        this.consumer = consumer;
+        this.inflater = new Inflater(true);
+        this.crc = new CRC32();
+        this.out = new byte[GzipFeed.BUF];
+        this.pending = new byte[GzipFeed.BUF];
+    }
+
+    /**
+     * Accepts next chunk of the compressed content.
+     * @param chunk Compressed bytes
+     * @throws Exception On error
+     */
+    public void accept(final ByteBuffer chunk) throws Exception {
+        final int len = chunk.remaining();
+        if (this.count + len > this.pending.length) {
+            this.pending = Arrays.copyOf(
+                this.pending, Math.max(this.count + len, this.pending.length * 2)
+            );
+        }
+        chunk.duplicate().get(this.pending, this.count, len);
+        this.count = this.count + len;
+        boolean more = true;
+        while (more && this.count > 0) {
+            if (this.body) {
+                more = this.inflate();
+            } else if (this.trailer) {
+                more = this.tail();
+            } else {
+                more = this.head();
+            }
+        }
+    }
+
+    /**
+     * Checks that the whole content was accepted.
+     * @throws ZipException If gzip is truncated
+     */
+    public void finish() throws ZipException {
+        if (this.body || this.trailer || this.count > 0 || this.members == 0) {
+            throw new ZipException("Unexpected end of gzip input");
+        }
+    }
+
+    @Override
+    public void close() {
+        this.inflater.end();
+    }
+
+    /**
+     * Reads gzip member header.
+     * @return True if header was read, false if more input is needed
+     * @throws ZipException On wrong gzip format
+     */
+    private boolean head() throws ZipException {
+        final int len = this.headerLength();
+        final boolean res = len >= 0;
+        if (res) {
+            this.consume(len);
+            this.crc.reset();
+            this.size = 0;
+            this.body = true;
+        }
+        return res;
+    }
+
+    /**
+     * Reads gzip member trailer and checks uncompressed data checksum and size.
+     * @return True if trailer was read, false if more input is needed
+     * @throws ZipException On checksum or size mismatch
+     */
+    private boolean tail() throws ZipException {
+        final boolean res = this.count >= GzipFeed.TRAILER;
+        if (res) {
+            if (this.int32(0) != this.crc.getValue()
+                || this.int32(4) != (this.size & 0xffffffffL)) {
+                throw new ZipException("Corrupt gzip trailer");
+            }
+            this.consume(GzipFeed.TRAILER);
+            this.trailer = false;
+        }
+        return res;
+    }
+
+    /**
+     * Length of the gzip header at the start of the pending bytes.
+     * @return Header length or -1 if more input is needed
+     * @throws ZipException On wrong gzip format
+     */
+    private int headerLength() throws ZipException {
+        int res = -1;
+        if (this.count >= GzipFeed.HEADER) {
+            if ((this.pending[0] & 0xff) != 0x1f
+                || (this.pending[1] & 0xff) != 0x8b
+                || this.pending[2] != Deflater.DEFLATED) {
+                throw new ZipException("Not in gzip format");
+            }
+            final int flags = this.pending[3] & 0xff;
+            int pos = GzipFeed.HEADER;
+            if ((flags & GzipFeed.FEXTRA) != 0) {
+                pos = this.extra(pos);
+            }
+            if ((flags & GzipFeed.FNAME) != 0) {
+                pos = this.zero(pos);
+            }
+            if ((flags & GzipFeed.FCOMMENT) != 0) {
+                pos = this.zero(pos);
+            }
+            if ((flags & GzipFeed.FHCRC) != 0 && pos >= 0) {
+                pos = pos + 2;
+            }
+            if (pos >= 0 && pos <= this.count) {
+                res = pos;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Skips gzip header extra field.
+     * @param pos Field position
+     * @return Position after the field or -1 if more input is needed
+     */
+    private int extra(final int pos) {
+        int res = -1;
+        if (pos >= 0 && pos + 2 <= this.count) {
+            res = pos + 2 + ((this.pending[pos] & 0xff) | (this.pending[pos + 1] & 0xff) << 8);
+        }
+        return res;
+    }
+
+    /**
+     * Skips zero terminated gzip header field.
+     * @param pos Field position
+     * @return Position after the field or -1 if more input is needed
+     */
+    private int zero(final int pos) {
+        int res = -1;
+        if (pos >= 0) {
+            for (int idx = pos; idx < this.count; idx = idx + 1) {
+                if (this.pending[idx] == 0) {
+                    res = idx + 1;
+                    break;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Inflates pending bytes and passes them to the consumer.
+     * @return True if the member is finished, false if more input is needed
+     * @throws Exception On wrong compressed data or consumer error
+     */
+    private boolean inflate() throws Exception {
+        this.inflater.setInput(this.pending, 0, this.count);
+        int read = this.inflater.inflate(this.out);
+        while (read > 0) {
+            this.crc.update(this.out, 0, read);
+            this.size = this.size + read;
+            this.consumer.accept(this.out, read);
+            read = this.inflater.inflate(this.out);
+        }
+        final boolean res = this.inflater.finished();
+        if (res) {
+            this.consume(this.count - this.inflater.getRemaining());
+            this.inflater.reset();
+            this.body = false;
+            this.trailer = true;
+            this.members = this.members + 1;
+        } else if (this.inflater.needsDictionary()) {
+            throw new DataFormatException("Gzip member requires preset dictionary");
+        } else {
+            this.consume(this.count);
+        }
+        return res;
+    }
+
+    /**
+     * Removes consumed bytes from the pending ones.
+     * @param len Number of consumed bytes
+     */
+    private void consume(final int len) {
+        System.arraycopy(this.pending, len, this.pending, 0, this.count - len);
+        this.count = this.count - len;
+    }
+
+    /**
+     * Reads little endian unsigned 32-bit integer from the pending bytes.
+     * @param pos Integer position
+     * @return Integer value
+     */
+    private long int32(final int pos) {
+        return (this.pending[pos] & 0xffL) | (this.pending[pos + 1] & 0xffL) << 8
+            | (this.pending[pos + 2] & 0xffL) << 16 | (this.pending[pos + 3] & 0xffL) << 24;
+    }
+
+    /**
+     * Consumer of the inflated bytes.
+     * @since 1.10
+     */
+    @FunctionalInterface
+    public interface Inflated {
+
+        /**
+         * Accepts inflated bytes, bytes array is reused after the call.
+         * @param bytes Inflated bytes
+         * @param len Number of the inflated bytes from the array start
+         * @throws Exception On error
+         */
+        void accept(byte[] bytes, int len) throws Exception;
+    }
+}
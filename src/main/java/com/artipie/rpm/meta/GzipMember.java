@@ -0,0 +1,220 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Gzip member output: writes header, compresses written data and writes trailer
+ * on finish. Underlying output is not closed. Deflaters are taken from the {@link Pool}
+ * and returned to it on finish, so that native compressor state is not allocated for
+ * each compressed file. Member should be closed after use: if it was not finished,
+ * for instance when writing failed, close releases native state of the deflater.
+ * @since 1.10
+ */
+public final class GzipMember extends OutputStream {
+
+    /**
+     * Gzip header without extra fields, same as {@link java.util.zip.GZIPOutputStream} writes.
+     */
+    private static final byte[] HEADER = {
+        0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0,
+    };
+
+    /**
+     * Buffer size.
+     */
+    private static final int BUF = 8 * 1024;
+
+    /**
+     * Underlying output.
+     */
+    private final OutputStream out;
+
+    /**
+     * Deflaters pool.
+     */
+    private final Pool pool;
+
+    /**
+     * Deflater.
+     */
+    private final Deflater deflater;
+
+    /**
+     * Deflater output.
+     */
+    private final DeflaterOutputStream stream;
+
+    /**
+     * Uncompressed data checksum.
+     */
+    private final CRC32 crc;
+
+    /**
+     * Uncompressed data size.
+     */
+    private long size;
+
+    /**
+     * Was the deflater returned to the pool or released?
+     */
+    private boolean released;
+
+    /**
+     * Ctor.
+     * @param out Underlying output
+     * @param header Member header
+     * @param pool Deflaters pool
+     * @throws IOException On error
+     */
+    public GzipMember(final OutputStream out, final byte[] header, final Pool pool)
+        throws IOException {
+        out.write(header);
+        this.out = out;
+        this.pool = pool;
+        this.deflater = pool.take();
+        this.stream = new DeflaterOutputStream(out, this.deflater, GzipMember.BUF);
+        this.crc = new CRC32();
+    }
+
+    /**
+     * Ctor.
+     * @param out Underlying output
+     * @param pool Deflaters pool
+     * @throws IOException On error
+     */
+    public GzipMember(final OutputStream out, final Pool pool) throws IOException {
+        this(out, GzipMember.HEADER, pool);
+    }
+
+    /**
+     * Ctor.
+     * @param out Underlying output
+     * @param header Member header
+     * @throws IOException On error
+     */
+    public GzipMember(final OutputStream out, final byte[] header) throws IOException {
+        this(out, header, Pool.shared(Runtime.getRuntime().availableProcessors() * 2));
+    }
+
+    /**
+     * Ctor.
+     * @param out Underlying output
+     * @throws IOException On error
+     */
+    public GzipMember(final OutputStream out) throws IOException {
+        this(out, GzipMember.HEADER);
+    }
+
+    @Override
+    public void write(final int data) throws IOException {
+        this.write(new byte[] {(byte) data}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] data, final int off, final int len) throws IOException {
+        this.stream.write(data, off, len);
+        this.crc.update(data, off, len);
+        this.size = this.size + len;
+    }
+
+    /**
+     * Finishes compression, writes member trailer and returns deflater to the pool. Deflater
+     * is returned only after the trailer is written: if writing fails, the member still owns
+     * the deflater and close releases it.
+     * @throws IOException On error
+     */
+    public void finish() throws IOException {
+        this.stream.finish();
+        final long sum = this.crc.getValue();
+        this.out.write(
+            new byte[] {
+                (byte) sum, (byte) (sum >>> 8), (byte) (sum >>> 16), (byte) (sum >>> 24),
+                (byte) this.size, (byte) (this.size >>> 8),
+                (byte) (this.size >>> 16), (byte) (this.size >>> 24),
+            }
+        );
+        this.deflater.reset();
+        this.released = true;
+        this.pool.release(this.deflater);
+    }
+
+    /**
+     * Releases native state of the deflater, if member was not finished. Underlying output
+     * is not closed.
+     */
+    @Override
+    public void close() {
+        if (!this.released) {
+            this.released = true;
+            this.deflater.end();
+        }
+    }
+
+    /**
+     * Pool of idle deflaters. Pools are shared by the JVM by size, see
+     * {@link Pool#shared(int)}, size should match the number of threads compressing
+     * at the same time.
+     * @since 1.10
+     */
+    public static final class Pool {
+
+        /**
+         * Pools shared by the JVM by size.
+         */
+        private static final ConcurrentMap<Integer, Pool> SHARED = new ConcurrentHashMap<>();
+
+        /**
+         * Idle deflaters.
+         */
+        private final BlockingQueue<Deflater> idle;
+
+        /**
+         * Ctor.
+         * @param size Max number of idle deflaters
+         */
+        public Pool(final int size) {
+            this.idle = new ArrayBlockingQueue<>(size);
+        }
+
+        /**
+         * Pool shared by the JVM.
+         * @param size Max number of idle deflaters
+         * @return Pool
+         */
+        public static Pool shared(final int size) {
+            return Pool.SHARED.computeIfAbsent(size, Pool::new);
+        }
+
+        /**
+         * Takes idle deflater or creates new one.
+         * @return Deflater
+         */
+        Deflater take() {
+            return Optional.ofNullable(this.idle.poll())
+                .orElseGet(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+        }
+
+        /**
+         * Returns reset deflater to the pool, releases it if the pool is full.
+         * @param deflater Deflater
+         */
+        void release(final Deflater deflater) {
+            if (!this.idle.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.misc.JfrEvent;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of the new packages merge into metadata xml, see
+ * {@link MergedXmlPrimary} and {@link MergedXmlPackage}. Event starts on creation. Event
+ * does nothing if flight recorder is not available, see {@link JfrEvent}.
+ * @since 1.10
+ */
+final class MergeEvent extends JfrEvent<MergeEvent.Recorded> {
+
+    /**
+     * Ctor.
+     * @param type Metadata type
+     * @param added Number of the merged new packages
+     */
+    MergeEvent(final XmlPackage type, final int added) {
+        super(() -> () -> new Recorded(type.lowercase(), added));
+    }
+
+    /**
+     * Records merge result and commits the event.
+     * @param res Merge result
+     */
+    void record(final MergedXml.Result res) {
+        this.commit(event -> event.record(res.count(), res.checksums().size()));
+    }
+
+    /**
+     * Flight recorder event of the new packages merge into metadata xml.
+     * @since 1.10
+     * @checkstyle VisibilityModifierCheck (100 lines)
+     */
+    @Name("com.artipie.rpm.Merge")
+    @Label("RPM Metadata Merge")
+    @Category({"Artipie", "RPM"})
+    @Description("Merge of the new packages into metadata xml")
+    @StackTrace(false)
+    @SuppressWarnings("PMD.DefaultPackage")
+    static final class Recorded extends Event {
+
+        /**
+         * Metadata type.
+         */
+        @Label("Metadata Type")
+        String type;
+
+        /**
+         * Number of the merged new packages.
+         */
+        @Label("Added Packages")
+        int added;
+
+        /**
+         * Number of the packages in the resulting metadata.
+         */
+        @Label("Packages Count")
+        long count;
+
+        /**
+         * Number of the replaced packages.
+         */
+        @Label("Replaced Packages")
+        int replaced;
+
+        /**
+         * Ctor.
+         * @param type Metadata type
+         * @param added Number of the merged new packages
+         */
+        Recorded(final String type, final int added) {
+            this.type = type;
+            this.added = added;
+            this.begin();
+        }
+
+        /**
+         * Records merge result and commits the event.
+         * @param count Number of the packages in the resulting metadata
+         * @param replaced Number of the replaced packages
+         */
+        void record(final long count, final int replaced) {
+            this.count = count;
+            this.replaced = replaced;
+            this.commit();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.artipie.rpm.pkg.InvalidPackageException;
 import com.artipie.rpm.pkg.Package;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.stream.Collectors;
 
 /**
  * Merged xml: merge provided packages into existing xml index.
@@ -22,7 +23,21 @@ public interface MergedXml {
      * @return Merge result
      * @throws IOException On error
      */
-    Result merge(Collection<Package.Meta> packages, XmlEvent event) throws IOException;
+    default Result merge(Collection<Package.Meta> packages, XmlEvent event) throws IOException {
+        return this.mergeRecords(
+            packages.stream().map(ParsedPackage::new).collect(Collectors.toList()), event
+        );
+    }
+
+    /**
+     * Appends records of provided packages to the index xml.
+     * @param packages Packages records to append
+     * @param event Event to render records of parsed packages with
+     * @return Merge result
+     * @throws IOException On error
+     */
+    Result mergeRecords(Collection<? extends PackageRecords> packages, XmlEvent event)
+        throws IOException;
 
     /**
      * Merge result.
@@ -4,9 +4,7 @@
  */
 package com.artipie.rpm.meta;
 
-import com.artipie.rpm.pkg.Package;
 import com.fasterxml.aalto.stax.InputFactoryImpl;
-import com.fasterxml.aalto.stax.OutputFactoryImpl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -15,12 +13,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
+import org.codehaus.stax2.XMLStreamWriter2;
 
 /**
  * Merged xml: reads provided index (filelist of others xml), excludes items by
@@ -30,6 +30,16 @@ import javax.xml.stream.events.XMLEvent;
  */
 public final class MergedXmlPackage implements MergedXml {
 
+    /**
+     * Xml input factory.
+     */
+    private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
+    /**
+     * Xml events factory.
+     */
+    private static final XMLEventFactory EVENTS = XMLEventFactory.newFactory();
+
     /**
      * From where to read primary.xml.
      */
@@ -50,6 +60,11 @@ public final class MergedXmlPackage implements MergedXml {
      */
     private final MergedXml.Result res;
 
+    /**
+     * New packages fragments.
+     */
+    private final PackageFragments fragments;
+
     /**
      * Ctor.
      * @param input Input stream
@@ -60,10 +75,41 @@ public final class MergedXmlPackage implements MergedXml {
      */
     public MergedXmlPackage(final Optional<InputStream> input, final OutputStream out,
         final XmlPackage type, final MergedXml.Result res) {
+        this(input, out, type, res, new PackageFragments());
+    }
+
+    /**
+     * Ctor to render new packages in parallel.
+     * @param input Input stream
+     * @param out Output stream
+     * @param type Xml package type
+     * @param res Result of the primary.xml merging
+     * @param exec Executor to render new packages on
+     * @param window Max number of packages rendered ahead of the output
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public MergedXmlPackage(final Optional<InputStream> input, final OutputStream out,
+        final XmlPackage type, final MergedXml.Result res, final Executor exec,
+        final int window) {
+        this(input, out, type, res, new PackageFragments(exec, window));
+    }
+
+    /**
+     * Primary ctor.
+     * @param input Input stream
+     * @param out Output stream
+     * @param type Xml package type
+     * @param res Result of the primary.xml merging
+     * @param fragments New packages fragments
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private MergedXmlPackage(final Optional<InputStream> input, final OutputStream out,
+        final XmlPackage type, final MergedXml.Result res, final PackageFragments fragments) {
         this.input = input;
         this.out = out;
         this.type = type;
         this.res = res;
+        this.fragments = fragments;
     }
 
     /**
@@ -80,23 +126,23 @@ public final class MergedXmlPackage implements MergedXml {
     }
 
     @Override
-    public MergedXml.Result merge(final Collection<Package.Meta> packages,
+    public MergedXml.Result mergeRecords(final Collection<? extends PackageRecords> packages,
         final XmlEvent event) throws IOException {
+        final MergeEvent jfr = new MergeEvent(this.type, packages.size());
         try {
             Optional<XMLEventReader> reader = Optional.empty();
             if (this.input.isPresent()) {
-                reader = Optional.of(new InputFactoryImpl().createXMLEventReader(this.input.get()));
+                reader = Optional.of(MergedXmlPackage.INPUT.createXMLEventReader(this.input.get()));
             }
-            final XMLEventWriter writer = new OutputFactoryImpl().createXMLEventWriter(this.out);
+            final XMLStreamWriter2 stream = PackageFragments.stream(this.out);
+            final XMLEventWriter writer = PackageFragments.writer(stream);
             try {
-                final XMLEventFactory events = XMLEventFactory.newFactory();
+                final XMLEventFactory events = MergedXmlPackage.EVENTS;
                 MergedXmlPackage.startDocument(writer, String.valueOf(this.res.count()), this.type);
                 if (reader.isPresent()) {
                     this.process(this.res.checksums(), reader.get(), writer);
                 }
-                for (final Package.Meta item : packages) {
-                    event.add(writer, item);
-                }
+                this.fragments.write(stream, writer, packages, event, this.type);
                 writer.add(events.createSpace("\n"));
                 writer.add(
                     events.createEndElement(new QName(this.type.tag()), Collections.emptyIterator())
@@ -110,6 +156,7 @@ public final class MergedXmlPackage implements MergedXml {
         } catch (final XMLStreamException err) {
             throw new IOException(err);
         }
+        jfr.record(this.res);
         return this.res;
     }
 
@@ -122,7 +169,7 @@ public final class MergedXmlPackage implements MergedXml {
      */
     static void startDocument(final XMLEventWriter writer, final String cnt, final XmlPackage type)
         throws XMLStreamException {
-        final XMLEventFactory events = XMLEventFactory.newFactory();
+        final XMLEventFactory events = MergedXmlPackage.EVENTS;
         writer.add(events.createStartDocument(StandardCharsets.UTF_8.displayName(), "1.0"));
         writer.add(events.createStartElement("", "", type.tag()));
         for (final Map.Entry<String, String> item : type.xmlNamespaces().entrySet()) {
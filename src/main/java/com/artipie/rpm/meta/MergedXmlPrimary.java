@@ -4,9 +4,7 @@
  */
 package com.artipie.rpm.meta;
 
-import com.artipie.rpm.pkg.Package;
 import com.fasterxml.aalto.stax.InputFactoryImpl;
-import com.fasterxml.aalto.stax.OutputFactoryImpl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -16,6 +14,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javax.xml.namespace.QName;
@@ -24,6 +23,7 @@ import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
+import org.codehaus.stax2.XMLStreamWriter2;
 
 /**
  * Merged primary xml: appends provided information to primary.xml,
@@ -33,6 +33,16 @@ import javax.xml.stream.events.XMLEvent;
  */
 public final class MergedXmlPrimary implements MergedXml {
 
+    /**
+     * Xml input factory.
+     */
+    private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
+    /**
+     * Xml events factory.
+     */
+    private static final XMLEventFactory EVENTS = XMLEventFactory.newFactory();
+
     /**
      * From where to read primary.xml.
      */
@@ -43,14 +53,44 @@ public final class MergedXmlPrimary implements MergedXml {
      */
     private final OutputStream out;
 
+    /**
+     * New packages fragments.
+     */
+    private final PackageFragments fragments;
+
     /**
      * Ctor.
      * @param input Input stream
      * @param out Output stream
      */
     public MergedXmlPrimary(final Optional<InputStream> input, final OutputStream out) {
+        this(input, out, new PackageFragments());
+    }
+
+    /**
+     * Ctor to render new packages in parallel.
+     * @param input Input stream
+     * @param out Output stream
+     * @param exec Executor to render new packages on
+     * @param window Max number of packages rendered ahead of the output
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public MergedXmlPrimary(final Optional<InputStream> input, final OutputStream out,
+        final Executor exec, final int window) {
+        this(input, out, new PackageFragments(exec, window));
+    }
+
+    /**
+     * Primary ctor.
+     * @param input Input stream
+     * @param out Output stream
+     * @param fragments New packages fragments
+     */
+    private MergedXmlPrimary(final Optional<InputStream> input, final OutputStream out,
+        final PackageFragments fragments) {
         this.input = input;
         this.out = out;
+        this.fragments = fragments;
     }
 
     /**
@@ -64,29 +104,29 @@ public final class MergedXmlPrimary implements MergedXml {
 
     // @checkstyle ExecutableStatementCountCheck (100 lines)
     @Override
-    public Result merge(final Collection<Package.Meta> packages, final XmlEvent event)
-        throws IOException {
+    public Result mergeRecords(final Collection<? extends PackageRecords> packages,
+        final XmlEvent event) throws IOException {
+        final MergeEvent jfr = new MergeEvent(XmlPackage.PRIMARY, packages.size());
         final AtomicLong res = new AtomicLong();
         Collection<String> checksums = Collections.emptyList();
         try {
             Optional<XMLEventReader> reader = Optional.empty();
             if (this.input.isPresent()) {
-                reader = Optional.of(new InputFactoryImpl().createXMLEventReader(this.input.get()));
+                reader = Optional.of(MergedXmlPrimary.INPUT.createXMLEventReader(this.input.get()));
             }
-            final XMLEventWriter writer = new OutputFactoryImpl().createXMLEventWriter(this.out);
+            final XMLStreamWriter2 stream = PackageFragments.stream(this.out);
+            final XMLEventWriter writer = PackageFragments.writer(stream);
             try {
-                final XMLEventFactory events = XMLEventFactory.newFactory();
+                final XMLEventFactory events = MergedXmlPrimary.EVENTS;
                 MergedXmlPackage.startDocument(writer, "-1", XmlPackage.PRIMARY);
                 if (reader.isPresent()) {
                     checksums = MergedXmlPrimary.processPackages(
-                        packages.stream().map(Package.Meta::href).collect(Collectors.toSet()),
+                        packages.stream().map(PackageRecords::href).collect(Collectors.toSet()),
                         reader.get(), writer, res
                     );
                 }
-                for (final Package.Meta item : packages) {
-                    event.add(writer, item);
-                    res.incrementAndGet();
-                }
+                this.fragments.write(stream, writer, packages, event, XmlPackage.PRIMARY);
+                res.addAndGet(packages.size());
                 writer.add(events.createSpace("\n"));
                 writer.add(
                     events.createEndElement(
@@ -102,7 +142,9 @@ public final class MergedXmlPrimary implements MergedXml {
         } catch (final XMLStreamException err) {
             throw new IOException(err);
         }
-        return new MergedXml.Result(res.get(), checksums);
+        final MergedXml.Result result = new MergedXml.Result(res.get(), checksums);
+        jfr.record(result);
+        return result;
     }
 
     /**
@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.pkg.Package;
+import com.fasterxml.aalto.stax.OutputFactoryImpl;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import org.codehaus.stax2.XMLStreamWriter2;
+
+/**
+ * Xml fragments of the new packages. With zero window packages are written one by one
+ * to the document writer, otherwise each package is rendered into separate fragment on
+ * the executor, at most `window` fragments are rendered ahead of the writer. Fragments
+ * are written to the document in the packages order. Records of {@link RenderedPackage}
+ * are written as is.
+ * @since 1.10
+ */
+final class PackageFragments {
+
+    /**
+     * Output factory to render fragments with.
+     */
+    private static final OutputFactoryImpl FACTORY = new OutputFactoryImpl();
+
+    /**
+     * Executor to render fragments on.
+     */
+    private final Executor exec;
+
+    /**
+     * Max number of fragments rendered ahead of the writer.
+     */
+    private final int window;
+
+    /**
+     * Ctor.
+     * @param exec Executor to render fragments on, should not be the executor the writer
+     *  runs on: the writer waits for the fragments
+     * @param window Max number of fragments rendered ahead of the writer
+     */
+    PackageFragments(final Executor exec, final int window) {
+        this.exec = exec;
+        this.window = window;
+    }
+
+    /**
+     * Ctor for packages written one by one.
+     */
+    PackageFragments() {
+        this(new RepoConfig.Simple().executors().parse(), 0);
+    }
+
+    /**
+     * Creates document writer, which can accept rendered fragments.
+     * @param stream Document stream writer
+     * @return Document event writer
+     * @throws XMLStreamException On error
+     */
+    static XMLEventWriter writer(final XMLStreamWriter2 stream) throws XMLStreamException {
+        return PackageFragments.FACTORY.createXMLEventWriter(stream);
+    }
+
+    /**
+     * Creates document stream writer.
+     * @param out Output
+     * @return Stream writer
+     * @throws XMLStreamException On error
+     */
+    static XMLStreamWriter2 stream(final OutputStream out) throws XMLStreamException {
+        return (XMLStreamWriter2) PackageFragments.FACTORY.createXMLStreamWriter(out);
+    }
+
+    /**
+     * Writes packages.
+     * @param stream Document stream writer
+     * @param writer Document event writer on top of the stream writer
+     * @param packages Packages to write
+     * @param event Xml event to render package with
+     * @param type Metadata type
+     * @throws IOException On error
+     * @throws XMLStreamException On error
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    void write(final XMLStreamWriter2 stream, final XMLEventWriter writer,
+        final Collection<? extends PackageRecords> packages, final XmlEvent event,
+        final XmlPackage type) throws IOException, XMLStreamException {
+        if (this.window > 0) {
+            writer.flush();
+            final Deque<CompletableFuture<String>> rendered = new ArrayDeque<>(this.window);
+            try {
+                for (final PackageRecords item : packages) {
+                    rendered.add(
+                        CompletableFuture.supplyAsync(
+                            () -> PackageFragments.record(item, event, type), this.exec
+                        )
+                    );
+                    if (rendered.size() > this.window) {
+                        stream.writeRaw(rendered.poll().join());
+                    }
+                }
+                while (!rendered.isEmpty()) {
+                    stream.writeRaw(rendered.poll().join());
+                }
+            } catch (final CompletionException err) {
+                throw new XmlException(
+                    String.format("Failed to render %s records", type.name()), err.getCause()
+                );
+            }
+        } else {
+            for (final PackageRecords item : packages) {
+                item.write(stream, writer, type, event);
+            }
+        }
+    }
+
+    /**
+     * Renders package record.
+     * @param meta Package metadata
+     * @param event Xml event to render package with
+     * @return Package xml record
+     * @throws IOException On error
+     * @throws XMLStreamException On error
+     */
+    static String render(final Package.Meta meta, final XmlEvent event)
+        throws IOException, XMLStreamException {
+        final StringWriter text = new StringWriter();
+        final XMLEventWriter writer = PackageFragments.FACTORY.createXMLEventWriter(text);
+        try {
+            event.add(writer, meta);
+        } finally {
+            writer.close();
+        }
+        return text.toString();
+    }
+
+    /**
+     * Package record wrapping checked exceptions.
+     * @param pkg Package records
+     * @param event Xml event to render package with
+     * @param type Metadata type
+     * @return Package xml record
+     */
+    private static String record(final PackageRecords pkg, final XmlEvent event,
+        final XmlPackage type) {
+        try {
+            return pkg.record(type, event);
+        } catch (final IOException err) {
+            throw new ArtipieIOException(err);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.pkg.Checksum;
+import java.io.IOException;
+import javax.xml.stream.XMLEventWriter;
+import org.codehaus.stax2.XMLStreamWriter2;
+
+/**
+ * Metadata xml records of the package to add to metadata: records of the
+ * {@link ParsedPackage} are rendered from rpm header with xml event, records of the
+ * {@link RenderedPackage} were rendered before and are written as is.
+ * @since 1.10
+ */
+public interface PackageRecords {
+
+    /**
+     * RPM file checksum.
+     * @return Checksum
+     */
+    Checksum checksum();
+
+    /**
+     * RPM location href.
+     * @return Location string
+     */
+    String href();
+
+    /**
+     * Package record of the metadata type.
+     * @param type Metadata type
+     * @param event Xml event to render record with
+     * @return Xml record
+     * @throws IOException On error
+     */
+    String record(XmlPackage type, XmlEvent event) throws IOException;
+
+    /**
+     * Writes package record of the metadata type to the document.
+     * @param stream Document stream writer
+     * @param writer Document event writer on top of the stream writer
+     * @param type Metadata type
+     * @param event Xml event to render record with
+     * @throws IOException On error
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    void write(XMLStreamWriter2 stream, XMLEventWriter writer, XmlPackage type, XmlEvent event)
+        throws IOException;
+}
@@ -0,0 +1,244 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Memory bounded buffer of the parsed packages. Packages are streamed into the buffer as
+ * they are parsed and the buffer keeps them for the metadata mergers, which read them
+ * several times: once per metadata type and once per commit attempt. Parsed package is
+ * rendered into xml records right away, so that rpm header is not kept in memory, see
+ * {@link RenderedPackage}. Records are kept in memory as UTF-8 bytes until their total size
+ * reaches the budget, records of the packages, which do not fit, are spilled to the temp file
+ * and are read from it on demand. Zero budget disables the buffer: packages are kept as they
+ * are. Buffer should be closed when buffered packages are not needed anymore, temp file is
+ * removed on close.
+ * @since 1.10
+ */
+public final class PackagesBuffer implements Closeable {
+
+    /**
+     * Memory budget in bytes.
+     */
+    private final long budget;
+
+    /**
+     * Metadata types to render records for.
+     */
+    private final Collection<XmlPackage> types;
+
+    /**
+     * Max number of the most recent changelog entries in other.xml record, zero means no limit.
+     */
+    private final int changelog;
+
+    /**
+     * Size of the records kept in memory.
+     */
+    private final AtomicLong used;
+
+    /**
+     * Spill file, created on the first spill.
+     */
+    private final AtomicReference<Spill> spill;
+
+    /**
+     * Buffered packages.
+     */
+    private final List<PackageRecords> packages;
+
+    /**
+     * Ctor.
+     * @param budget Memory budget in bytes, zero disables the buffer
+     * @param types Metadata types to render records for
+     * @param changelog Max number of the most recent changelog entries in other.xml record,
+     *  zero means no limit
+     */
+    public PackagesBuffer(final long budget, final Collection<XmlPackage> types,
+        final int changelog) {
+        this.budget = budget;
+        this.types = types;
+        this.changelog = changelog;
+        this.used = new AtomicLong();
+        this.spill = new AtomicReference<>();
+        this.packages = Collections.synchronizedList(new ArrayList<>(0));
+    }
+
+    /**
+     * Adds package to the buffer.
+     * @param pkg Package records
+     * @return Buffered package
+     * @throws IOException On error
+     */
+    public PackageRecords add(final PackageRecords pkg) throws IOException {
+        final PackageRecords res;
+        if (this.budget > 0) {
+            final RenderedPackage rendered = new XmlFragments(pkg, this.changelog)
+                .render(this.types);
+            final Map<XmlPackage, byte[]> records = new EnumMap<>(XmlPackage.class);
+            long size = 0;
+            for (final XmlPackage type : this.types) {
+                final Optional<String> fragment = rendered.fragment(type);
+                if (fragment.isPresent()) {
+                    final byte[] bytes = fragment.get().getBytes(StandardCharsets.UTF_8);
+                    records.put(type, bytes);
+                    size += bytes.length;
+                }
+            }
+            if (this.used.addAndGet(size) <= this.budget) {
+                res = new RenderedPackage(
+                    pkg.checksum(), pkg.href(),
+                    type -> Optional.ofNullable(records.get(type))
+                        .map(bytes -> new String(bytes, StandardCharsets.UTF_8))
+                );
+            } else {
+                this.used.addAndGet(-size);
+                res = this.spilled().write(pkg, records);
+            }
+        } else {
+            res = pkg;
+        }
+        this.packages.add(res);
+        return res;
+    }
+
+    /**
+     * Packages added to the buffer.
+     * @return Buffered packages
+     */
+    public Collection<PackageRecords> packages() {
+        return Collections.unmodifiableList(this.packages);
+    }
+
+    @Override
+    public void close() throws IOException {
+        final Spill file = this.spill.getAndSet(null);
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    /**
+     * Spill file, created if absent.
+     * @return Spill file
+     * @throws IOException On error
+     */
+    private Spill spilled() throws IOException {
+        synchronized (this.spill) {
+            if (this.spill.get() == null) {
+                this.spill.set(new Spill(Files.createTempFile("packages", ".spill")));
+            }
+            return this.spill.get();
+        }
+    }
+
+    /**
+     * Temp file with spilled records.
+     * @since 1.10
+     */
+    private static final class Spill implements Closeable {
+
+        /**
+         * File path.
+         */
+        private final Path path;
+
+        /**
+         * File channel.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Ctor.
+         * @param path File path
+         * @throws IOException On error
+         */
+        Spill(final Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(
+                path, StandardOpenOption.READ, StandardOpenOption.WRITE
+            );
+        }
+
+        /**
+         * Writes package records to the file.
+         * @param pkg Package
+         * @param records Package records by metadata type as UTF-8 bytes
+         * @return Package, which reads records from the file
+         * @throws IOException On error
+         */
+        RenderedPackage write(final PackageRecords pkg, final Map<XmlPackage, byte[]> records)
+            throws IOException {
+            final Map<XmlPackage, long[]> positions = new EnumMap<>(XmlPackage.class);
+            synchronized (this.channel) {
+                for (final Map.Entry<XmlPackage, byte[]> record : records.entrySet()) {
+                    final ByteBuffer bytes = ByteBuffer.wrap(record.getValue());
+                    final long start = this.channel.size();
+                    positions.put(record.getKey(), new long[]{start, bytes.remaining()});
+                    long pos = start;
+                    while (bytes.hasRemaining()) {
+                        pos += this.channel.write(bytes, pos);
+                    }
+                }
+            }
+            return new RenderedPackage(
+                pkg.checksum(), pkg.href(),
+                type -> Optional.ofNullable(positions.get(type)).map(this::read)
+            );
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.channel.close();
+            } finally {
+                Files.deleteIfExists(this.path);
+            }
+        }
+
+        /**
+         * Reads record from the file.
+         * @param position Record start and length
+         * @return Record
+         */
+        private String read(final long[] position) {
+            final ByteBuffer bytes = ByteBuffer.allocate((int) position[1]);
+            try {
+                long pos = position[0];
+                while (bytes.hasRemaining()) {
+                    final int read = this.channel.read(bytes, pos);
+                    if (read < 0) {
+                        throw new IOException(
+                            String.format("Spill file %s is truncated", this.path)
+                        );
+                    }
+                    pos += read;
+                }
+            } catch (final IOException err) {
+                throw new UncheckedIOException(err);
+            }
+            bytes.flip();
+            return StandardCharsets.UTF_8.decode(bytes).toString();
+        }
+    }
+}
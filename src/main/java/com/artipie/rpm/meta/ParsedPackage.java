@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.pkg.Checksum;
+import com.artipie.rpm.pkg.Package;
+import java.io.IOException;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import org.codehaus.stax2.XMLStreamWriter2;
+
+/**
+ * Records of the parsed package: records are rendered from rpm header with xml event.
+ * @since 1.10
+ */
+public final class ParsedPackage implements PackageRecords {
+
+    /**
+     * Package metadata.
+     */
+    private final Package.Meta meta;
+
+    /**
+     * Ctor.
+     * @param meta Package metadata
+     */
+    public ParsedPackage(final Package.Meta meta) {
+        this.meta = meta;
+    }
+
+    @Override
+    public Checksum checksum() {
+        return this.meta.checksum();
+    }
+
+    @Override
+    public String href() {
+        return this.meta.href();
+    }
+
+    @Override
+    public String record(final XmlPackage type, final XmlEvent event) throws IOException {
+        try {
+            return PackageFragments.render(this.meta, event);
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        }
+    }
+
+    @Override
+    public void write(final XMLStreamWriter2 stream, final XMLEventWriter writer,
+        final XmlPackage type, final XmlEvent event) throws IOException {
+        event.add(writer, this.meta);
+    }
+}
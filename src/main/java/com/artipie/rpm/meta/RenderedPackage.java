@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.pkg.Checksum;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import org.codehaus.stax2.XMLStreamWriter2;
+
+/**
+ * Package, which metadata xml records are already rendered: records are written to
+ * metadata xmls as is, without reading rpm header.
+ * @since 1.10
+ */
+public final class RenderedPackage implements PackageRecords {
+
+    /**
+     * File checksum.
+     */
+    private final Checksum sum;
+
+    /**
+     * Relative file location in the repository.
+     */
+    private final String location;
+
+    /**
+     * Rendered records by metadata type.
+     */
+    private final Function<XmlPackage, Optional<String>> fragments;
+
+    /**
+     * Ctor.
+     * @param sum File checksum
+     * @param location Relative file location in the repository
+     * @param fragments Rendered records by metadata type
+     */
+    public RenderedPackage(final Checksum sum, final String location,
+        final Map<XmlPackage, String> fragments) {
+        this(sum, location, type -> Optional.ofNullable(fragments.get(type)));
+    }
+
+    /**
+     * Ctor.
+     * @param sum File checksum
+     * @param location Relative file location in the repository
+     * @param fragments Source of the rendered records by metadata type, records can be read
+     *  on demand
+     */
+    public RenderedPackage(final Checksum sum, final String location,
+        final Function<XmlPackage, Optional<String>> fragments) {
+        this.sum = sum;
+        this.location = location;
+        this.fragments = fragments;
+    }
+
+    /**
+     * Rendered record for metadata type.
+     * @param type Metadata type
+     * @return Xml record, empty if the record was not rendered
+     */
+    public Optional<String> fragment(final XmlPackage type) {
+        return this.fragments.apply(type);
+    }
+
+    @Override
+    public Checksum checksum() {
+        return this.sum;
+    }
+
+    @Override
+    public String href() {
+        return this.location;
+    }
+
+    @Override
+    public String record(final XmlPackage type, final XmlEvent event) {
+        return this.fragment(type).orElseThrow(
+            () -> new XmlException(
+                String.format("%s record of %s is not rendered", type.name(), this.location)
+            )
+        );
+    }
+
+    @Override
+    public void write(final XMLStreamWriter2 stream, final XMLEventWriter writer,
+        final XmlPackage type, final XmlEvent event) throws IOException {
+        try {
+            writer.flush();
+            stream.writeRaw(this.record(type, event));
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        }
+    }
+}
@@ -4,6 +4,8 @@
  */
 package com.artipie.rpm.meta;
 
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import com.fasterxml.aalto.stax.OutputFactoryImpl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -17,8 +19,6 @@ import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLEventWriter;
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
@@ -79,6 +79,21 @@ public interface XmlAlter {
      */
     final class Stream implements XmlAlter {
 
+        /**
+         * Xml input factory.
+         */
+        private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
+        /**
+         * Xml output factory.
+         */
+        private static final OutputFactoryImpl OUTPUT = new OutputFactoryImpl();
+
+        /**
+         * Xml events factory.
+         */
+        private static final XMLEventFactory EVENTS = XMLEventFactory.newFactory();
+
         /**
          * Input.
          */
@@ -102,9 +117,9 @@ public interface XmlAlter {
         @Override
         public void pkgAttr(final String tag, final String value) {
             try {
-                final XMLEventReader reader = XMLInputFactory.newInstance()
+                final XMLEventReader reader = Stream.INPUT
                     .createXMLEventReader(this.input);
-                final XMLEventWriter writer = XMLOutputFactory.newInstance()
+                final XMLEventWriter writer = Stream.OUTPUT
                     .createXMLEventWriter(this.out);
                 try {
                     XMLEvent event;
@@ -136,7 +151,7 @@ public interface XmlAlter {
         static XMLEvent alterEvent(final XMLEvent original, final String value) {
             final StartElement element = original.asStartElement();
             final List<Attribute> newattrs = new ArrayList<>(0);
-            final XMLEventFactory events = XMLEventFactory.newFactory();
+            final XMLEventFactory events = Stream.EVENTS;
             boolean replaced = false;
             final Iterator<?> origattrs = element.getAttributes();
             final XMLEvent res;
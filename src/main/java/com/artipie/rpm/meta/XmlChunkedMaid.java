@@ -0,0 +1,502 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Implementation of {@link XmlMaid}, which splits metadata xml into chunks of packages
+ * and parses and filters the chunks in parallel on the executor. The calling thread only
+ * splits raw input bytes at the package start tags, every chunk is then parsed on the
+ * executor as a separate document made of the original document header, chunk packages
+ * and the root closing tag. Bytes of the valid packages are copied to the output as is in
+ * the original order, at most window chunks are filtered ahead of the output. Primary
+ * xml packages are filtered by checksum
+ * (as {@link XmlPrimaryMaid.Stream} does), filelists and other xmls packages are filtered
+ * by pkgid attribute (as {@link XmlMaid.ByPkgidAttr.Stream} does). Document header
+ * and footer are copied as is. Input/output streams are not closed in this implementation,
+ * resources should be closed from the outside.
+ * @since 1.10
+ */
+public final class XmlChunkedMaid implements XmlMaid {
+
+    /**
+     * Xml input factory.
+     */
+    private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
+    /**
+     * Package tag name.
+     */
+    private static final String PACKAGE = "package";
+
+    /**
+     * Package closing tag.
+     */
+    private static final byte[] CLOSING = "</package>".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Input.
+     */
+    private final InputStream input;
+
+    /**
+     * Output.
+     */
+    private final OutputStream out;
+
+    /**
+     * Metadata type.
+     */
+    private final XmlPackage type;
+
+    /**
+     * Executor to filter chunks on.
+     */
+    private final Executor exec;
+
+    /**
+     * Number of packages in chunk.
+     */
+    private final int size;
+
+    /**
+     * Max number of chunks filtered ahead of the output.
+     */
+    private final int window;
+
+    /**
+     * Ctor.
+     * @param input Input
+     * @param out Output
+     * @param type Metadata type
+     * @param exec Executor to filter chunks on, should not be the executor this maid
+     *  runs on: the maid waits for the chunks
+     * @param size Number of packages in chunk
+     * @param window Max number of chunks filtered ahead of the output
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public XmlChunkedMaid(final InputStream input, final OutputStream out,
+        final XmlPackage type, final Executor exec, final int size, final int window) {
+        this.input = input;
+        this.out = out;
+        this.type = type;
+        this.exec = exec;
+        this.size = size;
+        this.window = window;
+    }
+
+    @Override
+    public long clean(final Collection<String> ids) throws IOException {
+        final CleanEvent jfr = new CleanEvent(this.type.lowercase(), ids.size());
+        final Segments segments = new Segments(this.input);
+        final byte[] header = segments.next();
+        long res = 0;
+        if (segments.hasNext()) {
+            final byte[] closing = XmlChunkedMaid.closing(header);
+            final Deque<CompletableFuture<Chunk>> ahead = new ArrayDeque<>();
+            List<byte[]> pkgs = new ArrayList<>(this.size);
+            byte[] footer = new byte[0];
+            this.out.write(header);
+            try {
+                while (segments.hasNext()) {
+                    byte[] pkg = segments.next();
+                    if (!segments.hasNext()) {
+                        final int end = XmlChunkedMaid.footer(pkg);
+                        footer = Arrays.copyOfRange(pkg, end, pkg.length);
+                        pkg = Arrays.copyOf(pkg, end);
+                    }
+                    pkgs.add(pkg);
+                    if (pkgs.size() == this.size || !segments.hasNext()) {
+                        final Chunk chunk = new Chunk(header, pkgs, closing, ids, this.type);
+                        ahead.add(CompletableFuture.supplyAsync(chunk::filtered, this.exec));
+                        pkgs = new ArrayList<>(this.size);
+                    }
+                    if (ahead.size() > this.window) {
+                        res = res + ahead.poll().join().write(this.out);
+                    }
+                }
+                while (!ahead.isEmpty()) {
+                    res = res + ahead.poll().join().write(this.out);
+                }
+            } catch (final CompletionException err) {
+                throw new IOException(err.getCause());
+            }
+            this.out.write(footer);
+        } else {
+            this.out.write(header);
+        }
+        this.out.flush();
+        jfr.record(res);
+        return res;
+    }
+
+    /**
+     * Root element closing tag of the document with the given header.
+     * @param header Document header, contains the root element start tag
+     * @return Closing tag bytes
+     * @throws IOException On xml error
+     */
+    private static byte[] closing(final byte[] header) throws IOException {
+        try {
+            final XMLStreamReader reader =
+                XmlChunkedMaid.INPUT.createXMLStreamReader(new ByteArrayInputStream(header));
+            try {
+                int event = reader.next();
+                while (event != XMLStreamConstants.START_ELEMENT) {
+                    event = reader.next();
+                }
+                final String prefix = reader.getPrefix();
+                final String name;
+                if (prefix == null || prefix.isEmpty()) {
+                    name = reader.getLocalName();
+                } else {
+                    name = String.join(":", prefix, reader.getLocalName());
+                }
+                return String.format("</%s>", name).getBytes(StandardCharsets.UTF_8);
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        }
+    }
+
+    /**
+     * Position of the document footer in the last package segment: footer starts right
+     * after the last package closing tag.
+     * @param pkg Last package segment
+     * @return Footer position
+     */
+    private static int footer(final byte[] pkg) {
+        int res = pkg.length;
+        for (int pos = pkg.length - XmlChunkedMaid.CLOSING.length; pos >= 0; pos = pos - 1) {
+            if (Segments.matches(pkg, pos, XmlChunkedMaid.CLOSING)) {
+                res = pos + XmlChunkedMaid.CLOSING.length;
+                break;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Raw input split at the package start tags. The first segment is the document
+     * header, every next one starts with package start tag and lasts up to the next
+     * package, the last one also contains the document footer. Metadata xml escapes
+     * {@code <} in text, so package start tag bytes are met at the package elements only.
+     * @since 1.10
+     */
+    private static final class Segments {
+
+        /**
+         * Package start tag without the closing bracket.
+         */
+        private static final byte[] START = "<package".getBytes(StandardCharsets.US_ASCII);
+
+        /**
+         * Buffer size.
+         */
+        private static final int BUF = 64 * 1024;
+
+        /**
+         * Input.
+         */
+        private final InputStream input;
+
+        /**
+         * Read bytes.
+         */
+        private byte[] buf;
+
+        /**
+         * Position of the next segment in buffer.
+         */
+        private int start;
+
+        /**
+         * End of the read bytes in buffer.
+         */
+        private int end;
+
+        /**
+         * Is input read till the end?
+         */
+        private boolean eof;
+
+        /**
+         * Ctor.
+         * @param input Input
+         */
+        Segments(final InputStream input) {
+            this.input = input;
+            this.buf = new byte[Segments.BUF];
+        }
+
+        /**
+         * Are there more segments?
+         * @return True if there is next segment
+         * @throws IOException On error
+         */
+        boolean hasNext() throws IOException {
+            while (this.start == this.end && !this.eof) {
+                this.fill();
+            }
+            return this.start < this.end;
+        }
+
+        /**
+         * Reads next segment.
+         * @return Segment bytes
+         * @throws IOException On error
+         */
+        byte[] next() throws IOException {
+            int from = this.start + 1;
+            int pos = this.boundary(from);
+            while (pos < 0 && !this.eof) {
+                from = Math.max(1, this.end - this.start - Segments.START.length);
+                this.fill();
+                pos = this.boundary(this.start + from);
+            }
+            if (pos < 0) {
+                pos = this.end;
+            }
+            final byte[] res = Arrays.copyOfRange(this.buf, this.start, pos);
+            this.start = pos;
+            return res;
+        }
+
+        /**
+         * Checks whether bytes at the position are equal to the expected ones.
+         * @param bytes Bytes
+         * @param pos Position
+         * @param expected Expected bytes
+         * @return True if bytes match
+         */
+        static boolean matches(final byte[] bytes, final int pos, final byte[] expected) {
+            boolean res = true;
+            for (int idx = 0; idx < expected.length && res; idx = idx + 1) {
+                res = bytes[pos + idx] == expected[idx];
+            }
+            return res;
+        }
+
+        /**
+         * Finds next package start tag.
+         * @param from Position to search from
+         * @return Package start tag position or -1 if not found
+         */
+        private int boundary(final int from) {
+            int res = -1;
+            for (int pos = from; pos < this.end - Segments.START.length; pos = pos + 1) {
+                if (Segments.matches(this.buf, pos, Segments.START)
+                    && Segments.delimiter(this.buf[pos + Segments.START.length])) {
+                    res = pos;
+                    break;
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Reads more input into buffer, drops already returned segments from the buffer.
+         * @throws IOException On error
+         */
+        private void fill() throws IOException {
+            if (this.start > 0) {
+                System.arraycopy(this.buf, this.start, this.buf, 0, this.end - this.start);
+                this.end = this.end - this.start;
+                this.start = 0;
+            }
+            if (this.end == this.buf.length) {
+                this.buf = Arrays.copyOf(this.buf, this.buf.length * 2);
+            }
+            final int read = this.input.read(this.buf, this.end, this.buf.length - this.end);
+            if (read < 0) {
+                this.eof = true;
+            } else {
+                this.end = this.end + read;
+            }
+        }
+
+        /**
+         * Is the byte a delimiter after the tag name?
+         * @param chr Byte
+         * @return True for whitespace, slash and closing bracket
+         */
+        private static boolean delimiter(final byte chr) {
+            return chr == ' ' || chr == '>' || chr == '/' || chr == '\n' || chr == '\t'
+                || chr == '\r';
+        }
+    }
+
+    /**
+     * Chunk of packages, task to parse and filter packages of the chunk.
+     * @since 1.10
+     */
+    private static final class Chunk {
+
+        /**
+         * Document header.
+         */
+        private final byte[] header;
+
+        /**
+         * Packages bytes.
+         */
+        private final List<byte[]> pkgs;
+
+        /**
+         * Root element closing tag.
+         */
+        private final byte[] closing;
+
+        /**
+         * Ids of the packages to remove.
+         */
+        private final Collection<String> ids;
+
+        /**
+         * Metadata type.
+         */
+        private final XmlPackage type;
+
+        /**
+         * Filtered chunk.
+         */
+        private final ByteArrayOutputStream text;
+
+        /**
+         * Number of the valid packages.
+         */
+        private long cnt;
+
+        /**
+         * Ctor.
+         * @param header Document header
+         * @param pkgs Packages bytes
+         * @param closing Root element closing tag
+         * @param ids Ids of the packages to remove
+         * @param type Metadata type
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Chunk(final byte[] header, final List<byte[]> pkgs, final byte[] closing,
+            final Collection<String> ids, final XmlPackage type) {
+            this.header = header;
+            this.pkgs = pkgs;
+            this.closing = closing;
+            this.ids = ids;
+            this.type = type;
+            this.text = new ByteArrayOutputStream();
+        }
+
+        /**
+         * Filters packages of the chunk.
+         * @return This chunk
+         */
+        Chunk filtered() {
+            try {
+                final List<Boolean> valid = this.parse();
+                if (valid.size() != this.pkgs.size()) {
+                    throw new XmlException(
+                        String.format(
+                            "Expected %d packages in chunk, found %d",
+                            this.pkgs.size(), valid.size()
+                        )
+                    );
+                }
+                for (int idx = 0; idx < valid.size(); idx = idx + 1) {
+                    if (valid.get(idx)) {
+                        this.cnt = this.cnt + 1;
+                        this.text.write(this.pkgs.get(idx));
+                    }
+                }
+            } catch (final XMLStreamException | IOException err) {
+                throw new XmlException(err);
+            }
+            return this;
+        }
+
+        /**
+         * Writes filtered chunk.
+         * @param out Where to write
+         * @return Number of the valid packages in chunk
+         * @throws IOException On IO error
+         */
+        long write(final OutputStream out) throws IOException {
+            this.text.writeTo(out);
+            return this.cnt;
+        }
+
+        /**
+         * Parses chunk document and checks packages.
+         * @return Validity of every chunk package
+         * @throws XMLStreamException On error
+         */
+        private List<Boolean> parse() throws XMLStreamException {
+            final List<Boolean> res = new ArrayList<>(this.pkgs.size());
+            final List<InputStream> parts = new ArrayList<>(this.pkgs.size() + 2);
+            parts.add(new ByteArrayInputStream(this.header));
+            parts.addAll(
+                this.pkgs.stream().map(ByteArrayInputStream::new).collect(Collectors.toList())
+            );
+            parts.add(new ByteArrayInputStream(this.closing));
+            final XMLStreamReader reader = XmlChunkedMaid.INPUT.createXMLStreamReader(
+                new SequenceInputStream(Collections.enumeration(parts))
+            );
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        this.check(reader, res);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            return res;
+        }
+
+        /**
+         * Checks package at element start: primary package is checked by the checksum
+         * element text, other packages by pkgid attribute.
+         * @param reader Reader positioned at element start
+         * @param res Packages validity
+         * @throws XMLStreamException On error
+         */
+        private void check(final XMLStreamReader reader, final List<Boolean> res)
+            throws XMLStreamException {
+            final String name = reader.getLocalName();
+            if (XmlChunkedMaid.PACKAGE.equals(name)) {
+                res.add(
+                    this.type == XmlPackage.PRIMARY
+                        || !this.ids.contains(reader.getAttributeValue(null, "pkgid"))
+                );
+            } else if (this.type == XmlPackage.PRIMARY && "checksum".equals(name)
+                && !res.isEmpty()) {
+                res.set(res.size() - 1, !this.ids.contains(reader.getElementText()));
+            }
+        }
+    }
+}
@@ -6,8 +6,10 @@ package com.artipie.rpm.meta;
 
 import com.artipie.rpm.pkg.HeaderTags;
 import com.artipie.rpm.pkg.Package;
+import com.jcabi.log.Logger;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -37,9 +39,14 @@ public interface XmlEvent {
      */
     final class PackageAndVersion implements XmlEvent {
 
+        /**
+         * Xml events factory.
+         */
+        private static final XMLEventFactory EVENTS = XMLEventFactory.newFactory();
+
         @Override
         public void add(final XMLEventWriter writer, final Package.Meta meta) throws IOException {
-            final XMLEventFactory events = XMLEventFactory.newFactory();
+            final XMLEventFactory events = PackageAndVersion.EVENTS;
             final HeaderTags tags = new HeaderTags(meta);
             final String pkg = "package";
             final String version = "version";
@@ -61,30 +68,109 @@ public interface XmlEvent {
 
     /**
      * Implementation of {@link XmlEvent} to build event for {@link XmlPackage#OTHER} package.
+     * Changelog entries are read from CHANGELOGTIME, CHANGELOGNAME and CHANGELOGTEXT header
+     * tags as is, rpm stores them from the most recent one, the limited number of the most
+     * recent entries is written in chronological order as createrepo does. Obsolete CHANGELOG
+     * header tag entries are parsed by {@link ChangelogEntry}.
      * @since 1.5
      */
     final class Other implements XmlEvent {
 
+        /**
+         * Xml events factory.
+         */
+        private static final XMLEventFactory EVENTS = XMLEventFactory.newFactory();
+
+        /**
+         * Max number of the most recent changelog entries to write, zero means no limit.
+         */
+        private final int limit;
+
+        /**
+         * Ctor.
+         * @param limit Max number of the most recent changelog entries to write,
+         *  zero means no limit
+         */
+        public Other(final int limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Ctor to write all changelog entries.
+         */
+        public Other() {
+            this(0);
+        }
+
         @Override
         public void add(final XMLEventWriter writer, final Package.Meta meta) throws IOException {
-            final XMLEventFactory events = XMLEventFactory.newFactory();
+            final XMLEventFactory events = Other.EVENTS;
             final HeaderTags tags = new HeaderTags(meta);
             try {
                 new PackageAndVersion().add(writer, meta);
-                for (final String changelog : tags.changelog()) {
-                    final ChangelogEntry entry = new ChangelogEntry(changelog);
-                    final String tag = "changelog";
-                    writer.add(events.createStartElement("", "", tag));
-                    writer.add(events.createAttribute("date", String.valueOf(entry.date())));
-                    writer.add(events.createAttribute("author", entry.author()));
-                    writer.add(events.createCharacters(entry.content()));
-                    writer.add(events.createEndElement("", "", tag));
+                final int[] times = tags.changelogTimes();
+                if (times.length > 0) {
+                    final List<String> names = tags.changelogNames();
+                    final List<String> texts = tags.changelogTexts();
+                    final int total = Math.min(times.length, Math.min(names.size(), texts.size()));
+                    if (total < times.length || total < names.size() || total < texts.size()) {
+                        Logger.warn(
+                            this,
+                            "Changelog tags of %s have different lengths: %d, %d, %d; %d written",
+                            meta.href(), times.length, names.size(), texts.size(), total
+                        );
+                    }
+                    for (int idx = this.count(total) - 1; idx >= 0; idx = idx - 1) {
+                        Other.changelog(writer, events, times[idx], names.get(idx), texts.get(idx));
+                    }
+                } else {
+                    final List<String> changelog = tags.changelog();
+                    for (final String item : changelog.subList(0, this.count(changelog.size()))) {
+                        final ChangelogEntry entry = new ChangelogEntry(item);
+                        Other.changelog(
+                            writer, events, entry.date(), entry.author(), entry.content()
+                        );
+                    }
                 }
                 writer.add(events.createEndElement("", "", "package"));
             } catch (final XMLStreamException err) {
                 throw new IOException(err);
             }
         }
+
+        /**
+         * Number of changelog entries to write.
+         * @param total Total number of entries, the most recent entries go first
+         * @return Entries count
+         */
+        private int count(final int total) {
+            int res = total;
+            if (this.limit > 0) {
+                res = Math.min(total, this.limit);
+            }
+            return res;
+        }
+
+        /**
+         * Writes changelog entry.
+         * @param writer Where to write
+         * @param events Events factory
+         * @param date Entry date in UNIX time
+         * @param author Author
+         * @param content Content
+         * @throws XMLStreamException On error
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        private static void changelog(final XMLEventWriter writer, final XMLEventFactory events,
+            final int date, final String author, final String content)
+            throws XMLStreamException {
+            final String tag = "changelog";
+            writer.add(events.createStartElement("", "", tag));
+            writer.add(events.createAttribute("date", String.valueOf(date)));
+            writer.add(events.createAttribute("author", author));
+            writer.add(events.createCharacters(content));
+            writer.add(events.createEndElement("", "", tag));
+        }
     }
 
     /**
@@ -93,9 +179,14 @@ public interface XmlEvent {
      */
     final class Filelists implements XmlEvent {
 
+        /**
+         * Xml events factory.
+         */
+        private static final XMLEventFactory EVENTS = XMLEventFactory.newFactory();
+
         @Override
         public void add(final XMLEventWriter writer, final Package.Meta meta) throws IOException {
-            final XMLEventFactory events = XMLEventFactory.newFactory();
+            final XMLEventFactory events = Filelists.EVENTS;
             try {
                 new PackageAndVersion().add(writer, meta);
                 new Files().add(writer, meta);
@@ -112,6 +203,11 @@ public interface XmlEvent {
      */
     final class Files implements XmlEvent {
 
+        /**
+         * Xml events factory.
+         */
+        private static final XMLEventFactory EVENTS = XMLEventFactory.newFactory();
+
         /**
          * Predicate to filter files. The item is NOT added to the writer if
          * the filter returns TRUE.
@@ -136,7 +232,7 @@ public interface XmlEvent {
 
         @Override
         public void add(final XMLEventWriter writer, final Package.Meta meta) throws IOException {
-            final XMLEventFactory events = XMLEventFactory.newFactory();
+            final XMLEventFactory events = Files.EVENTS;
             final HeaderTags tags = new HeaderTags(meta);
             try {
                 final String[] files = tags.baseNames().toArray(new String[0]);
@@ -30,6 +30,11 @@ import org.cactoos.map.MapOf;
 @SuppressWarnings({"PMD.LongVariable", "PMD.AvoidDuplicateLiterals"})
 public final class XmlEventPrimary implements XmlEvent {
 
+    /**
+     * Xml events factory.
+     */
+    private static final XMLEventFactory EVENTS = XMLEventFactory.newFactory();
+
     /**
      * Legacy prereq dependency.
      */
@@ -58,7 +63,7 @@ public final class XmlEventPrimary implements XmlEvent {
 
     @Override
     public void add(final XMLEventWriter writer, final Package.Meta meta) throws IOException {
-        final XMLEventFactory events = XMLEventFactory.newFactory();
+        final XMLEventFactory events = XmlEventPrimary.EVENTS;
         final HeaderTags tags = new HeaderTags(meta);
         try {
             writer.add(events.createStartElement("", "", "package"));
@@ -140,7 +145,7 @@ public final class XmlEventPrimary implements XmlEvent {
      */
     private static void addProvides(final XMLEventWriter writer, final HeaderTags tags)
         throws XMLStreamException {
-        final XMLEventFactory events = XMLEventFactory.newFactory();
+        final XMLEventFactory events = XmlEventPrimary.EVENTS;
         writer.add(
             events.createStartElement(XmlEventPrimary.PRFX, XmlEventPrimary.NS_URL, "provides")
         );
@@ -175,7 +180,7 @@ public final class XmlEventPrimary implements XmlEvent {
      */
     private static void addRequires(final XMLEventWriter writer, final HeaderTags tags)
         throws XMLStreamException {
-        final XMLEventFactory events = XMLEventFactory.newFactory();
+        final XMLEventFactory events = XmlEventPrimary.EVENTS;
         writer.add(
             events.createStartElement(XmlEventPrimary.PRFX, XmlEventPrimary.NS_URL, "requires")
         );
@@ -235,7 +240,7 @@ public final class XmlEventPrimary implements XmlEvent {
      */
     private static void addElementWithNamespace(final XMLEventWriter writer, final String tag,
         final String chars) throws XMLStreamException {
-        final XMLEventFactory events = XMLEventFactory.newFactory();
+        final XMLEventFactory events = XmlEventPrimary.EVENTS;
         writer.add(events.createStartElement(XmlEventPrimary.PRFX, XmlEventPrimary.NS_URL, tag));
         writer.add(events.createCharacters(chars));
         writer.add(events.createEndElement(XmlEventPrimary.PRFX, XmlEventPrimary.NS_URL, tag));
@@ -251,7 +256,7 @@ public final class XmlEventPrimary implements XmlEvent {
      */
     private static void addElement(final XMLEventWriter writer, final String tag,
         final String chars) throws XMLStreamException {
-        final XMLEventFactory events = XMLEventFactory.newFactory();
+        final XMLEventFactory events = XmlEventPrimary.EVENTS;
         writer.add(events.createStartElement("", "", tag));
         writer.add(events.createCharacters(chars));
         writer.add(events.createEndElement("", "", tag));
@@ -271,7 +276,7 @@ public final class XmlEventPrimary implements XmlEvent {
     private static void addAttributes(final XMLEventWriter writer, final String tag,
         final String namespace, final String prefix, final Map<String, String> attrs)
         throws XMLStreamException {
-        final XMLEventFactory events = XMLEventFactory.newFactory();
+        final XMLEventFactory events = XmlEventPrimary.EVENTS;
         writer.add(events.createStartElement(prefix, namespace, tag));
         for (final Map.Entry<String, String> attr : attrs.entrySet()) {
             writer.add(events.createAttribute(attr.getKey(), attr.getValue()));
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.pkg.Package;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Renders package metadata xml records.
+ * @since 1.10
+ */
+public final class XmlFragments {
+
+    /**
+     * Package records.
+     */
+    private final PackageRecords records;
+
+    /**
+     * Max number of the most recent changelog entries in other.xml record, zero means no limit.
+     */
+    private final int changelog;
+
+    /**
+     * Ctor.
+     * @param meta Package metadata
+     * @param changelog Max number of the most recent changelog entries in other.xml record,
+     *  zero means no limit
+     */
+    public XmlFragments(final Package.Meta meta, final int changelog) {
+        this(new ParsedPackage(meta), changelog);
+    }
+
+    /**
+     * Ctor.
+     * @param records Package records
+     * @param changelog Max number of the most recent changelog entries in other.xml record,
+     *  zero means no limit
+     */
+    public XmlFragments(final PackageRecords records, final int changelog) {
+        this.records = records;
+        this.changelog = changelog;
+    }
+
+    /**
+     * Ctor.
+     * @param meta Package metadata
+     */
+    public XmlFragments(final Package.Meta meta) {
+        this(meta, 0);
+    }
+
+    /**
+     * Renders package records for given metadata types.
+     * @param types Metadata types
+     * @return Rendered package
+     * @throws IOException On error
+     */
+    public RenderedPackage render(final Collection<XmlPackage> types) throws IOException {
+        final Map<XmlPackage, String> res = new EnumMap<>(XmlPackage.class);
+        for (final XmlPackage type : types) {
+            res.put(type, this.records.record(type, this.event(type)));
+        }
+        return new RenderedPackage(this.records.checksum(), this.records.href(), res);
+    }
+
+    /**
+     * Xml event to render record of metadata type with.
+     * @param type Metadata type
+     * @return Xml event
+     */
+    private XmlEvent event(final XmlPackage type) {
+        final XmlEvent res;
+        if (type == XmlPackage.PRIMARY) {
+            res = new XmlEventPrimary();
+        } else if (type == XmlPackage.OTHER) {
+            res = new XmlEvent.Other(this.changelog);
+        } else {
+            res = new XmlEvent.Filelists();
+        }
+        return res;
+    }
+}
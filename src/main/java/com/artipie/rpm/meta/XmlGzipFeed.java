@@ -0,0 +1,177 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.fasterxml.aalto.AsyncByteArrayFeeder;
+import com.fasterxml.aalto.AsyncXMLStreamReader;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import hu.akarnokd.rxjava2.interop.SingleInterop;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.zip.ZipException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.reactivestreams.Publisher;
+
+/**
+ * Non-blocking reader of gzipped xml metadata file. Compressed bytes are inflated and fed
+ * to the Aalto asynchronous parser as they arrive from the publisher, parsed xml events
+ * are passed to the {@link Handler} right away, so no thread waits for the storage while
+ * the file is read. Inflation and parsing run on the given executor, not on the thread
+ * storage emits the content on. Gzip is decoded by {@link GzipFeed}.
+ * @since 1.10
+ */
+public final class XmlGzipFeed {
+
+    /**
+     * Xml input factory.
+     */
+    private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
+    /**
+     * Compressed xml content.
+     */
+    private final Publisher<ByteBuffer> content;
+
+    /**
+     * Executor to inflate and parse the content on.
+     */
+    private final Executor exec;
+
+    /**
+     * Ctor.
+     * @param content Compressed xml content
+     * @param exec Executor to inflate and parse the content on
+     */
+    public XmlGzipFeed(final Publisher<ByteBuffer> content, final Executor exec) {
+        this.content = content;
+        this.exec = exec;
+    }
+
+    /**
+     * Reads xml passing parsed events to the handler.
+     * @param handler Xml events handler
+     * @param <T> Result type
+     * @return Completable action with the handler result
+     */
+    public <T> CompletionStage<T> read(final Handler<T> handler) {
+        return Single.defer(
+            () -> {
+                final Parse<T> parse = new Parse<>(handler);
+                return Flowable.fromPublisher(this.content)
+                    .observeOn(Schedulers.from(this.exec))
+                    .doOnNext(parse::accept)
+                    .ignoreElements()
+                    .andThen(Single.fromCallable(parse::finish))
+                    .doFinally(parse::close);
+            }
+        ).to(SingleInterop.get());
+    }
+
+    /**
+     * Xml events handler.
+     * @param <T> Result type
+     * @since 1.10
+     */
+    public interface Handler<T> {
+
+        /**
+         * Handles xml event, reader is positioned at the event.
+         * @param reader Xml reader
+         * @throws XMLStreamException On error
+         */
+        void accept(XMLStreamReader reader) throws XMLStreamException;
+
+        /**
+         * Result of the xml reading, called once the whole xml is handled.
+         * @return Result
+         */
+        T result();
+    }
+
+    /**
+     * State of the single xml reading.
+     * @param <T> Result type
+     * @since 1.10
+     */
+    private static final class Parse<T> {
+
+        /**
+         * Xml events handler.
+         */
+        private final Handler<T> handler;
+
+        /**
+         * Asynchronous xml reader.
+         */
+        private final AsyncXMLStreamReader<AsyncByteArrayFeeder> reader;
+
+        /**
+         * Gzip decoder.
+         */
+        private final GzipFeed gzip;
+
+        /**
+         * Ctor.
+         * @param handler Xml events handler
+         */
+        Parse(final Handler<T> handler) {
+            this.handler = handler;
+            this.reader = XmlGzipFeed.INPUT.createAsyncForByteArray();
+            this.gzip = new GzipFeed(
+                (bytes, len) -> {
+                    this.reader.getInputFeeder().feedInput(bytes, 0, len);
+                    this.drain();
+                }
+            );
+        }
+
+        /**
+         * Accepts next chunk of the compressed content.
+         * @param chunk Compressed bytes
+         * @throws Exception On error
+         */
+        void accept(final ByteBuffer chunk) throws Exception {
+            this.gzip.accept(chunk);
+        }
+
+        /**
+         * Finishes reading once the whole content is accepted.
+         * @return Handler result
+         * @throws XMLStreamException On error
+         * @throws ZipException If gzip is truncated
+         */
+        T finish() throws XMLStreamException, ZipException {
+            this.gzip.finish();
+            this.reader.getInputFeeder().endOfInput();
+            this.drain();
+            return this.handler.result();
+        }
+
+        /**
+         * Releases inflater and reader.
+         * @throws XMLStreamException On error
+         */
+        void close() throws XMLStreamException {
+            this.gzip.close();
+            this.reader.close();
+        }
+
+        /**
+         * Passes parsed xml events to the handler until reader needs more input.
+         * @throws XMLStreamException On error
+         */
+        private void drain() throws XMLStreamException {
+            while (this.reader.hasNext()
+                && this.reader.next() != AsyncXMLStreamReader.EVENT_INCOMPLETE) {
+                this.handler.accept(this.reader);
+            }
+        }
+    }
+}
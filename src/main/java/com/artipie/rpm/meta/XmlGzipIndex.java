@@ -0,0 +1,183 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Seek index of the metadata compressed as gzip members, see {@link XmlGzipMembers}: each
+ * block of packages records is compressed as separate gzip member, index contains compressed
+ * offset and length of each block along with checksums (pkgid) and locations of the packages
+ * in the block. Locations are known for primary records only. Index allows to find packages
+ * records without inflating the metadata and to inflate only the blocks with required records.
+ * <p>
+ * Text format of the index: line {@code offset length} for each block, followed by the lines
+ * {@code \tpkgid href} for each package in the block.
+ * @since 1.10
+ */
+public final class XmlGzipIndex {
+
+    /**
+     * Blocks.
+     */
+    private final List<Block> blocks;
+
+    /**
+     * Ctor.
+     * @param blocks Blocks
+     */
+    public XmlGzipIndex(final List<Block> blocks) {
+        this.blocks = blocks;
+    }
+
+    /**
+     * Ctor.
+     * @param bytes Index in text format
+     */
+    public XmlGzipIndex(final byte[] bytes) {
+        this(XmlGzipIndex.parse(new String(bytes, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Blocks of the index.
+     * @return Blocks list
+     */
+    public List<Block> blocks() {
+        return Collections.unmodifiableList(this.blocks);
+    }
+
+    /**
+     * Packages count.
+     * @return Count
+     */
+    public long count() {
+        return this.blocks.stream().mapToLong(block -> block.records().size()).sum();
+    }
+
+    /**
+     * Finds checksums (pkgid) of the packages with given locations.
+     * @param locations Locations
+     * @return Checksums
+     */
+    public Collection<String> checksums(final Set<String> locations) {
+        return this.blocks.stream().flatMap(block -> block.records().stream())
+            .filter(rec -> locations.contains(rec.getValue()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Index in text format.
+     * @return Index bytes
+     */
+    public byte[] bytes() {
+        final StringBuilder res = new StringBuilder();
+        for (final Block block : this.blocks) {
+            res.append(block.offset()).append(' ').append(block.length()).append('\n');
+            for (final Map.Entry<String, String> rec : block.records()) {
+                res.append('\t').append(rec.getKey()).append(' ').append(rec.getValue())
+                    .append('\n');
+            }
+        }
+        return res.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses index text.
+     * @param text Index text
+     * @return Blocks
+     */
+    private static List<Block> parse(final String text) {
+        final List<Block> res = new ArrayList<>(0);
+        List<Map.Entry<String, String>> records = new ArrayList<>(0);
+        for (final String line : text.split("\n")) {
+            if (!line.isEmpty() && line.charAt(0) == '\t') {
+                final String[] rec = line.substring(1).split(" ", 2);
+                records.add(new AbstractMap.SimpleImmutableEntry<>(rec[0], rec[1]));
+            } else if (!line.isEmpty()) {
+                final String[] pos = line.split(" ");
+                records = new ArrayList<>(0);
+                res.add(new Block(Long.parseLong(pos[0]), Long.parseLong(pos[1]), records));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Block of packages records, compressed as separate gzip member.
+     * @since 1.10
+     */
+    public static final class Block {
+
+        /**
+         * Compressed offset.
+         */
+        private final long off;
+
+        /**
+         * Compressed length.
+         */
+        private final long len;
+
+        /**
+         * Checksums (pkgid) and locations of the packages in the block.
+         */
+        private final List<Map.Entry<String, String>> recs;
+
+        /**
+         * Ctor.
+         * @param off Compressed offset
+         * @param len Compressed length
+         * @param recs Checksums (pkgid) and locations of the packages in the block, location
+         *  is empty if unknown
+         */
+        public Block(final long off, final long len, final List<Map.Entry<String, String>> recs) {
+            this.off = off;
+            this.len = len;
+            this.recs = recs;
+        }
+
+        /**
+         * Compressed offset of the block.
+         * @return Offset
+         */
+        public long offset() {
+            return this.off;
+        }
+
+        /**
+         * Compressed length of the block.
+         * @return Length
+         */
+        public long length() {
+            return this.len;
+        }
+
+        /**
+         * Checksums (pkgid) and locations of the packages in the block in the records order.
+         * @return Records list
+         */
+        public List<Map.Entry<String, String>> records() {
+            return Collections.unmodifiableList(this.recs);
+        }
+
+        /**
+         * Block moved by given number of bytes.
+         * @param delta Number of bytes
+         * @return Moved block
+         */
+        Block moved(final long delta) {
+            return new Block(this.off + delta, this.len, this.recs);
+        }
+    }
+}
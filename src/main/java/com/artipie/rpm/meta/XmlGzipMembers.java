@@ -0,0 +1,810 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.RepoConfig;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import com.google.common.io.CountingOutputStream;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Metadata xml compressed as multi-member gzip. The first member contains xml declaration
+ * and root element start tag with packages count, packages records are compressed in blocks of
+ * up to {@link #BLOCK} records, each block is a separate member, the last member contains root
+ * element closing tag. Header of the first member has extra field with the compressed length
+ * of the last member. Members are independent access points described by
+ * {@link XmlGzipIndex}: packages can be appended to the compressed metadata by copying
+ * existing blocks as is, packages can be removed by compressing again only the blocks
+ * with removed records. Such files are read by any gzip reader as usual.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+public final class XmlGzipMembers {
+
+    /**
+     * Number of the compressed metadata first bytes required to check the layout,
+     * see {@link #layout(byte[])}.
+     */
+    public static final int HEAD = 20;
+
+    /**
+     * Buffer size.
+     */
+    private static final int BUF = 8 * 1024;
+
+    /**
+     * Max number of packages records in one block.
+     */
+    private static final int BLOCK = 512;
+
+    /**
+     * Min number of the extra blocks, which metadata can have in comparison with the compactly
+     * compressed metadata and still be appended to, see {@link #appendable(XmlGzipIndex)}.
+     */
+    private static final int FRAGMENTS = 16;
+
+    /**
+     * Package record closing tag.
+     */
+    private static final byte[] END = "</package>".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Xml input factory.
+     */
+    private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
+    /**
+     * Gzip member header without extra field.
+     */
+    private static final byte[] PLAIN = {
+        0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff,
+    };
+
+    /**
+     * Metadata type.
+     */
+    private final XmlPackage type;
+
+    /**
+     * Max number of the most recent changelog entries in other.xml records of the appended
+     * packages, zero means no limit.
+     */
+    private final int changelog;
+
+    /**
+     * Deflaters pool.
+     */
+    private final GzipMember.Pool deflaters;
+
+    /**
+     * Ctor.
+     * @param type Metadata type
+     * @param changelog Max number of the most recent changelog entries in other.xml records
+     *  of the appended packages, zero means no limit
+     * @param deflaters Deflaters pool
+     */
+    public XmlGzipMembers(final XmlPackage type, final int changelog,
+        final GzipMember.Pool deflaters) {
+        this.type = type;
+        this.changelog = changelog;
+        this.deflaters = deflaters;
+    }
+
+    /**
+     * Ctor.
+     * @param type Metadata type
+     * @param cnfg Repository config: changelog limit and parallelism to size deflaters
+     *  pool by
+     */
+    public XmlGzipMembers(final XmlPackage type, final RepoConfig cnfg) {
+        this(type, cnfg.changelogLimit(), GzipMember.Pool.shared(cnfg.parallelism() * 2));
+    }
+
+    /**
+     * Ctor.
+     * @param type Metadata type
+     * @param changelog Max number of the most recent changelog entries in other.xml records
+     *  of the appended packages, zero means no limit
+     */
+    public XmlGzipMembers(final XmlPackage type, final int changelog) {
+        this(
+            type, changelog,
+            GzipMember.Pool.shared(Runtime.getRuntime().availableProcessors() * 2)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param type Metadata type
+     */
+    public XmlGzipMembers(final XmlPackage type) {
+        this(type, 0);
+    }
+
+    /**
+     * Compresses metadata xml as gzip members.
+     * @param xml Metadata xml
+     * @param gzip Where to write compressed metadata
+     * @return Seek index of the compressed metadata
+     * @throws IOException On error
+     */
+    public XmlGzipIndex compress(final InputStream xml, final OutputStream gzip)
+        throws IOException {
+        final InputStream input = new BufferedInputStream(xml);
+        final CountingOutputStream out = new CountingOutputStream(gzip);
+        final byte[] footer = this.footer();
+        final byte[] start = XmlGzipMembers.start(input);
+        this.member(out, XmlGzipMembers.header(footer.length), start);
+        final XmlGzipIndex res;
+        try (Blocks blocks = new Blocks(out, this.deflaters)) {
+            final ByteArrayOutputStream rec = new ByteArrayOutputStream();
+            final byte[] buf = new byte[XmlGzipMembers.BUF];
+            int matched = 0;
+            while (true) {
+                final int len = input.read(buf);
+                if (len < 0) {
+                    break;
+                }
+                int from = 0;
+                for (int idx = 0; idx < len; idx = idx + 1) {
+                    matched = XmlGzipMembers.match(matched, buf[idx]);
+                    if (matched == XmlGzipMembers.END.length) {
+                        rec.write(buf, from, idx + 1 - from);
+                        final byte[] bytes = rec.toByteArray();
+                        blocks.add(bytes, this.record(start, bytes));
+                        rec.reset();
+                        from = idx + 1;
+                        matched = 0;
+                    }
+                }
+                rec.write(buf, from, len - from);
+            }
+            final byte[] tail = rec.toByteArray();
+            int end = tail.length;
+            while (end > 0 && Character.isWhitespace(tail[end - 1])) {
+                end = end - 1;
+            }
+            final byte[] closing = this.closing();
+            if (end < closing.length
+                || !Arrays.equals(Arrays.copyOfRange(tail, end - closing.length, end), closing)) {
+                throw new IOException(
+                    String.format("Closing tag of %s element not found", this.type.tag())
+                );
+            }
+            blocks.write(Arrays.copyOf(tail, end - closing.length));
+            res = new XmlGzipIndex(blocks.blocks());
+        }
+        out.write(footer);
+        out.flush();
+        return res;
+    }
+
+    /**
+     * Appends packages to metadata compressed as gzip members. Existing packages members are
+     * copied as is, only new packages are compressed.
+     * @param gzip Metadata compressed as gzip members
+     * @param out Where to write resulting metadata
+     * @param packages Packages to append
+     * @param index Seek index of the metadata
+     * @return Seek index of the resulting metadata
+     * @throws IOException On error or if metadata is not compressed as gzip members
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public XmlGzipIndex append(final InputStream gzip, final OutputStream out,
+        final Collection<? extends PackageRecords> packages, final XmlGzipIndex index)
+        throws IOException {
+        final PushbackInputStream input = new PushbackInputStream(gzip, XmlGzipMembers.BUF);
+        final int length = XmlGzipMembers.footer(input).orElseThrow(
+            () -> new IOException("Metadata is not compressed as gzip members")
+        );
+        final long head = XmlGzipMembers.HEAD + XmlGzipMembers.skip(input);
+        XmlGzipMembers.check(index, head);
+        final CountingOutputStream cnt = new CountingOutputStream(out);
+        final byte[] footer = this.footer();
+        this.member(
+            cnt, XmlGzipMembers.header(footer.length),
+            this.start(index.count() + packages.size())
+        );
+        final long delta = cnt.getCount() - head;
+        if (XmlGzipMembers.copy(input, cnt, length).length != length) {
+            throw new EOFException("Unexpected end of the compressed metadata");
+        }
+        final XmlGzipIndex res;
+        try (Blocks blocks = new Blocks(cnt, this.deflaters)) {
+            for (final XmlGzipIndex.Block block : index.blocks()) {
+                blocks.copied(block.moved(delta));
+            }
+            for (final PackageRecords pkg : packages) {
+                String href = "";
+                if (this.type == XmlPackage.PRIMARY) {
+                    href = pkg.href();
+                }
+                blocks.add(
+                    new XmlFragments(pkg, this.changelog)
+                        .render(Collections.singletonList(this.type))
+                        .fragment(this.type).get().getBytes(StandardCharsets.UTF_8),
+                    new AbstractMap.SimpleImmutableEntry<>(pkg.checksum().hex(), href)
+                );
+            }
+            res = new XmlGzipIndex(blocks.blocks());
+        }
+        cnt.write(footer);
+        cnt.flush();
+        return res;
+    }
+
+    /**
+     * Removes packages from metadata compressed as gzip members. Only blocks containing
+     * removed packages records are inflated and compressed again, other blocks are copied as is.
+     * @param gzip Metadata compressed as gzip members
+     * @param out Where to write resulting metadata
+     * @param index Seek index of the metadata
+     * @param checksums Checksums (pkgid) of the packages to remove
+     * @return Seek index of the resulting metadata
+     * @throws IOException On error or if metadata is not compressed as gzip members
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public XmlGzipIndex remove(final InputStream gzip, final OutputStream out,
+        final XmlGzipIndex index, final Collection<String> checksums) throws IOException {
+        final Set<String> ids = new HashSet<>(checksums);
+        final PushbackInputStream input = new PushbackInputStream(gzip, XmlGzipMembers.BUF);
+        if (!XmlGzipMembers.footer(input).isPresent()) {
+            throw new IOException("Metadata is not compressed as gzip members");
+        }
+        long pos = XmlGzipMembers.HEAD + XmlGzipMembers.skip(input);
+        XmlGzipMembers.check(index, pos);
+        final CountingOutputStream cnt = new CountingOutputStream(out);
+        final byte[] footer = this.footer();
+        this.member(
+            cnt, XmlGzipMembers.header(footer.length),
+            this.start(
+                index.count() - index.blocks().stream().flatMap(block -> block.records().stream())
+                    .filter(rec -> ids.contains(rec.getKey())).count()
+            )
+        );
+        final XmlGzipIndex res;
+        try (Blocks blocks = new Blocks(cnt, this.deflaters)) {
+            for (final XmlGzipIndex.Block block : index.blocks()) {
+                if (block.offset() != pos) {
+                    throw new IOException("Seek index does not match compressed metadata");
+                }
+                final byte[] data = XmlGzipMembers.read(input, (int) block.length());
+                if (data.length != block.length()) {
+                    throw new EOFException("Unexpected end of the compressed metadata");
+                }
+                pos = pos + block.length();
+                if (block.records().stream().anyMatch(rec -> ids.contains(rec.getKey()))) {
+                    XmlGzipMembers.filter(data, block, ids, blocks);
+                } else {
+                    blocks.copy(block, data);
+                }
+            }
+            res = new XmlGzipIndex(blocks.blocks());
+        }
+        cnt.write(footer);
+        cnt.flush();
+        return res;
+    }
+
+    /**
+     * Checks whether packages can be appended to the metadata. Each append compresses new
+     * packages into new blocks, which are usually much smaller than {@link #BLOCK} records,
+     * so metadata becomes fragmented with appends. Packages can be appended while the number
+     * of extra blocks in comparison with compactly compressed metadata does not exceed
+     * the number of compact blocks or {@link #FRAGMENTS}, whichever is greater, otherwise
+     * metadata should be merged and compressed compactly again.
+     * @param index Seek index of the metadata
+     * @return True if packages can be appended
+     */
+    public static boolean appendable(final XmlGzipIndex index) {
+        final long compact = (index.count() + XmlGzipMembers.BLOCK - 1) / XmlGzipMembers.BLOCK;
+        return index.blocks().size() - compact
+            <= Math.max(compact, XmlGzipMembers.FRAGMENTS);
+    }
+
+    /**
+     * Checks whether metadata is compressed as gzip members.
+     * @param head First {@link #HEAD} bytes of the compressed metadata
+     * @return True if metadata is compressed as gzip members
+     */
+    public static boolean layout(final byte[] head) {
+        boolean res = false;
+        if (head.length >= XmlGzipMembers.HEAD) {
+            try {
+                res = XmlGzipMembers.footer(new ByteArrayInputStream(head)).isPresent();
+            } catch (final IOException ignored) {
+                res = false;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Renders xml declaration and root element start tag.
+     * @param count Packages count
+     * @return Xml bytes
+     * @throws IOException On error
+     */
+    private byte[] start(final long count) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try {
+            final XMLEventWriter writer = PackageFragments.writer(PackageFragments.stream(res));
+            MergedXmlPackage.startDocument(writer, String.valueOf(count), this.type);
+            writer.flush();
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Compresses root element closing tag as gzip member.
+     * @return Compressed member
+     * @throws IOException On error
+     */
+    private byte[] footer() throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        this.member(res, XmlGzipMembers.PLAIN, this.closing());
+        return res.toByteArray();
+    }
+
+    /**
+     * Root element closing tag.
+     * @return Tag bytes
+     */
+    private byte[] closing() {
+        return String.format("</%s>", this.type.tag()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads xml up to the end of the root element start tag.
+     * @param input Xml input
+     * @return Xml bytes
+     * @throws IOException On error
+     */
+    private static byte[] start(final InputStream input) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        int prev = 0;
+        int kind = 0;
+        while (true) {
+            final int next = input.read();
+            if (next < 0) {
+                throw new EOFException("Metadata root element not found");
+            }
+            res.write(next);
+            if (prev == '<') {
+                kind = next;
+            }
+            if (next == '>' && kind != 0 && kind != '?' && kind != '!') {
+                break;
+            }
+            prev = next;
+        }
+        return res.toByteArray();
+    }
+
+    /**
+     * Copies input to output except of the last bytes.
+     * @param input Input
+     * @param out Output
+     * @param keep Number of the last bytes to keep
+     * @return Last bytes of the input, not written to output
+     * @throws IOException On error
+     */
+    private static byte[] copy(final InputStream input, final OutputStream out, final int keep)
+        throws IOException {
+        final byte[] buf = new byte[XmlGzipMembers.BUF + keep];
+        int size = 0;
+        while (true) {
+            final int len = input.read(buf, size, buf.length - size);
+            if (len < 0) {
+                break;
+            }
+            size = size + len;
+            if (size > keep) {
+                out.write(buf, 0, size - keep);
+                System.arraycopy(buf, size - keep, buf, 0, keep);
+                size = keep;
+            }
+        }
+        return Arrays.copyOf(buf, size);
+    }
+
+    /**
+     * Obtains checksum (pkgid) and location of the package from the record. Record is parsed
+     * within the root element start tag, so that namespaces are declared and entities in
+     * the attributes and texts are resolved: values are compared with the unescaped ones
+     * of the appended and removed packages.
+     * @param start Xml declaration and root element start tag
+     * @param record Package record
+     * @return Checksum and location, location is empty if unknown
+     * @throws IOException On error
+     */
+    private Map.Entry<String, String> record(final byte[] start, final byte[] record)
+        throws IOException {
+        String checksum = "";
+        String href = "";
+        try {
+            final XMLStreamReader reader = XmlGzipMembers.INPUT.createXMLStreamReader(
+                new SequenceInputStream(
+                    Collections.enumeration(
+                        Arrays.asList(
+                            new ByteArrayInputStream(start), new ByteArrayInputStream(record),
+                            new ByteArrayInputStream(this.closing())
+                        )
+                    )
+                )
+            );
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        final String name = reader.getLocalName();
+                        final boolean primary = this.type == XmlPackage.PRIMARY;
+                        if (!primary && "package".equals(name)) {
+                            checksum = Optional.ofNullable(
+                                reader.getAttributeValue(null, "pkgid")
+                            ).orElse("");
+                        } else if (primary && "checksum".equals(name) && checksum.isEmpty()) {
+                            checksum = reader.getElementText().trim();
+                        } else if (primary && "location".equals(name) && href.isEmpty()) {
+                            href = Optional.ofNullable(reader.getAttributeValue(null, "href"))
+                                .orElse("");
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException err) {
+            throw new IOException(err);
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(checksum, href);
+    }
+
+    /**
+     * Inflates block and adds its records, except of the removed ones, to the blocks.
+     * @param data Compressed block
+     * @param block Block index
+     * @param ids Checksums (pkgid) of the packages to remove
+     * @param blocks Blocks to add records to
+     * @throws IOException On error
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static void filter(final byte[] data, final XmlGzipIndex.Block block,
+        final Set<String> ids, final Blocks blocks) throws IOException {
+        final String text = new String(
+            IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(data))),
+            StandardCharsets.UTF_8
+        );
+        final String end = new String(XmlGzipMembers.END, StandardCharsets.UTF_8);
+        int from = 0;
+        for (final Map.Entry<String, String> rec : block.records()) {
+            final int idx = text.indexOf(end, from);
+            if (idx < 0) {
+                throw new IOException("Seek index does not match compressed metadata");
+            }
+            final int next = idx + end.length();
+            if (!ids.contains(rec.getKey())) {
+                blocks.add(text.substring(from, next).getBytes(StandardCharsets.UTF_8), rec);
+            }
+            from = next;
+        }
+        blocks.write(text.substring(from).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks that first block of the index starts right after the first member.
+     * @param index Seek index
+     * @param head Length of the first member
+     * @throws IOException If index does not match
+     */
+    private static void check(final XmlGzipIndex index, final long head) throws IOException {
+        if (!index.blocks().isEmpty() && index.blocks().get(0).offset() != head) {
+            throw new IOException("Seek index does not match compressed metadata");
+        }
+    }
+
+    /**
+     * Matches next byte of the package record closing tag.
+     * @param matched Number of the already matched bytes
+     * @param next Next byte
+     * @return Number of the matched bytes
+     */
+    private static int match(final int matched, final byte next) {
+        final int res;
+        if (next == XmlGzipMembers.END[matched]) {
+            res = matched + 1;
+        } else if (next == XmlGzipMembers.END[0]) {
+            res = 1;
+        } else {
+            res = 0;
+        }
+        return res;
+    }
+
+    /**
+     * Reads gzip member header and obtains compressed length of the last member
+     * from the extra field.
+     * @param input Compressed metadata
+     * @return Length of the last member, empty if header has no such extra field
+     * @throws IOException On error
+     */
+    private static Optional<Integer> footer(final InputStream input) throws IOException {
+        final byte[] head = XmlGzipMembers.read(input, 12);
+        Optional<Integer> res = Optional.empty();
+        if (head[0] == XmlGzipMembers.PLAIN[0] && head[1] == XmlGzipMembers.PLAIN[1]
+            && head[2] == Deflater.DEFLATED && head[3] == 4) {
+            final byte[] extra = XmlGzipMembers.read(input, XmlGzipMembers.short16(head, 10));
+            if (extra.length == 8 && extra[0] == 'A' && extra[1] == 'M'
+                && XmlGzipMembers.short16(extra, 2) == 4) {
+                res = Optional.of(
+                    XmlGzipMembers.short16(extra, 4) | XmlGzipMembers.short16(extra, 6) << 16
+                );
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Skips compressed data and trailer of the gzip member.
+     * @param input Compressed metadata, positioned at the member data start
+     * @return Number of skipped bytes
+     * @throws IOException On error
+     */
+    private static long skip(final PushbackInputStream input) throws IOException {
+        final Inflater inflater = new Inflater(true);
+        final long res;
+        try {
+            final byte[] buf = new byte[XmlGzipMembers.BUF];
+            final byte[] data = new byte[XmlGzipMembers.BUF];
+            int len = 0;
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    len = input.read(buf);
+                    if (len < 0) {
+                        throw new EOFException("Unexpected end of the gzip member");
+                    }
+                    inflater.setInput(buf, 0, len);
+                }
+                inflater.inflate(data);
+            }
+            input.unread(buf, len - inflater.getRemaining(), inflater.getRemaining());
+            res = inflater.getBytesRead() + 8;
+        } catch (final DataFormatException err) {
+            throw new IOException(err);
+        } finally {
+            inflater.end();
+        }
+        if (XmlGzipMembers.read(input, 8).length != 8) {
+            throw new EOFException("Unexpected end of the gzip member trailer");
+        }
+        return res;
+    }
+
+    /**
+     * Gzip member header with extra field containing compressed length of the last member.
+     * @param footer Compressed length of the last member
+     * @return Header bytes
+     */
+    private static byte[] header(final int footer) {
+        return new byte[] {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 4, 0, 0, 0, 0, 0, (byte) 0xff,
+            8, 0, 'A', 'M', 4, 0,
+            (byte) footer, (byte) (footer >>> 8), (byte) (footer >>> 16), (byte) (footer >>> 24),
+        };
+    }
+
+    /**
+     * Writes gzip member.
+     * @param out Output
+     * @param header Member header
+     * @param data Data to compress
+     * @throws IOException On error
+     */
+    private void member(final OutputStream out, final byte[] header, final byte[] data)
+        throws IOException {
+        try (GzipMember member = new GzipMember(out, header, this.deflaters)) {
+            member.write(data);
+            member.finish();
+        }
+    }
+
+    /**
+     * Reads bytes, less bytes are returned if input ends.
+     * @param input Input
+     * @param count Number of bytes to read
+     * @return Bytes
+     * @throws IOException On error
+     */
+    private static byte[] read(final InputStream input, final int count) throws IOException {
+        final byte[] res = new byte[count];
+        int size = 0;
+        while (size < count) {
+            final int len = input.read(res, size, count - size);
+            if (len < 0) {
+                break;
+            }
+            size = size + len;
+        }
+        return Arrays.copyOf(res, size);
+    }
+
+    /**
+     * Reads little-endian unsigned short.
+     * @param bytes Bytes
+     * @param pos Position
+     * @return Value
+     */
+    private static int short16(final byte[] bytes, final int pos) {
+        return bytes[pos] & 0xff | (bytes[pos + 1] & 0xff) << 8;
+    }
+
+    /**
+     * Blocks of packages records writer: each block is written as separate gzip member.
+     * Writer should be closed after use to release the member of the unfinished block.
+     * @since 1.10
+     */
+    private static final class Blocks implements Closeable {
+
+        /**
+         * Output.
+         */
+        private final CountingOutputStream out;
+
+        /**
+         * Deflaters pool.
+         */
+        private final GzipMember.Pool deflaters;
+
+        /**
+         * Written blocks.
+         */
+        private final List<XmlGzipIndex.Block> res;
+
+        /**
+         * Current block records.
+         */
+        private List<Map.Entry<String, String>> recs;
+
+        /**
+         * Current block member.
+         */
+        private Optional<GzipMember> member;
+
+        /**
+         * Current block offset.
+         */
+        private long start;
+
+        /**
+         * Ctor.
+         * @param out Output
+         * @param deflaters Deflaters pool
+         */
+        Blocks(final CountingOutputStream out, final GzipMember.Pool deflaters) {
+            this.out = out;
+            this.deflaters = deflaters;
+            this.res = new ArrayList<>(1);
+            this.recs = new ArrayList<>(0);
+            this.member = Optional.empty();
+        }
+
+        /**
+         * Adds package record to the current block.
+         * @param record Record bytes
+         * @param rec Checksum (pkgid) and location of the package
+         * @throws IOException On error
+         */
+        void add(final byte[] record, final Map.Entry<String, String> rec) throws IOException {
+            this.write(record);
+            this.recs.add(rec);
+            if (this.recs.size() >= XmlGzipMembers.BLOCK) {
+                this.seal();
+            }
+        }
+
+        /**
+         * Writes bytes, which are not packages records, to the current block.
+         * @param data Bytes
+         * @throws IOException On error
+         */
+        void write(final byte[] data) throws IOException {
+            if (data.length > 0) {
+                if (!this.member.isPresent()) {
+                    this.start = this.out.getCount();
+                    this.member = Optional.of(
+                        new GzipMember(this.out, XmlGzipMembers.PLAIN, this.deflaters)
+                    );
+                }
+                this.member.get().write(data);
+            }
+        }
+
+        /**
+         * Writes compressed block as is.
+         * @param block Block index
+         * @param data Compressed block
+         * @throws IOException On error
+         */
+        void copy(final XmlGzipIndex.Block block, final byte[] data) throws IOException {
+            this.seal();
+            final long pos = this.out.getCount();
+            this.out.write(data);
+            this.res.add(block.moved(pos - block.offset()));
+        }
+
+        /**
+         * Adds block, which was already written to the output.
+         * @param block Block index
+         * @throws IOException On error
+         */
+        void copied(final XmlGzipIndex.Block block) throws IOException {
+            this.seal();
+            this.res.add(block);
+        }
+
+        /**
+         * Finishes current block and returns written blocks.
+         * @return Blocks
+         * @throws IOException On error
+         */
+        List<XmlGzipIndex.Block> blocks() throws IOException {
+            this.seal();
+            return this.res;
+        }
+
+        /**
+         * Releases current block member, if it was not finished because of a failure.
+         */
+        @Override
+        public void close() {
+            this.member.ifPresent(GzipMember::close);
+        }
+
+        /**
+         * Finishes current block.
+         * @throws IOException On error
+         */
+        private void seal() throws IOException {
+            if (this.member.isPresent()) {
+                this.member.get().finish();
+                this.res.add(
+                    new XmlGzipIndex.Block(this.start, this.out.getCount() - this.start, this.recs)
+                );
+                this.member = Optional.empty();
+                this.recs = new ArrayList<>(0);
+            }
+        }
+    }
+}
@@ -81,6 +81,16 @@ public interface XmlMaid {
          */
         public static final class Stream implements XmlMaid {
 
+            /**
+             * Xml input factory.
+             */
+            private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
+            /**
+             * Xml output factory.
+             */
+            private static final OutputFactoryImpl OUTPUT = new OutputFactoryImpl();
+
             /**
              * Input.
              */
@@ -103,12 +113,13 @@ public interface XmlMaid {
 
             @Override
             public long clean(final Collection<String> ids) throws IOException {
+                final CleanEvent jfr = new CleanEvent("pkgid", ids.size());
                 final long res;
                 try {
                     final XMLEventReader reader =
-                        new InputFactoryImpl().createXMLEventReader(this.input);
+                        Stream.INPUT.createXMLEventReader(this.input);
                     final XMLEventWriter writer =
-                        new OutputFactoryImpl().createXMLEventWriter(this.out);
+                        Stream.OUTPUT.createXMLEventWriter(this.out);
                     try {
                         res = Stream.process(ids, reader, writer);
                     } finally {
@@ -118,6 +129,7 @@ public interface XmlMaid {
                 } catch (final XMLStreamException err) {
                     throw new IOException(err);
                 }
+                jfr.record(res);
                 return res;
             }
 
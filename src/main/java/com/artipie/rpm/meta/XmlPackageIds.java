@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.misc.UncheckedIOConsumer;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Extracts packages checksums (`pkgid` attribute of the `package` tag) from
+ * filelists or other xml.
+ * @since 1.10
+ */
+public final class XmlPackageIds {
+
+    /**
+     * Xml input factory.
+     */
+    private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
+    /**
+     * Xml input stream.
+     */
+    private final InputStream inp;
+
+    /**
+     * Ctor.
+     * @param inp Xml input stream
+     */
+    public XmlPackageIds(final InputStream inp) {
+        this.inp = inp;
+    }
+
+    /**
+     * Reads xml.
+     * @return Set of packages checksums
+     */
+    public Set<String> read() {
+        final Set<String> res = new HashSet<>();
+        try {
+            final XMLStreamReader reader = XmlPackageIds.INPUT.createXMLStreamReader(this.inp);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                    && XmlMaid.ByPkgidAttr.TAG.equals(reader.getLocalName())) {
+                    res.add(reader.getAttributeValue(null, "pkgid"));
+                }
+            }
+            reader.close();
+        } catch (final XMLStreamException err) {
+            throw new ArtipieIOException(err);
+        } finally {
+            Optional.of(this.inp).ifPresent(new UncheckedIOConsumer<>(InputStream::close));
+        }
+        return res;
+    }
+
+    /**
+     * Extracts packages checksums from the xml events, see {@link XmlGzipFeed}.
+     * @since 1.10
+     */
+    public static final class Events implements XmlGzipFeed.Handler<Set<String>> {
+
+        /**
+         * Packages checksums.
+         */
+        private final Set<String> res;
+
+        /**
+         * Ctor.
+         */
+        public Events() {
+            this.res = new HashSet<>();
+        }
+
+        @Override
+        public void accept(final XMLStreamReader reader) {
+            if (reader.getEventType() == XMLStreamConstants.START_ELEMENT
+                && XmlMaid.ByPkgidAttr.TAG.equals(reader.getLocalName())) {
+                this.res.add(reader.getAttributeValue(null, "pkgid"));
+            }
+        }
+
+        @Override
+        public Set<String> result() {
+            return this.res;
+        }
+    }
+}
@@ -14,17 +14,26 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.XMLEvent;
 
 /**
- * Extracts packages names and checksums from primary xml.
+ * Extracts packages names and checksums from primary xml. To read gzipped primary
+ * without blocking use {@link XmlGzipFeed} with {@link XmlPrimaryChecksums.Events}.
  * @since 0.8
  */
 public final class XmlPrimaryChecksums {
 
+    /**
+     * Xml input factory.
+     */
+    private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
     /**
      * File path.
      */
@@ -53,7 +62,7 @@ public final class XmlPrimaryChecksums {
     public Map<String, String> read() {
         final Map<String, String> res = new HashMap<>();
         try {
-            final XMLEventReader reader = new InputFactoryImpl().createXMLEventReader(this.inp);
+            final XMLEventReader reader = XmlPrimaryChecksums.INPUT.createXMLEventReader(this.inp);
             XMLEvent event;
             String name = "";
             String checksum = "";
@@ -90,4 +99,70 @@ public final class XmlPrimaryChecksums {
         return event.isStartElement()
             && event.asStartElement().getName().getLocalPart().equals(tag);
     }
+
+    /**
+     * Extracts packages names and checksums from the primary xml events, see
+     * {@link XmlGzipFeed}. Checksum text may be split into several events by
+     * the asynchronous parser, so it is collected until the tag end.
+     * @since 1.10
+     */
+    public static final class Events implements XmlGzipFeed.Handler<Map<String, String>> {
+
+        /**
+         * Packages names and checksums.
+         */
+        private final Map<String, String> res;
+
+        /**
+         * Current package name.
+         */
+        private final StringBuilder name;
+
+        /**
+         * Current package checksum.
+         */
+        private final StringBuilder checksum;
+
+        /**
+         * Is checksum tag being read?
+         */
+        private final AtomicBoolean text;
+
+        /**
+         * Ctor.
+         */
+        public Events() {
+            this.res = new HashMap<>();
+            this.name = new StringBuilder();
+            this.checksum = new StringBuilder();
+            this.text = new AtomicBoolean();
+        }
+
+        @Override
+        public void accept(final XMLStreamReader reader) {
+            final int event = reader.getEventType();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if ("location".equals(reader.getLocalName())) {
+                    this.name.setLength(0);
+                    this.name.append(reader.getAttributeValue(null, "href"));
+                } else if ("checksum".equals(reader.getLocalName())) {
+                    this.checksum.setLength(0);
+                    this.text.set(true);
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS && this.text.get()) {
+                this.checksum.append(reader.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if ("checksum".equals(reader.getLocalName())) {
+                    this.text.set(false);
+                } else if ("package".equals(reader.getLocalName())) {
+                    this.res.put(this.name.toString(), this.checksum.toString());
+                }
+            }
+        }
+
+        @Override
+        public Map<String, String> result() {
+            return this.res;
+        }
+    }
 }
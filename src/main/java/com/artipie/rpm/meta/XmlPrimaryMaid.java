@@ -30,6 +30,21 @@ import javax.xml.stream.events.XMLEvent;
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public final class XmlPrimaryMaid implements XmlMaid {
 
+    /**
+     * Xml input factory.
+     */
+    private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
+    /**
+     * Xml output factory.
+     */
+    private static final OutputFactoryImpl OUTPUT = new OutputFactoryImpl();
+
+    /**
+     * Xml events factory.
+     */
+    private static final XMLEventFactory EVENTS = XMLEventFactory.newFactory();
+
     /**
      * File to clear.
      */
@@ -89,14 +104,15 @@ public final class XmlPrimaryMaid implements XmlMaid {
 
         @Override
         public long clean(final Collection<String> ids) throws IOException {
+            final CleanEvent jfr = new CleanEvent(XmlPackage.PRIMARY.lowercase(), ids.size());
             final long res;
             try {
                 final XMLEventReader reader =
-                    new InputFactoryImpl().createXMLEventReader(this.input);
+                    XmlPrimaryMaid.INPUT.createXMLEventReader(this.input);
                 final XMLEventWriter writer =
-                    new OutputFactoryImpl().createXMLEventWriter(this.out);
+                    XmlPrimaryMaid.OUTPUT.createXMLEventWriter(this.out);
                 try {
-                    final XMLEventFactory events = XMLEventFactory.newFactory();
+                    final XMLEventFactory events = XmlPrimaryMaid.EVENTS;
                     MergedXmlPackage.startDocument(writer, "-1", XmlPackage.PRIMARY);
                     res = Stream.processPackages(ids, reader, writer);
                     writer.add(events.createSpace("\n"));
@@ -112,6 +128,7 @@ public final class XmlPrimaryMaid implements XmlMaid {
             } catch (final XMLStreamException err) {
                 throw new IOException(err);
             }
+            jfr.record(res);
             return res;
         }
 
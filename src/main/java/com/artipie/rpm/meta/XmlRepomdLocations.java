@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.misc.UncheckedIOConsumer;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Extracts metadata types and locations or checksums from repomd xml.
+ * @since 1.10
+ */
+public final class XmlRepomdLocations {
+
+    /**
+     * Xml input factory.
+     */
+    private static final InputFactoryImpl INPUT = new InputFactoryImpl();
+
+    /**
+     * Number of the `data` tag children elements.
+     */
+    private static final int ENTRY = 6;
+
+    /**
+     * Repomd input stream.
+     */
+    private final InputStream inp;
+
+    /**
+     * Ctor.
+     * @param inp Repomd input stream
+     */
+    public XmlRepomdLocations(final InputStream inp) {
+        this.inp = inp;
+    }
+
+    /**
+     * Reads xml.
+     * @return Map of metadata types (`data` tag `type` attribute) and locations hrefs.
+     */
+    public Map<String, String> read() {
+        final Map<String, String> res = new HashMap<>(3);
+        try {
+            final XMLEventReader reader = XmlRepomdLocations.INPUT.createXMLEventReader(this.inp);
+            XMLEvent event;
+            String type = "";
+            while (reader.hasNext()) {
+                event = reader.nextEvent();
+                if (XmlRepomdLocations.isTag(event, "data")) {
+                    type = event.asStartElement().getAttributeByName(new QName("type"))
+                        .getValue();
+                }
+                if (XmlRepomdLocations.isTag(event, "location")) {
+                    res.put(
+                        type,
+                        event.asStartElement().getAttributeByName(new QName("href")).getValue()
+                    );
+                }
+            }
+            reader.close();
+        } catch (final XMLStreamException err) {
+            throw new ArtipieIOException(err);
+        } finally {
+            Optional.of(this.inp).ifPresent(new UncheckedIOConsumer<>(InputStream::close));
+        }
+        return res;
+    }
+
+    /**
+     * Reads metadata files checksums.
+     * @return Map of metadata types (`data` tag `type` attribute) and compressed metadata
+     *  files checksums
+     */
+    public Map<String, String> checksums() {
+        final Map<String, String> res = new HashMap<>(3);
+        try {
+            final XMLEventReader reader = XmlRepomdLocations.INPUT.createXMLEventReader(this.inp);
+            XMLEvent event;
+            String type = "";
+            while (reader.hasNext()) {
+                event = reader.nextEvent();
+                if (XmlRepomdLocations.isTag(event, "data")) {
+                    type = event.asStartElement().getAttributeByName(new QName("type"))
+                        .getValue();
+                }
+                if (XmlRepomdLocations.isTag(event, "checksum")) {
+                    event = reader.nextEvent();
+                    res.put(type, event.asCharacters().getData().trim());
+                }
+            }
+            reader.close();
+        } catch (final XMLStreamException err) {
+            throw new ArtipieIOException(err);
+        } finally {
+            Optional.of(this.inp).ifPresent(new UncheckedIOConsumer<>(InputStream::close));
+        }
+        return res;
+    }
+
+    /**
+     * Reads metadata files entries.
+     * @return Map of metadata types (`data` tag `type` attribute) and entries: text of
+     *  `data` tag children elements by element name, `location` value is the location href
+     */
+    public Map<String, Map<String, String>> entries() {
+        final Map<String, Map<String, String>> res = new HashMap<>(3);
+        try {
+            final XMLEventReader reader = XmlRepomdLocations.INPUT.createXMLEventReader(this.inp);
+            XMLEvent event;
+            Map<String, String> data = new HashMap<>(0);
+            while (reader.hasNext()) {
+                event = reader.nextEvent();
+                if (XmlRepomdLocations.isTag(event, "data")) {
+                    data = new HashMap<>(XmlRepomdLocations.ENTRY);
+                    res.put(
+                        event.asStartElement().getAttributeByName(new QName("type")).getValue(),
+                        data
+                    );
+                } else if (XmlRepomdLocations.isTag(event, "location")) {
+                    data.put(
+                        "location",
+                        event.asStartElement().getAttributeByName(new QName("href")).getValue()
+                    );
+                } else if (event.isStartElement()) {
+                    final String name = event.asStartElement().getName().getLocalPart();
+                    event = reader.peek();
+                    if (event.isCharacters()) {
+                        data.put(name, event.asCharacters().getData().trim());
+                    }
+                }
+            }
+            reader.close();
+        } catch (final XMLStreamException err) {
+            throw new ArtipieIOException(err);
+        } finally {
+            Optional.of(this.inp).ifPresent(new UncheckedIOConsumer<>(InputStream::close));
+        }
+        return res;
+    }
+
+    /**
+     * Checks event.
+     * @param event Event
+     * @param tag Xml tag name
+     * @return True is this event is xml tag with given tag name
+     */
+    private static boolean isTag(final XMLEvent event, final String tag) {
+        return event.isStartElement()
+            && event.asStartElement().getName().getLocalPart().equals(tag);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Coalesced background tasks, grouped by the owner and target: at most one task of the group
+ * is running and at most one is pending. Task submitted while the task of the group is running
+ * becomes pending and starts when the running one completes, tasks submitted while there is
+ * a pending task share its result. Tasks should be equivalent within the group, e.g. bring
+ * the target in sync with its current state, so that pending task covers all the submissions
+ * made after the running task started. Owner is compared by identity, the same way as in
+ * {@link StripedLocks}. Tasks are coalesced within current JVM only.
+ * @since 1.10
+ */
+public final class CoalescedTasks {
+
+    /**
+     * Tasks shared by the JVM.
+     */
+    public static final CoalescedTasks SHARED = new CoalescedTasks();
+
+    /**
+     * Runs by owner and target, guarded by itself.
+     */
+    private final Map<Object, Map<String, Run>> runs;
+
+    /**
+     * Ctor.
+     */
+    public CoalescedTasks() {
+        this.runs = new IdentityHashMap<>();
+    }
+
+    /**
+     * Submits task: starts it if no task of the group is running, otherwise it will be
+     * started or coalesced with the pending task.
+     * @param owner Task owner, compared by identity
+     * @param target Task target
+     * @param task Task
+     * @return Completable action, completed when the task, which covers this submission,
+     *  is completed
+     */
+    public CompletionStage<Void> submit(final Object owner, final String target,
+        final Supplier<CompletionStage<Void>> task) {
+        final CompletableFuture<Void> res;
+        final boolean start;
+        synchronized (this.runs) {
+            final Map<String, Run> targets = this.runs.computeIfAbsent(
+                owner, key -> new HashMap<>(1)
+            );
+            final Run run = targets.get(target);
+            if (run == null) {
+                res = new CompletableFuture<>();
+                targets.put(target, new Run(res, task));
+                start = true;
+            } else {
+                res = run.pending();
+                start = false;
+            }
+        }
+        if (start) {
+            this.start(owner, target, task, res);
+        }
+        return res;
+    }
+
+    /**
+     * Number of the groups with running tasks.
+     * @return Groups number
+     */
+    int size() {
+        synchronized (this.runs) {
+            return this.runs.values().stream().mapToInt(Map::size).sum();
+        }
+    }
+
+    /**
+     * Starts the task and the pending task of the group, when this one is completed.
+     * @param owner Task owner
+     * @param target Task target
+     * @param task Task
+     * @param res Task result
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private void start(final Object owner, final String target,
+        final Supplier<CompletionStage<Void>> task, final CompletableFuture<Void> res) {
+        CompletionStage<Void> stage;
+        try {
+            stage = task.get();
+        } catch (final RuntimeException err) {
+            final CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(err);
+            stage = failed;
+        }
+        stage.whenComplete(
+            (nothing, err) -> {
+                final Optional<Run> next;
+                synchronized (this.runs) {
+                    final Map<String, Run> targets = this.runs.get(owner);
+                    next = targets.get(target).next();
+                    if (next.isPresent()) {
+                        targets.put(target, next.get());
+                    } else {
+                        targets.remove(target);
+                        if (targets.isEmpty()) {
+                            this.runs.remove(owner);
+                        }
+                    }
+                }
+                if (err == null) {
+                    res.complete(null);
+                } else {
+                    res.completeExceptionally(err);
+                }
+                next.ifPresent(run -> this.start(owner, target, run.task(), run.result()));
+            }
+        );
+    }
+
+    /**
+     * Running task of the group along with the pending one.
+     * @since 1.10
+     */
+    private static final class Run {
+
+        /**
+         * Running task result.
+         */
+        private final CompletableFuture<Void> res;
+
+        /**
+         * Running task.
+         */
+        private final Supplier<CompletionStage<Void>> task;
+
+        /**
+         * Pending task result, empty if there is no pending task.
+         */
+        private Optional<CompletableFuture<Void>> waiting;
+
+        /**
+         * Ctor.
+         * @param res Running task result
+         * @param task Running task
+         */
+        Run(final CompletableFuture<Void> res, final Supplier<CompletionStage<Void>> task) {
+            this.res = res;
+            this.task = task;
+            this.waiting = Optional.empty();
+        }
+
+        /**
+         * Result of the pending task, pending task is created if there is no one.
+         * @return Pending task result
+         */
+        CompletableFuture<Void> pending() {
+            if (!this.waiting.isPresent()) {
+                this.waiting = Optional.of(new CompletableFuture<>());
+            }
+            return this.waiting.get();
+        }
+
+        /**
+         * Next run of the group: pending task becomes running.
+         * @return Next run, empty if there is no pending task
+         */
+        Optional<Run> next() {
+            return this.waiting.map(fut -> new Run(fut, this.task));
+        }
+
+        /**
+         * Running task.
+         * @return Task
+         */
+        Supplier<CompletionStage<Void>> task() {
+            return this.task;
+        }
+
+        /**
+         * Running task result.
+         * @return Result
+         */
+        CompletableFuture<Void> result() {
+            return this.res;
+        }
+    }
+}
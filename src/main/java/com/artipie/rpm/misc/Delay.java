@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking delay: future is completed on the given executor after the delay time.
+ * Delays are scheduled on a single daemon timer thread shared by the JVM, the timer
+ * thread only hands completion over to the executor, so that continuations never run
+ * on the timer thread.
+ * @since 1.10
+ */
+public final class Delay {
+
+    /**
+     * Timer shared by the JVM.
+     */
+    private static final ScheduledExecutorService TIMER =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                final Thread thread = new Thread(runnable, "rpm-delay");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+
+    /**
+     * Delay time.
+     */
+    private final Duration time;
+
+    /**
+     * Executor to complete the delay on.
+     */
+    private final Executor exec;
+
+    /**
+     * Ctor.
+     * @param time Delay time
+     * @param exec Executor to complete the delay on
+     */
+    public Delay(final Duration time, final Executor exec) {
+        this.time = time;
+        this.exec = exec;
+    }
+
+    /**
+     * Starts the delay.
+     * @return Future, completed on the executor after the delay time
+     */
+    public CompletionStage<Void> start() {
+        final CompletableFuture<Void> res = new CompletableFuture<>();
+        if (this.time.isZero() || this.time.isNegative()) {
+            this.exec.execute(() -> res.complete(null));
+        } else {
+            Delay.TIMER.schedule(
+                () -> this.exec.execute(() -> res.complete(null)),
+                this.time.toNanos(), TimeUnit.NANOSECONDS
+            );
+        }
+        return res;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+/**
+ * Flight recorder availability. Flight recorder API {@code jdk.jfr} is available in
+ * Java 11+ and in Java 8 since 8u262, on older runtimes loading a {@code jdk.jfr.Event}
+ * subclass fails with {@link NoClassDefFoundError}. Flight recorder events of this library
+ * keep their {@code jdk.jfr.Event} subclasses nested and create them only if the API is
+ * available, otherwise events do nothing. Availability is checked once.
+ * @since 1.10
+ */
+public final class Jfr {
+
+    /**
+     * Is flight recorder API available at runtime?
+     */
+    public static final boolean AVAILABLE = Jfr.check();
+
+    /**
+     * Ctor.
+     */
+    private Jfr() {
+    }
+
+    /**
+     * Checks that flight recorder API is available.
+     * @return True if available
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static boolean check() {
+        boolean res;
+        try {
+            Class.forName("jdk.jfr.Event", false, Jfr.class.getClassLoader());
+            res = true;
+        } catch (final ClassNotFoundException | LinkageError err) {
+            res = false;
+        }
+        return res;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Flight recorder event of this library. Subclasses keep their {@code jdk.jfr.Event}
+ * subclass nested and pass its factory to this class: the event is created on construction
+ * only if flight recorder is available, see {@link Jfr}, otherwise the event does nothing.
+ * @param <E> Nested {@code jdk.jfr.Event} subclass
+ * @since 1.10
+ */
+public abstract class JfrEvent<E> {
+
+    /**
+     * Flight recorder event, empty if flight recorder is not available.
+     */
+    private final Optional<E> event;
+
+    /**
+     * Ctor.
+     * @param event Flight recorder event factory, which returns event constructor, the event
+     *  should begin on creation. Event class can not be loaded without flight recorder, and
+     *  lambda is linked to the class it returns, so only the inner lambda should reference
+     *  the event class: {@code () -> () -> new Recorded(name)}, the inner lambda is linked
+     *  only if flight recorder is available
+     */
+    protected JfrEvent(final Supplier<Supplier<E>> event) {
+        if (Jfr.AVAILABLE) {
+            this.event = Optional.of(event.get().get());
+        } else {
+            this.event = Optional.empty();
+        }
+    }
+
+    /**
+     * Records values into the event, if it's present.
+     * @param values Action, which sets event values and commits the event
+     */
+    protected final void commit(final Consumer<E> values) {
+        this.event.ifPresent(values);
+    }
+}
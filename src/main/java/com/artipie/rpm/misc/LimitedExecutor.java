@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor, which runs at most given number of tasks at the same time on the origin
+ * executor, other tasks are queued and started in submission order.
+ * @since 1.10
+ */
+public final class LimitedExecutor implements Executor {
+
+    /**
+     * Origin executor.
+     */
+    private final Executor origin;
+
+    /**
+     * Max number of running tasks.
+     */
+    private final int limit;
+
+    /**
+     * Queued tasks.
+     */
+    private final Queue<Runnable> queue;
+
+    /**
+     * Running tasks counter.
+     */
+    private final AtomicInteger running;
+
+    /**
+     * Ctor.
+     * @param origin Origin executor
+     * @param limit Max number of running tasks
+     */
+    public LimitedExecutor(final Executor origin, final int limit) {
+        this.origin = origin;
+        this.limit = limit;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.running = new AtomicInteger();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        this.queue.add(task);
+        this.drain();
+    }
+
+    /**
+     * Starts queued tasks while limit allows.
+     */
+    private void drain() {
+        while (!this.queue.isEmpty()) {
+            final int current = this.running.get();
+            if (current >= this.limit) {
+                break;
+            }
+            if (this.running.compareAndSet(current, current + 1)) {
+                final Runnable next = this.queue.poll();
+                if (next == null) {
+                    this.running.decrementAndGet();
+                } else {
+                    this.origin.execute(
+                        () -> {
+                            try {
+                                next.run();
+                            } finally {
+                                this.running.decrementAndGet();
+                                this.drain();
+                            }
+                        }
+                    );
+                }
+            }
+        }
+    }
+}
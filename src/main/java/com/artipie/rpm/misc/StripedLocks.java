@@ -0,0 +1,373 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Key;
+import com.artipie.asto.lock.Lock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory locks, striped by the lock owner and target key. Locks work the same way as
+ * {@link com.artipie.asto.lock.storage.StorageLock}: lock can be acquired if it is not held by
+ * someone else or if holder lock expiration time passed, but do not perform any storage
+ * operations. Unlike storage lock, acquire attempt can wait for the lock up to the given timeout,
+ * waiting attempts are granted the lock in the order they were made. These locks are visible
+ * within current JVM only and are suitable for single node deployments. Owner is compared
+ * by identity: usually it is the storage instance the locked repository is located in, so that
+ * repositories in different storages, which have the same keys, do not share the locks.
+ * @since 1.10
+ */
+public final class StripedLocks {
+
+    /**
+     * Locks shared by the JVM.
+     */
+    public static final StripedLocks SHARED = new StripedLocks();
+
+    /**
+     * Stripes by target.
+     */
+    private final ConcurrentMap<Target, Stripe> stripes;
+
+    /**
+     * Timer to fail waiting acquire attempts.
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Ctor.
+     */
+    public StripedLocks() {
+        this.stripes = new ConcurrentHashMap<>();
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                final Thread thread = new Thread(runnable, "rpm-striped-locks");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+    }
+
+    /**
+     * Creates lock.
+     * @param owner Lock owner, compared by identity
+     * @param target Lock target key
+     * @param expiration Lock expiration time
+     * @param timeout Time to wait for the lock, zero to fail immediately if lock is held
+     * @return Lock
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public Lock lock(final Object owner, final Key target, final Optional<Instant> expiration,
+        final Duration timeout) {
+        return new StripedLock(new Target(owner, target.string()), expiration, timeout);
+    }
+
+    /**
+     * Number of stripes with held or awaited locks.
+     * @return Stripes number
+     */
+    int size() {
+        return this.stripes.size();
+    }
+
+    /**
+     * Lock of the stripe.
+     * @since 1.10
+     */
+    private final class StripedLock implements Lock {
+
+        /**
+         * Lock target.
+         */
+        private final Target target;
+
+        /**
+         * Expiration time.
+         */
+        private final Optional<Instant> expiration;
+
+        /**
+         * Time to wait for the lock.
+         */
+        private final Duration timeout;
+
+        /**
+         * Ctor.
+         * @param target Lock target
+         * @param expiration Expiration time
+         * @param timeout Time to wait for the lock
+         */
+        StripedLock(final Target target, final Optional<Instant> expiration,
+            final Duration timeout) {
+            this.target = target;
+            this.expiration = expiration;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public CompletionStage<Void> acquire() {
+            final CompletableFuture<Void> res = new CompletableFuture<>();
+            final AtomicReference<Runnable> action = new AtomicReference<>();
+            StripedLocks.this.stripes.compute(
+                this.target,
+                (key, stripe) -> {
+                    final Stripe existing = Optional.ofNullable(stripe).orElseGet(Stripe::new);
+                    action.set(existing.acquire(this, res));
+                    return existing;
+                }
+            );
+            action.get().run();
+            return res;
+        }
+
+        @Override
+        public CompletionStage<Void> release() {
+            final AtomicReference<Runnable> action = new AtomicReference<>(() -> { });
+            StripedLocks.this.stripes.computeIfPresent(
+                this.target,
+                (key, stripe) -> {
+                    action.set(stripe.release(this));
+                    return stripe.retained();
+                }
+            );
+            action.get().run();
+            return CompletableFuture.allOf();
+        }
+
+        /**
+         * Fails acquire attempt if it is still waiting for the lock.
+         * @param waiter Acquire attempt
+         */
+        void expire(final CompletableFuture<Void> waiter) {
+            final AtomicReference<Runnable> action = new AtomicReference<>(() -> { });
+            StripedLocks.this.stripes.computeIfPresent(
+                this.target,
+                (key, stripe) -> {
+                    action.set(stripe.timeout(this, waiter));
+                    return stripe.retained();
+                }
+            );
+            action.get().run();
+        }
+
+        /**
+         * Is this lock expired?
+         * @return True if lock expiration time passed
+         */
+        boolean expired() {
+            return this.expiration.map(time -> !time.isAfter(Instant.now())).orElse(false);
+        }
+    }
+
+    /**
+     * Lock stripe: the holder and fair queue of waiting acquire attempts. Stripe methods are
+     * called under {@link ConcurrentMap#compute} of the stripe key and return actions to
+     * complete acquire attempts, which should be run outside of the compute.
+     * @since 1.10
+     */
+    private final class Stripe {
+
+        /**
+         * Waiting acquire attempts.
+         */
+        private final Deque<Waiter> queue = new ArrayDeque<>(1);
+
+        /**
+         * Current lock holder.
+         */
+        private Optional<StripedLock> holder = Optional.empty();
+
+        /**
+         * Acquires the lock or enqueues acquire attempt.
+         * @param lock Lock
+         * @param future Acquire future
+         * @return Action to run
+         */
+        Runnable acquire(final StripedLock lock, final CompletableFuture<Void> future) {
+            Runnable granted = () -> { };
+            if (this.holder.map(StripedLock::expired).orElse(false)) {
+                this.holder = Optional.empty();
+                granted = this.next();
+            }
+            final Runnable res;
+            if (!this.holder.isPresent()) {
+                this.holder = Optional.of(lock);
+                res = () -> future.complete(null);
+            } else if (lock.timeout.isZero() || lock.timeout.isNegative()) {
+                res = () -> future.completeExceptionally(
+                    new ArtipieIOException(
+                        String.format("Failed to acquire lock `%s`", lock.target.key)
+                    )
+                );
+            } else {
+                this.queue.add(new Waiter(lock, future));
+                res = () -> StripedLocks.this.timer.schedule(
+                    () -> lock.expire(future), lock.timeout.toMillis(), TimeUnit.MILLISECONDS
+                );
+            }
+            final Runnable first = granted;
+            return () -> {
+                first.run();
+                res.run();
+            };
+        }
+
+        /**
+         * Releases the lock and grants it to the first waiting attempt.
+         * @param lock Lock
+         * @return Action to run
+         */
+        Runnable release(final StripedLock lock) {
+            Runnable res = () -> { };
+            if (this.holder.map(held -> held == lock).orElse(false)) {
+                this.holder = Optional.empty();
+                res = this.next();
+            }
+            return res;
+        }
+
+        /**
+         * Fails waiting acquire attempt on timeout. If lock holder has expired
+         * meanwhile, the lock is granted to the next attempt instead.
+         * @param lock Lock
+         * @param future Acquire future
+         * @return Action to run
+         */
+        Runnable timeout(final StripedLock lock, final CompletableFuture<Void> future) {
+            Runnable res = () -> { };
+            if (this.holder.map(StripedLock::expired).orElse(false)) {
+                this.holder = Optional.empty();
+                res = this.next();
+            }
+            if (this.queue.removeIf(waiter -> waiter.future == future)) {
+                final Runnable granted = res;
+                res = () -> {
+                    granted.run();
+                    future.completeExceptionally(
+                        new ArtipieIOException(
+                            String.format("Timeout to acquire lock `%s`", lock.target.key)
+                        )
+                    );
+                };
+            }
+            return res;
+        }
+
+        /**
+         * Stripe if it is used, null otherwise.
+         * @return Stripe or null
+         */
+        @SuppressWarnings("PMD.NullAssignment")
+        Stripe retained() {
+            final Stripe res;
+            if (this.holder.isPresent() || !this.queue.isEmpty()) {
+                res = this;
+            } else {
+                res = null;
+            }
+            return res;
+        }
+
+        /**
+         * Grants the lock to the first waiting attempt.
+         * @return Action to run
+         */
+        private Runnable next() {
+            Runnable res = () -> { };
+            final Waiter waiter = this.queue.poll();
+            if (waiter != null) {
+                this.holder = Optional.of(waiter.lock);
+                res = () -> waiter.future.complete(null);
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Waiting acquire attempt.
+     * @since 1.10
+     */
+    private static final class Waiter {
+
+        /**
+         * Lock.
+         */
+        private final StripedLock lock;
+
+        /**
+         * Acquire future.
+         */
+        private final CompletableFuture<Void> future;
+
+        /**
+         * Ctor.
+         * @param lock Lock
+         * @param future Acquire future
+         */
+        Waiter(final StripedLock lock, final CompletableFuture<Void> future) {
+            this.lock = lock;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Lock target: owner, compared by identity, and target key.
+     * @since 1.10
+     */
+    private static final class Target {
+
+        /**
+         * Owner.
+         */
+        private final Object owner;
+
+        /**
+         * Target key.
+         */
+        private final String key;
+
+        /**
+         * Ctor.
+         * @param owner Owner
+         * @param key Target key
+         */
+        Target(final Object owner, final String key) {
+            this.owner = owner;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            final boolean res;
+            if (this == other) {
+                res = true;
+            } else if (other == null || this.getClass() != other.getClass()) {
+                res = false;
+            } else {
+                final Target that = (Target) other;
+                res = this.owner == that.owner && this.key.equals(that.key);
+            }
+            return res;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(this.owner) + this.key.hashCode();
+        }
+    }
+}
@@ -5,6 +5,7 @@
 package com.artipie.rpm.pkg;
 
 import com.artipie.asto.misc.UncheckedIOScalar;
+import com.google.common.io.CountingInputStream;
 import com.jcabi.log.Logger;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,13 +33,29 @@ public final class FilePackageHeader {
      */
     private final InputStream pckg;
 
+    /**
+     * Package name to record parsing event for.
+     */
+    private final String name;
+
     /**
      * Ctor.
      *
      * @param file The RPM file.
+     * @param name Package name to record parsing event for, see {@link ParseEvent}.
      */
-    public FilePackageHeader(final InputStream file) {
+    public FilePackageHeader(final InputStream file, final String name) {
         this.pckg = file;
+        this.name = name;
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param file The RPM file.
+     */
+    public FilePackageHeader(final InputStream file) {
+        this(file, "");
     }
 
     /**
@@ -47,7 +64,10 @@ public final class FilePackageHeader {
      * @param file The RPM file.
      */
     public FilePackageHeader(final Path file) {
-        this(new UncheckedIOScalar<>(() -> Files.newInputStream(file)).value());
+        this(
+            new UncheckedIOScalar<>(() -> Files.newInputStream(file)).value(),
+            file.getFileName().toString()
+        );
     }
 
     /**
@@ -60,7 +80,9 @@ public final class FilePackageHeader {
      */
     @SuppressWarnings("PMD.AvoidCatchingGenericException")
     public Header header() throws InvalidPackageException, IOException {
-        try (ReadableByteChannel chan = Channels.newChannel(this.pckg)) {
+        final ParseEvent jfr = new ParseEvent(this.name);
+        final CountingInputStream counting = new CountingInputStream(this.pckg);
+        try (ReadableByteChannel chan = Channels.newChannel(counting)) {
             final Format format;
             try {
                 format = new Scanner(
@@ -68,6 +90,7 @@ public final class FilePackageHeader {
                 ).run(new ReadableChannelWrapper(chan));
                 // @checkstyle IllegalCatchCheck (1 line)
             } catch (final RuntimeException ex) {
+                jfr.record(counting.getCount(), false);
                 throw new InvalidPackageException(ex);
             }
             final Header header = format.getHeader();
@@ -77,6 +100,7 @@ public final class FilePackageHeader {
             while (read > 0) {
                 read = chan.read(ByteBuffer.allocate(bufsize));
             }
+            jfr.record(counting.getCount(), true);
             return header;
         }
     }
@@ -273,6 +273,30 @@ public final class HeaderTags {
         return this.meta.header(Header.HeaderTag.CHANGELOG).asStrings();
     }
 
+    /**
+     * Get the changelog time header.
+     * @return Value of header tag CHANGELOGTIME.
+     */
+    public int[] changelogTimes() {
+        return this.meta.header(Header.HeaderTag.CHANGELOGTIME).asInts();
+    }
+
+    /**
+     * Get the changelog name header.
+     * @return Value of header tag CHANGELOGNAME.
+     */
+    public List<String> changelogNames() {
+        return this.meta.header(Header.HeaderTag.CHANGELOGNAME).asStrings();
+    }
+
+    /**
+     * Get the changelog text header.
+     * @return Value of header tag CHANGELOGTEXT.
+     */
+    public List<String> changelogTexts() {
+        return this.meta.header(Header.HeaderTag.CHANGELOGTEXT).asStrings();
+    }
+
     /**
      * Rpm package version, format is [epoch]:[version]-[release].
      * @since 1.9
@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.pkg;
+
+import com.artipie.rpm.misc.JfrEvent;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of the rpm package header parsing, see {@link FilePackageHeader}.
+ * Event starts on creation. Event does nothing if flight recorder is not available,
+ * see {@link JfrEvent}.
+ * @since 1.10
+ */
+final class ParseEvent extends JfrEvent<ParseEvent.Recorded> {
+
+    /**
+     * Ctor.
+     * @param name Package name
+     */
+    ParseEvent(final String name) {
+        super(() -> () -> new Recorded(name));
+    }
+
+    /**
+     * Records parsing result and commits the event.
+     * @param size Number of the package bytes read
+     * @param valid Is package valid
+     */
+    void record(final long size, final boolean valid) {
+        this.commit(event -> event.record(size, valid));
+    }
+
+    /**
+     * Flight recorder event of the rpm package header parsing.
+     * @since 1.10
+     * @checkstyle VisibilityModifierCheck (100 lines)
+     */
+    @Name("com.artipie.rpm.Parse")
+    @Label("RPM Package Parse")
+    @Category({"Artipie", "RPM"})
+    @Description("Parsing of the rpm package header")
+    @StackTrace(false)
+    @SuppressWarnings("PMD.DefaultPackage")
+    static final class Recorded extends Event {
+
+        /**
+         * Package name.
+         */
+        @Label("Package")
+        String name;
+
+        /**
+         * Number of the package bytes read.
+         */
+        @Label("Size")
+        @DataAmount
+        long size;
+
+        /**
+         * Is package valid?
+         */
+        @Label("Valid")
+        boolean valid;
+
+        /**
+         * Ctor.
+         * @param name Package name
+         */
+        Recorded(final String name) {
+            this.name = name;
+            this.begin();
+        }
+
+        /**
+         * Records parsing result and commits the event.
+         * @param size Number of the package bytes read
+         * @param valid Is package valid
+         */
+        void record(final long size, final boolean valid) {
+            this.size = size;
+            this.valid = valid;
+            this.commit();
+        }
+    }
+}
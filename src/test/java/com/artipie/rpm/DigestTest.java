@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Digest}.
+ * @since 1.10
+ */
+final class DigestTest {
+
+    @Test
+    void resetsThreadLocalDigestAfterUse() throws IOException {
+        Digest.SHA256.digest(
+            digest -> {
+                digest.update("unfinished".getBytes(StandardCharsets.UTF_8));
+                return true;
+            }
+        );
+        MatcherAssert.assertThat(
+            DigestTest.hex(Digest.SHA256, "abc"),
+            new IsEqual<>(DigestUtils.sha256Hex("abc"))
+        );
+    }
+
+    @Test
+    void digestsNestedWithAnotherInstance() throws IOException {
+        MatcherAssert.assertThat(
+            Digest.SHA1.digest(
+                outer -> {
+                    outer.update("one".getBytes(StandardCharsets.UTF_8));
+                    final String inner = DigestTest.hex(Digest.SHA1, "two");
+                    outer.update("two".getBytes(StandardCharsets.UTF_8));
+                    return String.format("%s %s", Hex.encodeHexString(outer.digest()), inner);
+                }
+            ),
+            new IsEqual<>(
+                String.format(
+                    "%s %s",
+                    DigestUtils.sha1Hex("onetwo"), DigestUtils.sha1Hex("two")
+                )
+            )
+        );
+    }
+
+    /**
+     * Calculates hex digest of the text with the thread-local instance.
+     * @param dgst Digest algorithm
+     * @param text Text
+     * @return Hex digest
+     * @throws IOException On error
+     */
+    private static String hex(final Digest dgst, final String text) throws IOException {
+        return dgst.digest(
+            digest -> Hex.encodeHexString(digest.digest(text.getBytes(StandardCharsets.UTF_8)))
+        );
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Flight recorder events of the given type recorded during the action: action is run
+ * under the recording, which is dumped to the temp file and read back.
+ * @since 1.10
+ */
+public final class JfrEvents {
+
+    /**
+     * Event type name.
+     */
+    private final String name;
+
+    /**
+     * Ctor.
+     * @param name Event type name
+     */
+    public JfrEvents(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records events during the action.
+     * @param temp Temp directory for the recording dump
+     * @param action Action
+     * @return Recorded events of the type
+     * @throws Exception On error
+     */
+    public List<RecordedEvent> during(final Path temp, final Action action) throws Exception {
+        final Path dump = Files.createTempFile(temp, "events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(this.name);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        return RecordingFile.readAllEvents(dump).stream().filter(
+            event -> this.name.equals(event.getEventType().getName())
+        ).collect(Collectors.toList());
+    }
+
+    /**
+     * Action to record events during.
+     * @since 1.10
+     */
+    @FunctionalInterface
+    public interface Action {
+
+        /**
+         * Runs action.
+         * @throws Exception On error
+         */
+        void run() throws Exception;
+    }
+}
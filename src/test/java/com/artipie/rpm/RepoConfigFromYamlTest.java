@@ -5,11 +5,20 @@
 package com.artipie.rpm;
 
 import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.ArtipieException;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.time.Duration;
 import java.util.Optional;
 import org.cactoos.func.ProcOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.llorllale.cactoos.matchers.MatcherOf;
 
 /**
@@ -58,6 +67,172 @@ public final class RepoConfigFromYamlTest {
         );
     }
 
+    @Test
+    void readsGracePeriod() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("grace-period", "600").build()
+            ).gracePeriod(),
+            new IsEqual<>(Duration.ofMinutes(10))
+        );
+    }
+
+    @Test
+    void readsCommitSettings() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("commit", "optimistic")
+                    .add("commit-attempts", "3").build()
+            ),
+            Matchers.allOf(
+                new MatcherOf<>(cnfg -> cnfg.commit() == RepoConfig.CommitMode.OPTIMISTIC),
+                new MatcherOf<>(cnfg -> cnfg.commitAttempts() == 3)
+            )
+        );
+    }
+
+    @Test
+    void readsLockSettings() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("locks", "memory")
+                    .add("lock-timeout", "30").build()
+            ),
+            Matchers.allOf(
+                new MatcherOf<>(cnfg -> cnfg.locks() == RepoConfig.LockMode.MEMORY),
+                new MatcherOf<>(cnfg -> cnfg.lockTimeout().getSeconds() == 30)
+            )
+        );
+    }
+
+    @Test
+    void readsExecutorsSettings() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("executors", "bounded")
+                    .add("parallelism", "2").build()
+            ).executors(),
+            new IsSame<>(RepoExecutors.Bounded.shared(2))
+        );
+    }
+
+    @Test
+    void readsFilterChunk() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("filter-chunk", "500").build()
+            ).filterChunk(),
+            new IsEqual<>(500)
+        );
+    }
+
+    @Test
+    void readsRenderWindow() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("render-window", "64").build()
+            ).renderWindow(),
+            new IsEqual<>(64)
+        );
+    }
+
+    @Test
+    void readsFragments() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("fragments", "true").build()
+            ).fragments(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void readsGzipMembers() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("gzip-members", "true").build()
+            ).gzipMembers(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void readsChangelogLimit() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("changelog-limit", "10").build()
+            ).changelogLimit(),
+            new IsEqual<>(10)
+        );
+    }
+
+    @Test
+    void readsFilelistsDeferred() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("filelists-deferred", "true").build()
+            ).filelistsDeferred(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void readsStaging() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("staging", "memory")
+                    .add("staging-limit", "64").build()
+            ),
+            Matchers.allOf(
+                new MatcherOf<>(cnfg -> cnfg.staging().get() instanceof InMemoryStorage),
+                new MatcherOf<>(cnfg -> cnfg.stagingLimit() == 64)
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"many", "-1", "1.5"})
+    void failsOnInvalidStagingLimit(final String limit) {
+        Assertions.assertThrows(
+            ArtipieException.class,
+            () -> new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("staging-limit", limit).build()
+            ).stagingLimit()
+        );
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "parallelism,0", "parallelism,-2", "commit-attempts,0", "commit-attempts,many",
+        "filter-chunk,-1", "render-window,-1", "changelog-limit,1.5",
+    })
+    void failsOnInvalidNumbers(final String name, final String value) {
+        final RepoConfig cnfg = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add(name, value).build()
+        );
+        Assertions.assertThrows(
+            ArtipieException.class,
+            () -> {
+                cnfg.parallelism();
+                cnfg.executors();
+                cnfg.commitAttempts();
+                cnfg.filterChunk();
+                cnfg.renderWindow();
+                cnfg.changelogLimit();
+            }
+        );
+    }
+
+    @Test
+    void readsAddBudget() {
+        MatcherAssert.assertThat(
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("add-memory-budget", "128").build()
+            ).addBudget(),
+            new IsEqual<>(128)
+        );
+    }
+
     @Test
     void returnsDefaults() {
         MatcherAssert.assertThat(
@@ -67,7 +242,19 @@ public final class RepoConfigFromYamlTest {
                 new MatcherOf<>(cnfg -> cnfg.naming() == StandardNamingPolicy.SHA256),
                 new MatcherOf<>(new ProcOf<>(RepoConfig.FromYaml::filelists)),
                 new MatcherOf<>(cnfg -> cnfg.mode() == RepoConfig.UpdateMode.UPLOAD),
-                new MatcherOf<>(new ProcOf<>(cnfg -> !cnfg.cron().isPresent()))
+                new MatcherOf<>(new ProcOf<>(cnfg -> !cnfg.cron().isPresent())),
+                new MatcherOf<>(cnfg -> cnfg.gracePeriod().getSeconds() == 300),
+                new MatcherOf<>(cnfg -> cnfg.commit() == RepoConfig.CommitMode.LOCK),
+                new MatcherOf<>(cnfg -> cnfg.locks() == RepoConfig.LockMode.STORAGE),
+                new MatcherOf<>(cnfg -> cnfg.filterChunk() == 0),
+                new MatcherOf<>(cnfg -> cnfg.renderWindow() == 0),
+                new MatcherOf<>(cnfg -> !cnfg.fragments()),
+                new MatcherOf<>(cnfg -> !cnfg.gzipMembers()),
+                new MatcherOf<>(cnfg -> cnfg.changelogLimit() == 0),
+                new MatcherOf<>(cnfg -> !cnfg.filelistsDeferred()),
+                new MatcherOf<>(cnfg -> !cnfg.staging().isPresent()),
+                new MatcherOf<>(cnfg -> cnfg.stagingLimit() == 256),
+                new MatcherOf<>(cnfg -> cnfg.addBudget() == 0)
             )
         );
     }
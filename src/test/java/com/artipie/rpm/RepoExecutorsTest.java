@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import java.util.concurrent.CompletableFuture;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RepoExecutors}.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class RepoExecutorsTest {
+
+    @Test
+    void runsTasksOnBoundedPools() {
+        final RepoExecutors execs = new RepoExecutors.Bounded(1);
+        MatcherAssert.assertThat(
+            CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), execs.parse())
+                .join(),
+            Matchers.startsWith("rpm-parse")
+        );
+        MatcherAssert.assertThat(
+            CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), execs.io())
+                .join(),
+            Matchers.startsWith("rpm-io")
+        );
+    }
+
+    @Test
+    void sharesPoolsByParallelism() {
+        MatcherAssert.assertThat(
+            RepoExecutors.Bounded.shared(3),
+            new IsSame<>(RepoExecutors.Bounded.shared(3))
+        );
+    }
+
+    @Test
+    void runsTasksOnVirtualThreadsExecutors() {
+        MatcherAssert.assertThat(
+            CompletableFuture.supplyAsync(
+                () -> "done", RepoExecutors.VirtualThreads.shared(2).compress()
+            ).join(),
+            Matchers.equalTo("done")
+        );
+    }
+}
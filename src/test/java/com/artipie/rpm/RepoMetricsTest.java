@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RepoMetrics}.
+ * @since 1.10
+ */
+class RepoMetricsTest {
+
+    @Test
+    void recordsToCachedMeters() {
+        final List<String> created = new ArrayList<>(3);
+        final List<Duration> durations = new ArrayList<>(2);
+        final AtomicLong counted = new AtomicLong();
+        final AtomicLong gauge = new AtomicLong();
+        final RepoMetrics metrics = new RepoMetrics.Meters(
+            (name, tags) -> {
+                created.add(String.format("%s%s", name, Arrays.toString(tags)));
+                return durations::add;
+            },
+            (name, tags) -> {
+                created.add(String.format("%s%s", name, Arrays.toString(tags)));
+                return counted::addAndGet;
+            },
+            (name, tags) -> {
+                created.add(String.format("%s%s", name, Arrays.toString(tags)));
+                return gauge;
+            }
+        );
+        metrics.time(RepoMetrics.Stage.GZIP, Duration.ofMillis(1));
+        metrics.time(RepoMetrics.Stage.GZIP, Duration.ofMillis(2));
+        metrics.count(RepoMetrics.Counter.PARSED, 2);
+        metrics.count(RepoMetrics.Counter.PARSED, 3);
+        metrics.gauge(RepoMetrics.Gauge.PENDING_ADD, 7);
+        MatcherAssert.assertThat(
+            "Meters should be created once",
+            created,
+            Matchers.contains(
+                "artipie.rpm.update[stage, gzip]",
+                "artipie.rpm.packages[state, parsed]",
+                "artipie.rpm.pending[queue, add]"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Durations should be recorded",
+            durations,
+            Matchers.contains(Duration.ofMillis(1), Duration.ofMillis(2))
+        );
+        MatcherAssert.assertThat(
+            "Counter should be incremented",
+            counted.get(),
+            new IsEqual<>(5L)
+        );
+        MatcherAssert.assertThat(
+            "Gauge should be set",
+            gauge.get(),
+            new IsEqual<>(7L)
+        );
+    }
+
+    @Test
+    void timesCompletedAction() {
+        final List<RepoMetrics.Stage> stages = new ArrayList<>(1);
+        new RepoMetrics.Meters(
+            (name, tags) -> duration -> stages.add(RepoMetrics.Stage.REPOMD),
+            (name, tags) -> amount -> { },
+            (name, tags) -> new AtomicLong()
+        ).timed(RepoMetrics.Stage.REPOMD, () -> CompletableFuture.completedFuture("done"))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            stages,
+            Matchers.contains(RepoMetrics.Stage.REPOMD)
+        );
+    }
+}
@@ -8,9 +8,14 @@ import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
 import com.artipie.rpm.Digest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
@@ -39,4 +44,24 @@ class AstoChecksumAndSizeTest {
         );
     }
 
+    @Test
+    void savesUncompressedChecksumAndSize() throws IOException {
+        final Storage asto = new InMemoryStorage();
+        final byte[] xml = new TestResource("repodata/primary.xml.example").asBytes();
+        final ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(xml);
+        }
+        final Key key = new Key.From("primary.xml.gz");
+        final BlockingStorage blsto = new BlockingStorage(asto);
+        blsto.save(key, gzip.toByteArray());
+        final Digest dgst = Digest.SHA1;
+        new AstoChecksumAndSize(asto, dgst, ForkJoinPool.commonPool())
+            .calculateUncompressed(key).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new String(blsto.value(new Key.From(key, dgst.name())), StandardCharsets.US_ASCII),
+            new IsEqual<>(String.format("%s %s", DigestUtils.sha1Hex(xml), xml.length))
+        );
+    }
+
 }
@@ -96,4 +96,33 @@ class AstoCreateRepomdTest {
         );
     }
 
+    @Test
+    void carriesEntriesOfNotUpdatedMetadata() {
+        final BlockingStorage blsto = new BlockingStorage(this.asto);
+        new TestResource("repodata/repomd.xml.example")
+            .saveTo(this.asto, new Key.From("repodata", "repomd.xml"));
+        final Key temp = new Key.From("temp");
+        blsto.save(
+            new Key.From(temp, XmlPackage.PRIMARY.name()),
+            "primary.xml.gz".getBytes(StandardCharsets.UTF_8)
+        );
+        blsto.save(
+            new Key.From(temp, XmlPackage.PRIMARY.name(), this.conf.digest().name()),
+            "o_primary_checksum 123".getBytes(StandardCharsets.UTF_8)
+        );
+        new AstoCreateRepomd(this.asto, this.conf).perform(temp).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new String(blsto.value(new Key.From(temp, "repomd.xml")), StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='repomd' and count(*[local-name()='data'])=3]",
+                // @checkstyle LineLengthCheck (5 lines)
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='primary']/*[local-name()='open-checksum' and text()='o_primary_checksum']",
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='filelists']/*[local-name()='checksum' and text()='aa433fe4c2cea220546a2566c245154f3e3561acb3a20e6cc187fef17f47c899']",
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='filelists']/*[local-name()='location' and @href='repodata/aa433fe4c2cea220546a2566c245154f3e3561acb3a20e6cc187fef17f47c899-filelists.xml.gz']",
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='filelists']/*[local-name()='size' and text()='875']",
+                "/*[local-name()='repomd']/*[local-name()='data' and @type='other']/*[local-name()='location']"
+            )
+        );
+    }
+
 }
@@ -0,0 +1,185 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.meta.PackageRecords;
+import com.artipie.rpm.meta.ParsedPackage;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoFilelistsSync}.
+ * @since 1.10
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+class AstoFilelistsSyncTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    /**
+     * Repository config.
+     */
+    private RepoConfig cnfg;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+        this.cnfg = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder()
+                .add("commit", "optimistic")
+                .add("filelists-deferred", "true")
+                .build()
+        );
+    }
+
+    @Test
+    void synchronizesFilelistsWithPrimary() throws IOException {
+        final TestRpm.Libdeflt libdeflt = new TestRpm.Libdeflt();
+        final TestRpm.Abc abc = new TestRpm.Abc();
+        this.add(libdeflt, abc);
+        final Map<String, Key> added = this.referenced();
+        MatcherAssert.assertThat(
+            "Filelists should not be published along with primary",
+            added.keySet(),
+            Matchers.containsInAnyOrder("primary", "other")
+        );
+        new AstoFilelistsSync(this.asto, this.cnfg).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Filelists should be published, primary and other should be kept",
+            this.referenced(),
+            Matchers.allOf(
+                Matchers.hasEntry("primary", added.get("primary")),
+                Matchers.hasEntry("other", added.get("other")),
+                Matchers.hasKey("filelists")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Filelists should contain added packages",
+            this.filelists(),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='filelists' and @packages='2']",
+                "/*[local-name()='filelists']/*[local-name()='package' and @name='abc']",
+                "/*[local-name()='filelists']/*[local-name()='package' and @name='libdeflt1_0']"
+            )
+        );
+        final String checksum = new FileChecksum(abc.path(), Digest.SHA256).hex();
+        new AstoRepodataCommit(this.asto, this.cnfg).perform(
+            () -> new AstoMetadataRemove(this.asto, this.cnfg)
+                .perform(Collections.singletonList(checksum))
+        ).toCompletableFuture().join();
+        new AstoFilelistsSync(this.asto, this.cnfg).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Filelists should not contain removed package",
+            this.filelists(),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='filelists' and @packages='1']",
+                "/*[local-name()='filelists' and count(*[local-name()='package'])=1]",
+                "/*[local-name()='filelists']/*[local-name()='package' and @name='libdeflt1_0']"
+            )
+        );
+    }
+
+    @Test
+    void synchronizesFilelistsOnTrigger() throws IOException {
+        this.add(new TestRpm.Time());
+        final AstoFilelistsSync sync = new AstoFilelistsSync(this.asto, this.cnfg);
+        CompletableFuture.allOf(
+            sync.trigger().toCompletableFuture(),
+            sync.trigger().toCompletableFuture(),
+            sync.trigger().toCompletableFuture()
+        ).join();
+        MatcherAssert.assertThat(
+            this.referenced(),
+            Matchers.hasKey("filelists")
+        );
+    }
+
+    @Test
+    void doesNotPublishFilelistsInSync() throws IOException {
+        this.add(new TestRpm.Time());
+        new AstoFilelistsSync(this.asto, this.cnfg).perform().toCompletableFuture().join();
+        final String revision = new AstoMetadataLocations(this.asto).revision()
+            .toCompletableFuture().join();
+        new AstoFilelistsSync(this.asto, this.cnfg).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new AstoMetadataLocations(this.asto).revision().toCompletableFuture().join(),
+            new IsEqual<>(revision)
+        );
+    }
+
+    @Test
+    void defersFilelistsOnlyWhenCommitIsOptimistic() {
+        MatcherAssert.assertThat(
+            new AstoFilelistsSync(
+                this.asto,
+                new RepoConfig.FromYaml(
+                    Yaml.createYamlMappingBuilder().add("filelists-deferred", "true").build()
+                )
+            ).deferred(),
+            new IsEqual<>(false)
+        );
+    }
+
+    /**
+     * Saves packages to the repository and publishes primary and other with these packages.
+     * @param rpms Packages
+     * @throws IOException On error
+     */
+    private void add(final TestRpm... rpms) throws IOException {
+        final ListOf<PackageRecords> metas = new ListOf<>();
+        for (final TestRpm rpm : rpms) {
+            final String name = rpm.path().getFileName().toString();
+            new BlockingStorage(this.asto)
+                .save(new Key.From(name), Files.readAllBytes(rpm.path()));
+            metas.add(
+                new ParsedPackage(
+                    new FilePackage.Headers(
+                        new FilePackageHeader(rpm.path()).header(), rpm.path(), Digest.SHA256,
+                        name
+                    )
+                )
+            );
+        }
+        new AstoRepodataCommit(this.asto, this.cnfg).perform(
+            () -> new AstoMetadataAdd(this.asto, this.cnfg).perform(metas)
+        ).toCompletableFuture().join();
+    }
+
+    private Map<String, Key> referenced() {
+        return new AstoMetadataLocations(this.asto).referenced().toCompletableFuture().join();
+    }
+
+    private String filelists() throws IOException {
+        return new String(
+            new MetadataBytes(this.asto).value(this.referenced().get("filelists")),
+            StandardCharsets.UTF_8
+        );
+    }
+}
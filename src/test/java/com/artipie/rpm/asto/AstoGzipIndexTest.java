@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.meta.XmlGzipIndex;
+import com.artipie.rpm.meta.XmlGzipMembers;
+import com.artipie.rpm.meta.XmlPackage;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoGzipIndex}.
+ * @since 1.10
+ */
+class AstoGzipIndexTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void findsIndexOfCurrentMetadata() throws IOException {
+        new IndexedMetadata(this.storage).save("AstoMetadataAddTest", XmlPackage.PRIMARY);
+        MatcherAssert.assertThat(
+            new AstoGzipIndex(this.storage, Digest.SHA256).find(XmlPackage.PRIMARY)
+                .toCompletableFuture().join().map(XmlGzipIndex::count),
+            new IsEqual<>(Optional.of(1L))
+        );
+    }
+
+    @Test
+    void doesNotFindIndexWithoutRepomd() {
+        MatcherAssert.assertThat(
+            new AstoGzipIndex(this.storage, Digest.SHA256).find(XmlPackage.OTHER)
+                .toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void writesIndexAndKeepsOtherOnes() throws IOException {
+        new IndexedMetadata(this.storage).save("AstoMetadataAddTest", XmlPackage.OTHER);
+        final Key concurrent = new Key.From(AstoGzipIndex.ROOT, "other", "abc123");
+        this.storage.save(concurrent, Content.EMPTY).join();
+        final Key key = new Key.From("repodata", "other.xml.gz");
+        final Key res = new Key.From("temp", "other.xml.gz");
+        new AstoGzipIndex(this.storage, Digest.SHA256).write(
+            key, res, XmlPackage.OTHER,
+            (input, out) -> new XmlGzipMembers(XmlPackage.OTHER).append(
+                input.get(), out, Collections.emptyList(),
+                new AstoGzipIndex(this.storage, Digest.SHA256).find(XmlPackage.OTHER)
+                    .toCompletableFuture().join().get()
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.storage.list(new Key.From(AstoGzipIndex.ROOT, "other")).join(),
+            Matchers.allOf(Matchers.iterableWithSize(3), Matchers.hasItem(concurrent))
+        );
+    }
+
+    @Test
+    void cleansIndexesNotReferencedByRepomd() throws IOException {
+        new IndexedMetadata(this.storage).save("AstoMetadataAddTest", XmlPackage.OTHER);
+        final Key superseded = new Key.From(AstoGzipIndex.ROOT, "other", "abc123");
+        this.storage.save(superseded, Content.EMPTY).join();
+        final Key concurrent = new Key.From(AstoGzipIndex.ROOT, "other", "def456");
+        this.storage.save(concurrent, Content.EMPTY).join();
+        final Map<String, String> current = new AstoMetadataLocations(this.storage)
+            .checksums().toCompletableFuture().join();
+        final Map<String, String> sums = new HashMap<>(current);
+        sums.put("primary", "fed789");
+        new AstoGzipIndex(this.storage).clean(sums).toCompletableFuture().join();
+        new AstoGzipIndex(this.storage).clean(Collections.singletonMap("other", "abc123"))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.storage.list(new Key.From(AstoGzipIndex.ROOT, "other")).join(),
+            Matchers.containsInAnyOrder(
+                new Key.From(AstoGzipIndex.ROOT, "other", current.get("other")), concurrent
+            )
+        );
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoMemoizedStorage}.
+ * @since 1.10
+ */
+class AstoMemoizedStorageTest {
+
+    /**
+     * Memoized scope.
+     */
+    private static final Key SCOPE = new Key.From("scope");
+
+    /**
+     * Origin storage.
+     */
+    private Storage origin;
+
+    /**
+     * Memoized storage.
+     */
+    private Storage memo;
+
+    @BeforeEach
+    void init() {
+        this.origin = new InMemoryStorage();
+        this.memo = new AstoMemoizedStorage(this.origin, AstoMemoizedStorageTest.SCOPE);
+    }
+
+    @Test
+    void listsScopeOnce() {
+        this.save(this.origin, "scope/one.rpm");
+        this.list(this.memo, AstoMemoizedStorageTest.SCOPE);
+        this.save(this.origin, "scope/two.rpm");
+        MatcherAssert.assertThat(
+            this.list(this.memo, AstoMemoizedStorageTest.SCOPE),
+            Matchers.contains("scope/one.rpm")
+        );
+    }
+
+    @Test
+    void keepsListingCoherentWithOwnWrites() {
+        this.save(this.origin, "scope/one.rpm");
+        this.save(this.origin, "scope/two.rpm");
+        this.list(this.memo, AstoMemoizedStorageTest.SCOPE);
+        this.save(this.memo, "scope/three.rpm");
+        this.memo.delete(new Key.From("scope/one.rpm")).join();
+        this.memo.move(new Key.From("scope/two.rpm"), new Key.From("two.rpm")).join();
+        MatcherAssert.assertThat(
+            this.list(this.memo, AstoMemoizedStorageTest.SCOPE),
+            Matchers.contains("scope/three.rpm")
+        );
+    }
+
+    @Test
+    void checksExistenceOnce() {
+        final Key key = new Key.From("scope/one.rpm");
+        MatcherAssert.assertThat(
+            "Absent key should not exist",
+            this.memo.exists(key).join(),
+            new IsEqual<>(false)
+        );
+        this.save(this.origin, key.string());
+        MatcherAssert.assertThat(
+            "Key saved to origin should not be seen",
+            this.memo.exists(key).join(),
+            new IsEqual<>(false)
+        );
+        this.save(this.memo, key.string());
+        MatcherAssert.assertThat(
+            "Key saved to memoized storage should exist",
+            this.memo.exists(key).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void readsNotScopedKeysFromOrigin() {
+        final Key key = new Key.From("other/one.rpm");
+        this.list(this.memo, new Key.From("other"));
+        this.memo.exists(key).join();
+        this.save(this.origin, key.string());
+        MatcherAssert.assertThat(
+            "Key out of scope should be listed",
+            this.list(this.memo, new Key.From("other")),
+            Matchers.contains(key.string())
+        );
+        MatcherAssert.assertThat(
+            "Key out of scope should exist",
+            this.memo.exists(key).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void readsKeysWithScopeNamePrefixFromOrigin() {
+        final Key key = new Key.From("scopes/one.rpm");
+        this.memo.exists(key).join();
+        this.list(this.memo, AstoMemoizedStorageTest.SCOPE);
+        this.save(this.origin, key.string());
+        MatcherAssert.assertThat(
+            "Key with scope name prefix should exist",
+            this.memo.exists(key).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Key with scope name prefix should not be listed in scope",
+            this.list(this.memo, AstoMemoizedStorageTest.SCOPE),
+            Matchers.emptyIterable()
+        );
+    }
+
+    @Test
+    void sharesMemoizedValuesWithExclusiveStorage() {
+        this.list(this.memo, AstoMemoizedStorageTest.SCOPE);
+        this.memo.exclusively(
+            new Key.From("lock"),
+            sto -> sto.save(
+                new Key.From("scope/one.rpm"),
+                new Content.From("x".getBytes(StandardCharsets.UTF_8))
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.list(this.memo, AstoMemoizedStorageTest.SCOPE),
+            Matchers.contains("scope/one.rpm")
+        );
+    }
+
+    private void save(final Storage sto, final String key) {
+        sto.save(
+            new Key.From(key), new Content.From(key.getBytes(StandardCharsets.UTF_8))
+        ).join();
+    }
+
+    private Collection<String> list(final Storage sto, final Key prefix) {
+        return sto.list(prefix).join().stream().map(Key::string).collect(Collectors.toList());
+    }
+}
@@ -4,6 +4,7 @@
  */
 package com.artipie.rpm.asto;
 
+import com.amihaiemil.eoyaml.Yaml;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
@@ -14,17 +15,23 @@ import com.artipie.rpm.RepoConfig;
 import com.artipie.rpm.StandardNamingPolicy;
 import com.artipie.rpm.TestRpm;
 import com.artipie.rpm.hm.IsXmlEqual;
+import com.artipie.rpm.meta.PackageRecords;
+import com.artipie.rpm.meta.ParsedPackage;
+import com.artipie.rpm.meta.XmlGzipIndex;
+import com.artipie.rpm.meta.XmlGzipMembers;
 import com.artipie.rpm.meta.XmlPackage;
 import com.artipie.rpm.pkg.FilePackage;
 import com.artipie.rpm.pkg.FilePackageHeader;
-import com.artipie.rpm.pkg.Package;
 import com.jcabi.matchers.XhtmlMatchers;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Collections;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -95,23 +102,73 @@ class AstoMetadataAddTest {
             .saveTo(this.storage, new Key.From("repodata", "other.xml.gz"));
         new TestResource("AstoMetadataAddTest/filelists.xml.gz")
             .saveTo(this.storage, new Key.From("repodata", "filelists.xml.gz"));
-        final TestRpm.Libdeflt libdeflt = new TestRpm.Libdeflt();
-        final TestRpm.Abc abc = new TestRpm.Abc();
+        this.verify(
+            new AstoMetadataAdd(
+                this.storage,
+                new RepoConfig.Simple(AstoMetadataAddTest.DGST, StandardNamingPolicy.SHA256, true)
+            ).perform(AstoMetadataAddTest.packages()).toCompletableFuture().join()
+        );
+    }
+
+    @Test
+    void appendsPackagesToGzipMembers() throws IOException {
+        new IndexedMetadata(this.storage).save("AstoMetadataAddTest", XmlPackage.values());
         final Key temp = new AstoMetadataAdd(
             this.storage,
-            new RepoConfig.Simple(AstoMetadataAddTest.DGST, StandardNamingPolicy.SHA256, true)
-        ).perform(
-            new ListOf<Package.Meta>(
-                new FilePackage.Headers(
-                    new FilePackageHeader(libdeflt.path()).header(),
-                    libdeflt.path(), Digest.SHA256, libdeflt.path().getFileName().toString()
-                ),
-                new FilePackage.Headers(
-                    new FilePackageHeader(abc.path()).header(),
-                    abc.path(), Digest.SHA256, abc.path().getFileName().toString()
-                )
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("gzip-members", "true").build()
             )
-        ).toCompletableFuture().join();
+        ).perform(AstoMetadataAddTest.packages()).toCompletableFuture().join();
+        this.verify(temp);
+        for (final XmlPackage type : XmlPackage.values()) {
+            final byte[] gzip = new BlockingStorage(this.storage)
+                .value(new Key.From(temp, type.name()));
+            MatcherAssert.assertThat(
+                String.format("%s should be compressed as gzip members", type.name()),
+                XmlGzipMembers.layout(gzip),
+                new IsEqual<>(true)
+            );
+            MatcherAssert.assertThat(
+                String.format("%s seek index should be saved", type.name()),
+                new XmlGzipIndex(
+                    new BlockingStorage(this.storage).value(
+                        new Key.From(
+                            AstoGzipIndex.ROOT, type.lowercase(), DigestUtils.sha256Hex(gzip)
+                        )
+                    )
+                ).count(),
+                new IsEqual<>(3L)
+            );
+        }
+    }
+
+    @Test
+    void replacesPackagesWithSameLocation() throws IOException {
+        final RepoConfig cnfg =
+            new RepoConfig.Simple(AstoMetadataAddTest.DGST, StandardNamingPolicy.SHA256, true);
+        final Key first = new AstoMetadataAdd(this.storage, cnfg)
+            .perform(AstoMetadataAddTest.packages()).toCompletableFuture().join();
+        for (final XmlPackage type : XmlPackage.values()) {
+            this.storage.move(
+                new Key.From(first, type.name()),
+                new Key.From("repodata", String.format("%s.xml.gz", type.lowercase()))
+            ).join();
+        }
+        final Key temp = new AstoMetadataAdd(this.storage, cnfg)
+            .perform(AstoMetadataAddTest.packages()).toCompletableFuture().join();
+        for (final XmlPackage type : XmlPackage.values()) {
+            MatcherAssert.assertThat(
+                String.format("%s should have replaced packages only once", type.name()),
+                new String(this.mbytes.value(temp, type), StandardCharsets.UTF_8),
+                XhtmlMatchers.hasXPaths(
+                    String.format("/*[local-name()='%s' and @packages='2']", type.tag()),
+                    String.format("/*[local-name()='%s' and count(*)=2]", type.tag())
+                )
+            );
+        }
+    }
+
+    private void verify(final Key temp) throws IOException {
         MatcherAssert.assertThat(
             "Failed to generate 6 items: metadatas and checksums",
             this.storage.list(temp).join(),
@@ -155,4 +212,22 @@ class AstoMetadataAddTest {
         );
     }
 
+    private static Collection<PackageRecords> packages() throws IOException {
+        final TestRpm.Libdeflt libdeflt = new TestRpm.Libdeflt();
+        final TestRpm.Abc abc = new TestRpm.Abc();
+        return new ListOf<PackageRecords>(
+            new ParsedPackage(
+                new FilePackage.Headers(
+                    new FilePackageHeader(libdeflt.path()).header(),
+                    libdeflt.path(), Digest.SHA256, libdeflt.path().getFileName().toString()
+                )
+            ),
+            new ParsedPackage(
+                new FilePackage.Headers(
+                    new FilePackageHeader(abc.path()).header(),
+                    abc.path(), Digest.SHA256, abc.path().getFileName().toString()
+                )
+            )
+        );
+    }
 }
@@ -4,6 +4,7 @@
  */
 package com.artipie.rpm.asto;
 
+import com.amihaiemil.eoyaml.Yaml;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
@@ -16,9 +17,11 @@ import com.artipie.rpm.hm.IsXmlEqual;
 import com.artipie.rpm.meta.XmlPackage;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -106,6 +109,73 @@ class AstoMetadataRemoveTest {
         this.checksumCheck(res, XmlPackage.FILELISTS);
     }
 
+    @Test
+    void removesPackageInChunks() throws IOException {
+        final String path = "AstoMetadataRemoveTest/removesPackageAndSavesChecksum";
+        new TestResource(String.join("/", path, "primary.xml.gz"))
+            .saveTo(this.storage, new Key.From("repodata", "primary.xml.gz"));
+        new TestResource(String.join("/", path, "other.xml.gz"))
+            .saveTo(this.storage, new Key.From("repodata", "other.xml.gz"));
+        final Key res = new AstoMetadataRemove(
+            this.storage,
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("naming-policy", "plain")
+                    .add("filelists", "false").add("filter-chunk", "1").build()
+            )
+        ).perform(
+            new ListOf<String>("7eaefd1cb4f9740558da7f12f9cb5a6141a47f5d064a98d46c29959869af1a44")
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Failed to update primary.xml correctly",
+            new TestResource(String.join("/", path, "primary.xml")).asPath(),
+            new IsXmlEqual(
+                this.mbytes.value(res, XmlPackage.PRIMARY)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Failed to update other.xml correctly",
+            new TestResource(String.join("/", path, "other.xml")).asPath(),
+            new IsXmlEqual(
+                this.mbytes.value(res, XmlPackage.OTHER)
+            )
+        );
+    }
+
+    @Test
+    void removesPackageByGzipIndex() throws IOException {
+        final String path = "AstoMetadataRemoveTest/removesPackageAndSavesChecksum";
+        new IndexedMetadata(this.storage).save(path, XmlPackage.values());
+        final Key res = new AstoMetadataRemove(
+            this.storage,
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("naming-policy", "plain")
+                    .add("gzip-members", "true").build()
+            )
+        ).perform(
+            new ListOf<String>("7eaefd1cb4f9740558da7f12f9cb5a6141a47f5d064a98d46c29959869af1a44")
+        ).toCompletableFuture().join();
+        for (final XmlPackage type : XmlPackage.values()) {
+            MatcherAssert.assertThat(
+                String.format("Failed to update %s correctly", type.name()),
+                new TestResource(String.format("%s/%s.xml", path, type.lowercase())).asPath(),
+                new IsXmlEqual(this.mbytes.value(res, type))
+            );
+            this.checksumCheck(res, type);
+            MatcherAssert.assertThat(
+                String.format("%s seek index should be saved", type.name()),
+                this.storage.exists(
+                    new Key.From(
+                        AstoGzipIndex.ROOT, type.lowercase(),
+                        DigestUtils.sha256Hex(
+                            new BlockingStorage(this.storage).value(new Key.From(res, type.name()))
+                        )
+                    )
+                ).join(),
+                new IsEqual<>(true)
+            );
+        }
+    }
+
     @Test
     void savesTheSameContentIfPackageNotFound() throws IOException {
         final String path = "AstoMetadataRemoveTest/savesTheSameContentIfPackageNotFound";
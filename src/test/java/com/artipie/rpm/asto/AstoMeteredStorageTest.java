@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoMeteredStorage}.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class AstoMeteredStorageTest {
+
+    @Test
+    void countsOperationsAndBytes() {
+        final AstoMeteredStorage.Stats stats = new AstoMeteredStorage.Stats();
+        final Storage sto = new AstoMeteredStorage(new InMemoryStorage(), stats);
+        final Key key = new Key.From("repodata/primary.xml");
+        sto.save(key, new Content.From("<metadata/>".getBytes(StandardCharsets.UTF_8))).join();
+        sto.list(new Key.From("repodata")).join();
+        sto.exists(key).join();
+        new PublisherAs(sto.value(key).join()).bytes().toCompletableFuture().join();
+        sto.move(key, new Key.From("primary.xml")).join();
+        sto.exclusively(key, exc -> exc.delete(new Key.From("primary.xml")))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Should count save calls",
+            stats.calls(AstoMeteredStorage.Operation.SAVE),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Should count calls inside exclusive operation",
+            stats.calls(AstoMeteredStorage.Operation.DELETE),
+            new IsEqual<>(1L)
+        );
+        MatcherAssert.assertThat(
+            "Should count all round trips",
+            stats.total(),
+            new IsEqual<>(7L)
+        );
+        MatcherAssert.assertThat(
+            "Should count written bytes",
+            stats.written(),
+            new IsEqual<>(11L)
+        );
+        MatcherAssert.assertThat(
+            "Should count read bytes",
+            stats.read(),
+            new IsEqual<>(11L)
+        );
+    }
+
+    @Test
+    void delaysOperations() {
+        final Storage sto = new AstoMeteredStorage(
+            new InMemoryStorage(), new AstoMeteredStorage.Stats(), Duration.ofMillis(50)
+        );
+        final long start = System.nanoTime();
+        final CompletableFuture<Boolean> res = sto.exists(new Key.From("any"));
+        MatcherAssert.assertThat(
+            "Should not block the caller",
+            res.isDone(),
+            new IsEqual<>(false)
+        );
+        res.join();
+        MatcherAssert.assertThat(
+            "Should complete after the latency",
+            Duration.ofNanos(System.nanoTime() - start).toMillis(),
+            Matchers.greaterThanOrEqualTo(50L)
+        );
+    }
+
+    @Test
+    void proceedsDelayedOperationsOnExecutor() {
+        final AtomicInteger tasks = new AtomicInteger();
+        new AstoMeteredStorage(
+            new InMemoryStorage(), new AstoMeteredStorage.Stats(),
+            operation -> Duration.ofMillis(10),
+            runnable -> {
+                tasks.incrementAndGet();
+                runnable.run();
+            }
+        ).list(Key.ROOT).join();
+        MatcherAssert.assertThat(
+            "Delayed operation should proceed on the executor",
+            tasks.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void printsStats() {
+        final AstoMeteredStorage.Stats stats = new AstoMeteredStorage.Stats();
+        new AstoMeteredStorage(new InMemoryStorage(), stats).list(Key.ROOT).join();
+        MatcherAssert.assertThat(
+            stats.toString(),
+            Matchers.allOf(
+                Matchers.containsString("list=1"),
+                Matchers.containsString("total=1"),
+                Matchers.containsString("read=0")
+            )
+        );
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.amihaiemil.eoyaml.YamlMapping;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.meta.RenderedPackage;
+import com.artipie.rpm.meta.XmlPackage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.StringContains;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoPackageFragments}.
+ * @since 1.10
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AstoPackageFragmentsTest {
+
+    /**
+     * Test rpm.
+     */
+    private static final TestRpm.Abc ABC = new TestRpm.Abc();
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    /**
+     * Package key.
+     */
+    private Key pkg;
+
+    /**
+     * Package records key.
+     */
+    private Key base;
+
+    @BeforeEach
+    void init() throws IOException {
+        this.storage = new InMemoryStorage();
+        AstoPackageFragmentsTest.ABC.put(this.storage);
+        this.pkg = new Key.From(String.format("%s.rpm", AstoPackageFragmentsTest.ABC.name()));
+        this.base = new Key.From(
+            AstoPackageFragments.ROOT, "sha256",
+            DigestUtils.sha256Hex(Files.readAllBytes(AstoPackageFragmentsTest.ABC.path()))
+        );
+    }
+
+    @Test
+    void rendersAndStoresRecords() {
+        final RenderedPackage res = this.meta("abc.rpm");
+        MatcherAssert.assertThat(
+            "Primary record should be rendered",
+            res.fragment(XmlPackage.PRIMARY).get(),
+            Matchers.allOf(
+                new StringContains("<name>abc</name>"),
+                new StringContains("<location href=\"abc.rpm\"")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Records and location should be stored",
+            this.storage.exists(new Key.From(this.base, "primary.xml")).join()
+                && this.storage.exists(new Key.From(this.base, "other.xml")).join()
+                && !this.storage.exists(new Key.From(this.base, "filelists.xml")).join()
+                && this.storage.exists(new Key.From(this.base, "href")).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void readsStoredRecords() {
+        this.save("primary.xml", "<package>primary</package>");
+        this.save("other.xml", "<package>other</package>");
+        this.save("href", "abc.rpm");
+        final RenderedPackage res = this.meta("abc.rpm");
+        MatcherAssert.assertThat(
+            "Stored primary record should be used",
+            res.fragment(XmlPackage.PRIMARY).get(),
+            new IsEqual<>("<package>primary</package>")
+        );
+        MatcherAssert.assertThat(
+            "Stored other record should be used",
+            res.fragment(XmlPackage.OTHER).get(),
+            new IsEqual<>("<package>other</package>")
+        );
+    }
+
+    @Test
+    void rendersAgainIfLocationIsDifferent() {
+        this.save("primary.xml", "<package>primary</package>");
+        this.save("other.xml", "<package>other</package>");
+        this.save("href", "old/abc.rpm");
+        MatcherAssert.assertThat(
+            this.meta("abc.rpm").fragment(XmlPackage.PRIMARY).get(),
+            new StringContains("<location href=\"abc.rpm\"")
+        );
+    }
+
+    @Test
+    void storesOtherRecordWithChangelogLimitSeparately() {
+        this.save("primary.xml", "<package>primary</package>");
+        this.save("other.xml", "<package>other</package>");
+        this.save("href", "abc.rpm");
+        final RenderedPackage res = this.meta(
+            "abc.rpm",
+            Yaml.createYamlMappingBuilder().add("filelists", "false").add("fragments", "true")
+                .add("changelog-limit", "1").build()
+        );
+        MatcherAssert.assertThat(
+            "Other record should be rendered with limited changelog",
+            res.fragment(XmlPackage.OTHER).get().split("<changelog ").length,
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Limited other record should be stored",
+            this.storage.exists(new Key.From(this.base, "other-1.xml")).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    private RenderedPackage meta(final String path) {
+        return this.meta(
+            path,
+            Yaml.createYamlMappingBuilder().add("filelists", "false")
+                .add("fragments", "true").build()
+        );
+    }
+
+    private RenderedPackage meta(final String path, final YamlMapping yaml) {
+        return new AstoPackageFragments(
+            this.storage, new RepoConfig.FromYaml(yaml)
+        ).records(this.pkg, path).toCompletableFuture().join();
+    }
+
+    private void save(final String name, final String text) {
+        this.storage.save(
+            new Key.From(this.base, name),
+            new Content.From(text.getBytes(StandardCharsets.UTF_8))
+        ).join();
+    }
+}
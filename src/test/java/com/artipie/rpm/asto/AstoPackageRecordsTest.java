@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.meta.PackageRecords;
+import com.artipie.rpm.meta.ParsedPackage;
+import com.artipie.rpm.meta.RenderedPackage;
+import java.io.IOException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoPackageRecords}.
+ * @since 1.10
+ */
+final class AstoPackageRecordsTest {
+
+    @Test
+    void parsesPackageWithoutFragments() throws IOException {
+        final Storage asto = new InMemoryStorage();
+        final PackageRecords res = AstoPackageRecordsTest.records(
+            asto, new RepoConfig.Simple()
+        );
+        MatcherAssert.assertThat(
+            "Package should be parsed",
+            res,
+            new IsInstanceOf(ParsedPackage.class)
+        );
+        MatcherAssert.assertThat(
+            "Records should not be stored",
+            asto.list(AstoPackageFragments.ROOT).join(),
+            Matchers.empty()
+        );
+    }
+
+    @Test
+    void readsRecordsFromFragmentsStore() throws IOException {
+        final Storage asto = new InMemoryStorage();
+        final PackageRecords res = AstoPackageRecordsTest.records(
+            asto,
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("fragments", "true").build()
+            )
+        );
+        MatcherAssert.assertThat(
+            "Package should be rendered",
+            res,
+            new IsInstanceOf(RenderedPackage.class)
+        );
+        MatcherAssert.assertThat(
+            "Records should be stored",
+            asto.list(AstoPackageFragments.ROOT).join().isEmpty(),
+            new IsEqual<>(false)
+        );
+    }
+
+    /**
+     * Reads records of the test package.
+     * @param asto Storage
+     * @param cnfg Repository config
+     * @return Package records
+     * @throws IOException On error
+     */
+    private static PackageRecords records(final Storage asto, final RepoConfig cnfg)
+        throws IOException {
+        final TestRpm.Abc abc = new TestRpm.Abc();
+        abc.put(asto);
+        final String name = String.format("%s.rpm", abc.name());
+        return new AstoPackageRecords(asto, cnfg).records(new Key.From(name), name)
+            .toCompletableFuture().join();
+    }
+}
@@ -4,6 +4,7 @@
  */
 package com.artipie.rpm.asto;
 
+import com.amihaiemil.eoyaml.Yaml;
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
@@ -11,8 +12,8 @@ import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
 import com.artipie.rpm.Digest;
-import com.artipie.rpm.NamingPolicy;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.RepoMetrics;
 import com.artipie.rpm.StandardNamingPolicy;
 import com.artipie.rpm.TestRpm;
 import com.artipie.rpm.hm.IsXmlEqual;
@@ -21,11 +22,25 @@ import com.artipie.rpm.meta.XmlPackage;
 import com.jcabi.matchers.XhtmlMatchers;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.cactoos.list.ListOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 /**
  * Test for {@link AstoRepoAdd}.
@@ -184,6 +199,164 @@ class AstoRepoAddTest {
         );
     }
 
+    @Test
+    void addsPackagesWithStoredRecords() throws IOException {
+        final String time = "time-1.7-45.el7.x86_64.rpm";
+        final RepoConfig cnfg = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add("naming-policy", "plain")
+                .add("filelists", "true").add("fragments", "true").build()
+        );
+        new TestResource(time).saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, time));
+        new AstoRepoAdd(this.storage, cnfg).perform().toCompletableFuture().join();
+        new TestResource(time).saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, time));
+        new AstoRepoAdd(this.storage, cnfg).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Records should be stored",
+            this.storage.list(AstoPackageFragments.ROOT).join(),
+            Matchers.iterableWithSize(4)
+        );
+        MatcherAssert.assertThat(
+            "Primary xml should have stored record",
+            new String(this.mbytes.value(XmlPackage.PRIMARY), StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='1']",
+                //@checkstyle LineLengthCheck (2 lines)
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='time']",
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='format']/*[local-name()='provides']"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Filelists xml should have stored record",
+            new String(this.mbytes.value(XmlPackage.FILELISTS), StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='filelists' and @packages='1']",
+                "/*[local-name()='filelists']/*[local-name()='package' and @name='time']"
+            )
+        );
+    }
+
+    @Test
+    void addsPackagesWithStagedIntermediateFiles() throws IOException {
+        final String time = "time-1.7-45.el7.x86_64.rpm";
+        new TestResource(time).saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, time));
+        new AstoRepoAdd(
+            this.storage,
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("naming-policy", "plain")
+                    .add("staging", "memory").build()
+            )
+        ).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Failed to have 5 items in storage: primary, other, filelists, repomd and rpm",
+            this.storage.list(Key.ROOT).join(),
+            Matchers.iterableWithSize(5)
+        );
+        MatcherAssert.assertThat(
+            "Primary xml should have added package",
+            new String(this.mbytes.value(XmlPackage.PRIMARY), StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='1']",
+                //@checkstyle LineLengthCheck (1 line)
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='time']"
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1"})
+    void addsPackagesWithinMemoryBudget(final String budget) throws IOException {
+        final String time = "time-1.7-45.el7.x86_64.rpm";
+        new TestResource(time).saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, time));
+        final String lib = "libnss-mymachines2-245-1.x86_64.rpm";
+        new TestResource(lib).saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, lib));
+        new AstoRepoAdd(
+            this.storage,
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("naming-policy", "plain")
+                    .add("add-memory-budget", budget).build()
+            )
+        ).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Metadata should have added packages",
+            new String(this.mbytes.value(XmlPackage.FILELISTS), StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='filelists' and @packages='2']",
+                "/*[local-name()='filelists']/*[local-name()='package' and @name='time']",
+                //@checkstyle LineLengthCheck (1 line)
+                "/*[local-name()='filelists']/*[local-name()='package' and @name='libnss-mymachines2']"
+            )
+        );
+    }
+
+    @Test
+    void indexesRepositoryPackagesInPlace() throws IOException {
+        final String time = "time-1.7-45.el7.x86_64.rpm";
+        new TestResource(time).saveTo(this.storage, new Key.From("os", time));
+        final Key invalid = new Key.From("invalid.rpm");
+        this.storage.save(invalid, new Content.From(new TestRpm.Invalid().bytes())).join();
+        new AstoRepoAdd(
+            this.storage,
+            new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.PLAIN, false)
+        ).perform(new ListOf<Key>(new Key.From("os", time), invalid))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Packages should be kept in place",
+            this.storage.list(Key.ROOT).join().stream().map(Key::string)
+                .filter(key -> key.endsWith(".rpm")).collect(Collectors.toList()),
+            Matchers.containsInAnyOrder(String.format("os/%s", time), invalid.string())
+        );
+        MatcherAssert.assertThat(
+            "Primary xml should have package at its location",
+            new String(this.mbytes.value(XmlPackage.PRIMARY), StandardCharsets.UTF_8),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='1']",
+                //@checkstyle LineLengthCheck (1 line)
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='location' and @href='os/time-1.7-45.el7.x86_64.rpm']"
+            )
+        );
+    }
+
+    @Test
+    void recordsMetrics() {
+        new TestResource("time-1.7-45.el7.x86_64.rpm")
+            .saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, "time-1.7-45.el7.x86_64.rpm"));
+        this.storage.save(
+            new Key.From(RpmUpload.TO_ADD, "invalid.rpm"),
+            new Content.From(new TestRpm.Invalid().bytes())
+        ).join();
+        final Set<String> stages = ConcurrentHashMap.newKeySet();
+        final Map<String, AtomicLong> values = new ConcurrentHashMap<>();
+        new AstoRepoAdd(
+            this.storage,
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().build(),
+                new RepoMetrics.Meters(
+                    (name, tags) -> duration -> stages.add(tags[1]),
+                    (name, tags) -> values.computeIfAbsent(tags[1], key -> new AtomicLong())
+                        ::addAndGet,
+                    (name, tags) -> values.computeIfAbsent(tags[1], key -> new AtomicLong())
+                )
+            )
+        ).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Update stages should be timed",
+            stages,
+            Matchers.hasItems("parse", "metadata-add", "gzip", "repomd", "commit-move")
+        );
+        MatcherAssert.assertThat(
+            "Packages should be counted",
+            values.entrySet().stream().collect(
+                Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get())
+            ),
+            Matchers.allOf(
+                Matchers.hasEntry("add", 2L),
+                Matchers.hasEntry("parsed", 1L),
+                Matchers.hasEntry("invalid", 1L),
+                Matchers.hasEntry("added", 1L)
+            )
+        );
+    }
+
     @Test
     void doesNothingIfOnlyInvalidPackageIsInUpdate() throws IOException {
         new TestResource("AstoRepoAddTest/other.xml.gz")
@@ -196,8 +369,9 @@ class AstoRepoAddTest {
         ).join();
         new AstoRepoAdd(
             this.storage,
-            new RepoConfig.Simple(
-                Digest.SHA256, new NamingPolicy.HashPrefixed(Digest.SHA256), false
+            new RepoConfig.FromYaml(
+                Yaml.createYamlMappingBuilder().add("naming-policy", "sha256")
+                    .add("filelists", "false").add("grace-period", "0").build()
             )
         ).perform().toCompletableFuture().join();
         MatcherAssert.assertThat(
@@ -222,6 +396,80 @@ class AstoRepoAddTest {
         );
     }
 
+    @Test
+    void restagesPackagesWhenCommitFails() {
+        final String time = "time-1.7-45.el7.x86_64.rpm";
+        new TestResource(time).saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, time));
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new AstoRepoAdd(
+                new FailingRepomd(this.storage),
+                new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.PLAIN, false)
+            ).perform().toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Should fail with commit error",
+            err.getCause().getMessage(),
+            new IsEqual<>("repomd.xml is not writable")
+        );
+        MatcherAssert.assertThat(
+            "Package should be moved back to the staging location",
+            this.storage.exists(new Key.From(RpmUpload.TO_ADD, time)).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Package should not be left in the repository",
+            this.storage.exists(new Key.From(time)).join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void keepsReplacedPackageWhenCommitFails() {
+        final Key pkg = new Key.From("time.rpm");
+        final byte[] time = new TestResource("time-1.7-45.el7.x86_64.rpm").asBytes();
+        this.storage.save(pkg, new Content.From(time)).join();
+        new TestResource("abc-1.01-26.git20200127.fc32.ppc64le.rpm")
+            .saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, pkg));
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> new AstoRepoAdd(
+                new FailingRepomd(this.storage),
+                new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.PLAIN, false)
+            ).perform().toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Replaced package should be kept in the repository",
+            new BlockingStorage(this.storage).value(pkg),
+            new IsEqual<>(time)
+        );
+        MatcherAssert.assertThat(
+            "New package should be moved back to the staging location",
+            this.storage.exists(new Key.From(RpmUpload.TO_ADD, pkg)).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void releasesClaimedPackagesAfterCommit() {
+        final String time = "time-1.7-45.el7.x86_64.rpm";
+        new TestResource(time).saveTo(this.storage, new Key.From(RpmUpload.TO_ADD, time));
+        new AstoRepoAdd(
+            this.storage,
+            new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.PLAIN, false)
+        ).perform().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Package should be moved to the repository",
+            this.storage.exists(new Key.From(time)).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Claimed packages should not be left",
+            this.storage.list(AstoRepoAdd.CLAIMED).join(),
+            Matchers.emptyIterable()
+        );
+    }
+
     private void checkMeta(final String file, final XmlPackage primary) throws IOException {
         MatcherAssert.assertThat(
             String.format("Failed to generate %s xml", primary.lowercase()),
@@ -231,4 +479,72 @@ class AstoRepoAddTest {
             )
         );
     }
+
+    /**
+     * Storage, which fails to move items to `repodata/repomd.xml`.
+     * @since 1.10
+     */
+    private static final class FailingRepomd implements Storage {
+
+        /**
+         * Origin storage.
+         */
+        private final Storage origin;
+
+        /**
+         * Ctor.
+         * @param origin Origin storage
+         */
+        FailingRepomd(final Storage origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> exists(final Key key) {
+            return this.origin.exists(key);
+        }
+
+        @Override
+        public CompletableFuture<Collection<Key>> list(final Key prefix) {
+            return this.origin.list(prefix);
+        }
+
+        @Override
+        public CompletableFuture<Void> save(final Key key, final Content content) {
+            return this.origin.save(key, content);
+        }
+
+        @Override
+        public CompletableFuture<Void> move(final Key source, final Key destination) {
+            final CompletableFuture<Void> res;
+            if (destination.string().equals("repodata/repomd.xml")) {
+                res = new CompletableFuture<>();
+                res.completeExceptionally(new IllegalStateException("repomd.xml is not writable"));
+            } else {
+                res = this.origin.move(source, destination);
+            }
+            return res;
+        }
+
+        @Override
+        public CompletableFuture<Long> size(final Key key) {
+            return this.origin.size(key);
+        }
+
+        @Override
+        public CompletableFuture<Content> value(final Key key) {
+            return this.origin.value(key);
+        }
+
+        @Override
+        public CompletableFuture<Void> delete(final Key key) {
+            return this.origin.delete(key);
+        }
+
+        @Override
+        public <T> CompletionStage<T> exclusively(final Key key,
+            final Function<Storage, CompletionStage<T>> operation) {
+            return this.origin.exclusively(key, operation);
+        }
+    }
 }
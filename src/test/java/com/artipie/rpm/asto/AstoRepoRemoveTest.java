@@ -4,15 +4,14 @@
  */
 package com.artipie.rpm.asto;
 
+import com.amihaiemil.eoyaml.Yaml;
 import com.artipie.asto.Content;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
 import com.artipie.asto.memory.InMemoryStorage;
 import com.artipie.asto.test.TestResource;
-import com.artipie.rpm.Digest;
 import com.artipie.rpm.RepoConfig;
-import com.artipie.rpm.StandardNamingPolicy;
 import com.artipie.rpm.http.RpmRemove;
 import com.artipie.rpm.meta.XmlPackage;
 import com.jcabi.matchers.XhtmlMatchers;
@@ -47,7 +46,10 @@ class AstoRepoRemoveTest {
     @BeforeEach
     void init() {
         this.storage = new InMemoryStorage();
-        this.conf = new RepoConfig.Simple(Digest.SHA256, StandardNamingPolicy.SHA256, false);
+        this.conf = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add("naming-policy", "sha256")
+                .add("filelists", "false").add("grace-period", "0").build()
+        );
     }
 
     @Test
@@ -0,0 +1,145 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.ArtipieException;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.RepoConfig;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoRepodataCommit}.
+ * @since 1.10
+ */
+class AstoRepodataCommitTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    /**
+     * Update calls counter.
+     */
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+        this.calls = new AtomicInteger();
+    }
+
+    @Test
+    void retriesUpdateWhenRevisionChanged() {
+        final RepoConfig cnfg = AstoRepodataCommitTest.optimistic(5);
+        new AstoRepodataCommit(this.asto, cnfg).perform(
+            () -> this.update(cnfg, 1)
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Update should be calculated twice",
+            this.calls.get(),
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Metadata should be published",
+            new AstoMetadataLocations(this.asto).referenced().toCompletableFuture().join()
+                .keySet(),
+            Matchers.containsInAnyOrder("primary", "other")
+        );
+    }
+
+    @Test
+    void failsWhenAttemptsAreExhausted() {
+        final RepoConfig cnfg = AstoRepodataCommitTest.optimistic(2);
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new AstoRepodataCommit(this.asto, cnfg).perform(
+                () -> this.update(cnfg, Integer.MAX_VALUE)
+            ).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Should fail with ArtipieException",
+            err.getCause(),
+            new IsInstanceOf(ArtipieException.class)
+        );
+        MatcherAssert.assertThat(
+            "Update should be calculated twice",
+            this.calls.get(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void publishesNothingWhenUpdateIsEmpty() {
+        final RepoConfig cnfg = AstoRepodataCommitTest.optimistic(1);
+        new AstoRepodataCommit(this.asto, cnfg).perform(
+            () -> new AstoMetadataAdd(this.asto, cnfg).perform(Collections.emptyList())
+        ).toCompletableFuture().join();
+        final String revision = new AstoMetadataLocations(this.asto).revision()
+            .toCompletableFuture().join();
+        new AstoRepodataCommit(this.asto, cnfg).perform(
+            () -> CompletableFuture.completedFuture(new Key.From("empty"))
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new AstoMetadataLocations(this.asto).revision().toCompletableFuture().join(),
+            new IsEqual<>(revision)
+        );
+    }
+
+    /**
+     * Calculates metadata update, first `concurrent` calls emulate concurrent
+     * publish by replacing repomd.xml.
+     * @param cnfg Repository config
+     * @param concurrent Number of calls to emulate concurrent publish
+     * @return Completable action with temp key
+     */
+    private CompletionStage<Key> update(final RepoConfig cnfg, final int concurrent) {
+        final int call = this.calls.incrementAndGet();
+        if (call <= concurrent) {
+            this.asto.save(
+                AstoMetadataLocations.REPOMD,
+                new Content.From(
+                    String.join(
+                        "", "<repomd xmlns=\"http://linux.duke.edu/metadata/repo\">",
+                        String.format("<revision>%d</revision>", call), "</repomd>"
+                    ).getBytes(StandardCharsets.UTF_8)
+                )
+            ).join();
+        }
+        return new AstoMetadataAdd(this.asto, cnfg).perform(Collections.emptyList());
+    }
+
+    /**
+     * Optimistic commit config.
+     * @param attempts Max commit attempts
+     * @return Repository config
+     */
+    private static RepoConfig optimistic(final int attempts) {
+        return new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder()
+                .add("naming-policy", "sha256")
+                .add("filelists", "false")
+                .add("commit", "optimistic")
+                .add("commit-attempts", String.valueOf(attempts))
+                .build()
+        );
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.amihaiemil.eoyaml.Yaml;
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.SubStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.misc.StripedLocks;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link AstoRepodataPublish}.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AstoRepodataPublishTest {
+
+    /**
+     * Temp repomd key.
+     */
+    private static final Key TMP_REPOMD = new Key.From("tmp", "repomd.xml");
+
+    /**
+     * Temp primary key.
+     */
+    private static final Key TMP_PRIMARY = new Key.From("tmp", "PRIMARY");
+
+    /**
+     * Test storage.
+     */
+    private Storage asto;
+
+    @BeforeEach
+    void init() {
+        this.asto = new InMemoryStorage();
+        this.save(new Key.From("repodata", "old-primary.xml.gz"), "old");
+        this.save(new Key.From("repodata", "repomd.xml"), AstoRepodataPublishTest.repomd("old"));
+    }
+
+    @Test
+    void publishesAndRemovesSupersededItems() {
+        this.save(AstoRepodataPublishTest.TMP_PRIMARY, "new");
+        this.save(AstoRepodataPublishTest.TMP_REPOMD, AstoRepodataPublishTest.repomd("new"));
+        new AstoRepodataPublish(this.asto, Duration.ZERO, Clock.systemUTC(), this.locks()).publish(
+            AstoRepodataPublishTest.names("new")
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.repodata(),
+            Matchers.containsInAnyOrder("repodata/repomd.xml", "repodata/new-primary.xml.gz")
+        );
+    }
+
+    @Test
+    void removesIndexesOfSupersededMetadata() {
+        this.save(new Key.From(AstoGzipIndex.ROOT, "primary", "old"), "old");
+        this.save(new Key.From(AstoGzipIndex.ROOT, "primary", "new"), "new");
+        this.save(new Key.From(AstoGzipIndex.ROOT, "primary", "other"), "other");
+        this.save(AstoRepodataPublishTest.TMP_PRIMARY, "new");
+        this.save(AstoRepodataPublishTest.TMP_REPOMD, AstoRepodataPublishTest.repomd("new"));
+        new AstoRepodataPublish(this.asto, Duration.ZERO, Clock.systemUTC(), this.locks()).publish(
+            AstoRepodataPublishTest.names("new")
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.indexes(),
+            Matchers.containsInAnyOrder(".index/primary/new", ".index/primary/other")
+        );
+    }
+
+    @Test
+    void removesIndexesOfRejectedUpdate() {
+        final String rev = new AstoMetadataLocations(this.asto).revision()
+            .toCompletableFuture().join();
+        this.save(new Key.From("repodata", "other-primary.xml.gz"), "other");
+        this.save(new Key.From("repodata", "repomd.xml"), AstoRepodataPublishTest.repomd("other"));
+        this.save(new Key.From(AstoGzipIndex.ROOT, "primary", "other"), "other");
+        this.save(new Key.From(AstoGzipIndex.ROOT, "primary", "new"), "new");
+        this.save(AstoRepodataPublishTest.TMP_PRIMARY, "new");
+        this.save(AstoRepodataPublishTest.TMP_REPOMD, AstoRepodataPublishTest.repomd("new"));
+        new AstoRepodataPublish(this.asto, Duration.ZERO, Clock.systemUTC(), this.locks()).publish(
+            AstoRepodataPublishTest.names("new"), rev
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.indexes(),
+            Matchers.contains(".index/primary/other")
+        );
+    }
+
+    @Test
+    void keepsSupersededItemsDuringGracePeriod() {
+        final Instant now = Instant.now();
+        this.save(AstoRepodataPublishTest.TMP_PRIMARY, "new");
+        this.save(AstoRepodataPublishTest.TMP_REPOMD, AstoRepodataPublishTest.repomd("new"));
+        new AstoRepodataPublish(
+            this.asto, Duration.ofHours(1), Clock.fixed(now, ZoneOffset.UTC), this.locks()
+        ).publish(AstoRepodataPublishTest.names("new")).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Superseded primary should be kept during grace period",
+            this.repodata(),
+            Matchers.containsInAnyOrder(
+                "repodata/repomd.xml", "repodata/new-primary.xml.gz",
+                "repodata/old-primary.xml.gz", AstoRepodataPublish.LEDGER.string()
+            )
+        );
+        this.save(AstoRepodataPublishTest.TMP_PRIMARY, "next");
+        this.save(AstoRepodataPublishTest.TMP_REPOMD, AstoRepodataPublishTest.repomd("next"));
+        new AstoRepodataPublish(
+            this.asto, Duration.ofHours(1),
+            Clock.fixed(now.plus(Duration.ofMinutes(90)), ZoneOffset.UTC), this.locks()
+        ).publish(AstoRepodataPublishTest.names("next")).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Expired generation should be removed, previous generation should be kept",
+            this.repodata(),
+            Matchers.containsInAnyOrder(
+                "repodata/repomd.xml", "repodata/next-primary.xml.gz",
+                "repodata/new-primary.xml.gz", AstoRepodataPublish.LEDGER.string()
+            )
+        );
+    }
+
+    @Test
+    void publishesIfRevisionIsCurrent() {
+        final String rev = new AstoMetadataLocations(this.asto).revision()
+            .toCompletableFuture().join();
+        this.save(AstoRepodataPublishTest.TMP_PRIMARY, "new");
+        this.save(AstoRepodataPublishTest.TMP_REPOMD, AstoRepodataPublishTest.repomd("new"));
+        MatcherAssert.assertThat(
+            "Metadata should be published",
+            new AstoRepodataPublish(
+                this.asto, Duration.ZERO, Clock.systemUTC(), this.locks()
+            ).publish(
+                AstoRepodataPublishTest.names("new"), rev
+            ).toCompletableFuture().join(),
+            new IsEqual<>(AstoRepodataPublish.Outcome.PUBLISHED)
+        );
+        MatcherAssert.assertThat(
+            "Superseded items should be removed",
+            this.repodata(),
+            Matchers.containsInAnyOrder("repodata/repomd.xml", "repodata/new-primary.xml.gz")
+        );
+    }
+
+    @Test
+    void doesNotPublishIfRevisionChanged() {
+        final String rev = new AstoMetadataLocations(this.asto).revision()
+            .toCompletableFuture().join();
+        this.save(new Key.From("repodata", "other-primary.xml.gz"), "other");
+        this.save(new Key.From("repodata", "repomd.xml"), AstoRepodataPublishTest.repomd("other"));
+        this.save(AstoRepodataPublishTest.TMP_PRIMARY, "new");
+        this.save(AstoRepodataPublishTest.TMP_REPOMD, AstoRepodataPublishTest.repomd("new"));
+        MatcherAssert.assertThat(
+            "Metadata should not be published",
+            new AstoRepodataPublish(
+                this.asto, Duration.ZERO, Clock.systemUTC(), this.locks()
+            ).publish(
+                AstoRepodataPublishTest.names("new"), rev
+            ).toCompletableFuture().join(),
+            new IsEqual<>(AstoRepodataPublish.Outcome.CONFLICT)
+        );
+        MatcherAssert.assertThat(
+            "Current repomd should not be replaced",
+            new AstoMetadataLocations(this.asto).referenced().toCompletableFuture().join()
+                .get("primary").string(),
+            new IsEqual<>("repodata/other-primary.xml.gz")
+        );
+    }
+
+    @Test
+    void doesNotPublishIfRepodataIsLocked() {
+        final String rev = new AstoMetadataLocations(this.asto).revision()
+            .toCompletableFuture().join();
+        final StripedLocks memory = new StripedLocks();
+        final RepoConfig cnfg = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add("locks", "memory").build()
+        );
+        memory.lock(this.asto, new Key.From("repodata"), Optional.empty(), Duration.ZERO)
+            .acquire().toCompletableFuture().join();
+        this.save(AstoRepodataPublishTest.TMP_PRIMARY, "new");
+        this.save(AstoRepodataPublishTest.TMP_REPOMD, AstoRepodataPublishTest.repomd("new"));
+        MatcherAssert.assertThat(
+            new AstoRepodataPublish(
+                this.asto, Duration.ZERO, Clock.systemUTC(),
+                new AstoLocks(this.asto, cnfg, memory)
+            ).publish(AstoRepodataPublishTest.names("new"), rev).toCompletableFuture().join(),
+            new IsEqual<>(AstoRepodataPublish.Outcome.BUSY)
+        );
+    }
+
+    @Test
+    void doesNotMoveItemsWhileRepodataIsLocked() {
+        final StripedLocks memory = new StripedLocks();
+        final RepoConfig cnfg = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add("locks", "memory").build()
+        );
+        memory.lock(this.asto, new Key.From("repodata"), Optional.empty(), Duration.ZERO)
+            .acquire().toCompletableFuture().join();
+        this.save(AstoRepodataPublishTest.TMP_PRIMARY, "new");
+        this.save(AstoRepodataPublishTest.TMP_REPOMD, AstoRepodataPublishTest.repomd("new"));
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> new AstoRepodataPublish(
+                this.asto, Duration.ZERO, Clock.systemUTC(),
+                new AstoLocks(this.asto, cnfg, memory)
+            ).publish(AstoRepodataPublishTest.names("new")).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            "Items should not be moved or removed without the lock",
+            this.repodata(),
+            Matchers.containsInAnyOrder("repodata/repomd.xml", "repodata/old-primary.xml.gz")
+        );
+    }
+
+    @Test
+    void publishesWhileOtherRepositoryIsPublishing() {
+        final StripedLocks memory = new StripedLocks();
+        final RepoConfig cnfg = new RepoConfig.FromYaml(
+            Yaml.createYamlMappingBuilder().add("locks", "memory").build()
+        );
+        final Storage root = new InMemoryStorage();
+        final Key fprefix = new Key.From("first");
+        final Key sprefix = new Key.From("second");
+        final Storage first = new SubStorage(fprefix, root);
+        final Storage second = new SubStorage(sprefix, root);
+        final Storage other = new InMemoryStorage();
+        new AstoLocks(first, cnfg, memory, root, fprefix)
+            .lock(AstoMetadataLocations.META, Optional.empty())
+            .acquire().toCompletableFuture().join();
+        new AstoLocks(other, cnfg, memory).lock(AstoMetadataLocations.META, Optional.empty())
+            .acquire().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Repository with the same storage and other prefix should be published",
+            this.publish(second, new AstoLocks(second, cnfg, memory, root, sprefix)),
+            new IsEqual<>(AstoRepodataPublish.Outcome.PUBLISHED)
+        );
+        MatcherAssert.assertThat(
+            "Repository in other storage with the same prefix should be published",
+            this.publish(this.asto, new AstoLocks(this.asto, cnfg, memory)),
+            new IsEqual<>(AstoRepodataPublish.Outcome.PUBLISHED)
+        );
+        MatcherAssert.assertThat(
+            "Repository, which is being published, should be busy",
+            this.publish(first, new AstoLocks(first, cnfg, memory, root, fprefix)),
+            new IsEqual<>(AstoRepodataPublish.Outcome.BUSY)
+        );
+    }
+
+    private AstoRepodataPublish.Outcome publish(final Storage sto, final AstoLocks locks) {
+        final String rev = new AstoMetadataLocations(sto).revision().toCompletableFuture().join();
+        final String repomd = AstoRepodataPublishTest.repomd("new");
+        sto.save(
+            AstoRepodataPublishTest.TMP_PRIMARY,
+            new Content.From("new".getBytes(StandardCharsets.UTF_8))
+        ).join();
+        sto.save(
+            AstoRepodataPublishTest.TMP_REPOMD,
+            new Content.From(repomd.getBytes(StandardCharsets.UTF_8))
+        ).join();
+        return new AstoRepodataPublish(sto, Duration.ZERO, Clock.systemUTC(), locks)
+            .publish(AstoRepodataPublishTest.names("new"), rev).toCompletableFuture().join();
+    }
+
+    private AstoLocks locks() {
+        return new AstoLocks(this.asto, new RepoConfig.Simple());
+    }
+
+    private List<String> repodata() {
+        return this.asto.list(new Key.From("repodata")).join().stream()
+            .map(Key::string).collect(Collectors.toList());
+    }
+
+    private List<String> indexes() {
+        return this.asto.list(AstoGzipIndex.ROOT).join().stream()
+            .map(Key::string).collect(Collectors.toList());
+    }
+
+    private void save(final Key key, final String val) {
+        this.asto.save(key, new Content.From(val.getBytes(StandardCharsets.UTF_8))).join();
+    }
+
+    private static MapOf<Key, Key> names(final String prefix) {
+        return new MapOf<Key, Key>(
+            new MapEntry<>(
+                AstoRepodataPublishTest.TMP_PRIMARY,
+                new Key.From("repodata", String.format("%s-primary.xml.gz", prefix))
+            ),
+            new MapEntry<>(
+                AstoRepodataPublishTest.TMP_REPOMD, new Key.From("repodata", "repomd.xml")
+            )
+        );
+    }
+
+    private static String repomd(final String prefix) {
+        return String.join(
+            "",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+            "<repomd xmlns=\"http://linux.duke.edu/metadata/repo\"><revision>1</revision>",
+            "<data type=\"primary\">",
+            String.format("<checksum type=\"sha256\">%s</checksum>", prefix),
+            String.format("<location href=\"repodata/%s-primary.xml.gz\"/>", prefix),
+            "</data></repomd>"
+        );
+    }
+}
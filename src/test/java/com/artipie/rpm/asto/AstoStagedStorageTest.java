@@ -0,0 +1,179 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.asto.fs.FileStorage;
+import com.artipie.asto.memory.InMemoryStorage;
+import io.reactivex.Flowable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link AstoStagedStorage}.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class AstoStagedStorageTest {
+
+    /**
+     * Repository storage.
+     */
+    private Storage asto;
+
+    /**
+     * Staging storage.
+     */
+    private Storage staging;
+
+    /**
+     * Temp location.
+     */
+    private Key temp;
+
+    @BeforeEach
+    void init(final @TempDir Path dir) {
+        this.asto = new InMemoryStorage();
+        this.staging = new FileStorage(dir);
+        this.temp = AstoStagedStorage.temp();
+    }
+
+    @Test
+    void stagesIntermediateFiles() {
+        final Storage sto = new AstoStagedStorage(this.asto, this.staging, Long.MAX_VALUE);
+        final Key key = new Key.From(this.temp, "primary.xml");
+        this.save(sto, key, "primary");
+        MatcherAssert.assertThat(
+            "Intermediate file should not be written to repository storage",
+            this.asto.exists(key).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Intermediate file should be read from staging storage",
+            new String(new BlockingStorage(sto).value(key), StandardCharsets.UTF_8),
+            new IsEqual<>("primary")
+        );
+        MatcherAssert.assertThat(
+            "Intermediate file should be listed",
+            this.list(sto, this.temp),
+            Matchers.contains(key.string())
+        );
+    }
+
+    @Test
+    void uploadsFileMovedOutOfTemp() {
+        final Storage sto = new AstoStagedStorage(this.asto, this.staging, Long.MAX_VALUE);
+        final Key key = new Key.From(this.temp, "primary.xml.gz");
+        final Key moved = new Key.From(this.temp, "primary.gz");
+        final Key published = new Key.From("repodata", "primary.xml.gz");
+        this.save(sto, key, "gzip");
+        sto.move(key, moved).join();
+        sto.move(moved, published).join();
+        MatcherAssert.assertThat(
+            "Published file should be uploaded to repository storage",
+            new String(new BlockingStorage(this.asto).value(published), StandardCharsets.UTF_8),
+            new IsEqual<>("gzip")
+        );
+        MatcherAssert.assertThat(
+            "Published file should be removed from staging storage",
+            this.list(this.staging, this.temp),
+            Matchers.empty()
+        );
+    }
+
+    @Test
+    void writesFilesOverLimitToRepositoryStorage() {
+        final Storage sto = new AstoStagedStorage(this.asto, this.staging, 10);
+        final Key first = new Key.From(this.temp, "primary.xml");
+        final Key second = new Key.From(this.temp, "other.xml");
+        this.save(sto, first, "primary");
+        this.save(sto, second, "other");
+        MatcherAssert.assertThat(
+            "File over limit should be written to repository storage",
+            this.list(this.asto, this.temp),
+            Matchers.contains(second.string())
+        );
+        MatcherAssert.assertThat(
+            "Staged and spilled files should be listed",
+            this.list(sto, this.temp),
+            Matchers.containsInAnyOrder(first.string(), second.string())
+        );
+        sto.delete(first).join();
+        sto.delete(second).join();
+        MatcherAssert.assertThat(
+            "Files should be removed",
+            this.list(sto, this.temp),
+            Matchers.empty()
+        );
+    }
+
+    @Test
+    void reservesSizeOfFilesBeingSaved() {
+        final Storage sto = new AstoStagedStorage(this.asto, this.staging, 10);
+        final Key first = new Key.From(this.temp, "primary.xml");
+        final Key second = new Key.From(this.temp, "other.xml");
+        final CompletableFuture<Void> pending = sto.save(
+            first, new Content.From(7L, Flowable.never())
+        );
+        this.save(sto, second, "other");
+        MatcherAssert.assertThat(
+            "File, which does not fit along with the file being saved, should be spilled",
+            this.list(this.asto, this.temp),
+            Matchers.contains(second.string())
+        );
+        pending.cancel(true);
+    }
+
+    @Test
+    void releasesReservationWhenSaveFails() {
+        final Storage sto = new AstoStagedStorage(this.asto, this.staging, 10);
+        final Key key = new Key.From(this.temp, "primary.xml");
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> sto.save(
+                key, new Content.From(7L, Flowable.error(new IllegalStateException("failed")))
+            ).join()
+        );
+        this.save(sto, new Key.From(this.temp, "other.xml"), "other");
+        MatcherAssert.assertThat(
+            "Failed save should not keep the staging space reserved",
+            this.list(this.asto, this.temp),
+            Matchers.empty()
+        );
+    }
+
+    @Test
+    void writesOtherFilesToRepositoryStorage() {
+        final Key key = new Key.From("repodata", "repomd.xml");
+        this.save(new AstoStagedStorage(this.asto, this.staging, Long.MAX_VALUE), key, "repomd");
+        MatcherAssert.assertThat(
+            this.asto.exists(key).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    private void save(final Storage sto, final Key key, final String val) {
+        sto.save(key, new Content.From(val.getBytes(StandardCharsets.UTF_8))).join();
+    }
+
+    private Collection<String> list(final Storage sto, final Key prefix) {
+        return sto.list(prefix).join().stream().map(Key::string).collect(Collectors.toList());
+    }
+}
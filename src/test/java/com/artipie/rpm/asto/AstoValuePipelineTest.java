@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.misc.UncheckedIOScalar;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Test for {@link AstoValuePipeline}.
+ * @since 1.10
+ */
+class AstoValuePipelineTest {
+
+    /**
+     * Test storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void init() {
+        this.storage = new InMemoryStorage();
+    }
+
+    @Test
+    void processesValueAndReturnsResult() {
+        final Key key = new Key.From("one");
+        this.storage.save(key, new Content.From("abc".getBytes(StandardCharsets.UTF_8))).join();
+        MatcherAssert.assertThat(
+            "Should return result",
+            new AstoValuePipeline<Integer>(this.storage, key).processWithResult(
+                (input, out) -> new UncheckedIOScalar<>(
+                    () -> {
+                        final byte[] bytes = IOUtils.toByteArray(input.get());
+                        out.write(
+                            new String(bytes, StandardCharsets.UTF_8).toUpperCase(Locale.US)
+                                .getBytes(StandardCharsets.UTF_8)
+                        );
+                        return bytes.length;
+                    }
+                ).value()
+            ).toCompletableFuture().join(),
+            new IsEqual<>(3)
+        );
+        MatcherAssert.assertThat(
+            "Should save the result",
+            new PublisherAs(this.storage.value(key).join()).asciiString()
+                .toCompletableFuture().join(),
+            new IsEqual<>("ABC")
+        );
+    }
+
+    @Test
+    void processesAbsentValue() {
+        final Key key = new Key.From("two");
+        new AstoValuePipeline<>(this.storage, new Key.From("absent"), key).process(
+            (input, out) -> new UncheckedIOScalar<>(
+                () -> {
+                    out.write(
+                        String.valueOf(input.isPresent()).getBytes(StandardCharsets.UTF_8)
+                    );
+                    return true;
+                }
+            ).value()
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new PublisherAs(this.storage.value(key).join()).asciiString()
+                .toCompletableFuture().join(),
+            new IsEqual<>("false")
+        );
+    }
+
+    @Test
+    void processesAbsentValueOnExecutor() {
+        final Key key = new Key.From("three");
+        final ExecutorService exec = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "pipeline-test")
+        );
+        new AstoValuePipeline<>(this.storage, new Key.From("absent"), key, exec).process(
+            (input, out) -> new UncheckedIOScalar<>(
+                () -> {
+                    out.write(Thread.currentThread().getName().getBytes(StandardCharsets.UTF_8));
+                    return true;
+                }
+            ).value()
+        ).toCompletableFuture().join();
+        exec.shutdown();
+        MatcherAssert.assertThat(
+            new PublisherAs(this.storage.value(key).join()).asciiString()
+                .toCompletableFuture().join(),
+            new IsEqual<>("pipeline-test")
+        );
+    }
+
+    @Test
+    @Timeout(60)
+    void processesLargeValuesConcurrently() {
+        final byte[] data = new byte[1024 * 1024];
+        new Random().nextBytes(data);
+        final Key[] keys = IntStream.range(0, 8)
+            .mapToObj(num -> new Key.From("big", String.valueOf(num)))
+            .toArray(Key[]::new);
+        Arrays.stream(keys).forEach(key -> this.storage.save(key, new Content.From(data)).join());
+        CompletableFuture.allOf(
+            Arrays.stream(keys).map(
+                key -> new AstoValuePipeline<>(this.storage, key).process(
+                    (input, out) -> new UncheckedIOScalar<>(
+                        () -> IOUtils.copy(input.get(), out)
+                    ).value()
+                ).toCompletableFuture()
+            ).toArray(CompletableFuture[]::new)
+        ).join();
+        MatcherAssert.assertThat(
+            Arrays.stream(keys).allMatch(
+                key -> Arrays.equals(
+                    new PublisherAs(this.storage.value(key).join()).bytes()
+                        .toCompletableFuture().join(),
+                    data
+                )
+            ),
+            new IsEqual<>(true)
+        );
+    }
+}
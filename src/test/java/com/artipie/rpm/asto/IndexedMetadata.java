@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.rpm.meta.XmlGzipIndex;
+import com.artipie.rpm.meta.XmlGzipMembers;
+import com.artipie.rpm.meta.XmlPackage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Saves test metadata compressed as gzip members along with seek indexes and repomd.xml.
+ * @since 1.10
+ */
+public final class IndexedMetadata {
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Ctor.
+     * @param storage Storage
+     */
+    public IndexedMetadata(final Storage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Saves metadata from gzipped test resources `{path}/{type}.xml.gz` to `repodata`.
+     * @param path Test resources path
+     * @param types Metadata types
+     * @throws IOException On error
+     */
+    public void save(final String path, final XmlPackage... types) throws IOException {
+        final StringBuilder repomd = new StringBuilder(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+        ).append("<repomd xmlns=\"http://linux.duke.edu/metadata/repo\">");
+        for (final XmlPackage type : types) {
+            final ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+            final XmlGzipIndex index = new XmlGzipMembers(type).compress(
+                new GZIPInputStream(
+                    new TestResource(String.format("%s/%s.xml.gz", path, type.lowercase()))
+                        .asInputStream()
+                ),
+                gzip
+            );
+            final String hex = DigestUtils.sha256Hex(gzip.toByteArray());
+            final String name = String.format("repodata/%s.xml.gz", type.lowercase());
+            this.storage.save(new Key.From(name), new Content.From(gzip.toByteArray())).join();
+            this.storage.save(
+                new Key.From(AstoGzipIndex.ROOT, type.lowercase(), hex),
+                new Content.From(index.bytes())
+            ).join();
+            repomd.append(String.format("<data type=\"%s\">", type.lowercase()))
+                .append(String.format("<checksum type=\"sha256\">%s</checksum>", hex))
+                .append(String.format("<location href=\"%s\"/>", name))
+                .append("</data>");
+        }
+        repomd.append("</repomd>");
+        this.storage.save(
+            new Key.From("repodata", "repomd.xml"),
+            new Content.From(repomd.toString().getBytes(StandardCharsets.UTF_8))
+        ).join();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.asto.test.TestResource;
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.JfrEvents;
+import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.http.RpmUpload;
+import com.artipie.rpm.meta.MergedXmlPrimary;
+import com.artipie.rpm.meta.XmlEventPrimary;
+import com.artipie.rpm.meta.XmlPrimaryMaid;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.stream.Stream;
+import jdk.jfr.consumer.RecordedEvent;
+import org.cactoos.list.ListOf;
+import org.hamcrest.Matcher;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.llorllale.cactoos.matchers.MatcherOf;
+
+/**
+ * Test for the flight recorder events, see {@link com.artipie.rpm.misc.JfrEvent}: each
+ * event is recorded once by the operation it describes and has the operation values.
+ * @since 1.10
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class JfrEventTest {
+
+    @ParameterizedTest
+    @MethodSource("events")
+    void recordsEvent(final String name, final JfrEvents.Action action,
+        final Matcher<RecordedEvent> values, @TempDir final Path temp) throws Exception {
+        MatcherAssert.assertThat(
+            new JfrEvents(name).during(temp, action),
+            Matchers.contains(values)
+        );
+    }
+
+    /**
+     * Events: name, operation, which records the event, and expected event values.
+     * @return Test arguments
+     * @throws Exception On error
+     */
+    @SuppressWarnings("PMD.UnusedPrivateMethod")
+    private static Stream<Arguments> events() throws Exception {
+        final Path rpm = new TestRpm.Time().path();
+        final long size = Files.size(rpm);
+        final Storage asto = new InMemoryStorage();
+        final Key xml = new Key.From("primary.xml");
+        asto.save(
+            xml, new Content.From("<metadata packages=\"0\"/>".getBytes(StandardCharsets.UTF_8))
+        ).join();
+        final Storage repo = new InMemoryStorage();
+        final String time = "time-1.7-45.el7.x86_64.rpm";
+        new TestResource(time).saveTo(repo, new Key.From(RpmUpload.TO_ADD, time));
+        return Stream.of(
+            Arguments.of(
+                "com.artipie.rpm.Parse",
+                (JfrEvents.Action) () -> new FilePackageHeader(rpm).header(),
+                new MatcherOf<RecordedEvent>(
+                    event -> event.getString("name").equals(rpm.getFileName().toString())
+                        && event.getLong("size") == size && event.getBoolean("valid")
+                )
+            ),
+            Arguments.of(
+                "com.artipie.rpm.Merge",
+                (JfrEvents.Action) () -> new MergedXmlPrimary(
+                    Optional.empty(), new ByteArrayOutputStream()
+                ).merge(
+                    new ListOf<>(
+                        new FilePackage.Headers(
+                            new FilePackageHeader(rpm).header(), rpm, Digest.SHA256,
+                            rpm.getFileName().toString()
+                        )
+                    ),
+                    new XmlEventPrimary()
+                ),
+                new MatcherOf<RecordedEvent>(
+                    event -> "primary".equals(event.getString("type"))
+                        && event.getInt("added") == 1 && event.getLong("count") == 1
+                )
+            ),
+            Arguments.of(
+                "com.artipie.rpm.Clean",
+                (JfrEvents.Action) () -> {
+                    final Path file = Files.createTempFile("primary", ".xml");
+                    try {
+                        Files.copy(
+                            new TestResource("repodata/primary.xml.example").asPath(), file,
+                            StandardCopyOption.REPLACE_EXISTING
+                        );
+                        new XmlPrimaryMaid(file).clean(
+                            new ListOf<>(
+                                "7eaefd1cb4f9740558da7f12f9cb5a6141a47f5d064a98d46c29959869af1a44"
+                            )
+                        );
+                    } finally {
+                        Files.delete(file);
+                    }
+                },
+                new MatcherOf<RecordedEvent>(
+                    event -> "primary".equals(event.getString("type"))
+                        && event.getInt("ids") == 1 && event.getLong("left") == 1
+                )
+            ),
+            Arguments.of(
+                "com.artipie.rpm.Gzip",
+                (JfrEvents.Action) () -> new AstoArchive(asto).gzip(xml)
+                    .toCompletableFuture().join(),
+                new MatcherOf<RecordedEvent>(
+                    event -> xml.string().equals(event.getString("key"))
+                        && event.getLong("read") == "<metadata packages=\"0\"/>".length()
+                        && event.getLong("written") == asto.size(xml).join()
+                )
+            ),
+            Arguments.of(
+                "com.artipie.rpm.Commit",
+                (JfrEvents.Action) () -> new AstoRepoAdd(repo, new RepoConfig.Simple()).perform()
+                    .toCompletableFuture().join(),
+                new MatcherOf<RecordedEvent>(
+                    event -> "add".equals(event.getString("operation"))
+                        && event.getInt("packages") == 1 && event.getBoolean("committed")
+                )
+            )
+        );
+    }
+}
@@ -7,12 +7,14 @@ package com.artipie.rpm.hm;
 import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.asto.blocking.BlockingStorage;
+import com.artipie.rpm.asto.AstoMetadataLocations;
 import com.artipie.rpm.files.Gzip;
 import com.artipie.rpm.meta.XmlPackage;
 import com.jcabi.xml.XMLDocument;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import org.cactoos.text.FormattedText;
 import org.hamcrest.Matcher;
@@ -22,8 +24,8 @@ import org.llorllale.cactoos.matchers.MatcherOf;
 /**
  * Storage has metadata matcher checks that metadata files primary.xml, other.xml and
  * filelists.xml (optional) are present in the storage and have information about expected
- * amount of rpm packages (see {@link NodeHasPkgCount}). Storage should contain gzipped metadata
- * files by {@code repodata} key, each metadata file should be met only once.
+ * amount of rpm packages (see {@link NodeHasPkgCount}). Gzipped metadata files are found by
+ * the locations from current {@code repodata/repomd.xml}, superseded files are ignored.
  * @since 0.11
  * @todo #311:30min Create proper unit test for this class (use metadata examples from test
  *  resources), do not forget to test mismatches descriptions.
@@ -74,11 +76,11 @@ public final class StorageHasMetadata extends AllOf<Storage> {
         final Storage storage, final Path temp, final XmlPackage pckg, final int expected
     ) throws Exception {
         final BlockingStorage bsto = new BlockingStorage(storage);
-        final List<Key> repodata = bsto.list(new Key.From("repodata")).stream()
-            .filter(key -> key.string().contains(pckg.lowercase())).collect(Collectors.toList());
+        final Optional<Key> repodata = new AstoMetadataLocations(storage).find(pckg)
+            .toCompletableFuture().join();
         final boolean res;
-        if (repodata.size() == 1) {
-            final Key meta = repodata.get(0);
+        if (repodata.isPresent()) {
+            final Key meta = repodata.get();
             final Path gzip = Files.createTempFile(temp, pckg.name(), "xml.gz");
             Files.write(gzip, bsto.value(meta));
             final Path xml = Files.createTempFile(temp, pckg.name(), "xml");
@@ -11,6 +11,7 @@ import com.artipie.asto.ext.ContentDigest;
 import com.artipie.asto.ext.PublisherAs;
 import com.artipie.rpm.Digest;
 import com.artipie.rpm.RepoConfig;
+import com.artipie.rpm.asto.AstoMetadataLocations;
 import com.artipie.rpm.meta.XmlPackage;
 import com.jcabi.xml.XMLDocument;
 import java.util.ArrayList;
@@ -80,9 +81,9 @@ public final class StorageHasRepoMd extends AllOf<Storage> {
      */
     private static boolean hasRecord(final Storage storage, final XmlPackage pckg,
         final Digest digest) {
-        final Optional<Content> repomd = storage.list(StorageHasRepoMd.BASE).join().stream()
-            .filter(item -> item.string().contains(pckg.lowercase())).findFirst()
-            .map(item -> storage.value(new Key.From(item)).join());
+        final Optional<Content> repomd = new AstoMetadataLocations(storage).find(pckg)
+            .toCompletableFuture().join()
+            .map(item -> storage.value(item).join());
         boolean res = false;
         if (repomd.isPresent()) {
             final String checksum = new ContentDigest(
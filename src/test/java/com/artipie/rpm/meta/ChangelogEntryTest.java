@@ -55,4 +55,24 @@ class ChangelogEntryTest {
             new IsEqual<>("- 0.1-2\n- Second artipie package")
         );
     }
+
+    @Test
+    @SuppressWarnings("PMD.UseUnderscoresInNumericLiterals")
+    void shouldParseSingleDigitDayWithWrongDayOfWeek() {
+        final int unixtime = 1588291200;
+        MatcherAssert.assertThat(
+            new ChangelogEntry(
+                "* Mon May 1 2020 Jane Doe <jane@artipie.org> - 0.1-1\n- First package"
+            ).date(),
+            new IsEqual<>(unixtime)
+        );
+    }
+
+    @Test
+    void shouldFailParseMalformedEntry() {
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> new ChangelogEntry("* Wed May 14 2020 John Doe no version")
+        );
+    }
 }
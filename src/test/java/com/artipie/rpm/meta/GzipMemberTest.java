@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link GzipMember}.
+ * @since 1.10
+ */
+class GzipMemberTest {
+
+    @Test
+    void writesGzip() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GzipMember gzip = new GzipMember(out)) {
+            gzip.write("<metadata packages=\"0\"/>".getBytes(StandardCharsets.UTF_8));
+            gzip.finish();
+        }
+        MatcherAssert.assertThat(
+            GzipMemberTest.unzip(out.toByteArray()),
+            new IsEqual<>("<metadata packages=\"0\"/>")
+        );
+    }
+
+    @Test
+    void reusesDeflatersForConsecutiveMembers() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final StringBuilder expected = new StringBuilder();
+        for (int idx = 0; idx < 5; idx = idx + 1) {
+            final String data = String.format("<package>%d</package>", idx);
+            try (GzipMember gzip = new GzipMember(out)) {
+                gzip.write(data.getBytes(StandardCharsets.UTF_8));
+                gzip.finish();
+            }
+            expected.append(data);
+        }
+        MatcherAssert.assertThat(
+            GzipMemberTest.unzip(out.toByteArray()),
+            new IsEqual<>(expected.toString())
+        );
+    }
+
+    @Test
+    void releasesDeflaterOfUnfinishedMember() throws IOException {
+        for (int idx = 0; idx < 5; idx = idx + 1) {
+            try (GzipMember gzip = new GzipMember(new ByteArrayOutputStream())) {
+                gzip.write("<unfinished/>".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GzipMember gzip = new GzipMember(out)) {
+            gzip.write("<package/>".getBytes(StandardCharsets.UTF_8));
+            gzip.finish();
+        }
+        MatcherAssert.assertThat(
+            "Released deflaters should not be reused",
+            GzipMemberTest.unzip(out.toByteArray()),
+            new IsEqual<>("<package/>")
+        );
+    }
+
+    /**
+     * Decompresses gzip.
+     * @param gzip Compressed bytes
+     * @return Decompressed string
+     * @throws IOException On error
+     */
+    private static String unzip(final byte[] gzip) throws IOException {
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return IOUtils.toString(input, StandardCharsets.UTF_8);
+        }
+    }
+}
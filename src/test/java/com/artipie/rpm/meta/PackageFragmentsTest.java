@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link PackageFragments}.
+ * @since 1.10
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+class PackageFragmentsTest {
+
+    /**
+     * Pool to render fragments on.
+     */
+    private ExecutorService pool;
+
+    @BeforeEach
+    void init() {
+        this.pool = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void stop() {
+        this.pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 10})
+    void rendersPrimaryAsSequentialMerge(final int window) throws IOException {
+        final Collection<Package.Meta> metas = PackageFragmentsTest.packages();
+        final ByteArrayOutputStream seq = new ByteArrayOutputStream();
+        new MergedXmlPrimary(Optional.empty(), seq).merge(metas, new XmlEventPrimary());
+        final ByteArrayOutputStream par = new ByteArrayOutputStream();
+        final MergedXml.Result res = new MergedXmlPrimary(Optional.empty(), par, this.pool, window)
+            .merge(metas, new XmlEventPrimary());
+        MatcherAssert.assertThat(
+            "Primary should be the same as sequentially merged",
+            par.toString(StandardCharsets.UTF_8.name()),
+            new IsEqual<>(seq.toString(StandardCharsets.UTF_8.name()))
+        );
+        MatcherAssert.assertThat(
+            "Packages count is incorrect",
+            res.count(),
+            new IsEqual<>((long) metas.size())
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 10})
+    void rendersOtherAsSequentialMerge(final int window) throws IOException {
+        PackageFragmentsTest.compare(XmlPackage.OTHER, new XmlEvent.Other(), this.pool, window);
+    }
+
+    @Test
+    void rendersFilelistsAsSequentialMerge() throws IOException {
+        PackageFragmentsTest.compare(
+            XmlPackage.FILELISTS, new XmlEvent.Filelists(), this.pool, 1
+        );
+    }
+
+    /**
+     * Compares sequential and parallel merge results.
+     * @param type Metadata type
+     * @param event Xml event
+     * @param pool Pool
+     * @param window Render window
+     * @throws IOException On error
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static void compare(final XmlPackage type, final XmlEvent event,
+        final Executor pool, final int window) throws IOException {
+        final Collection<Package.Meta> metas = PackageFragmentsTest.packages();
+        final MergedXml.Result primary = new MergedXml.Result(metas.size(), new ArrayList<>(0));
+        final ByteArrayOutputStream seq = new ByteArrayOutputStream();
+        new MergedXmlPackage(Optional.empty(), seq, type, primary).merge(metas, event);
+        final ByteArrayOutputStream par = new ByteArrayOutputStream();
+        new MergedXmlPackage(Optional.empty(), par, type, primary, pool, window)
+            .merge(metas, event);
+        MatcherAssert.assertThat(
+            String.format("%s should be the same as sequentially merged", type.name()),
+            par.toString(StandardCharsets.UTF_8.name()),
+            new IsEqual<>(seq.toString(StandardCharsets.UTF_8.name()))
+        );
+    }
+
+    /**
+     * Test packages.
+     * @return Packages metadata
+     * @throws IOException On error
+     */
+    private static Collection<Package.Meta> packages() throws IOException {
+        final Collection<Package.Meta> res = new ArrayList<>(4);
+        for (final TestRpm rpm : new ListOf<TestRpm>(
+            new TestRpm.Libdeflt(), new TestRpm.Time(), new TestRpm.Abc(), new TestRpm.Aspell()
+        )) {
+            res.add(
+                new FilePackage.Headers(
+                    new FilePackageHeader(rpm.path()).header(),
+                    rpm.path(), Digest.SHA256, rpm.path().getFileName().toString()
+                )
+            );
+        }
+        return res;
+    }
+}
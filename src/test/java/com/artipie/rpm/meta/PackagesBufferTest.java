@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Optional;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link PackagesBuffer}.
+ * @since 1.10
+ */
+class PackagesBufferTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 20_000, Long.MAX_VALUE})
+    void mergesBufferedPackagesAsParsed(final long budget) throws IOException {
+        final Collection<PackageRecords> metas = PackagesBufferTest.packages();
+        final Collection<PackageRecords> buffered = new ArrayList<>(metas.size());
+        final String primary;
+        final String other;
+        try (PackagesBuffer buffer = new PackagesBuffer(
+            budget, new ListOf<>(XmlPackage.PRIMARY, XmlPackage.OTHER), 0
+        )) {
+            for (final PackageRecords meta : metas) {
+                buffer.add(meta);
+            }
+            buffered.addAll(buffer.packages());
+            primary = PackagesBufferTest.primary(buffered);
+            other = PackagesBufferTest.other(buffered);
+        }
+        MatcherAssert.assertThat(
+            "Buffer should keep added packages",
+            buffered.size(),
+            new IsEqual<>(metas.size())
+        );
+        MatcherAssert.assertThat(
+            "Buffered packages should be rendered",
+            buffered,
+            Matchers.everyItem(Matchers.instanceOf(RenderedPackage.class))
+        );
+        MatcherAssert.assertThat(
+            "Primary should be the same as merged from parsed packages",
+            primary,
+            new IsEqual<>(PackagesBufferTest.primary(metas))
+        );
+        MatcherAssert.assertThat(
+            "Other should be the same as merged from parsed packages",
+            other,
+            new IsEqual<>(PackagesBufferTest.other(metas))
+        );
+    }
+
+    @Test
+    void keepsPackagesAsIsWithoutBudget() throws IOException {
+        final PackageRecords meta = PackagesBufferTest.packages().iterator().next();
+        try (PackagesBuffer buffer = new PackagesBuffer(0, new ListOf<>(XmlPackage.PRIMARY), 0)) {
+            MatcherAssert.assertThat(
+                buffer.add(meta),
+                new IsSame<>(meta)
+            );
+        }
+    }
+
+    /**
+     * Merges primary xml.
+     * @param metas Packages
+     * @return Primary xml
+     * @throws IOException On error
+     */
+    private static String primary(final Collection<PackageRecords> metas) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MergedXmlPrimary(Optional.empty(), out).mergeRecords(metas, new XmlEventPrimary());
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Merges other xml.
+     * @param metas Packages
+     * @return Other xml
+     * @throws IOException On error
+     */
+    private static String other(final Collection<PackageRecords> metas) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MergedXmlPackage(
+            Optional.empty(), out, XmlPackage.OTHER,
+            new MergedXml.Result(metas.size(), new ArrayList<>(0))
+        ).mergeRecords(metas, new XmlEvent.Other());
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Test packages.
+     * @return Packages metadata
+     * @throws IOException On error
+     */
+    private static Collection<PackageRecords> packages() throws IOException {
+        final Collection<PackageRecords> res = new ArrayList<>(3);
+        for (final TestRpm rpm : new ListOf<TestRpm>(
+            new TestRpm.Libdeflt(), new TestRpm.Time(), new TestRpm.Abc()
+        )) {
+            res.add(
+                new ParsedPackage(
+                    new FilePackage.Headers(
+                        new FilePackageHeader(rpm.path()).header(),
+                        rpm.path(), Digest.SHA256, rpm.path().getFileName().toString()
+                    )
+                )
+            );
+        }
+        return res;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.test.TestResource;
+import com.artipie.rpm.hm.IsXmlEqual;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link XmlChunkedMaid}.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class XmlChunkedMaidTest {
+
+    /**
+     * Pool to filter chunks on.
+     */
+    private ExecutorService pool;
+
+    @BeforeEach
+    void init() {
+        this.pool = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void stop() {
+        this.pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void clearsPrimaryByChecksum(final int size) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long res;
+        try (InputStream input = new TestResource("repodata/primary.xml.example").asInputStream()) {
+            res = new XmlChunkedMaid(input, out, XmlPackage.PRIMARY, this.pool, size, 4).clean(
+                new ListOf<>("7eaefd1cb4f9740558da7f12f9cb5a6141a47f5d064a98d46c29959869af1a44")
+            );
+        }
+        final String xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        MatcherAssert.assertThat(
+            "Second package should be kept",
+            xml,
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and count(*[local-name()='package'])=1]",
+                //@checkstyle LineLengthCheck (1 line)
+                "/*[local-name()='metadata']/*[local-name()='package']/*[local-name()='name' and text()='nginx']"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Valid packages count should be returned",
+            res,
+            new IsEqual<>(1L)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void clearsFilelistsByPkgid(final int size) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long res;
+        try (InputStream input =
+            new TestResource("repodata/filelists.xml.example").asInputStream()) {
+            res = new XmlChunkedMaid(input, out, XmlPackage.FILELISTS, this.pool, size, 4).clean(
+                new ListOf<>("54f1d9a1114fa85cd748174c57986004857b800fe9545fbf23af53f4791b31e2")
+            );
+        }
+        MatcherAssert.assertThat(
+            "Chunked filtering result should be the same as sequential",
+            new IsXmlEqual(out.toByteArray()).matches(
+                new TestResource("repodata/filelists.xml.example.first").asPath()
+            ),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Valid packages count should be returned",
+            res,
+            new IsEqual<>(1L)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2})
+    void keepsAllPackagesWhenNothingToRemove(final int size) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long res;
+        try (InputStream input = new TestResource("repodata/other.xml.example").asInputStream()) {
+            res = new XmlChunkedMaid(input, out, XmlPackage.OTHER, this.pool, size, 4)
+                .clean(new ListOf<>("abc123"));
+        }
+        MatcherAssert.assertThat(
+            "Xml should be the same",
+            new IsXmlEqual(out.toByteArray()).matches(
+                new TestResource("repodata/other.xml.example").asPath()
+            ),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "All packages should be counted",
+            res,
+            new IsEqual<>(2L)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 5000})
+    void copiesValidPackagesBytesAsIs(final int size) throws IOException {
+        final StringBuilder xml = new StringBuilder(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<otherdata packages=\"3000\">\n"
+        );
+        final StringBuilder expected = new StringBuilder(xml);
+        final List<String> ids = new ArrayList<>(1000);
+        for (int idx = 0; idx < 3000; idx = idx + 1) {
+            final String pkg = String.format(
+                "<package pkgid=\"id%d\" name=\"a&amp;b\">\n<version epoch=\"0\"/></package>\n",
+                idx
+            );
+            xml.append(pkg);
+            if (idx % 3 == 0) {
+                ids.add(String.format("id%d", idx));
+            } else {
+                expected.append(pkg);
+            }
+        }
+        xml.append("</otherdata>\n");
+        expected.append("</otherdata>\n");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long res = new XmlChunkedMaid(
+            new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8)),
+            out, XmlPackage.OTHER, this.pool, size, 4
+        ).clean(ids);
+        MatcherAssert.assertThat(
+            "Valid packages should be copied as is",
+            new String(out.toByteArray(), StandardCharsets.UTF_8),
+            new IsEqual<>(expected.toString())
+        );
+        MatcherAssert.assertThat(
+            "Valid packages count should be returned",
+            res,
+            new IsEqual<>(2000L)
+        );
+    }
+
+    @Test
+    void copiesMetadataWithoutPackages() throws IOException {
+        final String xml = "<?xml version=\"1.0\"?>\n<filelists packages=\"0\"/>\n";
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long res = new XmlChunkedMaid(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+            out, XmlPackage.FILELISTS, this.pool, 2, 4
+        ).clean(new ListOf<>("abc"));
+        MatcherAssert.assertThat(
+            "Xml should be copied as is",
+            new String(out.toByteArray(), StandardCharsets.UTF_8),
+            new IsEqual<>(xml)
+        );
+        MatcherAssert.assertThat(
+            "No packages should be counted",
+            res,
+            new IsEqual<>(0L)
+        );
+    }
+}
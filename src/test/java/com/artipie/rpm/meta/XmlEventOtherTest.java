@@ -6,19 +6,24 @@ package com.artipie.rpm.meta;
 
 import com.artipie.asto.test.TestResource;
 import com.artipie.rpm.Digest;
+import com.artipie.rpm.TestRpm;
 import com.artipie.rpm.hm.IsXmlEqual;
 import com.artipie.rpm.pkg.FilePackage;
 import com.artipie.rpm.pkg.FilePackageHeader;
 import com.fasterxml.aalto.stax.OutputFactoryImpl;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamException;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.StringContains;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.redline_rpm.header.Header;
 
 /**
  * Test for {@link XmlEvent.Other}.
@@ -34,29 +39,90 @@ class XmlEventOtherTest {
     Path tmp;
 
     @Test
-    void writesPackageInfo() throws XMLStreamException, IOException {
+    void writesPackageInfoAsCreaterepo() throws XMLStreamException, IOException {
         final Path res = Files.createTempFile(this.tmp, "others", ".xml");
         final Path file = new TestResource("abc-1.01-26.git20200127.fc32.ppc64le.rpm").asPath();
         try (OutputStream out = Files.newOutputStream(res)) {
             final XMLEventWriter writer = new OutputFactoryImpl().createXMLEventWriter(out);
-            new XmlEvent.Other().add(
+            new XmlEvent.Other(10).add(
                 writer,
                 new FilePackage.Headers(new FilePackageHeader(file).header(), file, Digest.SHA256)
             );
             writer.close();
         }
+        final String expected = new String(
+            new TestResource("repodata/abc-other.xml.example").asBytes(), StandardCharsets.UTF_8
+        );
         MatcherAssert.assertThat(
             res,
             new IsXmlEqual(
-                String.join(
-                    "\n",
-                    //@checkstyle LineLengthCheck (1 line)
-                    "<package pkgid=\"b9d10ae3485a5c5f71f0afb1eaf682bfbea4ea667cc3c3975057d6e3d8f2e905\" name=\"abc\" arch=\"ppc64le\">",
-                    "<version epoch=\"0\" ver=\"1.01\" rel=\"26.git20200127.fc32\"/>",
-                    "</package>"
+                expected.substring(
+                    expected.indexOf("<package "),
+                    expected.indexOf("</package>") + "</package>".length()
                 )
             )
         );
     }
 
+    @Test
+    void writesLimitedNumberOfChangelogEntries() throws XMLStreamException, IOException {
+        final String all = this.other(new XmlEvent.Other());
+        MatcherAssert.assertThat(
+            "Should write all changelog entries without limit",
+            XmlEventOtherTest.entries(all),
+            new IsEqual<>(XmlEventOtherTest.entries(this.other(new XmlEvent.Other(100))))
+        );
+        final String limited = this.other(new XmlEvent.Other(2));
+        MatcherAssert.assertThat(
+            "Should write two entries only",
+            XmlEventOtherTest.entries(limited),
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Should write the most recent entries",
+            all,
+            new StringContains(
+                limited.substring(
+                    limited.indexOf("<changelog "), limited.lastIndexOf("</changelog>")
+                )
+            )
+        );
+    }
+
+    @Test
+    void writesChangelogEntriesPresentInAllTags() throws XMLStreamException, IOException {
+        final Path res = Files.createTempFile(this.tmp, "others", ".xml");
+        final Path file = new TestRpm.Time().path();
+        final Header header = new FilePackageHeader(file).header();
+        header.createEntry(
+            Header.HeaderTag.CHANGELOGNAME, new String[] {"Someone <someone@example.com>"}
+        );
+        try (OutputStream out = Files.newOutputStream(res)) {
+            final XMLEventWriter writer = new OutputFactoryImpl().createXMLEventWriter(out);
+            new XmlEvent.Other().add(writer, new FilePackage.Headers(header, file, Digest.SHA256));
+            writer.close();
+        }
+        MatcherAssert.assertThat(
+            XmlEventOtherTest.entries(new String(Files.readAllBytes(res), StandardCharsets.UTF_8)),
+            new IsEqual<>(1)
+        );
+    }
+
+    private String other(final XmlEvent event) throws XMLStreamException, IOException {
+        final Path res = Files.createTempFile(this.tmp, "others", ".xml");
+        final Path file = new TestRpm.Time().path();
+        try (OutputStream out = Files.newOutputStream(res)) {
+            final XMLEventWriter writer = new OutputFactoryImpl().createXMLEventWriter(out);
+            event.add(
+                writer,
+                new FilePackage.Headers(new FilePackageHeader(file).header(), file, Digest.SHA256)
+            );
+            writer.close();
+        }
+        return new String(Files.readAllBytes(res), StandardCharsets.UTF_8);
+    }
+
+    private static int entries(final String xml) {
+        return xml.split("<changelog ", -1).length - 1;
+    }
 }
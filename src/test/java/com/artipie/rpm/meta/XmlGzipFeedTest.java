@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.test.TestResource;
+import io.reactivex.Flowable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import javax.xml.stream.XMLStreamReader;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test for {@link XmlGzipFeed}.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class XmlGzipFeedTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 1024, Integer.MAX_VALUE})
+    void readsPrimaryChecksumsByChunks(final int chunk) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(new TestResource("repodata/primary.xml.example").asBytes());
+        }
+        MatcherAssert.assertThat(
+            new XmlGzipFeed(XmlGzipFeedTest.chunks(out.toByteArray(), chunk), Runnable::run)
+                .read(new XmlPrimaryChecksums.Events()).toCompletableFuture().join(),
+            new IsEqual<>(
+                new XmlPrimaryChecksums(new TestResource("repodata/primary.xml.example").asPath())
+                    .read()
+            )
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 64})
+    void readsConcatenatedMembersWithOptionalHeaderFields(final int chunk) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final String[] parts = {
+            "<filelists packages=\"2\"><package pkgid=\"abc\" name=\"abc\">",
+            "</package><package pkgid=\"xyz\" name=\"xyz\"></package>",
+            "</filelists>",
+        };
+        for (final String part : parts) {
+            final GzipMember member = new GzipMember(
+                out,
+                new byte[] {
+                    0x1f, (byte) 0x8b, 8, 8 | 16, 0, 0, 0, 0, 0, 0,
+                    'f', 'l', 0, 'c', 0,
+                }
+            );
+            member.write(part.getBytes(StandardCharsets.UTF_8));
+            member.finish();
+        }
+        MatcherAssert.assertThat(
+            new XmlGzipFeed(XmlGzipFeedTest.chunks(out.toByteArray(), chunk), Runnable::run)
+                .read(new XmlPackageIds.Events()).toCompletableFuture().join(),
+            Matchers.containsInAnyOrder("abc", "xyz")
+        );
+    }
+
+    @Test
+    void failsOnTruncatedGzip() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(new TestResource("repodata/filelists.xml.example").asBytes());
+        }
+        final byte[] bytes = out.toByteArray();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new XmlGzipFeed(
+                XmlGzipFeedTest.chunks(Arrays.copyOf(bytes, bytes.length - 4), 16), Runnable::run
+            ).read(new XmlPackageIds.Events()).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(ZipException.class)
+        );
+    }
+
+    @Test
+    void failsOnWrongUncompressedSize() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(new TestResource("repodata/filelists.xml.example").asBytes());
+        }
+        final byte[] bytes = out.toByteArray();
+        bytes[bytes.length - 4] = (byte) (bytes[bytes.length - 4] + 1);
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> new XmlGzipFeed(XmlGzipFeedTest.chunks(bytes, 16), Runnable::run)
+                .read(new XmlPackageIds.Events()).toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(ZipException.class)
+        );
+    }
+
+    @Test
+    void parsesOnGivenExecutor() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(new TestResource("repodata/filelists.xml.example").asBytes());
+        }
+        final ExecutorService exec = Executors.newSingleThreadExecutor(
+            task -> new Thread(task, "xml-parse")
+        );
+        final List<String> threads = new ArrayList<>(0);
+        try {
+            new XmlGzipFeed(XmlGzipFeedTest.chunks(out.toByteArray(), 64), exec).read(
+                new XmlGzipFeed.Handler<Boolean>() {
+                    @Override
+                    public void accept(final XMLStreamReader reader) {
+                        threads.add(Thread.currentThread().getName());
+                    }
+
+                    @Override
+                    public Boolean result() {
+                        return true;
+                    }
+                }
+            ).toCompletableFuture().join();
+        } finally {
+            exec.shutdown();
+        }
+        MatcherAssert.assertThat(
+            threads,
+            Matchers.everyItem(new IsEqual<>("xml-parse"))
+        );
+    }
+
+    /**
+     * Splits bytes into chunks.
+     * @param bytes Bytes
+     * @param size Chunk size
+     * @return Publisher of the chunks
+     */
+    private static Flowable<ByteBuffer> chunks(final byte[] bytes, final int size) {
+        final List<ByteBuffer> res = new ArrayList<>(0);
+        for (int pos = 0; pos < bytes.length; pos = pos + Math.min(size, bytes.length - pos)) {
+            res.add(ByteBuffer.wrap(bytes, pos, Math.min(size, bytes.length - pos)).slice());
+        }
+        return Flowable.fromIterable(res);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link XmlGzipIndex}.
+ * @since 1.10
+ */
+class XmlGzipIndexTest {
+
+    /**
+     * Index text.
+     */
+    private static final String TEXT = String.join(
+        "\n",
+        "20 100",
+        "\tabc abc-1.0.rpm",
+        "\tdef def-2.0.rpm",
+        "120 50",
+        "\txyz ",
+        ""
+    );
+
+    @Test
+    void readsAndWritesIndex() {
+        MatcherAssert.assertThat(
+            new String(
+                new XmlGzipIndex(XmlGzipIndexTest.TEXT.getBytes(StandardCharsets.UTF_8)).bytes(),
+                StandardCharsets.UTF_8
+            ),
+            new IsEqual<>(XmlGzipIndexTest.TEXT)
+        );
+    }
+
+    @Test
+    void readsBlocks() {
+        final XmlGzipIndex.Block block = new XmlGzipIndex(
+            XmlGzipIndexTest.TEXT.getBytes(StandardCharsets.UTF_8)
+        ).blocks().get(1);
+        MatcherAssert.assertThat(
+            Arrays.asList(block.offset(), block.length(), (long) block.records().size()),
+            Matchers.contains(120L, 50L, 1L)
+        );
+    }
+
+    @Test
+    void countsPackages() {
+        MatcherAssert.assertThat(
+            new XmlGzipIndex(XmlGzipIndexTest.TEXT.getBytes(StandardCharsets.UTF_8)).count(),
+            new IsEqual<>(3L)
+        );
+    }
+
+    @Test
+    void findsChecksumsByLocations() {
+        MatcherAssert.assertThat(
+            new XmlGzipIndex(
+                new ListOf<>(
+                    new XmlGzipIndex.Block(
+                        0, 10,
+                        new ListOf<>(
+                            new AbstractMap.SimpleImmutableEntry<>("one", "a.rpm"),
+                            new AbstractMap.SimpleImmutableEntry<>("two", "b.rpm")
+                        )
+                    ),
+                    new XmlGzipIndex.Block(
+                        10, 10,
+                        Collections.singletonList(
+                            new AbstractMap.SimpleImmutableEntry<>("three", "c.rpm")
+                        )
+                    )
+                )
+            ).checksums(new HashSet<>(Arrays.asList("c.rpm", "a.rpm", "d.rpm"))),
+            Matchers.containsInAnyOrder("one", "three")
+        );
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.rpm.Digest;
+import com.artipie.rpm.FileChecksum;
+import com.artipie.rpm.TestRpm;
+import com.artipie.rpm.pkg.FilePackage;
+import com.artipie.rpm.pkg.FilePackageHeader;
+import com.artipie.rpm.pkg.Package;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link XmlGzipMembers}.
+ * @since 1.10
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class XmlGzipMembersTest {
+
+    @Test
+    void compressesAsGzipMembers() throws IOException {
+        final String xml = String.join(
+            "\n",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+            "<!-- other packages -->",
+            "<otherdata xmlns=\"http://linux.duke.edu/metadata/other\" packages=\"1\">",
+            "<package pkgid=\"abc\" name=\"abc\" arch=\"x86_64\"></package>",
+            "</otherdata>"
+        );
+        final byte[] gzip = XmlGzipMembersTest.compress(
+            XmlPackage.OTHER, String.format("%s\n\n", xml).getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            "Compressed metadata should be unpacked as is",
+            XmlGzipMembersTest.unpack(gzip),
+            new IsEqual<>(xml)
+        );
+        MatcherAssert.assertThat(
+            "Gzip members layout should be recognized",
+            XmlGzipMembers.layout(gzip),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void indexesPackagesRecords() throws IOException {
+        final XmlGzipIndex index = new XmlGzipMembers(XmlPackage.PRIMARY).compress(
+            new ByteArrayInputStream(XmlGzipMembersTest.primary()), new ByteArrayOutputStream()
+        );
+        MatcherAssert.assertThat(
+            "Packages should be indexed",
+            index.count(),
+            new IsEqual<>(2L)
+        );
+        MatcherAssert.assertThat(
+            "Package should be found by location",
+            index.checksums(
+                Collections.singleton(new TestRpm.Time().path().getFileName().toString())
+            ),
+            Matchers.contains(
+                new FileChecksum(new TestRpm.Time().path(), Digest.SHA256).hex()
+            )
+        );
+    }
+
+    @Test
+    void indexesPackagesByUnescapedLocation() throws IOException {
+        final String xml = String.join(
+            "\n",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+            "<metadata xmlns=\"http://linux.duke.edu/metadata/common\"",
+            " xmlns:rpm=\"http://linux.duke.edu/metadata/rpm\" packages=\"2\">",
+            "<package type=\"rpm\"><name>one</name>",
+            "<checksum type=\"sha256\" pkgid=\"YES\">abc</checksum>",
+            "<location href=\"one&amp;two.rpm\"/><format><rpm:license>MIT</rpm:license>",
+            "</format></package>",
+            "<package type=\"rpm\"><name>two</name>",
+            "<checksum type=\"sha256\" pkgid=\"YES\">\n  def\n</checksum>",
+            "<location href=\"two&#38;&lt;three&gt;.rpm\"/></package>",
+            "</metadata>"
+        );
+        MatcherAssert.assertThat(
+            new XmlGzipMembers(XmlPackage.PRIMARY).compress(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayOutputStream()
+            ).checksums(new HashSet<>(Arrays.asList("one&two.rpm", "two&<three>.rpm"))),
+            Matchers.containsInAnyOrder("abc", "def")
+        );
+    }
+
+    @Test
+    void appendsPackages() throws IOException {
+        final ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        final XmlGzipIndex index = new XmlGzipMembers(XmlPackage.PRIMARY).compress(
+            new ByteArrayInputStream(XmlGzipMembersTest.primary()), gzip
+        );
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        final XmlGzipIndex appended = new XmlGzipMembers(XmlPackage.PRIMARY).append(
+            new ByteArrayInputStream(gzip.toByteArray()), res,
+            Collections.singletonList(
+                new ParsedPackage(XmlGzipMembersTest.meta(new TestRpm.Abc()))
+            ),
+            index
+        );
+        MatcherAssert.assertThat(
+            "New package should be appended",
+            XmlGzipMembersTest.unpack(res.toByteArray()),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='3']",
+                "/*[local-name()='metadata' and count(*[local-name()='package'])=3]",
+                String.join(
+                    "",
+                    "/*[local-name()='metadata']/*[local-name()='package']",
+                    "/*[local-name()='name' and text()='abc']"
+                ),
+                String.join(
+                    "",
+                    "/*[local-name()='metadata']/*[local-name()='package']",
+                    "/*[local-name()='name' and text()='time']"
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Index should contain appended package",
+            appended.count(),
+            new IsEqual<>(3L)
+        );
+        XmlGzipMembersTest.checkBlocks(res.toByteArray(), appended);
+    }
+
+    @Test
+    void removesPackages() throws IOException {
+        final ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        final XmlGzipIndex index = new XmlGzipMembers(XmlPackage.PRIMARY).compress(
+            new ByteArrayInputStream(XmlGzipMembersTest.primary()), gzip
+        );
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        final XmlGzipIndex removed = new XmlGzipMembers(XmlPackage.PRIMARY).remove(
+            new ByteArrayInputStream(gzip.toByteArray()), res, index,
+            Collections.singleton(
+                new FileChecksum(new TestRpm.Time().path(), Digest.SHA256).hex()
+            )
+        );
+        MatcherAssert.assertThat(
+            "Package should be removed",
+            XmlGzipMembersTest.unpack(res.toByteArray()),
+            XhtmlMatchers.hasXPaths(
+                "/*[local-name()='metadata' and @packages='1']",
+                "/*[local-name()='metadata' and count(*[local-name()='package'])=1]",
+                String.join(
+                    "",
+                    "/*[local-name()='metadata']/*[local-name()='package']",
+                    "/*[local-name()='name' and text()='libdeflt1_0']"
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            "Index should not contain removed package",
+            removed.count(),
+            new IsEqual<>(1L)
+        );
+        XmlGzipMembersTest.checkBlocks(res.toByteArray(), removed);
+    }
+
+    @Test
+    void allowsToAppendWhileNotFragmented() throws IOException {
+        MatcherAssert.assertThat(
+            "Compactly compressed metadata should be appendable",
+            XmlGzipMembers.appendable(
+                new XmlGzipMembers(XmlPackage.PRIMARY).compress(
+                    new ByteArrayInputStream(XmlGzipMembersTest.primary()),
+                    new ByteArrayOutputStream()
+                )
+            ),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Fragmented metadata should not be appendable",
+            XmlGzipMembers.appendable(XmlGzipMembersTest.fragmented(18)),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void doesNotRecognizePlainGzip() throws IOException {
+        MatcherAssert.assertThat(
+            XmlGzipMembers.layout(XmlGzipMembersTest.gzip()),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void failsToAppendToPlainGzip() {
+        Assertions.assertThrows(
+            IOException.class,
+            () -> new XmlGzipMembers(XmlPackage.OTHER).append(
+                new ByteArrayInputStream(XmlGzipMembersTest.gzip()),
+                new ByteArrayOutputStream(), Collections.emptyList(),
+                new XmlGzipIndex(new ArrayList<>(0))
+            )
+        );
+    }
+
+    /**
+     * Checks that each block of the index is a separate gzip member with package records.
+     * @param gzip Compressed metadata
+     * @param index Seek index
+     * @throws IOException On error
+     */
+    private static void checkBlocks(final byte[] gzip, final XmlGzipIndex index)
+        throws IOException {
+        for (final XmlGzipIndex.Block block : index.blocks()) {
+            MatcherAssert.assertThat(
+                "Block should contain indexed records",
+                XmlGzipMembersTest.unpack(
+                    Arrays.copyOfRange(
+                        gzip, (int) block.offset(), (int) (block.offset() + block.length())
+                    )
+                ).split("</package>", -1).length - 1,
+                new IsEqual<>(block.records().size())
+            );
+        }
+    }
+
+    /**
+     * Index of the metadata with one package record in each block.
+     * @param blocks Number of blocks
+     * @return Seek index
+     */
+    private static XmlGzipIndex fragmented(final int blocks) {
+        final List<XmlGzipIndex.Block> res = new ArrayList<>(blocks);
+        for (int idx = 0; idx < blocks; idx = idx + 1) {
+            res.add(
+                new XmlGzipIndex.Block(
+                    idx, 1,
+                    Collections.singletonList(
+                        new AbstractMap.SimpleImmutableEntry<>(String.valueOf(idx), "")
+                    )
+                )
+            );
+        }
+        return new XmlGzipIndex(res);
+    }
+
+    private static byte[] primary() throws IOException {
+        final ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        new MergedXmlPrimary(Optional.empty(), xml).merge(
+            new ListOf<>(
+                XmlGzipMembersTest.meta(new TestRpm.Libdeflt()),
+                XmlGzipMembersTest.meta(new TestRpm.Time())
+            ),
+            new XmlEventPrimary()
+        );
+        return xml.toByteArray();
+    }
+
+    private static byte[] compress(final XmlPackage type, final byte[] xml) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        new XmlGzipMembers(type).compress(new ByteArrayInputStream(xml), res);
+        return res.toByteArray();
+    }
+
+    private static String unpack(final byte[] gzip) throws IOException {
+        return IOUtils.toString(
+            new GZIPInputStream(new ByteArrayInputStream(gzip)), StandardCharsets.UTF_8
+        );
+    }
+
+    private static byte[] gzip() throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzos = new GZIPOutputStream(res)) {
+            gzos.write(
+                "<otherdata packages=\"0\"></otherdata>".getBytes(StandardCharsets.UTF_8)
+            );
+        }
+        return res.toByteArray();
+    }
+
+    private static Package.Meta meta(final TestRpm rpm) throws IOException {
+        return new FilePackage.Headers(
+            new FilePackageHeader(rpm.path()).header(),
+            rpm.path(), Digest.SHA256, rpm.path().getFileName().toString()
+        );
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.test.TestResource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link XmlPackageIds}.
+ * @since 1.10
+ */
+class XmlPackageIdsTest {
+
+    @Test
+    void readsPackagesIds() {
+        MatcherAssert.assertThat(
+            new XmlPackageIds(
+                new TestResource("repodata/filelists.xml.example").asInputStream()
+            ).read(),
+            Matchers.containsInAnyOrder(
+                "7eaefd1cb4f9740558da7f12f9cb5a6141a47f5d064a98d46c29959869af1a44",
+                "54f1d9a1114fa85cd748174c57986004857b800fe9545fbf23af53f4791b31e2"
+            )
+        );
+    }
+
+    @Test
+    void readsEmptyXml() {
+        MatcherAssert.assertThat(
+            new XmlPackageIds(
+                new ByteArrayInputStream(
+                    "<otherdata packages=\"0\"></otherdata>".getBytes(StandardCharsets.UTF_8)
+                )
+            ).read(),
+            Matchers.empty()
+        );
+    }
+}
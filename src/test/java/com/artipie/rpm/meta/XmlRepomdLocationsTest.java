@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.meta;
+
+import com.artipie.asto.test.TestResource;
+import org.cactoos.map.MapEntry;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link XmlRepomdLocations}.
+ * @since 1.10
+ */
+class XmlRepomdLocationsTest {
+
+    @Test
+    void readsLocations() throws Exception {
+        MatcherAssert.assertThat(
+            new XmlRepomdLocations(
+                new TestResource("repodata/repomd.xml.example").asInputStream()
+            ).read().entrySet(),
+            Matchers.hasItem(
+                new MapEntry<>(
+                    "primary",
+                    // @checkstyle LineLengthCheck (1 line)
+                    "repodata/4539c03d91a99d1bb01a3b151dc6dee0129bc12708863b9d20bb3c97bba39453-primary.xml.gz"
+                )
+            )
+        );
+    }
+
+    @Test
+    void readsChecksums() throws Exception {
+        MatcherAssert.assertThat(
+            new XmlRepomdLocations(
+                new TestResource("repodata/repomd.xml.example").asInputStream()
+            ).checksums().entrySet(),
+            Matchers.hasItem(
+                new MapEntry<>(
+                    "primary",
+                    "4539c03d91a99d1bb01a3b151dc6dee0129bc12708863b9d20bb3c97bba39453"
+                )
+            )
+        );
+    }
+
+    @Test
+    void readsEntries() throws Exception {
+        MatcherAssert.assertThat(
+            new XmlRepomdLocations(
+                new TestResource("repodata/repomd.xml.example").asInputStream()
+            ).entries().get("primary"),
+            Matchers.allOf(
+                Matchers.hasEntry(
+                    "checksum", "4539c03d91a99d1bb01a3b151dc6dee0129bc12708863b9d20bb3c97bba39453"
+                ),
+                Matchers.hasEntry(
+                    "open-checksum",
+                    "7e19eabdf41d1707ea13ed3c9ec639751fb3fb4999c8f9504fe8ddca4f0ac656"
+                ),
+                Matchers.hasEntry(
+                    "location",
+                    // @checkstyle LineLengthCheck (1 line)
+                    "repodata/4539c03d91a99d1bb01a3b151dc6dee0129bc12708863b9d20bb3c97bba39453-primary.xml.gz"
+                ),
+                Matchers.hasEntry("size", "1742"),
+                Matchers.hasEntry("open-size", "6142")
+            )
+        );
+    }
+
+}
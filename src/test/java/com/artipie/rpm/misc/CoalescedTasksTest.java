@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link CoalescedTasks}.
+ * @since 1.10
+ */
+class CoalescedTasksTest {
+
+    /**
+     * Task owner.
+     */
+    private static final Object OWNER = new Object();
+
+    /**
+     * Tasks.
+     */
+    private CoalescedTasks tasks;
+
+    /**
+     * Started tasks results, tasks complete when results are completed.
+     */
+    private List<CompletableFuture<Void>> started;
+
+    @BeforeEach
+    void init() {
+        this.tasks = new CoalescedTasks();
+        this.started = new ArrayList<>(0);
+    }
+
+    @Test
+    void runsOneTaskAndKeepsOnePending() {
+        final CompletableFuture<Void> first = this.submit("repo");
+        final CompletableFuture<Void> second = this.submit("repo");
+        final CompletableFuture<Void> third = this.submit("repo");
+        MatcherAssert.assertThat(
+            "Only one task should be started",
+            this.started.size(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Submissions made while task is pending should share it",
+            third,
+            Matchers.sameInstance(second)
+        );
+        this.started.get(0).complete(null);
+        MatcherAssert.assertThat(
+            "Pending task should be started when running one completes",
+            this.started.size(),
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Running task result should be completed",
+            first.isDone() && !second.isDone(),
+            new IsEqual<>(true)
+        );
+        this.started.get(1).complete(null);
+        MatcherAssert.assertThat(
+            "Pending task result should be completed",
+            second.isDone(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Completed groups should be removed",
+            this.tasks.size(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void runsTasksOfDifferentTargetsConcurrently() {
+        this.submit("one");
+        this.submit("two");
+        MatcherAssert.assertThat(
+            this.started.size(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void startsPendingTaskWhenRunningOneFails() {
+        final CompletableFuture<Void> first = this.submit("repo");
+        final CompletableFuture<Void> second = this.submit("repo");
+        this.started.get(0).completeExceptionally(new IllegalStateException("failed"));
+        MatcherAssert.assertThat(
+            "Running task result should fail",
+            first.isCompletedExceptionally(),
+            new IsEqual<>(true)
+        );
+        this.started.get(1).complete(null);
+        MatcherAssert.assertThat(
+            "Pending task should be completed",
+            second.isDone() && !second.isCompletedExceptionally(),
+            new IsEqual<>(true)
+        );
+    }
+
+    /**
+     * Submits task, which completes when its result in {@link #started} is completed.
+     * @param target Task target
+     * @return Task result
+     */
+    private CompletableFuture<Void> submit(final String target) {
+        final Supplier<CompletionStage<Void>> task = () -> {
+            final CompletableFuture<Void> res = new CompletableFuture<>();
+            this.started.add(res);
+            return res;
+        };
+        return this.tasks.submit(CoalescedTasksTest.OWNER, target, task).toCompletableFuture();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link Delay}.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class DelayTest {
+
+    @Test
+    void completesAfterDelayOnExecutor() {
+        final ExecutorService exec = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "delay-test")
+        );
+        final long start = System.nanoTime();
+        final String thread = new Delay(Duration.ofMillis(50), exec).start()
+            .thenApply(nothing -> Thread.currentThread().getName())
+            .toCompletableFuture().join();
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        exec.shutdown();
+        MatcherAssert.assertThat(
+            "Delay should last at least delay time",
+            elapsed,
+            Matchers.greaterThanOrEqualTo(50L)
+        );
+        MatcherAssert.assertThat(
+            "Delay should be completed on the executor",
+            thread,
+            Matchers.equalTo("delay-test")
+        );
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LimitedExecutor}.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class LimitedExecutorTest {
+
+    @Test
+    void runsAtMostLimitTasksAtTheSameTime() throws InterruptedException {
+        final ExecutorService origin = Executors.newFixedThreadPool(8);
+        final LimitedExecutor exec = new LimitedExecutor(origin, 2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final AtomicInteger done = new AtomicInteger();
+        final List<CompletableFuture<Void>> tasks = IntStream.range(0, 20).mapToObj(
+            num -> CompletableFuture.runAsync(
+                () -> {
+                    max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(5);
+                    } catch (final InterruptedException err) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    done.incrementAndGet();
+                },
+                exec
+            )
+        ).collect(Collectors.toList());
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+        origin.shutdown();
+        MatcherAssert.assertThat(
+            "All tasks should be performed",
+            done.get(),
+            new IsEqual<>(20)
+        );
+        MatcherAssert.assertThat(
+            "No more than 2 tasks should run at the same time",
+            max.get(),
+            Matchers.lessThanOrEqualTo(2)
+        );
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT) Copyright (c) 2020-2021 artipie.com
+ * https://github.com/artipie/rpm-adapter/LICENSE.txt
+ */
+package com.artipie.rpm.misc;
+
+import com.artipie.asto.ArtipieIOException;
+import com.artipie.asto.Key;
+import com.artipie.asto.lock.Lock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link StripedLocks}.
+ * @since 1.10
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class StripedLocksTest {
+
+    /**
+     * Lock target.
+     */
+    private static final Key TARGET = new Key.From("repo");
+
+    /**
+     * Locks.
+     */
+    private StripedLocks locks;
+
+    @BeforeEach
+    void init() {
+        this.locks = new StripedLocks();
+    }
+
+    @Test
+    void failsToAcquireHeldLockWithoutTimeout() {
+        this.lock(Duration.ZERO).acquire().toCompletableFuture().join();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> this.lock(Duration.ZERO).acquire().toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(ArtipieIOException.class)
+        );
+    }
+
+    @Test
+    void grantsLockToWaitersInOrder() {
+        final Lock first = this.lock(Duration.ofMinutes(1));
+        final Lock second = this.lock(Duration.ofMinutes(1));
+        final Lock third = this.lock(Duration.ofMinutes(1));
+        first.acquire().toCompletableFuture().join();
+        final CompletableFuture<Void> scnd = second.acquire().toCompletableFuture();
+        final CompletableFuture<Void> thrd = third.acquire().toCompletableFuture();
+        first.release().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Second lock should be acquired, third should wait",
+            scnd.isDone() && !thrd.isDone(),
+            new IsEqual<>(true)
+        );
+        second.release().toCompletableFuture().join();
+        thrd.join();
+        third.release().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Stripe should be removed",
+            this.locks.size(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void failsOnTimeout() {
+        this.lock(Duration.ZERO).acquire().toCompletableFuture().join();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> this.lock(Duration.ofMillis(50)).acquire().toCompletableFuture().join()
+        );
+        MatcherAssert.assertThat(
+            err.getCause(),
+            new IsInstanceOf(ArtipieIOException.class)
+        );
+    }
+
+    @Test
+    void acquiresExpiredLock() {
+        this.locks.lock(
+            this, StripedLocksTest.TARGET, Optional.of(Instant.now().minusSeconds(1)),
+            Duration.ZERO
+        ).acquire().toCompletableFuture().join();
+        final CompletableFuture<Void> res =
+            this.lock(Duration.ZERO).acquire().toCompletableFuture();
+        res.join();
+        MatcherAssert.assertThat(
+            res.isCompletedExceptionally(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void doesNotShareLocksOfDifferentOwners() {
+        this.lock(Duration.ZERO).acquire().toCompletableFuture().join();
+        final CompletableFuture<Void> res = this.locks.lock(
+            new Object(), StripedLocksTest.TARGET, Optional.empty(), Duration.ZERO
+        ).acquire().toCompletableFuture();
+        res.join();
+        MatcherAssert.assertThat(
+            res.isCompletedExceptionally(),
+            new IsEqual<>(false)
+        );
+    }
+
+    private Lock lock(final Duration timeout) {
+        return this.locks.lock(this, StripedLocksTest.TARGET, Optional.empty(), timeout);
+    }
+}